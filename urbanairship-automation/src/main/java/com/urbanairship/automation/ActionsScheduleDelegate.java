@@ -14,8 +14,8 @@ import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.experiment.ExperimentResult;
 import com.urbanairship.json.JsonValue;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -29,7 +29,8 @@ import androidx.annotation.RestrictTo;
 class ActionsScheduleDelegate implements ScheduleDelegate<Actions> {
 
     private final ActionRunRequestFactory actionRunRequestFactory;
-    private final Map<String, Actions> actionsMap = new HashMap<>();
+    // Written by prepares that run concurrently
+    private final Map<String, Actions> actionsMap = new ConcurrentHashMap<>();
 
     ActionsScheduleDelegate(ActionRunRequestFactory actionRunRequestFactory) {
         this.actionRunRequestFactory = actionRunRequestFactory;
@@ -29,6 +29,7 @@ import com.urbanairship.automation.storage.AutomationDao;
 import com.urbanairship.automation.storage.AutomationDaoWrapper;
 import com.urbanairship.automation.storage.AutomationDatabase;
 import com.urbanairship.automation.storage.FullSchedule;
+import com.urbanairship.automation.storage.IndexedAutomationDao;
 import com.urbanairship.automation.storage.LegacyDataMigrator;
 import com.urbanairship.automation.storage.ScheduleEntity;
 import com.urbanairship.automation.storage.ScheduleState;
@@ -80,6 +81,18 @@ import androidx.core.util.Consumer;
 public class AutomationEngine {
 
     private long SCHEDULE_LIMIT = 1000;
+
+    /**
+     * Max time trigger progress is held in memory before it is written to the database.
+     */
+    @VisibleForTesting
+    static final long TRIGGER_FLUSH_DELAY_MS = 1000;
+
+    /**
+     * Max number of schedule IDs per query, to stay under the SQLite bound variable limit.
+     */
+    private static final int MAX_QUERY_IDS = 500;
+
     private final List<Integer> COMPOUND_TRIGGER_TYPES = Arrays.asList(Trigger.ACTIVE_SESSION, Trigger.VERSION);
 
     /**
@@ -123,7 +136,16 @@ public class AutomationEngine {
     private Subject<TriggerUpdate> stateObservableUpdates;
     private Subscription compoundTriggerSubscription;
     private Scheduler backgroundScheduler;
-    private final AutomationDao dao;
+    private final IndexedAutomationDao dao;
+    private boolean isTriggerFlushScheduled;
+
+    private final Runnable flushTriggersRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isTriggerFlushScheduled = false;
+            dao.flushPendingTriggers();
+        }
+    };
 
     private final ApplicationListener applicationListener = new ApplicationListener() {
         @Override
@@ -136,6 +158,7 @@ public class AutomationEngine {
         public void onBackground(long time) {
             AutomationEngine.this.onEventAdded(JsonValue.NULL, Trigger.LIFE_CYCLE_BACKGROUND, 1.00);
             checkPendingSchedules();
+            backgroundHandler.post(dao::flushPendingTriggers);
         }
     };
 
@@ -271,7 +294,7 @@ public class AutomationEngine {
         this.activityMonitor = activityMonitor;
         this.scheduler = scheduler;
         this.mainHandler = new Handler(Looper.getMainLooper());
-        this.dao = dao;
+        this.dao = new IndexedAutomationDao(dao);
         this.legacyDataMigrator = legacyDataMigrator;
         this.pausedManager = new PausedManager();
     }
@@ -650,43 +673,183 @@ public class AutomationEngine {
                     return;
                 }
 
-                applyEdits(entry, edits);
+                List<FullSchedule> expiredEntries = new ArrayList<>();
+                Long stateChangeTimeStamp = applyScheduleEdits(entry, edits, expiredEntries);
+                if (!expiredEntries.isEmpty()) {
+                    notifyExpiredSchedules(expiredEntries);
+                }
 
-                boolean subscribeForStateChanges = false;
-                long stateChangeTimeStamp = -1;
+                dao.update(entry);
 
-                boolean isOverLimit = isOverLimit(entry);
-                boolean isExpired = isExpired(entry);
+                if (stateChangeTimeStamp != null) {
+                    subscribeStateObservables(entry, stateChangeTimeStamp);
+                }
 
-                // Check if the schedule needs to be rehabilitated or finished due to the edits
-                if (entry.schedule.executionState == ScheduleState.FINISHED && !isOverLimit && !isExpired) {
-                    subscribeForStateChanges = true;
-                    stateChangeTimeStamp = entry.schedule.executionStateChangeDate;
-                    updateExecutionState(entry, ScheduleState.IDLE);
-                } else if (entry.schedule.executionState != ScheduleState.FINISHED && (isOverLimit || isExpired)) {
-                    updateExecutionState(entry, ScheduleState.FINISHED);
+                UALog.v("Updated schedule: %s", scheduleId);
+                pendingResult.setResult(true);
+            }
+        });
 
-                    if (isOverLimit) {
-                        notifyScheduleLimitReached(entry);
-                    } else {
-                        notifyExpiredSchedules(Collections.singleton(entry));
+        return pendingResult;
+    }
+
+    /**
+     * Edits multiple schedules. The updates are written in a single transaction.
+     *
+     * @param edits A map of schedule ID to schedule edits.
+     * @return Pending result with the IDs of the schedules that were edited.
+     */
+    @NonNull
+    public PendingResult<Collection<String>> editSchedules(@NonNull final Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+        final PendingResult<Collection<String>> pendingResult = new PendingResult<>();
+
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                List<String> scheduleIds = new ArrayList<>(edits.keySet());
+                List<FullSchedule> entries = new ArrayList<>();
+
+                for (int i = 0; i < scheduleIds.size(); i += MAX_QUERY_IDS) {
+                    List<String> chunk = scheduleIds.subList(i, Math.min(scheduleIds.size(), i + MAX_QUERY_IDS));
+                    entries.addAll(dao.getSchedules(chunk));
+                }
+
+                List<FullSchedule> expiredEntries = new ArrayList<>();
+                Map<String, Long> resubscribeTimeStamps = new HashMap<>();
+                List<String> editedIds = new ArrayList<>();
+
+                for (FullSchedule entry : entries) {
+                    ScheduleEdits<? extends ScheduleData> scheduleEdits = edits.get(entry.schedule.scheduleId);
+                    if (scheduleEdits == null) {
+                        continue;
+                    }
+
+                    Long stateChangeTimeStamp = applyScheduleEdits(entry, scheduleEdits, expiredEntries);
+                    if (stateChangeTimeStamp != null) {
+                        resubscribeTimeStamps.put(entry.schedule.scheduleId, stateChangeTimeStamp);
                     }
+                    editedIds.add(entry.schedule.scheduleId);
                 }
 
-                dao.update(entry);
+                if (editedIds.size() != edits.size()) {
+                    Set<String> missing = new HashSet<>(edits.keySet());
+                    missing.removeAll(editedIds);
+                    UALog.e("AutomationEngine - Schedules no longer exist. Unable to edit: %s", missing);
+                }
 
-                if (subscribeForStateChanges) {
-                    subscribeStateObservables(entry, stateChangeTimeStamp);
+                if (!expiredEntries.isEmpty()) {
+                    notifyExpiredSchedules(expiredEntries);
                 }
 
-                UALog.v("Updated schedule: %s", scheduleId);
-                pendingResult.setResult(true);
+                dao.updateSchedules(entries);
+
+                for (FullSchedule entry : entries) {
+                    Long stateChangeTimeStamp = resubscribeTimeStamps.get(entry.schedule.scheduleId);
+                    if (stateChangeTimeStamp != null) {
+                        subscribeStateObservables(entry, stateChangeTimeStamp);
+                    }
+                }
+
+                UALog.v("Updated schedules: %s", editedIds);
+                pendingResult.setResult(editedIds);
+            }
+        });
+
+        return pendingResult;
+    }
+
+    /**
+     * Applies edits to a schedule entry and rehabilitates or finishes the schedule if needed. Does
+     * not write the entry.
+     *
+     * @param entry The schedule entry.
+     * @param edits The schedule edits.
+     * @param expiredEntries Collects the entries that expired due to the edits.
+     * @return The state change timestamp to subscribe for state changes from if the schedule was
+     * rehabilitated, otherwise {@code null}.
+     */
+    @WorkerThread
+    @Nullable
+    private Long applyScheduleEdits(@NonNull FullSchedule entry,
+                                    @NonNull ScheduleEdits<? extends ScheduleData> edits,
+                                    @NonNull List<FullSchedule> expiredEntries) {
+        applyEdits(entry, edits);
+
+        boolean isOverLimit = isOverLimit(entry);
+        boolean isExpired = isExpired(entry);
+
+        // Check if the schedule needs to be rehabilitated or finished due to the edits
+        if (entry.schedule.executionState == ScheduleState.FINISHED && !isOverLimit && !isExpired) {
+            long stateChangeTimeStamp = entry.schedule.executionStateChangeDate;
+            updateExecutionState(entry, ScheduleState.IDLE);
+            return stateChangeTimeStamp;
+        } else if (entry.schedule.executionState != ScheduleState.FINISHED && (isOverLimit || isExpired)) {
+            updateExecutionState(entry, ScheduleState.FINISHED);
+
+            if (isOverLimit) {
+                notifyScheduleLimitReached(entry);
+            } else {
+                expiredEntries.add(entry);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the idle deferred schedules that are likely to trigger soon. These are schedules with an
+     * app init or foreground trigger. Other triggers are left out since their trigger event is
+     * sent with the deferred request.
+     *
+     * @return A pending result.
+     */
+    @NonNull
+    public PendingResult<Collection<Schedule<? extends ScheduleData>>> getDeferredSchedulesNearTrigger() {
+        final PendingResult<Collection<Schedule<? extends ScheduleData>>> pendingResult = new PendingResult<>();
+
+        backgroundHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                List<FullSchedule> entries = new ArrayList<>();
+
+                for (FullSchedule entry : dao.getSchedulesByType(Schedule.TYPE_DEFERRED)) {
+                    if (entry.schedule.executionState != ScheduleState.IDLE
+                            || entry.schedule.scheduleStart > now
+                            || isExpired(entry)
+                            || isOverLimit(entry)) {
+                        continue;
+                    }
+
+                    if (isNearTrigger(entry)) {
+                        entries.add(entry);
+                    }
+                }
+
+                pendingResult.setResult(convertSchedulesUnknownTypes(entries));
             }
         });
 
         return pendingResult;
     }
 
+    private static boolean isNearTrigger(@NonNull FullSchedule entry) {
+        for (TriggerEntity trigger : entry.triggers) {
+            if (trigger.isCancellation) {
+                continue;
+            }
+
+            // Only triggers whose context does not change the response
+            switch (trigger.triggerType) {
+                case Trigger.LIFE_CYCLE_APP_INIT:
+                case Trigger.LIFE_CYCLE_FOREGROUND:
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Triggers the engine to recheck all pending schedules.
      */
@@ -1086,7 +1249,7 @@ public class AutomationEngine {
             @Override
             public void run() {
                 UALog.d("Updating triggers with type: %s", type);
-                List<TriggerEntity> triggerEntities = dao.getActiveTriggers(type);
+                List<TriggerEntity> triggerEntities = dao.getActiveEventTriggers(type, json.toJsonValue());
                 if (triggerEntities.isEmpty()) {
                     return;
                 }
@@ -1140,6 +1303,7 @@ public class AutomationEngine {
                 }
 
                 dao.updateTriggers(triggersToUpdate);
+                scheduleTriggerFlush();
 
                 if (!cancelledSchedules.isEmpty()) {
                     handleCancelledSchedules(dao.getSchedules(cancelledSchedules));
@@ -1152,6 +1316,18 @@ public class AutomationEngine {
         });
     }
 
+    /**
+     * Schedules writing the pending trigger progress to the database, so progress from events
+     * that arrive close together is written in a single batch.
+     */
+    @WorkerThread
+    private void scheduleTriggerFlush() {
+        if (!isTriggerFlushScheduled) {
+            isTriggerFlushScheduled = true;
+            backgroundHandler.postDelayed(flushTriggersRunnable, TRIGGER_FLUSH_DELAY_MS);
+        }
+    }
+
     /**
      * Processes a list of cancelled schedule entries.
      *
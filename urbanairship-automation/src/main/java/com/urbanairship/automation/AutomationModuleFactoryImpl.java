@@ -10,6 +10,7 @@ import com.urbanairship.PrivacyManager;
 import com.urbanairship.analytics.Analytics;
 import com.urbanairship.audience.AudienceOverridesProvider;
 import com.urbanairship.audience.DeviceInfoProvider;
+import com.urbanairship.cache.AirshipCache;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.contacts.Contact;
@@ -52,11 +53,12 @@ public class AutomationModuleFactoryImpl implements AutomationModuleFactory {
                         @NonNull AirshipMeteredUsage meteredUsage,
                         @NonNull Contact contact,
                         @NonNull DeferredResolver deferredResolver,
-                        @NonNull LocaleManager localeManager) {
+                        @NonNull LocaleManager localeManager,
+                        @NonNull AirshipCache cache) {
 
         InAppAutomation inAppAutomation = new InAppAutomation(context, dataStore, runtimeConfig,
                 privacyManager, analytics, remoteData, airshipChannel, experimentManager,
-                infoProvider, meteredUsage, contact, deferredResolver, localeManager);
+                infoProvider, meteredUsage, contact, deferredResolver, localeManager, cache);
         LegacyInAppMessageManager legacyInAppMessageManager = new LegacyInAppMessageManager(context, dataStore, inAppAutomation, analytics, pushManager);
 
         Collection<AirshipComponent> components = Arrays.asList(inAppAutomation, legacyInAppMessageManager);
@@ -4,6 +4,7 @@ package com.urbanairship.automation;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
 import android.os.Looper;
 import android.text.TextUtils;
 
@@ -16,14 +17,19 @@ import com.urbanairship.PrivacyManager;
 import com.urbanairship.UALog;
 import com.urbanairship.UAirship;
 import com.urbanairship.analytics.Analytics;
+import com.urbanairship.app.ActivityMonitor;
+import com.urbanairship.app.ApplicationListener;
+import com.urbanairship.app.GlobalActivityMonitor;
 import com.urbanairship.audience.AudienceOverridesProvider;
 import com.urbanairship.audience.DeviceInfoProvider;
 import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.deferred.AutomationDeferredResult;
 import com.urbanairship.automation.deferred.Deferred;
+import com.urbanairship.automation.deferred.SpeculativeDeferredResolver;
 import com.urbanairship.automation.limits.FrequencyChecker;
 import com.urbanairship.automation.limits.FrequencyConstraint;
 import com.urbanairship.automation.limits.FrequencyLimitManager;
+import com.urbanairship.cache.AirshipCache;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.contacts.Contact;
@@ -36,6 +42,10 @@ import com.urbanairship.experiment.MessageInfo;
 import com.urbanairship.iam.InAppAutomationScheduler;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageManager;
+import com.urbanairship.iam.assets.AssetManager;
+import com.urbanairship.job.JobDispatcher;
+import com.urbanairship.job.JobInfo;
+import com.urbanairship.job.JobResult;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.locale.LocaleManager;
 import com.urbanairship.meteredusage.AirshipMeteredUsage;
@@ -49,9 +59,12 @@ import com.urbanairship.util.RetryingExecutor;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -74,6 +87,31 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
      */
     private final static String PAUSE_KEY = "com.urbanairship.iam.paused";
 
+    /**
+     * Preference key for the schedule IDs waiting for their assets to be prefetched.
+     */
+    private final static String PENDING_ASSET_PREFETCH_KEY = "com.urbanairship.iam.PENDING_ASSET_PREFETCH";
+
+    /**
+     * Job action to prefetch assets.
+     */
+    @VisibleForTesting
+    static final String ACTION_PREFETCH_ASSETS = "ACTION_PREFETCH_ASSETS";
+
+    /**
+     * Max number of schedules prepared at the same time. Schedules triggered together start
+     * preparing in priority order, but finish in whatever order their prepares complete, so a
+     * lower priority schedule can be ready to display first. Holding it back would stall it
+     * behind a higher priority prepare that keeps retrying.
+     */
+    private static final int MAX_CONCURRENT_PREPARES = 4;
+
+    /**
+     * Time after the app is foregrounded before deferred schedules are resolved speculatively.
+     */
+    @VisibleForTesting
+    static final long SPECULATIVE_RESOLVE_IDLE_DELAY_MS = 10000;
+
     // State
     private final InAppRemoteDataObserver remoteDataSubscriber;
     private final AirshipChannel airshipChannel;
@@ -87,18 +125,22 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
     private final AirshipMeteredUsage meteredUsage;
     private final DeferredResolver deferredResolver;
+    private final SpeculativeDeferredResolver speculativeResolver;
     private final LocaleManager localeManager;
 
     private final ActionsScheduleDelegate actionScheduleDelegate;
     private final InAppMessageScheduleDelegate inAppMessageScheduleDelegate;
 
-    private final Map<String, ScheduleDelegate<?>> scheduleDelegateMap = new HashMap<>();
-    private final Map<String, FrequencyChecker> frequencyCheckerMap = new HashMap<>();
-    private final Map<String, RemoteDataInfo> remoteDataInfoMap = new HashMap<>();
+    // Written by the prepare pipeline from multiple threads
+    private final Map<String, ScheduleDelegate<?>> scheduleDelegateMap = new ConcurrentHashMap<>();
+    private final Map<String, FrequencyChecker> frequencyCheckerMap = new ConcurrentHashMap<>();
+    private final Map<String, RemoteDataInfo> remoteDataInfoMap = new ConcurrentHashMap<>();
+    private final PrepareMetrics prepareMetrics = new PrepareMetrics();
 
     private final Map<String, Uri> redirectURLs = new HashMap<>();
 
     private final AtomicBoolean isStarted = new AtomicBoolean(false);
+    private final Object prefetchLock = new Object();
 
     private Cancelable subscription;
 
@@ -108,6 +150,30 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
     private final AirshipRuntimeConfig config;
     private final Clock clock;
     private final Executor backgroundExecutor;
+    private final JobDispatcher jobDispatcher;
+    private final ActivityMonitor activityMonitor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean isSpeculativeDeferredResolutionEnabled = false;
+
+    private final Runnable speculativeResolveRunnable = this::resolveDeferredSpeculatively;
+
+    private final ApplicationListener applicationListener = new ApplicationListener() {
+        @Override
+        public void onForeground(long milliseconds) {
+            mainHandler.removeCallbacks(speculativeResolveRunnable);
+            if (isSpeculativeDeferredResolutionEnabled) {
+                mainHandler.postDelayed(speculativeResolveRunnable, SPECULATIVE_RESOLVE_IDLE_DELAY_MS);
+            }
+        }
+
+        @Override
+        public void onBackground(long milliseconds) {
+            mainHandler.removeCallbacks(speculativeResolveRunnable);
+            if (isSpeculativeDeferredResolutionEnabled) {
+                resolveDeferredSpeculatively();
+            }
+        }
+    };
 
     private final AutomationDriver driver = new AutomationDriver() {
         @Override
@@ -140,8 +206,9 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
         @Override
         @NonNull
-        public PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits) {
-            return InAppAutomation.this.editSchedule(scheduleId, edits);
+        public PendingResult<Collection<String>> editSchedules(@NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+            ensureStarted();
+            return automationEngine.editSchedules(edits);
         }
 
         @NonNull
@@ -150,6 +217,11 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             return InAppAutomation.this.schedule(schedules);
         }
 
+        @Override
+        public void prefetchAssets(@NonNull Collection<String> scheduleIds) {
+            queueAssetPrefetch(scheduleIds);
+        }
+
         @Override
         public Future<Boolean> updateConstraints(@NonNull Collection<FrequencyConstraint> constraints) {
             return frequencyLimitManager.updateConstraints(constraints);
@@ -186,6 +258,7 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
      * @param contact The current contact.
      * @param deferredResolver The shared deferred resolver.
      * @param localeManager The airship locale manager.
+     * @param cache The airship cache.
      * @hide
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
@@ -201,14 +274,16 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
                            @NonNull AirshipMeteredUsage meteredUsage,
                            @NonNull Contact contact,
                            @NonNull DeferredResolver deferredResolver,
-                           @NonNull LocaleManager localeManager) {
+                           @NonNull LocaleManager localeManager,
+                           @NonNull AirshipCache cache) {
         super(context, preferenceDataStore);
         this.privacyManager = privacyManager;
         this.automationEngine = new AutomationEngine(context, runtimeConfig, analytics, preferenceDataStore);
         this.airshipChannel = airshipChannel;
         this.remoteDataSubscriber = new InAppRemoteDataObserver(context, preferenceDataStore, remoteData);
         this.inAppMessageManager = new InAppMessageManager(context, preferenceDataStore, analytics, automationEngine::checkPendingSchedules);
-        this.retryingExecutor = RetryingExecutor.newSerialExecutor(Looper.getMainLooper());
+        this.retryingExecutor = new RetryingExecutor(new Handler(Looper.getMainLooper()),
+                AirshipExecutors.newBoundedExecutor(MAX_CONCURRENT_PREPARES));
         this.actionScheduleDelegate = new ActionsScheduleDelegate();
         this.inAppMessageScheduleDelegate = new InAppMessageScheduleDelegate(inAppMessageManager);
         this.frequencyLimitManager = new FrequencyLimitManager(context, runtimeConfig);
@@ -218,8 +293,11 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.meteredUsage = meteredUsage;
         this.clock = Clock.DEFAULT_CLOCK;
         this.backgroundExecutor = AirshipExecutors.newSerialExecutor();
+        this.jobDispatcher = JobDispatcher.shared(context);
+        this.activityMonitor = GlobalActivityMonitor.shared(context);
         this.contact = contact;
         this.deferredResolver = deferredResolver;
+        this.speculativeResolver = new SpeculativeDeferredResolver(deferredResolver, cache);
         this.localeManager = localeManager;
     }
 
@@ -244,7 +322,9 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
                     @NonNull Executor executor,
                     @NonNull Contact contact,
                     @NonNull DeferredResolver deferredResolver,
-                    @NonNull LocaleManager localeManager) {
+                    @NonNull SpeculativeDeferredResolver speculativeResolver,
+                    @NonNull LocaleManager localeManager,
+                    @NonNull ActivityMonitor activityMonitor) {
 
         super(context, preferenceDataStore);
         this.privacyManager = privacyManager;
@@ -262,8 +342,11 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         this.meteredUsage = meteredUsage;
         this.clock = clock;
         this.backgroundExecutor = executor;
+        this.jobDispatcher = JobDispatcher.shared(context);
+        this.activityMonitor = activityMonitor;
         this.contact = contact;
         this.deferredResolver = deferredResolver;
+        this.speculativeResolver = speculativeResolver;
         this.localeManager = localeManager;
     }
 
@@ -333,9 +416,25 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         super.onAirshipReady(airship);
         inAppMessageManager.onAirshipReady();
         privacyManager.addListener(privacyManagerListener);
+        activityMonitor.addApplicationListener(applicationListener);
         checkUpdatesSubscription();
     }
 
+    /**
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    @WorkerThread
+    @Override
+    public JobResult onPerformJob(@NonNull UAirship airship, @NonNull JobInfo jobInfo) {
+        if (ACTION_PREFETCH_ASSETS.equals(jobInfo.getAction())) {
+            return onPrefetchAssets();
+        }
+
+        return JobResult.SUCCESS;
+    }
+
     @Override
     protected void tearDown() {
         super.tearDown();
@@ -346,6 +445,8 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         automationEngine.stop();
         isStarted.set(false);
         privacyManager.removeListener(privacyManagerListener);
+        activityMonitor.removeApplicationListener(applicationListener);
+        mainHandler.removeCallbacks(speculativeResolveRunnable);
     }
 
     /**
@@ -357,6 +458,93 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         updateEnginePauseState();
     }
 
+    /**
+     * Queues prefetching the assets of the given schedules in the background, so they are usually
+     * already cached when the schedule is prepared.
+     *
+     * @param scheduleIds The schedule IDs.
+     */
+    private void queueAssetPrefetch(@NonNull Collection<String> scheduleIds) {
+        AssetManager assetManager = inAppMessageManager.getAssetManager();
+        if (scheduleIds.isEmpty() || !assetManager.isPrefetchEnabled()) {
+            return;
+        }
+
+        synchronized (prefetchLock) {
+            Set<String> pending = getPendingAssetPrefetch();
+            pending.addAll(scheduleIds);
+            getDataStore().put(PENDING_ASSET_PREFETCH_KEY, JsonValue.wrapOpt(pending));
+        }
+
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(ACTION_PREFETCH_ASSETS)
+                                 .setAirshipComponent(InAppAutomation.class)
+                                 .setNetworkAccessRequired(true)
+                                 .setUnmeteredNetworkRequired(assetManager.isPrefetchUnmeteredNetworkRequired())
+                                 .setChargingRequired(assetManager.isPrefetchChargingRequired())
+                                 .setConflictStrategy(JobInfo.REPLACE)
+                                 .build();
+
+        jobDispatcher.dispatch(jobInfo);
+    }
+
+    @WorkerThread
+    @NonNull
+    private JobResult onPrefetchAssets() {
+        Set<String> pending;
+        synchronized (prefetchLock) {
+            pending = getPendingAssetPrefetch();
+        }
+
+        Set<String> finished = new HashSet<>();
+        for (String scheduleId : pending) {
+            Schedule<? extends ScheduleData> schedule;
+            try {
+                schedule = automationEngine.getSchedule(scheduleId).get();
+            } catch (Exception e) {
+                UALog.e(e, "Failed to get schedule %s", scheduleId);
+                return JobResult.RETRY;
+            }
+
+            if (schedule == null || !Schedule.TYPE_IN_APP_MESSAGE.equals(schedule.getType())) {
+                finished.add(scheduleId);
+                continue;
+            }
+
+            InAppMessage message = schedule.coerceType();
+            int result = inAppMessageManager.getAssetManager().onPrefetch(scheduleId, message);
+            if (result != AssetManager.PREPARE_RESULT_RETRY) {
+                finished.add(scheduleId);
+            }
+        }
+
+        boolean isFinished;
+        synchronized (prefetchLock) {
+            // Schedules queued while running stay pending
+            Set<String> remaining = getPendingAssetPrefetch();
+            remaining.removeAll(finished);
+            if (remaining.isEmpty()) {
+                getDataStore().remove(PENDING_ASSET_PREFETCH_KEY);
+            } else {
+                getDataStore().put(PENDING_ASSET_PREFETCH_KEY, JsonValue.wrapOpt(remaining));
+            }
+            isFinished = remaining.isEmpty();
+        }
+
+        return isFinished ? JobResult.SUCCESS : JobResult.RETRY;
+    }
+
+    @NonNull
+    private Set<String> getPendingAssetPrefetch() {
+        Set<String> scheduleIds = new HashSet<>();
+        for (JsonValue value : getDataStore().getJsonValue(PENDING_ASSET_PREFETCH_KEY).optList()) {
+            if (value.isString()) {
+                scheduleIds.add(value.optString());
+            }
+        }
+        return scheduleIds;
+    }
+
     /**
      * Gets the in-app message manager.
      *
@@ -543,6 +731,63 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
         return getDataStore().getBoolean(PAUSE_KEY, false);
     }
 
+    /**
+     * Enables or disables speculative resolution of deferred schedules. When enabled, deferred
+     * schedules that are about to trigger are resolved ahead of time while the app is idle, and the
+     * responses are reused for a short time when the schedules are prepared. Disabled by default.
+     *
+     * @param enabled {@code true} to enable speculative resolution, otherwise {@code false}.
+     */
+    public void setSpeculativeDeferredResolutionEnabled(boolean enabled) {
+        this.isSpeculativeDeferredResolutionEnabled = enabled;
+    }
+
+    /**
+     * Returns {@code true} if speculative resolution of deferred schedules is enabled.
+     *
+     * @return {@code true} if speculative resolution is enabled, otherwise {@code false}.
+     */
+    public boolean isSpeculativeDeferredResolutionEnabled() {
+        return isSpeculativeDeferredResolutionEnabled;
+    }
+
+    /**
+     * Resolves the deferred schedules that are about to trigger so the responses are cached by the
+     * time the schedules are prepared.
+     */
+    @VisibleForTesting
+    void resolveDeferredSpeculatively() {
+        if (!isStarted.get() || isPaused() || !privacyManager.isEnabled(PrivacyManager.FEATURE_IN_APP_AUTOMATION)) {
+            return;
+        }
+
+        final String channelId = airshipChannel.getId();
+        if (channelId == null) {
+            return;
+        }
+
+        automationEngine.getDeferredSchedulesNearTrigger().addResultCallback(schedules -> {
+            if (schedules == null || schedules.isEmpty()) {
+                return;
+            }
+
+            backgroundExecutor.execute(() -> {
+                for (Schedule<? extends ScheduleData> schedule : schedules) {
+                    if (!remoteDataSubscriber.isScheduleValid(schedule)) {
+                        continue;
+                    }
+
+                    try {
+                        Deferred scheduleData = schedule.coerceType();
+                        speculativeResolver.prefetch(makeDeferredRequest(scheduleData, channelId, null));
+                    } catch (Exception e) {
+                        UALog.e(e, "Failed to resolve deferred schedule %s speculatively", schedule.getId());
+                    }
+                }
+            });
+        });
+    }
+
     /**
      * Enables or disables automations.
      *
@@ -668,15 +913,42 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
             return RetryingExecutor.finishedResult();
         };
 
+        // Each stage is submitted once the previous one finishes, so stages of a schedule run in
+        // order while stages of different schedules run concurrently.
         RetryingExecutor.Operation[] operations = new RetryingExecutor.Operation[] {
-                checkValid,
-                frequencyChecks,
-                audienceChecks,
-                evaluateExperiments,
-                prepareSchedule };
+                timed(PrepareMetrics.STAGE_CHECK_VALID, schedule, checkValid),
+                timed(PrepareMetrics.STAGE_FREQUENCY_CHECKS, schedule, frequencyChecks),
+                timed(PrepareMetrics.STAGE_AUDIENCE_CHECKS, schedule, audienceChecks),
+                timed(PrepareMetrics.STAGE_EXPERIMENTS, schedule, evaluateExperiments),
+                timed(PrepareMetrics.STAGE_PREPARE, schedule, prepareSchedule) };
         retryingExecutor.execute(operations);
     }
 
+    @NonNull
+    private RetryingExecutor.Operation timed(@NonNull final String stage,
+                                             @NonNull final Schedule<? extends ScheduleData> schedule,
+                                             @NonNull final RetryingExecutor.Operation operation) {
+        return () -> {
+            long start = clock.elapsedRealtime();
+            RetryingExecutor.Result result = operation.run();
+            long duration = clock.elapsedRealtime() - start;
+            prepareMetrics.record(stage, duration);
+            UALog.v("Prepare stage %s for schedule %s took %s ms", stage, schedule.getId(), duration);
+            return result;
+        };
+    }
+
+    /**
+     * Gets the prepare pipeline stage metrics.
+     *
+     * @return The prepare metrics.
+     */
+    @VisibleForTesting
+    @NonNull
+    PrepareMetrics getPrepareMetrics() {
+        return prepareMetrics;
+    }
+
     private @Nullable ExperimentResult evaluateExperiments(
             final @NonNull Schedule<? extends ScheduleData> schedule ) throws ExecutionException, InterruptedException {
 
@@ -732,8 +1004,12 @@ public class InAppAutomation extends AirshipComponent implements InAppAutomation
 
         try {
             DeferredRequest request = makeDeferredRequest(scheduleData, channelId, triggerContext);
-            result = deferredResolver
-                    .resolveAsPendingResult(request, AutomationDeferredResult::parse).get();
+            if (isSpeculativeDeferredResolutionEnabled) {
+                result = speculativeResolver.resolveAsPendingResult(request).get();
+            } else {
+                result = deferredResolver
+                        .resolveAsPendingResult(request, AutomationDeferredResult::parse).get();
+            }
 
         } catch (Exception ex) {
             UALog.e(ex, "Failed to resolve deferred");
@@ -29,8 +29,11 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -112,14 +115,27 @@ class InAppRemoteDataObserver {
         @NonNull
         PendingResult<Collection<Schedule<? extends ScheduleData>>> getSchedules();
 
+        /**
+         * Edits schedules in bulk.
+         *
+         * @param edits A map of schedule ID to schedule edits.
+         * @return Pending result with the IDs of the edited schedules.
+         */
         @NonNull
-        PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits);
+        PendingResult<Collection<String>> editSchedules(@NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits);
 
         @NonNull
         PendingResult<Boolean> schedule(@NonNull List<Schedule<? extends ScheduleData>> schedules);
 
         Future<Boolean> updateConstraints(@NonNull Collection<FrequencyConstraint> constraints);
 
+        /**
+         * Called with the IDs of new or updated in-app message schedules.
+         *
+         * @param scheduleIds The schedule IDs.
+         */
+        void prefetchAssets(@NonNull Collection<String> scheduleIds);
+
     }
 
     InAppRemoteDataObserver(
@@ -262,6 +278,8 @@ class InAppRemoteDataObserver {
 
         List<Schedule<? extends ScheduleData>> newSchedules = new ArrayList<>();
         List<String> incomingScheduleIds = new ArrayList<>();
+        List<String> updatedMessageIds = new ArrayList<>();
+        Map<String, ScheduleEdits<? extends ScheduleData>> scheduleEdits = new LinkedHashMap<>();
         Set<String> scheduledRemoteIds = filterRemoteSchedules(delegate.getSchedules().get(), source);
         Collection<FrequencyConstraint> constraints = parseConstraints(payload.getData().opt(CONSTRAINTS_JSON_KEY).optList());
 
@@ -299,10 +317,7 @@ class InAppRemoteDataObserver {
             if (scheduledRemoteIds.contains(scheduleId)) {
                 try {
                     ScheduleEdits<?> edits = parseEdits(messageJson, scheduleMetadata, createdTimeStamp);
-                    Boolean edited = delegate.editSchedule(scheduleId, edits).get();
-                    if (edited != null && edited) {
-                        UALog.d("Updated in-app automation: %s with edits: %s", scheduleId, edits);
-                    }
+                    scheduleEdits.put(scheduleId, edits);
                 } catch (JsonException e) {
                     UALog.e(e, "Failed to parse in-app automation edits: %s", scheduleId);
                 }
@@ -320,9 +335,35 @@ class InAppRemoteDataObserver {
             }
         }
 
+        // Update existing in-app messages
+        if (!scheduleEdits.isEmpty()) {
+            Collection<String> edited = delegate.editSchedules(scheduleEdits).get();
+            if (edited != null) {
+                for (String scheduleId : edited) {
+                    ScheduleEdits<?> edits = scheduleEdits.get(scheduleId);
+                    UALog.d("Updated in-app automation: %s with edits: %s", scheduleId, edits);
+                    if (edits != null && edits.getData() instanceof InAppMessage) {
+                        updatedMessageIds.add(scheduleId);
+                    }
+                }
+            }
+        }
+
         // Schedule new in-app messages
         if (!newSchedules.isEmpty()) {
-            delegate.schedule(newSchedules).get();
+            Boolean scheduled = delegate.schedule(newSchedules).get();
+            if (scheduled != null && scheduled) {
+                for (Schedule<? extends ScheduleData> schedule : newSchedules) {
+                    if (Schedule.TYPE_IN_APP_MESSAGE.equals(schedule.getType())) {
+                        updatedMessageIds.add(schedule.getId());
+                    }
+                }
+            }
+        }
+
+        // Fetch the assets of new and updated messages ahead of time
+        if (!updatedMessageIds.isEmpty()) {
+            delegate.prefetchAssets(updatedMessageIds);
         }
 
         // End any messages that are no longer in the listing
@@ -340,9 +381,7 @@ class InAppRemoteDataObserver {
                                                                        .setEnd(payload.getTimestamp())
                                                                        .build();
 
-            for (String scheduleId : schedulesToRemove) {
-                delegate.editSchedule(scheduleId, edits).get();
-            }
+            delegate.editSchedules(editsForAll(schedulesToRemove, edits)).get();
         }
 
         return true;
@@ -360,9 +399,17 @@ class InAppRemoteDataObserver {
                                                                    .setEnd(time)
                                                                    .build();
 
-        for (String scheduleId : scheduledRemoteIds) {
-            delegate.editSchedule(scheduleId, edits).get();
+        delegate.editSchedules(editsForAll(scheduledRemoteIds, edits)).get();
+    }
+
+    @NonNull
+    private static Map<String, ScheduleEdits<? extends ScheduleData>> editsForAll(@NonNull Collection<String> scheduleIds,
+                                                                              @NonNull ScheduleEdits<? extends ScheduleData> edits) {
+        Map<String, ScheduleEdits<? extends ScheduleData>> result = new HashMap<>();
+        for (String scheduleId : scheduleIds) {
+            result.put(scheduleId, edits);
         }
+        return result;
     }
 
     @NonNull
@@ -0,0 +1,83 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Collects the timing of each stage of the schedule prepare pipeline. Thread safe.
+ */
+class PrepareMetrics {
+
+    static final String STAGE_CHECK_VALID = "check_valid";
+    static final String STAGE_FREQUENCY_CHECKS = "frequency_checks";
+    static final String STAGE_AUDIENCE_CHECKS = "audience_checks";
+    static final String STAGE_EXPERIMENTS = "experiments";
+    static final String STAGE_PREPARE = "prepare";
+
+    private final Map<String, Stats> stats = new HashMap<>();
+
+    /**
+     * Records a stage run.
+     *
+     * @param stage The stage.
+     * @param durationMillis How long the stage took in milliseconds.
+     */
+    void record(@NonNull String stage, long durationMillis) {
+        synchronized (stats) {
+            Stats current = stats.get(stage);
+            if (current == null) {
+                stats.put(stage, new Stats(1, durationMillis, durationMillis));
+            } else {
+                stats.put(stage, new Stats(current.count + 1,
+                        current.totalMillis + durationMillis,
+                        Math.max(current.maxMillis, durationMillis)));
+            }
+        }
+    }
+
+    /**
+     * Gets the stats for a stage.
+     *
+     * @param stage The stage.
+     * @return The stats, or {@code null} if the stage has not run yet.
+     */
+    @Nullable
+    Stats getStats(@NonNull String stage) {
+        synchronized (stats) {
+            return stats.get(stage);
+        }
+    }
+
+    /**
+     * Timing stats of a stage.
+     */
+    static final class Stats {
+
+        final int count;
+        final long totalMillis;
+        final long maxMillis;
+
+        Stats(int count, long totalMillis, long maxMillis) {
+            this.count = count;
+            this.totalMillis = totalMillis;
+            this.maxMillis = maxMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "count=" + count +
+                    ", totalMillis=" + totalMillis +
+                    ", maxMillis=" + maxMillis +
+                    '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.urbanairship.automation.deferred
+
+import androidx.annotation.RestrictTo
+import com.urbanairship.AirshipDispatchers
+import com.urbanairship.PendingResult
+import com.urbanairship.UALog
+import com.urbanairship.annotation.OpenForTesting
+import com.urbanairship.cache.AirshipCache
+import com.urbanairship.deferred.DeferredRequest
+import com.urbanairship.deferred.DeferredResolver
+import com.urbanairship.deferred.DeferredResult
+import com.urbanairship.json.JsonValue
+import com.urbanairship.json.jsonMapOf
+import com.urbanairship.util.UAStringUtil
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+
+/**
+ * Resolves deferred schedules ahead of their trigger and caches the responses for a short time,
+ * so preparing the schedule once it triggers does not have to wait on the network.
+ *
+ * Responses are keyed by the URL, channel, contact, state overrides and pending audience overrides
+ * of the request. The trigger context is not part of the key, so cached responses are only used for
+ * app init and foreground triggers, whose events do not change the response.
+ *
+ * @hide
+ */
+@OpenForTesting
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class SpeculativeDeferredResolver @JvmOverloads constructor(
+    private val resolver: DeferredResolver,
+    private val cache: AirshipCache,
+    private val ttlMs: Long = DEFAULT_TTL_MS,
+    dispatcher: CoroutineDispatcher = AirshipDispatchers.IO
+) {
+
+    private val scope = CoroutineScope(dispatcher + SupervisorJob())
+
+    /**
+     * Resolves the request and caches the response if it succeeds.
+     *
+     * @param request The deferred request.
+     * @return A pending result with `true` if a response was cached, otherwise `false`.
+     */
+    public fun prefetch(request: DeferredRequest): PendingResult<Boolean> {
+        val result = PendingResult<Boolean>()
+        if (!isCacheable(request)) {
+            result.result = false
+            return result
+        }
+
+        scope.launch {
+            result.result = try {
+                val key = cacheKey(request)
+                if (cache.getCached(key) { it } != null) {
+                    true
+                } else {
+                    when (val response = resolver.resolve(request) { it }) {
+                        is DeferredResult.Success<JsonValue> -> {
+                            cache.store(response.result, key, ttlMs.toULong())
+                            true
+                        }
+                        else -> false
+                    }
+                }
+            } catch (ex: Exception) {
+                UALog.e(ex) { "Failed to prefetch deferred: ${request.uri}" }
+                false
+            }
+        }
+        return result
+    }
+
+    /**
+     * Resolves the request, using a cached response if one is still valid.
+     *
+     * @param request The deferred request.
+     * @return A pending result with the deferred result.
+     */
+    public fun resolveAsPendingResult(request: DeferredRequest): PendingResult<DeferredResult<AutomationDeferredResult>> {
+        val result = PendingResult<DeferredResult<AutomationDeferredResult>>()
+        scope.launch {
+            val cached = try {
+                if (isCacheable(request)) {
+                    cache.getCached(cacheKey(request), AutomationDeferredResult::parse)
+                } else {
+                    null
+                }
+            } catch (ex: Exception) {
+                UALog.e(ex) { "Failed to read cached deferred: ${request.uri}" }
+                null
+            }
+
+            result.result = if (cached != null) {
+                UALog.v { "Using prefetched deferred response: ${request.uri}" }
+                DeferredResult.Success(cached)
+            } else {
+                resolver.resolve(request, AutomationDeferredResult::parse)
+            }
+        }
+        return result
+    }
+
+    private fun isCacheable(request: DeferredRequest): Boolean {
+        val type = request.triggerContext?.type ?: return true
+        return CACHEABLE_TRIGGER_TYPES.contains(type)
+    }
+
+    private suspend fun cacheKey(request: DeferredRequest): String {
+        // Pending tag and attribute edits are sent with the request and can change the response
+        val overrides = resolver.audienceOverrides(request)
+        val overridesJson = jsonMapOf(
+            "tags" to overrides.tags,
+            "attributes" to overrides.attributes,
+            "subscriptions" to overrides.subscriptions
+        ).toString()
+        val overridesHash = UAStringUtil.sha256(overridesJson) ?: overridesJson
+
+        return listOf(
+            CACHE_KEY_PREFIX,
+            request.uri.toString(),
+            request.channelID,
+            request.contactID ?: "",
+            request.appVersion,
+            request.sdkVersion,
+            request.notificationOptIn.toString(),
+            request.locale.toString(),
+            overridesHash
+        ).joinToString(":")
+    }
+
+    private companion object {
+        private const val CACHE_KEY_PREFIX = "speculative_deferred"
+        private const val DEFAULT_TTL_MS: Long = 300000 // 5 minutes
+        private val CACHEABLE_TRIGGER_TYPES = setOf("app_init", "foreground")
+    }
+}
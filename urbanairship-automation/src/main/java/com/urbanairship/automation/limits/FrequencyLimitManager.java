@@ -19,11 +19,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
@@ -41,10 +38,11 @@ import androidx.annotation.VisibleForTesting;
 public class FrequencyLimitManager {
 
     /*
-     * A frequency checker will have a strong reference to the list of constraints entities. Once
-     * the checker is cleaned up this should remove the values from the map.
+     * Occurrence histories by constraint Id, shared across checkers. Each history only keeps the
+     * most recent occurrences for the constraint's count. Entries are removed when the constraint
+     * is updated or removed.
      */
-    private final Map<ConstraintEntity, List<OccurrenceEntity>> occurrencesMap = new WeakHashMap<>();
+    private final Map<String, OccurrenceHistory> historyCache = new HashMap<>();
 
     /*
      * List of pending occurrences to write to the database.
@@ -83,7 +81,7 @@ public class FrequencyLimitManager {
             @Override
             public void run() {
                 try {
-                    final Collection<ConstraintEntity> constraints = fetchConstraints(constraintIds);
+                    final Map<ConstraintEntity, OccurrenceHistory> constraints = fetchConstraints(constraintIds);
                     FrequencyChecker checker = new FrequencyChecker() {
                         @Override
                         public boolean isOverLimit() {
@@ -135,8 +133,12 @@ public class FrequencyLimitManager {
                             if (existing.range != entity.range) {
                                 dao.delete(existing);
                                 dao.insert(entity);
+                                removeCachedHistory(existing.constraintId);
                             } else {
                                 dao.update(entity);
+                                if (existing.count != entity.count) {
+                                    removeCachedHistory(existing.constraintId);
+                                }
                             }
                         } else {
                             dao.insert(entity);
@@ -144,6 +146,9 @@ public class FrequencyLimitManager {
                     }
 
                     dao.delete(constraintEntityMap.keySet());
+                    for (String constraintId : constraintEntityMap.keySet()) {
+                        removeCachedHistory(constraintId);
+                    }
                     pendingResult.setResult(true);
                 } catch (Exception e) {
                     UALog.e(e, "Failed to update constraints");
@@ -155,7 +160,7 @@ public class FrequencyLimitManager {
         return pendingResult;
     }
 
-    private boolean checkAndIncrement(@NonNull Collection<ConstraintEntity> constraints) {
+    private boolean checkAndIncrement(@NonNull Map<ConstraintEntity, OccurrenceHistory> constraints) {
         if (constraints.isEmpty()) {
             return true;
         }
@@ -164,19 +169,19 @@ public class FrequencyLimitManager {
             if (isOverLimit(constraints)) {
                 return false;
             }
-            recordOccurrence(getConstraintIds(constraints));
+            recordOccurrence(constraints);
             return true;
         }
     }
 
-    private boolean isOverLimit(@NonNull Collection<ConstraintEntity> constraints) {
+    private boolean isOverLimit(@NonNull Map<ConstraintEntity, OccurrenceHistory> constraints) {
         if (constraints.isEmpty()) {
             return false;
         }
 
         synchronized (lock) {
-            for (ConstraintEntity constraint : constraints) {
-                if (isConstraintOverLimit(constraint)) {
+            for (Map.Entry<ConstraintEntity, OccurrenceHistory> entry : constraints.entrySet()) {
+                if (isConstraintOverLimit(entry.getKey(), entry.getValue())) {
                     return true;
                 }
             }
@@ -184,26 +189,25 @@ public class FrequencyLimitManager {
         }
     }
 
-    private void recordOccurrence(@NonNull Set<String> constraintIds) {
-        if (constraintIds.isEmpty()) {
-            return;
-        }
-
+    private void recordOccurrence(@NonNull Map<ConstraintEntity, OccurrenceHistory> constraints) {
         long timeMillis = clock.currentTimeMillis();
 
-        for (String id : constraintIds) {
+        for (Map.Entry<ConstraintEntity, OccurrenceHistory> entry : constraints.entrySet()) {
+            String id = entry.getKey().constraintId;
+
             OccurrenceEntity occurrence = new OccurrenceEntity();
             occurrence.parentConstraintId = id;
             occurrence.timeStamp = timeMillis;
 
             pendingOccurrences.add(occurrence);
 
-            // Update any constraints that are still active
-            for (Map.Entry<ConstraintEntity, List<OccurrenceEntity>> entry : occurrencesMap.entrySet()) {
-                ConstraintEntity constraint = entry.getKey();
-                if (constraint != null && id.equals(constraint.constraintId)) {
-                    entry.getValue().add(occurrence);
-                }
+            // Update the checker's history and the cached history if the constraint has since been reloaded
+            OccurrenceHistory history = entry.getValue();
+            history.add(timeMillis);
+
+            OccurrenceHistory cached = historyCache.get(id);
+            if (cached != null && cached != history) {
+                cached.add(timeMillis);
             }
         }
 
@@ -217,28 +221,59 @@ public class FrequencyLimitManager {
     }
 
     @NonNull
-    private Collection<ConstraintEntity> fetchConstraints(@Nullable Collection<String> constraintIds) {
+    private Map<ConstraintEntity, OccurrenceHistory> fetchConstraints(@Nullable Collection<String> constraintIds) {
         if (constraintIds == null || constraintIds.isEmpty()) {
-            return Collections.emptyList();
+            return Collections.emptyMap();
         }
 
-        Collection<ConstraintEntity> constraints = dao.getConstraints(constraintIds);
-
-        for (ConstraintEntity constraint : constraints) {
-            List<OccurrenceEntity> occurrences = dao.getOccurrences(constraint.constraintId);
+        Map<ConstraintEntity, OccurrenceHistory> constraints = new HashMap<>();
+        for (ConstraintEntity constraint : dao.getConstraints(constraintIds)) {
+            OccurrenceHistory history;
             synchronized (lock) {
-                for (OccurrenceEntity entity : pendingOccurrences) {
-                    if (entity.parentConstraintId.equals(constraint.constraintId)) {
-                        occurrences.add(entity);
-                    }
-                }
-                occurrencesMap.put(constraint, occurrences);
+                history = historyCache.get(constraint.constraintId);
             }
+
+            if (history == null || history.getCapacity() < constraint.count) {
+                history = loadHistory(constraint);
+            }
+
+            constraints.put(constraint, history);
         }
 
         return constraints;
     }
 
+    @NonNull
+    private OccurrenceHistory loadHistory(@NonNull ConstraintEntity constraint) {
+        // Occurrences outside of the range can no longer count towards the limit
+        dao.deleteOccurrencesBefore(constraint.constraintId, clock.currentTimeMillis() - constraint.range);
+
+        List<OccurrenceEntity> occurrences = dao.getRecentOccurrences(constraint.constraintId, constraint.count);
+        OccurrenceHistory history = new OccurrenceHistory(constraint.count);
+
+        synchronized (lock) {
+            for (OccurrenceEntity entity : occurrences) {
+                history.add(entity.timeStamp);
+            }
+
+            for (OccurrenceEntity entity : pendingOccurrences) {
+                if (entity.parentConstraintId.equals(constraint.constraintId)) {
+                    history.add(entity.timeStamp);
+                }
+            }
+
+            historyCache.put(constraint.constraintId, history);
+        }
+
+        return history;
+    }
+
+    private void removeCachedHistory(@NonNull String constraintId) {
+        synchronized (lock) {
+            historyCache.remove(constraintId);
+        }
+    }
+
     private void writePendingOccurrences() {
         List<OccurrenceEntity> pending;
         synchronized (lock) {
@@ -255,24 +290,13 @@ public class FrequencyLimitManager {
         }
     }
 
-    private boolean isConstraintOverLimit(@NonNull ConstraintEntity constraint) {
-        List<OccurrenceEntity> occurrences = occurrencesMap.get(constraint);
-
-        if (occurrences == null || occurrences.size() < constraint.count) {
+    private boolean isConstraintOverLimit(@NonNull ConstraintEntity constraint, @NonNull OccurrenceHistory history) {
+        if (history.size() < constraint.count) {
             return false;
         }
 
-        long timeSinceOccurrence = clock.currentTimeMillis() - occurrences.get(occurrences.size() - constraint.count).timeStamp;
+        long timeSinceOccurrence = clock.currentTimeMillis() - history.getRecent(constraint.count);
         return timeSinceOccurrence <= constraint.range;
     }
 
-    @NonNull
-    private Set<String> getConstraintIds(@NonNull Collection<ConstraintEntity> constraints) {
-        Set<String> constraintIds = new HashSet<>();
-        for (ConstraintEntity constraint : constraints) {
-            constraintIds.add(constraint.constraintId);
-        }
-        return constraintIds;
-    }
-
 }
@@ -0,0 +1,78 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.limits;
+
+/**
+ * Fixed size ring buffer of the most recent occurrence timestamps for a constraint.
+ * <p>
+ * A constraint is over the limit when its count-th most recent occurrence is within the range, so
+ * only the last count timestamps ever need to be kept. Not thread safe.
+ */
+class OccurrenceHistory {
+
+    private final long[] timestamps;
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity The max number of timestamps to keep.
+     */
+    OccurrenceHistory(int capacity) {
+        this.timestamps = new long[Math.max(0, capacity)];
+    }
+
+    /**
+     * Gets the max number of timestamps kept.
+     *
+     * @return The capacity.
+     */
+    int getCapacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Gets the number of timestamps kept.
+     *
+     * @return The size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds a timestamp, replacing the oldest timestamp if the history is full. Timestamps are
+     * expected to be added in order.
+     *
+     * @param timestamp The timestamp.
+     */
+    void add(long timestamp) {
+        if (timestamps.length == 0) {
+            return;
+        }
+
+        if (size < timestamps.length) {
+            timestamps[(start + size) % timestamps.length] = timestamp;
+            size++;
+        } else {
+            timestamps[start] = timestamp;
+            start = (start + 1) % timestamps.length;
+        }
+    }
+
+    /**
+     * Gets the n-th most recent timestamp.
+     *
+     * @param n The position, starting with 1 for the most recent timestamp.
+     * @return The timestamp.
+     * @throws IndexOutOfBoundsException If the position is not between 1 and the size.
+     */
+    long getRecent(int n) {
+        if (n < 1 || n > size) {
+            throw new IndexOutOfBoundsException("Invalid position " + n + ", size " + size);
+        }
+        return timestamps[(start + size - n) % timestamps.length];
+    }
+
+}
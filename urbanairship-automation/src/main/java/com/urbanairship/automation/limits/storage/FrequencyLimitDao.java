@@ -40,6 +40,12 @@ public interface FrequencyLimitDao {
     @Query("SELECT * FROM occurrences WHERE parentConstraintId = :constraintId ORDER BY timeStamp ASC")
     List<OccurrenceEntity> getOccurrences(String constraintId);
 
+    @Query("SELECT * FROM (SELECT * FROM occurrences WHERE parentConstraintId = :constraintId ORDER BY timeStamp DESC LIMIT :limit) ORDER BY timeStamp ASC")
+    List<OccurrenceEntity> getRecentOccurrences(String constraintId, int limit);
+
+    @Query("DELETE FROM occurrences WHERE parentConstraintId = :constraintId AND timeStamp < :timeStamp")
+    void deleteOccurrencesBefore(String constraintId, long timeStamp);
+
     @Delete
     @Transaction
     void delete(ConstraintEntity entity);
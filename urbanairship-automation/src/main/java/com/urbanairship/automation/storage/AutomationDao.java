@@ -130,6 +130,7 @@ public abstract class AutomationDao {
         insert(entry.schedule, entry.triggers);
     }
 
+    @Transaction
     public void updateSchedules(@NonNull Collection<FullSchedule> entries) {
         for (FullSchedule entry : entries) {
             if (entry != null) {
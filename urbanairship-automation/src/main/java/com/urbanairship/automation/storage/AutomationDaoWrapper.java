@@ -44,6 +44,15 @@ public class AutomationDaoWrapper extends AutomationDao {
         }
     }
 
+    @Override
+    public void updateSchedules(@NonNull Collection<FullSchedule> entries) {
+        try {
+            dao.updateSchedules(entries);
+        } catch (Exception e) {
+            UALog.e(e, "Failed to update schedules %s", entries);
+        }
+    }
+
     @Override
     public void updateTriggers(@NonNull List<TriggerEntity> entities) {
         try {
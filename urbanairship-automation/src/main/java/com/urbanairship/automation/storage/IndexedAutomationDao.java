@@ -0,0 +1,581 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonPredicate;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.matchers.ExactValueMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * AutomationDao that keeps an in-memory index of triggers keyed by trigger type, and by event
+ * name for custom event triggers, so events can be matched without querying the database.
+ * <p>
+ * The index is loaded on first use and kept up to date by writing through every insert, update and
+ * delete. Trigger progress from {@link #updateTriggers(List)} is only applied to the index until
+ * {@link #flushPendingTriggers()} is called. Schedules read before then have the pending progress
+ * applied, and any other write flushes the pending progress first.
+ * <p>
+ * Not thread safe, all access must happen on the same thread.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class IndexedAutomationDao extends AutomationDao {
+
+    // JsonMatcher keys
+    private static final String MATCHER_KEY = "key";
+    private static final String MATCHER_SCOPE = "scope";
+    private static final String MATCHER_VALUE = "value";
+    private static final String MATCHER_IGNORE_CASE = "ignore_case";
+
+    // Keeps reloads under SQLite's bound variable limit
+    private static final int MAX_QUERY_IDS = 500;
+
+    private final AutomationDao dao;
+
+    private boolean isLoaded;
+    private final Map<String, IndexedSchedule> schedules = new HashMap<>();
+    private final Map<Integer, IndexedTrigger> triggers = new HashMap<>();
+    private final Map<Integer, TypeIndex> typeIndexes = new HashMap<>();
+    private final Set<Integer> pendingTriggerIds = new LinkedHashSet<>();
+
+    public IndexedAutomationDao(@NonNull AutomationDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Gets the active triggers of the given type that could match the event.
+     *
+     * @param type The trigger type.
+     * @param event The event.
+     * @return The active triggers.
+     */
+    @WorkerThread
+    @NonNull
+    public List<TriggerEntity> getActiveEventTriggers(int type, @NonNull JsonValue event) {
+        ensureLoaded();
+
+        TypeIndex typeIndex = typeIndexes.get(type);
+        if (typeIndex == null) {
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        List<TriggerEntity> result = new ArrayList<>();
+        addActive(typeIndex.unnamed, now, result);
+
+        String eventName = event.optMap().opt(CustomEvent.EVENT_NAME).getString();
+        if (eventName != null) {
+            Set<IndexedTrigger> named = typeIndex.named.get(eventName);
+            if (named != null) {
+                addActive(named, now, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes any pending trigger progress to the database.
+     */
+    @WorkerThread
+    public void flushPendingTriggers() {
+        if (pendingTriggerIds.isEmpty()) {
+            return;
+        }
+
+        List<TriggerEntity> entities = new ArrayList<>(pendingTriggerIds.size());
+        for (Integer id : pendingTriggerIds) {
+            IndexedTrigger trigger = triggers.get(id);
+            if (trigger != null) {
+                entities.add(trigger.entity);
+            }
+        }
+        pendingTriggerIds.clear();
+
+        dao.updateTriggers(entities);
+    }
+
+    /**
+     * Gets the number of trigger updates waiting to be flushed.
+     *
+     * @return The pending trigger count.
+     */
+    @VisibleForTesting
+    int getPendingTriggerCount() {
+        return pendingTriggerIds.size();
+    }
+
+    @Override
+    public void insert(@NonNull ScheduleEntity entity, @NonNull List<TriggerEntity> entities) {
+        flushPendingTriggers();
+        dao.insert(entity, entities);
+
+        // Trigger IDs are generated by the database
+        if (isLoaded) {
+            reload(Collections.singleton(entity.scheduleId));
+        }
+    }
+
+    @Override
+    public void insert(@NonNull Collection<FullSchedule> entries) {
+        flushPendingTriggers();
+        dao.insert(entries);
+
+        if (isLoaded) {
+            Set<String> scheduleIds = new HashSet<>();
+            for (FullSchedule entry : entries) {
+                if (entry != null) {
+                    scheduleIds.add(entry.schedule.scheduleId);
+                }
+            }
+            reload(scheduleIds);
+        }
+    }
+
+    @Override
+    public void update(@NonNull ScheduleEntity entity, @NonNull List<TriggerEntity> entities) {
+        flushPendingTriggers();
+        dao.update(entity, entities);
+
+        if (!isLoaded) {
+            return;
+        }
+
+        if (hasIndexedTriggers(entity.scheduleId, entities)) {
+            index(entity, entities);
+        } else {
+            reload(Collections.singleton(entity.scheduleId));
+        }
+    }
+
+    @Override
+    public void updateSchedules(@NonNull Collection<FullSchedule> entries) {
+        flushPendingTriggers();
+        dao.updateSchedules(entries);
+
+        if (!isLoaded) {
+            return;
+        }
+
+        Set<String> reloadIds = new HashSet<>();
+        for (FullSchedule entry : entries) {
+            if (entry == null) {
+                continue;
+            }
+
+            if (hasIndexedTriggers(entry.schedule.scheduleId, entry.triggers)) {
+                index(entry.schedule, entry.triggers);
+            } else {
+                reloadIds.add(entry.schedule.scheduleId);
+            }
+        }
+
+        if (!reloadIds.isEmpty()) {
+            reload(reloadIds);
+        }
+    }
+
+    @Override
+    public void updateTriggers(@NonNull List<TriggerEntity> entities) {
+        ensureLoaded();
+
+        List<TriggerEntity> untracked = new ArrayList<>();
+        for (TriggerEntity entity : entities) {
+            IndexedTrigger trigger = triggers.get(entity.id);
+            if (trigger == null) {
+                untracked.add(entity);
+            } else {
+                trigger.entity.progress = entity.progress;
+                pendingTriggerIds.add(entity.id);
+            }
+        }
+
+        if (!untracked.isEmpty()) {
+            dao.updateTriggers(untracked);
+        }
+    }
+
+    @Override
+    public void delete(@NonNull ScheduleEntity entity) {
+        flushPendingTriggers();
+        dao.delete(entity);
+        remove(entity.scheduleId);
+    }
+
+    @Override
+    public int getScheduleCount() {
+        return dao.getScheduleCount();
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedules() {
+        List<FullSchedule> entries = dao.getSchedules();
+        if (!isLoaded) {
+            isLoaded = true;
+            for (FullSchedule entry : entries) {
+                index(entry.schedule, entry.triggers);
+            }
+        }
+        return applyPending(entries);
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedulesByType(@NonNull String type) {
+        return applyPending(dao.getSchedulesByType(type));
+    }
+
+    @Nullable
+    @Override
+    public FullSchedule getSchedule(@NonNull String scheduleId) {
+        return applyPending(dao.getSchedule(scheduleId));
+    }
+
+    @Nullable
+    @Override
+    public FullSchedule getSchedule(@NonNull String scheduleId, @NonNull String type) {
+        return applyPending(dao.getSchedule(scheduleId, type));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedules(@NonNull Collection<String> scheduleIds) {
+        return applyPending(dao.getSchedules(scheduleIds));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedules(@NonNull Collection<String> scheduleIds, @NonNull String type) {
+        return applyPending(dao.getSchedules(scheduleIds, type));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedulesWithGroup(@NonNull String group, @NonNull String type) {
+        return applyPending(dao.getSchedulesWithGroup(group, type));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedulesWithGroup(@NonNull String group) {
+        return applyPending(dao.getSchedulesWithGroup(group));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getSchedulesWithStates(int... executionStates) {
+        return applyPending(dao.getSchedulesWithStates(executionStates));
+    }
+
+    @NonNull
+    @Override
+    public List<FullSchedule> getActiveExpiredSchedules() {
+        return applyPending(dao.getActiveExpiredSchedules());
+    }
+
+    @NonNull
+    @Override
+    public List<TriggerEntity> getActiveTriggers(int type, @NonNull String scheduleId) {
+        ensureLoaded();
+
+        IndexedSchedule schedule = schedules.get(scheduleId);
+        if (schedule == null) {
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        List<TriggerEntity> result = new ArrayList<>();
+        for (IndexedTrigger trigger : schedule.triggers) {
+            if (trigger.entity.triggerType == type && isActive(trigger, now)) {
+                result.add(copy(trigger.entity));
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public List<TriggerEntity> getActiveTriggers(int type) {
+        ensureLoaded();
+
+        TypeIndex typeIndex = typeIndexes.get(type);
+        if (typeIndex == null) {
+            return Collections.emptyList();
+        }
+
+        long now = System.currentTimeMillis();
+        List<TriggerEntity> result = new ArrayList<>();
+        addActive(typeIndex.unnamed, now, result);
+        for (Set<IndexedTrigger> named : typeIndex.named.values()) {
+            addActive(named, now, result);
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (!isLoaded) {
+            getSchedules();
+        }
+    }
+
+    private void reload(@NonNull Set<String> scheduleIds) {
+        for (String scheduleId : scheduleIds) {
+            remove(scheduleId);
+        }
+
+        List<String> ids = new ArrayList<>(scheduleIds);
+        List<FullSchedule> entries = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += MAX_QUERY_IDS) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + MAX_QUERY_IDS));
+            entries.addAll(dao.getSchedules(chunk));
+        }
+
+        // The schedules were just written, so missing entries mean the read failed. Drop the
+        // index so it is rebuilt from the database on next use instead of missing schedules.
+        if (entries.size() != ids.size()) {
+            unload();
+            return;
+        }
+
+        for (FullSchedule entry : entries) {
+            index(entry.schedule, entry.triggers);
+        }
+    }
+
+    private void unload() {
+        isLoaded = false;
+        schedules.clear();
+        triggers.clear();
+        typeIndexes.clear();
+    }
+
+    private boolean hasIndexedTriggers(@NonNull String scheduleId, @NonNull List<TriggerEntity> entities) {
+        IndexedSchedule schedule = schedules.get(scheduleId);
+        if (schedule == null || schedule.triggers.size() != entities.size()) {
+            return false;
+        }
+
+        for (TriggerEntity entity : entities) {
+            IndexedTrigger trigger = triggers.get(entity.id);
+            if (trigger == null || trigger.schedule != schedule) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(@NonNull ScheduleEntity scheduleEntity, @Nullable List<TriggerEntity> entities) {
+        remove(scheduleEntity.scheduleId);
+
+        IndexedSchedule schedule = new IndexedSchedule(scheduleEntity.executionState, scheduleEntity.scheduleStart);
+        schedules.put(scheduleEntity.scheduleId, schedule);
+
+        if (entities == null) {
+            return;
+        }
+
+        for (TriggerEntity entity : entities) {
+            IndexedTrigger trigger = new IndexedTrigger(copy(entity), schedule, eventName(entity));
+            schedule.triggers.add(trigger);
+            triggers.put(entity.id, trigger);
+            bucket(trigger, true).add(trigger);
+        }
+    }
+
+    private void remove(@Nullable String scheduleId) {
+        IndexedSchedule schedule = schedules.remove(scheduleId);
+        if (schedule == null) {
+            return;
+        }
+
+        for (IndexedTrigger trigger : schedule.triggers) {
+            triggers.remove(trigger.entity.id);
+            pendingTriggerIds.remove(trigger.entity.id);
+
+            Set<IndexedTrigger> bucket = bucket(trigger, false);
+            if (bucket != null) {
+                bucket.remove(trigger);
+            }
+        }
+    }
+
+    @Nullable
+    private Set<IndexedTrigger> bucket(@NonNull IndexedTrigger trigger, boolean create) {
+        int type = trigger.entity.triggerType;
+        TypeIndex typeIndex = typeIndexes.get(type);
+        if (typeIndex == null) {
+            if (!create) {
+                return null;
+            }
+            typeIndex = new TypeIndex();
+            typeIndexes.put(type, typeIndex);
+        }
+
+        if (trigger.eventName == null) {
+            return typeIndex.unnamed;
+        }
+
+        Set<IndexedTrigger> named = typeIndex.named.get(trigger.eventName);
+        if (named == null && create) {
+            named = new LinkedHashSet<>();
+            typeIndex.named.put(trigger.eventName, named);
+        }
+        return named;
+    }
+
+    private void addActive(@NonNull Collection<IndexedTrigger> candidates, long now, @NonNull List<TriggerEntity> result) {
+        for (IndexedTrigger trigger : candidates) {
+            if (isActive(trigger, now)) {
+                result.add(copy(trigger.entity));
+            }
+        }
+    }
+
+    /**
+     * Matches the trigger state checks in {@link AutomationDao#getActiveTriggers(int)}.
+     */
+    private static boolean isActive(@NonNull IndexedTrigger trigger, long now) {
+        IndexedSchedule schedule = trigger.schedule;
+        if (schedule.scheduleStart >= 0 && schedule.scheduleStart > now) {
+            return false;
+        }
+
+        if (trigger.entity.isCancellation) {
+            return schedule.executionState == ScheduleState.WAITING_SCHEDULE_CONDITIONS
+                    || schedule.executionState == ScheduleState.TIME_DELAYED
+                    || schedule.executionState == ScheduleState.PREPARING_SCHEDULE;
+        }
+
+        return schedule.executionState == ScheduleState.IDLE;
+    }
+
+    @NonNull
+    private List<FullSchedule> applyPending(@NonNull List<FullSchedule> entries) {
+        if (!pendingTriggerIds.isEmpty()) {
+            for (FullSchedule entry : entries) {
+                applyPending(entry);
+            }
+        }
+        return entries;
+    }
+
+    @Nullable
+    private FullSchedule applyPending(@Nullable FullSchedule entry) {
+        if (entry == null || entry.triggers == null || pendingTriggerIds.isEmpty()) {
+            return entry;
+        }
+
+        for (TriggerEntity entity : entry.triggers) {
+            if (pendingTriggerIds.contains(entity.id)) {
+                entity.progress = triggers.get(entity.id).entity.progress;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the event name a custom event trigger requires, if its predicate requires an exact
+     * event name.
+     *
+     * @param entity The trigger.
+     * @return The event name, or null if the trigger is not limited to a single event name.
+     */
+    @Nullable
+    private static String eventName(@NonNull TriggerEntity entity) {
+        if (entity.jsonPredicate == null) {
+            return null;
+        }
+
+        if (entity.triggerType != Trigger.CUSTOM_EVENT_COUNT && entity.triggerType != Trigger.CUSTOM_EVENT_VALUE) {
+            return null;
+        }
+
+        JsonList items = entity.jsonPredicate.toJsonValue().optMap().opt(JsonPredicate.AND_PREDICATE_TYPE).optList();
+        for (JsonValue item : items) {
+            JsonMap matcher = item.optMap();
+            if (!CustomEvent.EVENT_NAME.equals(matcher.opt(MATCHER_KEY).getString())
+                    || !matcher.opt(MATCHER_SCOPE).optList().isEmpty()
+                    || matcher.opt(MATCHER_IGNORE_CASE).getBoolean(false)) {
+                continue;
+            }
+
+            JsonMap valueMatcher = matcher.opt(MATCHER_VALUE).optMap();
+            JsonValue expected = valueMatcher.opt(ExactValueMatcher.EQUALS_VALUE_KEY);
+            if (valueMatcher.size() == 1 && expected.isString()) {
+                return expected.getString();
+            }
+        }
+
+        return null;
+    }
+
+    @NonNull
+    private static TriggerEntity copy(@NonNull TriggerEntity entity) {
+        TriggerEntity copy = new TriggerEntity();
+        copy.id = entity.id;
+        copy.triggerType = entity.triggerType;
+        copy.goal = entity.goal;
+        copy.jsonPredicate = entity.jsonPredicate;
+        copy.isCancellation = entity.isCancellation;
+        copy.progress = entity.progress;
+        copy.parentScheduleId = entity.parentScheduleId;
+        return copy;
+    }
+
+    private static class IndexedSchedule {
+
+        final int executionState;
+        final long scheduleStart;
+        final List<IndexedTrigger> triggers = new ArrayList<>();
+
+        IndexedSchedule(int executionState, long scheduleStart) {
+            this.executionState = executionState;
+            this.scheduleStart = scheduleStart;
+        }
+
+    }
+
+    private static class IndexedTrigger {
+
+        final TriggerEntity entity;
+        final IndexedSchedule schedule;
+        final String eventName;
+
+        IndexedTrigger(@NonNull TriggerEntity entity, @NonNull IndexedSchedule schedule, @Nullable String eventName) {
+            this.entity = entity;
+            this.schedule = schedule;
+            this.eventName = eventName;
+        }
+
+    }
+
+    private static class TypeIndex {
+
+        final Set<IndexedTrigger> unnamed = new LinkedHashSet<>();
+        final Map<String, Set<IndexedTrigger>> named = new HashMap<>();
+
+    }
+
+}
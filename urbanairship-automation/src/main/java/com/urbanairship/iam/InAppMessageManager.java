@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.IntRange;
@@ -87,7 +88,8 @@ public class InAppMessageManager {
     private final ActionRunRequestFactory actionRunRequestFactory;
     private final Analytics analytics;
 
-    private final Map<String, InAppMessageAdapter.Factory> adapterFactories = new HashMap<>();
+    // Read by prepares that run concurrently on the prepare executor
+    private final Map<String, InAppMessageAdapter.Factory> adapterFactories = new ConcurrentHashMap<>();
     private final List<InAppMessageListener> listeners = new ArrayList<>();
     private final DefaultDisplayCoordinator defaultCoordinator;
     private final ImmediateDisplayCoordinator immediateDisplayCoordinator;
@@ -100,10 +102,10 @@ public class InAppMessageManager {
     private DisplayDelegate appDisplayDelegate;
 
     @Nullable
-    private InAppMessageExtender messageExtender;
+    private volatile InAppMessageExtender messageExtender;
 
     @Nullable
-    private OnRequestDisplayCoordinatorCallback displayCoordinatorCallback;
+    private volatile OnRequestDisplayCoordinatorCallback displayCoordinatorCallback;
 
     private final DisplayCoordinator.OnDisplayReadyCallback displayReadyCallback = new DisplayCoordinator.OnDisplayReadyCallback() {
         @Override
@@ -597,10 +599,7 @@ public class InAppMessageManager {
         try {
             message = extendMessage(message);
 
-            InAppMessageAdapter.Factory factory;
-            synchronized (adapterFactories) {
-                factory = adapterFactories.get(message.getType());
-            }
+            InAppMessageAdapter.Factory factory = adapterFactories.get(message.getType());
 
             if (factory == null) {
                 UALog.d("InAppMessageManager - No display adapter for message type: %s. " +
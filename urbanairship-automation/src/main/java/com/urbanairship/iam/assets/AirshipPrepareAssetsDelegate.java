@@ -21,7 +21,17 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -43,6 +53,18 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
     @NonNull
     public static final String IMAGE_HEIGHT_CACHE_KEY = "height";
 
+    /**
+     * Max number of assets downloaded at the same time.
+     */
+    private static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
+    private static final ExecutorService DOWNLOAD_EXECUTOR = createDownloadExecutor();
+
+    /**
+     * In flight downloads by file path.
+     */
+    private static final Map<String, Future<FileUtils.DownloadResult>> DOWNLOADS = new HashMap<>();
+
     /**
      * {@inheritDoc}
      */
@@ -56,29 +78,87 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
      */
     @Override
     @AssetManager.PrepareResult
-    public int onPrepare(@NonNull String scheduleId, @NonNull InAppMessage message, @NonNull Assets assets) {
+    public int onPrepare(@NonNull String scheduleId, @NonNull InAppMessage message, @NonNull final Assets assets) {
         List<String> cacheableUrls = getCacheableUrls(message);
-        for (String url : cacheableUrls) {
-            if (assets.file(url).exists()) {
-                continue;
+        Map<String, Future<FileUtils.DownloadResult>> downloads = new LinkedHashMap<>();
+
+        for (final String url : cacheableUrls) {
+            File file = assets.file(url);
+            String path = file.getAbsolutePath();
+
+            // Files are shared between schedules, join any download already in flight for the file
+            synchronized (DOWNLOADS) {
+                Future<FileUtils.DownloadResult> download = DOWNLOADS.get(path);
+                if (download == null && !file.exists()) {
+                    download = startDownload(path, assets, url);
+                }
+
+                if (download != null) {
+                    downloads.put(url, download);
+                    continue;
+                }
+            }
+
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                UALog.v("Unable to update last modified time: %s", file.getAbsolutePath());
+            }
+
+            if (assets.getMetadata(url).isNull()) {
+                cacheImageMetadata(assets, url, file);
             }
+        }
 
+        int result = AssetManager.PREPARE_RESULT_OK;
+        for (Map.Entry<String, Future<FileUtils.DownloadResult>> entry : downloads.entrySet()) {
+            String url = entry.getKey();
             try {
-                FileUtils.DownloadResult result = cacheImage(assets, url);
-                if (!result.isSuccess) {
-                    if (UAHttpStatusUtil.inClientErrorRange(result.statusCode)) {
+                FileUtils.DownloadResult downloadResult = entry.getValue().get();
+                if (!downloadResult.isSuccess) {
+                    if (UAHttpStatusUtil.inClientErrorRange(downloadResult.statusCode)) {
                         return AssetManager.PREPARE_RESULT_CANCEL;
                     }
 
-                    return AssetManager.PREPARE_RESULT_RETRY;
+                    result = AssetManager.PREPARE_RESULT_RETRY;
+                } else if (assets.getMetadata(url).isNull()) {
+                    cacheImageMetadata(assets, url, assets.file(url));
                 }
-            } catch (Exception e) {
-                UALog.e(e, "Unable to download file: %s ", url);
+            } catch (ExecutionException e) {
+                UALog.e(e.getCause(), "Unable to download file: %s ", url);
+                result = AssetManager.PREPARE_RESULT_RETRY;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return AssetManager.PREPARE_RESULT_RETRY;
             }
         }
 
-        return AssetManager.PREPARE_RESULT_OK;
+        return result;
+    }
+
+    /**
+     * Starts downloading an asset. Must be called while holding the downloads lock.
+     *
+     * @param path The asset file path.
+     * @param assets The assets.
+     * @param url The asset URL.
+     * @return The download future.
+     */
+    @NonNull
+    private Future<FileUtils.DownloadResult> startDownload(@NonNull final String path, @NonNull final Assets assets, @NonNull final String url) {
+        Future<FileUtils.DownloadResult> download = DOWNLOAD_EXECUTOR.submit(new Callable<FileUtils.DownloadResult>() {
+            @Override
+            public FileUtils.DownloadResult call() throws Exception {
+                try {
+                    return cacheImage(assets, url);
+                } finally {
+                    synchronized (DOWNLOADS) {
+                        DOWNLOADS.remove(path);
+                    }
+                }
+            }
+        });
+
+        DOWNLOADS.put(path, download);
+        return download;
     }
 
     /**
@@ -95,20 +175,30 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
         FileUtils.DownloadResult result = FileUtils.downloadFile(new URL(url), file);
 
         if (result.isSuccess) {
-            // Cache the width and height for view resizing
-            BitmapFactory.Options options = new BitmapFactory.Options();
-            options.inJustDecodeBounds = true;
-            BitmapFactory.decodeFile(file.getAbsolutePath(), options);
-
-            assets.setMetadata(url, JsonMap.newBuilder()
-                                           .putOpt(IMAGE_WIDTH_CACHE_KEY, options.outWidth)
-                                           .putOpt(IMAGE_HEIGHT_CACHE_KEY, options.outHeight)
-                                           .build());
+            cacheImageMetadata(assets, url, file);
         }
 
         return result;
     }
 
+    /**
+     * Caches the image width and height for view resizing.
+     *
+     * @param assets The assets.
+     * @param url The image URL.
+     * @param file The image file.
+     */
+    private static void cacheImageMetadata(@NonNull Assets assets, @NonNull String url, @NonNull File file) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+
+        assets.setMetadata(url, JsonMap.newBuilder()
+                                       .putOpt(IMAGE_WIDTH_CACHE_KEY, options.outWidth)
+                                       .putOpt(IMAGE_HEIGHT_CACHE_KEY, options.outHeight)
+                                       .build());
+    }
+
     /**
      * Helper method that parses all the cachable urls.
      *
@@ -165,6 +255,14 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
         return Collections.emptyList();
     }
 
+    @NonNull
+    private static ExecutorService createDownloadExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_CONCURRENT_DOWNLOADS, MAX_CONCURRENT_DOWNLOADS,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Nullable
     public static String getCacheableUrl(@Nullable MediaInfo mediaInfo) {
         if (mediaInfo != null && mediaInfo.getType().equals(MediaInfo.TYPE_IMAGE)) {
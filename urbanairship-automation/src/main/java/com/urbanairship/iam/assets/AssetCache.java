@@ -11,21 +11,42 @@ import com.urbanairship.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 /**
  * Asset cache.
+ * <p>
+ * Each schedule has its own directory for asset metadata, while the asset files are stored once in
+ * a shared directory keyed by the hash of the asset key. A shared file is deleted once no schedule
+ * references it, and the shared directory is trimmed to a max size by evicting the least recently
+ * used files that are not referenced by an active schedule.
  */
 class AssetCache {
 
     private static final String CACHE_DIRECTORY = "com.urbanairship.iam.assets";
+    private static final String SHARED_FILES_DIRECTORY = "com.urbanairship.iam.shared_assets";
+    private static final String LEGACY_FILES_DIRECTORY = "files";
+
+    /**
+     * Max size of the shared files.
+     */
+    private static final long MAX_DISK_SIZE = 1024 * 1024 * 50; // 50MB
+
     private final File storageDirectory;
+    private final File filesDirectory;
     private final StorageManager storageManager;
+    private final long maxDiskSize;
 
     /**
      * A map of active schedule IDs to assets. Prevents needed to load the asset's metadata
@@ -34,6 +55,11 @@ class AssetCache {
     @NonNull
     private final Map<String, Assets> activeAssets = new HashMap<>();
 
+    /**
+     * A map of schedule IDs to the shared files they reference. Loaded on first use.
+     */
+    @Nullable
+    private Map<String, Set<String>> scheduleReferences;
 
     /**
      * Default constructor.
@@ -41,8 +67,15 @@ class AssetCache {
      * @param context The context.
      */
     AssetCache(@NonNull Context context) {
+        this(context, MAX_DISK_SIZE);
+    }
+
+    @VisibleForTesting
+    AssetCache(@NonNull Context context, long maxDiskSize) {
         this.storageDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+        this.filesDirectory = new File(context.getCacheDir(), SHARED_FILES_DIRECTORY);
         this.storageManager = findStorageManager(context);
+        this.maxDiskSize = maxDiskSize;
     }
 
     /**
@@ -53,11 +86,25 @@ class AssetCache {
      */
     @WorkerThread
     @NonNull
-    Assets getAssets(@NonNull String scheduleId) {
+    Assets getAssets(@NonNull final String scheduleId) {
         synchronized (activeAssets) {
             Assets assets = activeAssets.get(scheduleId);
             if (assets == null) {
-                assets = Assets.load(getAssetsDirectory(scheduleId));
+                Map<String, Set<String>> references = getScheduleReferences();
+                assets = Assets.load(getAssetsDirectory(scheduleId), getFilesDirectory(), new Assets.ReferenceListener() {
+                    @Override
+                    public void onReference(@NonNull String fileName) {
+                        addReference(scheduleId, fileName);
+                    }
+                });
+
+                Set<String> scheduleFiles = references.get(scheduleId);
+                if (scheduleFiles == null) {
+                    references.put(scheduleId, assets.getReferences());
+                } else {
+                    scheduleFiles.addAll(assets.getReferences());
+                }
+
                 activeAssets.put(scheduleId, assets);
             }
             return assets;
@@ -75,13 +122,185 @@ class AssetCache {
     void releaseAssets(@NonNull String scheduleId, boolean wipeFromDisk) {
         synchronized (activeAssets) {
             if (wipeFromDisk) {
-                FileUtils.deleteRecursively(getAssetsDirectory(scheduleId));
+                FileUtils.deleteRecursively(new File(storageDirectory, scheduleId));
+
+                Map<String, Set<String>> references = getScheduleReferences();
+                Set<String> scheduleFiles = references.remove(scheduleId);
+                if (scheduleFiles != null) {
+                    for (String fileName : scheduleFiles) {
+                        if (!isReferenced(references.values(), fileName)) {
+                            deleteFile(new File(filesDirectory, fileName));
+                        }
+                    }
+                }
             }
 
             activeAssets.remove(scheduleId);
         }
     }
 
+    /**
+     * Evicts the least recently used shared files until the cache is within the max size. Files
+     * referenced by active schedules are never evicted. Evicted files of inactive schedules are
+     * downloaded again the next time the schedule is prepared.
+     */
+    @WorkerThread
+    void trimToSize() {
+        synchronized (activeAssets) {
+            File[] files = filesDirectory.listFiles();
+            if (files == null) {
+                return;
+            }
+
+            long totalSize = 0;
+            for (File file : files) {
+                totalSize += file.length();
+            }
+
+            if (totalSize <= maxDiskSize) {
+                return;
+            }
+
+            Set<String> activeFiles = new HashSet<>();
+            for (Assets assets : activeAssets.values()) {
+                activeFiles.addAll(assets.getReferences());
+            }
+
+            final Map<File, Long> lastModified = new HashMap<>();
+            for (File file : files) {
+                lastModified.put(file, file.lastModified());
+            }
+
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File lh, File rh) {
+                    return Long.compare(lastModified.get(lh), lastModified.get(rh));
+                }
+            });
+
+            for (File file : files) {
+                if (totalSize <= maxDiskSize) {
+                    break;
+                }
+
+                if (activeFiles.contains(file.getName())) {
+                    continue;
+                }
+
+                long size = file.length();
+                if (deleteFile(file)) {
+                    totalSize -= size;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the total size of the shared files.
+     *
+     * @return The size in bytes.
+     */
+    @WorkerThread
+    long getSize() {
+        long size = 0;
+        File[] files = filesDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private void addReference(@NonNull String scheduleId, @NonNull String fileName) {
+        synchronized (activeAssets) {
+            Map<String, Set<String>> references = getScheduleReferences();
+            Set<String> scheduleFiles = references.get(scheduleId);
+            if (scheduleFiles == null) {
+                scheduleFiles = new HashSet<>();
+                references.put(scheduleId, scheduleFiles);
+            }
+            scheduleFiles.add(fileName);
+        }
+    }
+
+    /**
+     * Gets the shared files referenced by each schedule, loading them from disk on first use.
+     * Shared files that are no longer referenced are deleted when loaded.
+     *
+     * @return The schedule references.
+     */
+    @NonNull
+    private Map<String, Set<String>> getScheduleReferences() {
+        if (scheduleReferences != null) {
+            return scheduleReferences;
+        }
+
+        Map<String, Set<String>> references = new HashMap<>();
+        File[] scheduleDirectories = storageDirectory.listFiles();
+        if (scheduleDirectories != null) {
+            for (File directory : scheduleDirectories) {
+                if (!directory.isDirectory()) {
+                    continue;
+                }
+
+                // Files used to be stored per schedule
+                File legacyFiles = new File(directory, LEGACY_FILES_DIRECTORY);
+                if (legacyFiles.exists()) {
+                    FileUtils.deleteRecursively(legacyFiles);
+                }
+
+                references.put(directory.getName(), Assets.loadReferences(directory));
+            }
+        }
+
+        File[] files = filesDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!isReferenced(references.values(), file.getName())) {
+                    deleteFile(file);
+                }
+            }
+        }
+
+        scheduleReferences = references;
+        return references;
+    }
+
+    private static boolean isReferenced(@NonNull Collection<Set<String>> references, @NonNull String fileName) {
+        for (Set<String> scheduleFiles : references) {
+            if (scheduleFiles.contains(fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean deleteFile(@NonNull File file) {
+        if (!file.delete()) {
+            UALog.e("Failed to delete asset file: %s", file.getAbsolutePath());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to get the shared files directory.
+     *
+     * @return The files directory.
+     */
+    @NonNull
+    private File getFilesDirectory() {
+        if (!filesDirectory.exists()) {
+            if (!filesDirectory.mkdirs()) {
+                UALog.e("Failed to create asset files directory.");
+            }
+        }
+
+        setCacheBehaviorGroup(filesDirectory);
+        return filesDirectory;
+    }
+
     /**
      * Helper method to get the schedule's asset directory for a given
      * schedule ID.
@@ -104,17 +323,20 @@ class AssetCache {
             }
         }
 
+        setCacheBehaviorGroup(assetDirectory);
+        return assetDirectory;
+    }
+
+    private void setCacheBehaviorGroup(@NonNull File directory) {
         if (storageManager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            if (assetDirectory.exists()) {
+            if (directory.exists()) {
                 try {
-                    storageManager.setCacheBehaviorGroup(assetDirectory, true);
+                    storageManager.setCacheBehaviorGroup(directory, true);
                 } catch (IOException e) {
-                    UALog.e(e, "Failed to set cache behavior on directory: %s", assetDirectory.getAbsoluteFile());
+                    UALog.e(e, "Failed to set cache behavior on directory: %s", directory.getAbsoluteFile());
                 }
             }
         }
-
-        return assetDirectory;
     }
 
     @Nullable
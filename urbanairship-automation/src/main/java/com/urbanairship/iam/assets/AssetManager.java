@@ -43,6 +43,11 @@ public class AssetManager {
      */
     public static final int PREPARE_RESULT_CANCEL = 2;
 
+    /**
+     * Default max size of the cached asset files up to which assets are prefetched.
+     */
+    private static final long DEFAULT_PREFETCH_BYTE_BUDGET = 1024 * 1024 * 20; // 20MB
+
     @Nullable
     private PrepareAssetsDelegate assetsDelegate;
 
@@ -52,6 +57,17 @@ public class AssetManager {
     @NonNull
     private final AssetCache assetCache;
 
+    /**
+     * Prefetches only download the Airship cacheable URLs, never the app's delegate.
+     */
+    @NonNull
+    private final AirshipPrepareAssetsDelegate prefetchDelegate = new AirshipPrepareAssetsDelegate();
+
+    private volatile boolean isPrefetchEnabled = true;
+    private volatile boolean isPrefetchChargingRequired = true;
+    private volatile boolean isPrefetchUnmeteredNetworkRequired = true;
+    private volatile long prefetchByteBudget = DEFAULT_PREFETCH_BYTE_BUDGET;
+
     /**
      * Default constructor. Applications should not create their own, instead use the asset manager
      * from {@link InAppMessageManager#getAssetManager()}
@@ -91,6 +107,67 @@ public class AssetManager {
         this.cachePolicyDelegate = cachePolicyDelegate;
     }
 
+    /**
+     * Sets if assets of new and updated remote-data messages should be prefetched in the
+     * background. Enabled by default.
+     *
+     * @param isPrefetchEnabled {@code true} to prefetch assets, otherwise {@code false}.
+     */
+    public void setPrefetchEnabled(boolean isPrefetchEnabled) {
+        this.isPrefetchEnabled = isPrefetchEnabled;
+    }
+
+    /**
+     * Sets if the device has to be charging to prefetch assets. Defaults to {@code true}.
+     *
+     * @param isChargingRequired {@code true} if charging is required, otherwise {@code false}.
+     */
+    public void setPrefetchChargingRequired(boolean isChargingRequired) {
+        this.isPrefetchChargingRequired = isChargingRequired;
+    }
+
+    /**
+     * Sets if an unmetered network is required to prefetch assets. Defaults to {@code true}.
+     *
+     * @param isUnmeteredNetworkRequired {@code true} if an unmetered network is required, otherwise {@code false}.
+     */
+    public void setPrefetchUnmeteredNetworkRequired(boolean isUnmeteredNetworkRequired) {
+        this.isPrefetchUnmeteredNetworkRequired = isUnmeteredNetworkRequired;
+    }
+
+    /**
+     * Sets the max size of the cached asset files up to which assets are prefetched. Defaults to 20MB.
+     *
+     * @param byteBudget The budget in bytes.
+     */
+    public void setPrefetchByteBudget(long byteBudget) {
+        this.prefetchByteBudget = byteBudget;
+    }
+
+    /**
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public boolean isPrefetchEnabled() {
+        return isPrefetchEnabled;
+    }
+
+    /**
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public boolean isPrefetchChargingRequired() {
+        return isPrefetchChargingRequired;
+    }
+
+    /**
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public boolean isPrefetchUnmeteredNetworkRequired() {
+        return isPrefetchUnmeteredNetworkRequired;
+    }
+
     /**
      * Called when a new schedule is available.
      *
@@ -111,6 +188,7 @@ public class AssetManager {
                     Assets assets = assetCache.getAssets(scheduleId);
                     assetsDelegate.onSchedule(scheduleId, message, assets);
                     assetCache.releaseAssets(scheduleId, false);
+                    assetCache.trimToSize();
                 }
             } catch (Exception e) {
                 UALog.e(e, "Unable to prepare assets for schedule: %s", scheduleId);
@@ -137,6 +215,43 @@ public class AssetManager {
         return PREPARE_RESULT_OK;
     }
 
+    /**
+     * Called to prefetch the assets of a schedule ahead of its prepare step. Only the images
+     * Airship knows how to cache are downloaded, the app's {@link PrepareAssetsDelegate} is not
+     * called. Skipped if the app removed the prepare assets delegate, if the cache policy delegate
+     * does not cache the message on schedule, or once the cached asset files exceed the prefetch
+     * byte budget.
+     *
+     * @param scheduleId The schedule ID.
+     * @param message The message.
+     * @return The prefetch result.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @WorkerThread
+    @PrepareResult
+    public int onPrefetch(@NonNull String scheduleId, @NonNull InAppMessage message) {
+        if (assetsDelegate == null || !isPrefetchEnabled) {
+            return PREPARE_RESULT_OK;
+        }
+
+        CachePolicyDelegate cachePolicyDelegate = this.cachePolicyDelegate;
+        if (cachePolicyDelegate != null && !cachePolicyDelegate.shouldCacheOnSchedule(scheduleId, message)) {
+            return PREPARE_RESULT_OK;
+        }
+
+        if (assetCache.getSize() >= prefetchByteBudget) {
+            UALog.v("Asset prefetch budget reached, skipping schedule: %s", scheduleId);
+            return PREPARE_RESULT_OK;
+        }
+
+        Assets assets = assetCache.getAssets(scheduleId);
+        int result = prefetchDelegate.onPrepare(scheduleId, message, assets);
+        assetCache.releaseAssets(scheduleId, false);
+        assetCache.trimToSize();
+        return result;
+    }
+
     /**
      * Called when the schedule's message finished displaying.
      *
@@ -153,6 +268,7 @@ public class AssetManager {
         }
 
         assetCache.releaseAssets(scheduleId, delete);
+        assetCache.trimToSize();
     }
 
     /**
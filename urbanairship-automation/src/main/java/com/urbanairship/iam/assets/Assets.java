@@ -24,8 +24,11 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
@@ -55,7 +58,9 @@ public class Assets implements Parcelable {
                 parsedMap = JsonMap.EMPTY_MAP;
             }
 
-            return new Assets(new File(in.readString()), parsedMap);
+            File root = new File(in.readString());
+            File files = new File(in.readString());
+            return new Assets(root, files, parsedMap, Collections.<String>emptySet(), null);
         }
 
         @NonNull
@@ -71,42 +76,88 @@ public class Assets implements Parcelable {
     private static final String METADATA_FILE = "metadata";
 
     /**
-     * The file store directory.
+     * The referenced files file.
      */
-    private static final String FILES_DIRECTORY = "files";
+    private static final String REFERENCES_FILE = "references";
+
+    /**
+     * Listener for newly referenced files.
+     */
+    interface ReferenceListener {
+
+        /**
+         * Called when the assets reference a file for the first time.
+         *
+         * @param fileName The file name.
+         */
+        void onReference(@NonNull String fileName);
+
+    }
 
     private final Executor executor;
     private final File rootDirectory;
     private final File filesDirectory;
     private final File metadataFile;
+    private final File referencesFile;
 
     private final Map<String, JsonValue> metadata;
+    private final Set<String> references;
     private final Object metadataLock = new Object();
 
+    @Nullable
+    private final ReferenceListener referenceListener;
+
     /**
      * Loads assets from a directory.
      *
      * @param root The assets' root directory.
+     * @param files The directory the asset files are stored in. Can be shared between assets.
+     * @param referenceListener Listener for newly referenced files.
      * @return The assets.
      */
     @WorkerThread
     @NonNull
-    static Assets load(@NonNull File root) {
-        File metadata = new File(root, METADATA_FILE);
-        return new Assets(root, readJson(metadata).optMap());
+    static Assets load(@NonNull File root, @NonNull File files, @Nullable ReferenceListener referenceListener) {
+        return new Assets(root, files, readJson(new File(root, METADATA_FILE)).optMap(),
+                loadReferences(root), referenceListener);
+    }
+
+    /**
+     * Loads the names of the files referenced by the assets in a directory.
+     *
+     * @param root The assets' root directory.
+     * @return The referenced file names.
+     */
+    @WorkerThread
+    @NonNull
+    static Set<String> loadReferences(@NonNull File root) {
+        Set<String> references = new HashSet<>();
+        for (JsonValue value : readJson(new File(root, REFERENCES_FILE)).optList()) {
+            if (value.isString()) {
+                references.add(value.optString());
+            }
+        }
+        return references;
     }
 
     /**
      * Default constructor.
      *
      * @param root The assets' root directory.
+     * @param files The asset files directory.
      * @param metadata The metadata.
+     * @param references The referenced file names.
+     * @param referenceListener Listener for newly referenced files, or null to not track references.
      */
-    private Assets(@NonNull File root, @NonNull JsonMap metadata) {
+    private Assets(@NonNull File root, @NonNull File files, @NonNull JsonMap metadata,
+                   @NonNull Set<String> references, @Nullable ReferenceListener referenceListener) {
         this.rootDirectory = root;
-        this.filesDirectory = new File(root, FILES_DIRECTORY);
+        this.filesDirectory = files;
         this.metadataFile = new File(root, METADATA_FILE);
+        this.referencesFile = new File(root, REFERENCES_FILE);
         this.metadata = new HashMap<>(metadata.getMap());
+        this.references = new HashSet<>(references);
+        this.referenceListener = referenceListener;
         this.executor = AirshipExecutors.newSerialExecutor();
     }
 
@@ -116,6 +167,7 @@ public class Assets implements Parcelable {
             dest.writeString(JsonValue.wrapOpt(metadata).toString());
         }
         dest.writeString(rootDirectory.getAbsolutePath());
+        dest.writeString(filesDirectory.getAbsolutePath());
     }
 
     @Override
@@ -132,7 +184,48 @@ public class Assets implements Parcelable {
     @NonNull
     public File file(@NonNull String key) {
         prepareDirectory();
-        return new File(filesDirectory, UAStringUtil.sha256(key));
+        String fileName = UAStringUtil.sha256(key);
+        addReference(fileName);
+        return new File(filesDirectory, fileName);
+    }
+
+    /**
+     * Gets the names of the files referenced by the assets.
+     *
+     * @return The referenced file names.
+     */
+    @NonNull
+    Set<String> getReferences() {
+        synchronized (metadataLock) {
+            return new HashSet<>(references);
+        }
+    }
+
+    /**
+     * Records a referenced file so it is kept while the assets exist.
+     *
+     * @param fileName The file name.
+     */
+    private void addReference(@NonNull String fileName) {
+        if (referenceListener == null) {
+            return;
+        }
+
+        synchronized (metadataLock) {
+            if (!references.add(fileName)) {
+                return;
+            }
+
+            final JsonValue json = JsonValue.wrapOpt(references);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writeJson(referencesFile, json);
+                }
+            });
+        }
+
+        referenceListener.onReference(fileName);
     }
 
     /**
@@ -184,7 +277,7 @@ public class Assets implements Parcelable {
             outputStream.write(jsonValue.toString().getBytes());
             outputStream.close();
         } catch (Exception e) {
-            UALog.e(e, "Failed to write metadata.");
+            UALog.e(e, "Failed to write file: %s", file.getName());
         } finally {
             closeQuietly(outputStream);
         }
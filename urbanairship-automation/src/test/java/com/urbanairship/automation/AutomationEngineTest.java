@@ -4,6 +4,7 @@ package com.urbanairship.automation;
 
 import android.app.Activity;
 import android.content.Context;
+import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Pair;
@@ -19,6 +20,7 @@ import com.urbanairship.analytics.CustomEvent;
 import com.urbanairship.analytics.location.RegionEvent;
 import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.alarms.OperationScheduler;
+import com.urbanairship.automation.deferred.Deferred;
 import com.urbanairship.automation.storage.AutomationDao;
 import com.urbanairship.automation.storage.AutomationDatabase;
 import com.urbanairship.automation.storage.FullSchedule;
@@ -43,6 +45,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -497,6 +500,58 @@ public class AutomationEngineTest {
         assertEquals(expectedExecutionOrder, driver.priorityAndTriggeredTimeList);
     }
 
+    /**
+     * Prepares can finish out of priority order. The schedule that finishes preparing first is
+     * executed first, even if a higher priority schedule triggered at the same time is still
+     * preparing.
+     */
+    @Test
+    public void testPrepareFinishedOutOfPriorityOrder() throws Exception {
+        final Schedule<Actions> high = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                                               .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                   .setCountGoal(1)
+                                                                   .setEventName("event")
+                                                                   .build())
+                                               .setPriority(1)
+                                               .setTriggeredTime(100L)
+                                               .build();
+
+        final Schedule<Actions> low = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
+                                              .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                  .setCountGoal(1)
+                                                                  .setEventName("event")
+                                                                  .build())
+                                              .setPriority(2)
+                                              .setTriggeredTime(100L)
+                                              .build();
+
+        schedule(low);
+        schedule(high);
+
+        CustomEvent.newBuilder("event")
+                   .build()
+                   .track();
+
+        runLooperTasks();
+
+        // Prepares start in priority order
+        assertEquals(1, (int) driver.priorityAndTriggeredTimeList.get(0).first);
+        assertEquals(2, (int) driver.priorityAndTriggeredTimeList.get(1).first);
+
+        // Lower priority finishes first
+        driver.prepareCallbackMap.get(low.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
+
+        assertTrue(driver.executionCallbackMap.containsKey(low.getId()));
+        assertFalse(driver.executionCallbackMap.containsKey(high.getId()));
+        verifyState(high, ScheduleState.PREPARING_SCHEDULE);
+
+        driver.prepareCallbackMap.get(high.getId()).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
+        runLooperTasks();
+
+        assertTrue(driver.executionCallbackMap.containsKey(high.getId()));
+    }
+
     @Test
     public void testExpiryListener() throws ExecutionException, InterruptedException {
         Schedule<Actions> schedule = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
@@ -729,6 +784,70 @@ public class AutomationEngineTest {
         assertEquals(edits.getEnd().longValue(), updated.getEnd());
     }
 
+    @Test
+    public void testEditSchedules() throws Exception {
+        final Schedule<Actions> first = Schedule.newBuilder(this.schedule)
+                                                .setId("first")
+                                                .build();
+        final Schedule<Actions> second = Schedule.newBuilder(this.schedule)
+                                                 .setId("second")
+                                                 .setEditGracePeriod(100, TimeUnit.SECONDS)
+                                                 .build();
+        schedule(first);
+        schedule(second);
+
+        Map<String, ScheduleEdits<? extends ScheduleData>> edits = new HashMap<>();
+        edits.put("first", ScheduleEdits.newBuilder().setPriority(10).build());
+        edits.put("second", ScheduleEdits.newBuilder().setEnd(System.currentTimeMillis() - 1).build());
+        edits.put("missing", ScheduleEdits.newBuilder().setPriority(10).build());
+
+        Future<Collection<String>> future = automationEngine.editSchedules(edits);
+        runLooperTasks();
+        assertEquals(new HashSet<>(Arrays.asList("first", "second")), new HashSet<>(future.get()));
+
+        Future<Schedule<Actions>> updatedFuture = automationEngine.getSchedule("first", Schedule.TYPE_ACTION);
+        runLooperTasks();
+        assertEquals(10, updatedFuture.get().getPriority());
+
+        verifyState(first, ScheduleState.IDLE);
+        verifyState(second, ScheduleState.FINISHED);
+    }
+
+    @Test
+    public void testGetDeferredSchedulesNearTrigger() throws Exception {
+        Schedule<Deferred> foreground = Schedule.newBuilder(new Deferred(Uri.parse("https://neat"), false))
+                                                .setId("foreground")
+                                                .addTrigger(Triggers.newForegroundTriggerBuilder().build())
+                                                .build();
+
+        Schedule<Deferred> farFromGoal = Schedule.newBuilder(new Deferred(Uri.parse("https://neat"), false))
+                                                 .setId("far")
+                                                 .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                     .setCountGoal(5)
+                                                                     .setEventName("event")
+                                                                     .build())
+                                                 .build();
+
+        Schedule<Deferred> nearGoal = Schedule.newBuilder(new Deferred(Uri.parse("https://neat"), false))
+                                              .setId("near")
+                                              .addTrigger(Triggers.newCustomEventTriggerBuilder()
+                                                                  .setCountGoal(1)
+                                                                  .setEventName("event")
+                                                                  .build())
+                                              .build();
+
+        schedule(foreground);
+        schedule(farFromGoal);
+        schedule(nearGoal);
+
+        Future<Collection<Schedule<? extends ScheduleData>>> future = automationEngine.getDeferredSchedulesNearTrigger();
+        runLooperTasks();
+
+        Collection<Schedule<? extends ScheduleData>> result = future.get();
+        assertEquals(1, result.size());
+        assertEquals("foreground", result.iterator().next().getId());
+    }
+
     @Test
     public void testInterval() throws Exception {
         final Schedule schedule = Schedule.newBuilder(this.schedule)
@@ -9,6 +9,7 @@ import com.urbanairship.AirshipLoopers;
 import com.urbanairship.PendingResult;
 import com.urbanairship.PrivacyManager;
 import com.urbanairship.ShadowAirshipExecutorsLegacy;
+import com.urbanairship.TestActivityMonitor;
 import com.urbanairship.TestApplication;
 import com.urbanairship.TestRequestSession;
 import com.urbanairship.UAirship;
@@ -19,6 +20,7 @@ import com.urbanairship.audience.DeviceInfoProvider;
 import com.urbanairship.automation.actions.Actions;
 import com.urbanairship.automation.deferred.AutomationDeferredResult;
 import com.urbanairship.automation.deferred.Deferred;
+import com.urbanairship.automation.deferred.SpeculativeDeferredResolver;
 import com.urbanairship.automation.limits.FrequencyChecker;
 import com.urbanairship.automation.limits.FrequencyConstraint;
 import com.urbanairship.automation.limits.FrequencyLimitManager;
@@ -38,7 +40,10 @@ import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageManager;
+import com.urbanairship.iam.assets.AssetManager;
 import com.urbanairship.iam.custom.CustomDisplayContent;
+import com.urbanairship.job.JobInfo;
+import com.urbanairship.job.JobResult;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.locale.LocaleManager;
@@ -61,6 +66,7 @@ import org.robolectric.annotation.Config;
 import org.robolectric.annotation.LooperMode;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -134,7 +140,9 @@ public class InAppAutomationTest {
     private Contact mockContact = mock(Contact.class);
 
     private DeferredResolver deferredResolver;
+    private SpeculativeDeferredResolver speculativeResolver;
     private LocaleManager localeManager;
+    private TestActivityMonitor activityMonitor;
 
     @Before
     public void setup() {
@@ -144,6 +152,8 @@ public class InAppAutomationTest {
         mockObserver = mock(InAppRemoteDataObserver.class);
         mockEngine = mock(AutomationEngine.class);
         deferredResolver = mock(DeferredResolver.class);
+        speculativeResolver = mock(SpeculativeDeferredResolver.class);
+        activityMonitor = new TestActivityMonitor();
         mockExperimentManager = mock(ExperimentManager.class);
         localeManager = mock(LocaleManager.class);
 
@@ -181,7 +191,8 @@ public class InAppAutomationTest {
                 mockRuntimeConfig, privacyManager, mockEngine, mockChannel, mockObserver, mockIamManager,
                 executor, mockActionsScheduleDelegate, mockMessageScheduleDelegate,
                 mockFrequencyLimitManager, audienceOverridesProvider, mockExperimentManager, mockInfoProvider,
-                meteredUsage, mockClock, executor, mockContact, deferredResolver, localeManager);
+                meteredUsage, mockClock, executor, mockContact, deferredResolver, speculativeResolver,
+                localeManager, activityMonitor);
 
         inAppAutomation.init();
         inAppAutomation.onAirshipReady(UAirship.shared());
@@ -324,6 +335,33 @@ public class InAppAutomationTest {
         verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_CONTINUE);
     }
 
+    @Test
+    public void testPrepareScheduleStageMetrics() {
+        InAppMessage message = InAppMessage.newBuilder()
+                                           .setDisplayContent(new CustomDisplayContent(JsonValue.NULL))
+                                           .build();
+
+        Schedule<InAppMessage> schedule = Schedule.newBuilder(message)
+                                                  .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
+                                                  .setBypassHoldoutGroups(true)
+                                                  .build();
+
+        when(mockObserver.requiresRefresh(eq(schedule))).thenReturn(false);
+        when(mockObserver.bestEffortRefresh(eq(schedule))).thenReturn(true);
+        when(mockClock.elapsedRealtime()).thenReturn(100L, 110L);
+
+        driver.onPrepareSchedule(schedule, null, mock(AutomationDriver.PrepareScheduleCallback.class));
+
+        PrepareMetrics metrics = inAppAutomation.getPrepareMetrics();
+        PrepareMetrics.Stats checkValid = metrics.getStats(PrepareMetrics.STAGE_CHECK_VALID);
+        assertEquals(1, checkValid.count);
+        assertEquals(10, checkValid.totalMillis);
+        assertEquals(1, metrics.getStats(PrepareMetrics.STAGE_FREQUENCY_CHECKS).count);
+        assertEquals(1, metrics.getStats(PrepareMetrics.STAGE_AUDIENCE_CHECKS).count);
+        assertEquals(1, metrics.getStats(PrepareMetrics.STAGE_EXPERIMENTS).count);
+        assertEquals(1, metrics.getStats(PrepareMetrics.STAGE_PREPARE).count);
+    }
+
     @Test
     public void testPrepareScheduleRequiresRefresh() {
         InAppMessage message = InAppMessage.newBuilder()
@@ -694,6 +732,64 @@ public class InAppAutomationTest {
         verifyNoMoreInteractions(callback);
     }
 
+    @Test
+    public void testSpeculativeResolutionOnBackground() {
+        when(mockChannel.getId()).thenReturn("some channel");
+
+        Deferred deferredScheduleData = new Deferred(Uri.parse("https://neat"), false, Deferred.TYPE_IN_APP_MESSAGE);
+        Schedule<? extends ScheduleData> schedule = Schedule.newBuilder(deferredScheduleData)
+                                                            .addTrigger(Triggers.newForegroundTriggerBuilder().build())
+                                                            .build();
+
+        PendingResult<Collection<Schedule<? extends ScheduleData>>> schedules = new PendingResult<>();
+        schedules.setResult(Collections.singletonList(schedule));
+        when(mockEngine.getDeferredSchedulesNearTrigger()).thenReturn(schedules);
+        when(mockObserver.isScheduleValid(eq(schedule))).thenReturn(true);
+
+        // Disabled by default
+        activityMonitor.background();
+        runLooperTasks();
+        verify(mockEngine, never()).getDeferredSchedulesNearTrigger();
+
+        inAppAutomation.setSpeculativeDeferredResolutionEnabled(true);
+        activityMonitor.background();
+        runLooperTasks();
+
+        ArgumentCaptor<DeferredRequest> requestCaptor = ArgumentCaptor.forClass(DeferredRequest.class);
+        verify(speculativeResolver).prefetch(requestCaptor.capture());
+        assertEquals(Uri.parse("https://neat"), requestCaptor.getValue().getUri());
+        assertEquals("some channel", requestCaptor.getValue().getChannelID());
+    }
+
+    @Test
+    public void testPrepareDeferredScheduleSpeculativeResult() {
+        when(mockChannel.getId()).thenReturn("some channel");
+
+        Deferred deferredScheduleData = new Deferred(Uri.parse("https://neat"), true, Deferred.TYPE_IN_APP_MESSAGE);
+        Schedule<? extends ScheduleData> schedule = Schedule.newBuilder(deferredScheduleData)
+                                                            .addTrigger(Triggers.newCustomEventTriggerBuilder().build())
+                                                            .setBypassHoldoutGroups(true)
+                                                            .setAudience(AudienceSelector.Companion.newBuilder()
+                                                                                                   .setMissBehavior(AudienceSelector.MissBehavior.SKIP)
+                                                                                                   .build())
+                                                            .build();
+
+        PendingResult<DeferredResult<AutomationDeferredResult>> result = new PendingResult<>();
+        result.setResult(new DeferredResult.Success<>(new AutomationDeferredResult(false, null)));
+        when(speculativeResolver.resolveAsPendingResult(any())).thenReturn(result);
+
+        when(mockObserver.requiresRefresh(eq(schedule))).thenReturn(false);
+        when(mockObserver.bestEffortRefresh(eq(schedule))).thenReturn(true);
+
+        inAppAutomation.setSpeculativeDeferredResolutionEnabled(true);
+
+        AutomationDriver.PrepareScheduleCallback callback = mock(AutomationDriver.PrepareScheduleCallback.class);
+        driver.onPrepareSchedule(schedule, null, callback);
+
+        verify(callback).onFinish(AutomationDriver.PREPARE_RESULT_SKIP);
+        verify(deferredResolver, never()).resolveAsPendingResult(any(), any());
+    }
+
     @Test
     public void testIsPaused() {
         Schedule<Actions> schedule = Schedule.newBuilder(new Actions(JsonMap.EMPTY_MAP))
@@ -1062,6 +1158,38 @@ public class InAppAutomationTest {
         verify(mockFrequencyLimitManager).updateConstraints(constraints);
     }
 
+    @Test
+    public void testPrefetchAssets() {
+        AssetManager mockAssetManager = mock(AssetManager.class);
+        when(mockAssetManager.isPrefetchEnabled()).thenReturn(true);
+        when(mockIamManager.getAssetManager()).thenReturn(mockAssetManager);
+
+        InAppMessage message = InAppMessage.newBuilder()
+                                           .setDisplayContent(new CustomDisplayContent(JsonValue.NULL))
+                                           .build();
+
+        Schedule<InAppMessage> schedule = Schedule.newBuilder(message)
+                                                  .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
+                                                  .build();
+
+        PendingResult<Schedule<? extends ScheduleData>> pendingSchedule = new PendingResult<>();
+        pendingSchedule.setResult(schedule);
+        when(mockEngine.getSchedule(schedule.getId())).thenReturn(pendingSchedule);
+        when(mockAssetManager.onPrefetch(schedule.getId(), message)).thenReturn(AssetManager.PREPARE_RESULT_RETRY);
+
+        remoteDataObserverDelegate.prefetchAssets(Collections.singletonList(schedule.getId()));
+
+        JobInfo jobInfo = JobInfo.newBuilder().setAction(InAppAutomation.ACTION_PREFETCH_ASSETS).build();
+        assertEquals(JobResult.RETRY, inAppAutomation.onPerformJob(UAirship.shared(), jobInfo));
+
+        when(mockAssetManager.onPrefetch(schedule.getId(), message)).thenReturn(AssetManager.PREPARE_RESULT_OK);
+        assertEquals(JobResult.SUCCESS, inAppAutomation.onPerformJob(UAirship.shared(), jobInfo));
+
+        // Nothing left to prefetch
+        assertEquals(JobResult.SUCCESS, inAppAutomation.onPerformJob(UAirship.shared(), jobInfo));
+        verify(mockAssetManager, times(2)).onPrefetch(schedule.getId(), message);
+    }
+
     @Test
     public void testConstraintsIsOverLimit() {
         List<String> constraintIds = new ArrayList<>();
@@ -147,6 +147,9 @@ public class InAppRemoteDataObserverTest {
         assertEquals(fooSchedule, delegate.schedules.get("foo"));
         assertEquals(barSchedule, delegate.schedules.get("bar"));
 
+        // Verify only the in-app message assets are prefetched
+        assertEquals(Collections.singletonList("foo"), delegate.prefetched);
+
         // Create another payload with added baz
         payload = new TestPayloadBuilder()
                 .addSchedule(fooSchedule, TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(1))
@@ -395,6 +398,54 @@ public class InAppRemoteDataObserverTest {
 
     }
 
+    @Test
+    public void testEditsBatched() {
+        RemoteDataInfo remoteDataInfo = new RemoteDataInfo("some url", "some time stamp", RemoteDataSource.APP);
+
+        JsonMap metadata = JsonMap.newBuilder()
+                                  .put("com.urbanairship.iaa.REMOTE_DATA_METADATA", JsonMap.EMPTY_MAP)
+                                  .put("com.urbanairship.iaa.REMOTE_DATA_INFO", remoteDataInfo)
+                                  .build();
+
+        TestPayloadBuilder builder = new TestPayloadBuilder()
+                .setTimeStamp(TimeUnit.DAYS.toMillis(1))
+                .setRemoteDataInfo(remoteDataInfo);
+
+        List<Schedule<InAppMessage>> schedules = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Schedule<InAppMessage> schedule = Schedule.newBuilder(InAppMessage.newBuilder()
+                                                                              .setDisplayContent(new CustomDisplayContent(JsonValue.NULL))
+                                                                              .build())
+                                                      .addTrigger(Triggers.newAppInitTriggerBuilder()
+                                                                          .setGoal(1)
+                                                                          .build())
+                                                      .setId("schedule-" + i)
+                                                      .setMetadata(metadata)
+                                                      .build();
+            schedules.add(schedule);
+            builder.addSchedule(schedule, TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(1));
+        }
+
+        consumer.accept(Collections.singletonList(builder.build()));
+        assertEquals(0, delegate.editCalls);
+
+        // Update all but the last schedule, which gets ended
+        builder = new TestPayloadBuilder()
+                .setTimeStamp(TimeUnit.DAYS.toMillis(2))
+                .setRemoteDataInfo(remoteDataInfo);
+        for (int i = 0; i < 9; i++) {
+            builder.addSchedule(schedules.get(i), TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(2));
+        }
+
+        delegate.prefetched.clear();
+        consumer.accept(Collections.singletonList(builder.build()));
+
+        // One call for the updates and one for the removal
+        assertEquals(2, delegate.editCalls);
+        assertEquals(9, delegate.prefetched.size());
+        assertEquals(Long.valueOf(TimeUnit.DAYS.toMillis(2)), delegate.getScheduleEdits("schedule-9").getEnd());
+    }
+
     @Test
     public void testMetadataChange() {
         RemoteDataInfo remoteDataInfo = new RemoteDataInfo("some url", "some time stamp", RemoteDataSource.APP);
@@ -643,6 +694,8 @@ public class InAppRemoteDataObserverTest {
         private final Map<String, Schedule<? extends ScheduleData>> schedules = new HashMap<>();
         private final Map<String, ScheduleEdits<? extends ScheduleData>> scheduleEdits = new HashMap<>();
         private final List<Collection<FrequencyConstraint>> constraintUpdates = new ArrayList<>();
+        private final List<String> prefetched = new ArrayList<>();
+        private int editCalls = 0;
 
         @NonNull
         @Override
@@ -673,20 +726,27 @@ public class InAppRemoteDataObserverTest {
 
         @NonNull
         @Override
-        public PendingResult<Boolean> editSchedule(@NonNull String scheduleId, @NonNull ScheduleEdits<? extends ScheduleData> edits) {
-            PendingResult<Boolean> result = new PendingResult<>();
-            Schedule<?> schedule = schedules.get(scheduleId);
-
-            if (schedule != null) {
-                scheduleEdits.put(scheduleId, edits);
-                result.setResult(true);
-            } else {
-                result.setResult(false);
+        public PendingResult<Collection<String>> editSchedules(@NonNull Map<String, ScheduleEdits<? extends ScheduleData>> edits) {
+            editCalls++;
+
+            List<String> edited = new ArrayList<>();
+            for (Map.Entry<String, ScheduleEdits<? extends ScheduleData>> entry : edits.entrySet()) {
+                if (schedules.containsKey(entry.getKey())) {
+                    scheduleEdits.put(entry.getKey(), entry.getValue());
+                    edited.add(entry.getKey());
+                }
             }
 
+            PendingResult<Collection<String>> result = new PendingResult<>();
+            result.setResult(edited);
             return result;
         }
 
+        @Override
+        public void prefetchAssets(@NonNull Collection<String> scheduleIds) {
+            prefetched.addAll(scheduleIds);
+        }
+
         public ScheduleEdits<? extends ScheduleData> getScheduleEdits(@NonNull String scheduleId) {
             return scheduleEdits.get(scheduleId);
         }
@@ -0,0 +1,144 @@
+package com.urbanairship.automation.deferred
+
+import android.net.Uri
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.urbanairship.audience.AudienceOverrides
+import com.urbanairship.cache.AirshipCache
+import com.urbanairship.channel.TagGroupsMutation
+import com.urbanairship.deferred.DeferredRequest
+import com.urbanairship.deferred.DeferredResolver
+import com.urbanairship.deferred.DeferredResult
+import com.urbanairship.deferred.DeferredTriggerContext
+import com.urbanairship.json.JsonValue
+import com.urbanairship.json.jsonMapOf
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.mockk
+import java.util.Locale
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+public class SpeculativeDeferredResolverTest {
+
+    private val cache: AirshipCache = mockk(relaxed = true)
+    private val resolver: DeferredResolver = mockk {
+        coEvery { audienceOverrides(any()) } returns AudienceOverrides.Channel()
+    }
+
+    private val speculativeResolver = SpeculativeDeferredResolver(
+        resolver = resolver,
+        cache = cache,
+        ttlMs = 1000,
+        dispatcher = UnconfinedTestDispatcher()
+    )
+
+    private val request = DeferredRequest(
+        uri = Uri.parse("https://neat"),
+        channelID = "some channel",
+        contactID = "some contact",
+        locale = Locale.US,
+        notificationOptIn = true,
+        appVersion = "1.0.0",
+        sdkVersion = "2.0.0"
+    )
+
+    private val response = jsonMapOf("audience_match" to false).toJsonValue()
+
+    @Test
+    public fun testPrefetchCachesResponse() {
+        coEvery { cache.getCached<JsonValue>(any(), any()) } returns null
+        coEvery { resolver.resolve<JsonValue>(request, any()) } returns DeferredResult.Success(response)
+
+        assertTrue(speculativeResolver.prefetch(request).get()!!)
+
+        coVerify {
+            cache.store(
+                response,
+                match { it.startsWith("speculative_deferred:https://neat:some channel:some contact:1.0.0:2.0.0:true:en_US:") },
+                1000u
+            )
+        }
+    }
+
+    @Test
+    public fun testPrefetchFailed() {
+        coEvery { cache.getCached<JsonValue>(any(), any()) } returns null
+        coEvery { resolver.resolve<JsonValue>(request, any()) } returns DeferredResult.TimedOut()
+
+        assertFalse(speculativeResolver.prefetch(request).get()!!)
+
+        coVerify(exactly = 0) { cache.store(any(), any(), any()) }
+    }
+
+    @Test
+    public fun testResolveUsesCachedResponse() {
+        val cached = AutomationDeferredResult(isAudienceMatched = false, inAppMessage = null)
+        coEvery { cache.getCached<AutomationDeferredResult>(any(), any()) } returns cached
+
+        val result = speculativeResolver.resolveAsPendingResult(request).get()
+
+        assertEquals(cached, (result as DeferredResult.Success).result)
+        coVerify(exactly = 0) { resolver.resolve<AutomationDeferredResult>(any(), any()) }
+    }
+
+    @Test
+    public fun testResolveWithoutCachedResponse() {
+        val resolved = AutomationDeferredResult(isAudienceMatched = true, inAppMessage = null)
+        coEvery { cache.getCached<AutomationDeferredResult>(any(), any()) } returns null
+        coEvery { resolver.resolve<AutomationDeferredResult>(request, any()) } returns DeferredResult.Success(resolved)
+
+        val result = speculativeResolver.resolveAsPendingResult(request).get()
+
+        assertEquals(resolved, (result as DeferredResult.Success).result)
+    }
+
+    @Test
+    public fun testCacheKeyIncludesAudienceOverrides() {
+        val keys = mutableListOf<String>()
+        coEvery { cache.getCached<JsonValue>(capture(keys), any()) } returns null
+        coEvery { resolver.resolve<JsonValue>(request, any()) } returns DeferredResult.TimedOut()
+
+        speculativeResolver.prefetch(request).get()
+
+        coEvery { resolver.audienceOverrides(request) } returns AudienceOverrides.Channel(
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("group", setOf("tag")))
+        )
+        speculativeResolver.prefetch(request).get()
+
+        assertEquals(2, keys.size)
+        assertNotEquals(keys[0], keys[1])
+    }
+
+    @Test
+    public fun testResolveSkipsCacheForEventTriggers() {
+        val eventRequest = request.copy(
+            triggerContext = DeferredTriggerContext("custom_event_count", 1.0, JsonValue.wrap("event"))
+        )
+        val resolved = AutomationDeferredResult(isAudienceMatched = true, inAppMessage = null)
+        coEvery { resolver.resolve<AutomationDeferredResult>(eventRequest, any()) } returns DeferredResult.Success(resolved)
+
+        val result = speculativeResolver.resolveAsPendingResult(eventRequest).get()
+
+        assertEquals(resolved, (result as DeferredResult.Success).result)
+        coVerify(exactly = 0) { cache.getCached<AutomationDeferredResult>(any(), any()) }
+    }
+
+    @Test
+    public fun testResolveUsesCacheForForegroundTrigger() {
+        val foregroundRequest = request.copy(
+            triggerContext = DeferredTriggerContext("foreground", 1.0, JsonValue.NULL)
+        )
+        val cached = AutomationDeferredResult(isAudienceMatched = false, inAppMessage = null)
+        coEvery { cache.getCached<AutomationDeferredResult>(any(), any()) } returns cached
+
+        val result = speculativeResolver.resolveAsPendingResult(foregroundRequest).get()
+
+        assertEquals(cached, (result as DeferredResult.Success).result)
+    }
+}
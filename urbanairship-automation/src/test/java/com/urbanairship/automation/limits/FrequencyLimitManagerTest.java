@@ -298,6 +298,64 @@ public class FrequencyLimitManagerTest {
         assertEquals(1, dao.getOccurrences("foo").size());
     }
 
+    @Test
+    public void testLoadsRecentOccurrences() throws ExecutionException, InterruptedException {
+        limitManager.updateConstraints(Collections.singletonList(FrequencyConstraint.newBuilder()
+                                                                                    .setCount(2)
+                                                                                    .setRange(TimeUnit.MILLISECONDS, 100)
+                                                                                    .setId("foo")
+                                                                                    .build())).get();
+
+        for (int i = 0; i < 50; i++) {
+            OccurrenceEntity occurrence = new OccurrenceEntity();
+            occurrence.parentConstraintId = "foo";
+            occurrence.timeStamp = i * 10;
+            dao.insert(occurrence);
+        }
+
+        clock.currentTimeMillis = 550;
+        FrequencyChecker checker = limitManager.getFrequencyChecker(ids("foo")).get();
+
+        // Second most recent occurrence at 480 is within the range
+        assertTrue(checker.isOverLimit());
+
+        clock.currentTimeMillis = 581;
+        assertFalse(checker.isOverLimit());
+
+        // Occurrences before 450 are outside of the range and pruned
+        List<OccurrenceEntity> occurrences = dao.getOccurrences("foo");
+        assertEquals(5, occurrences.size());
+        assertEquals(450, occurrences.get(0).timeStamp);
+    }
+
+    @Test
+    public void testCachesOccurrences() throws ExecutionException, InterruptedException {
+        limitManager.updateConstraints(Collections.singletonList(FrequencyConstraint.newBuilder()
+                                                                                    .setCount(1)
+                                                                                    .setRange(TimeUnit.MILLISECONDS, 10)
+                                                                                    .setId("foo")
+                                                                                    .build())).get();
+
+        FrequencyChecker checker = limitManager.getFrequencyChecker(ids("foo")).get();
+        assertTrue(checker.checkAndIncrement());
+
+        // A new checker uses the cached history instead of reloading
+        FrequencyChecker otherChecker = limitManager.getFrequencyChecker(ids("foo")).get();
+        assertTrue(otherChecker.isOverLimit());
+
+        // Updating the count reloads the history
+        limitManager.updateConstraints(Collections.singletonList(FrequencyConstraint.newBuilder()
+                                                                                    .setCount(2)
+                                                                                    .setRange(TimeUnit.MILLISECONDS, 10)
+                                                                                    .setId("foo")
+                                                                                    .build())).get();
+
+        otherChecker = limitManager.getFrequencyChecker(ids("foo")).get();
+        assertFalse(otherChecker.isOverLimit());
+        assertTrue(otherChecker.checkAndIncrement());
+        assertTrue(otherChecker.isOverLimit());
+    }
+
     private static Collection<String> ids(String... ids) {
         return Arrays.asList(ids);
     }
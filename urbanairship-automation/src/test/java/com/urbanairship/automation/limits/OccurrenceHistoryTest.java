@@ -0,0 +1,36 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.limits;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class OccurrenceHistoryTest {
+
+    @Test
+    public void testKeepsMostRecent() {
+        OccurrenceHistory history = new OccurrenceHistory(3);
+        history.add(1);
+        history.add(2);
+        assertEquals(2, history.size());
+        assertEquals(2, history.getRecent(1));
+        assertEquals(1, history.getRecent(2));
+
+        history.add(3);
+        history.add(4);
+        history.add(5);
+        assertEquals(3, history.size());
+        assertEquals(5, history.getRecent(1));
+        assertEquals(4, history.getRecent(2));
+        assertEquals(3, history.getRecent(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidPosition() {
+        OccurrenceHistory history = new OccurrenceHistory(3);
+        history.add(1);
+        history.getRecent(2);
+    }
+
+}
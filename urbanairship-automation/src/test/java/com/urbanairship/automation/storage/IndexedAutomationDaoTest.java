@@ -0,0 +1,260 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.automation.storage;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteException;
+
+import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.automation.Trigger;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonMatcher;
+import com.urbanairship.json.JsonPredicate;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.json.ValueMatcher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@RunWith(AndroidJUnit4.class)
+public class IndexedAutomationDaoTest {
+
+    private AutomationDatabase database;
+    private AutomationDao databaseDao;
+    private IndexedAutomationDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AutomationDatabase.class)
+                       .allowMainThreadQueries()
+                       .build();
+        databaseDao = database.getScheduleDao();
+        dao = new IndexedAutomationDao(databaseDao);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Test the index returns the same active triggers as the database query.
+     */
+    @Test
+    public void testActiveTriggersMatchDatabase() {
+        dao.insert(createSchedule("idle", ScheduleState.IDLE, -1, "purchase"));
+        dao.insert(createSchedule("waiting", ScheduleState.WAITING_SCHEDULE_CONDITIONS, -1, "purchase"));
+        dao.insert(createSchedule("finished", ScheduleState.FINISHED, -1, "purchase"));
+        dao.insert(createSchedule("future", ScheduleState.IDLE, System.currentTimeMillis() + 100000, "purchase"));
+        dao.insert(createSchedule("no name", ScheduleState.IDLE, -1, null));
+
+        for (int type : new int[] { Trigger.CUSTOM_EVENT_COUNT, Trigger.SCREEN_VIEW }) {
+            assertEquals(parentIds(databaseDao.getActiveTriggers(type)), parentIds(dao.getActiveTriggers(type)));
+            for (String scheduleId : new String[] { "idle", "waiting", "finished", "future" }) {
+                assertEquals(parentIds(databaseDao.getActiveTriggers(type, scheduleId)), parentIds(dao.getActiveTriggers(type, scheduleId)));
+            }
+        }
+    }
+
+    /**
+     * Test custom event triggers are looked up by event name.
+     */
+    @Test
+    public void testEventTriggers() {
+        dao.insert(createSchedule("purchase", ScheduleState.IDLE, -1, "purchase"));
+        dao.insert(createSchedule("other", ScheduleState.IDLE, -1, "other"));
+        dao.insert(createSchedule("any", ScheduleState.IDLE, -1, null));
+
+        JsonValue event = JsonMap.newBuilder().put(CustomEvent.EVENT_NAME, "purchase").build().toJsonValue();
+        List<String> ids = parentIds(dao.getActiveEventTriggers(Trigger.CUSTOM_EVENT_COUNT, event));
+        assertEquals(2, ids.size());
+        assertTrue(ids.contains("purchase:false"));
+        assertTrue(ids.contains("any:false"));
+    }
+
+    /**
+     * Test trigger progress is written to the database when flushed, and reads see pending progress.
+     */
+    @Test
+    public void testTriggerProgress() {
+        dao.insert(createSchedule("idle", ScheduleState.IDLE, -1, "purchase"));
+
+        List<TriggerEntity> triggers = dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT);
+        triggers.get(0).progress = 1;
+        dao.updateTriggers(triggers);
+
+        assertEquals(1, dao.getPendingTriggerCount());
+        assertEquals(0.0, databaseDao.getSchedule("idle").triggers.get(0).progress);
+        assertEquals(1.0, dao.getSchedule("idle").triggers.get(0).progress);
+        assertEquals(1.0, dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).get(0).progress);
+
+        dao.flushPendingTriggers();
+        assertEquals(0, dao.getPendingTriggerCount());
+        assertEquals(1.0, databaseDao.getSchedule("idle").triggers.get(0).progress);
+    }
+
+    /**
+     * Test schedule updates and deletes are written through to the index.
+     */
+    @Test
+    public void testWriteThrough() {
+        dao.insert(createSchedule("idle", ScheduleState.IDLE, -1, "purchase"));
+        assertEquals(1, dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).size());
+
+        FullSchedule entry = dao.getSchedule("idle");
+        entry.schedule.executionState = ScheduleState.PAUSED;
+        dao.update(entry);
+        assertEquals(0, dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).size());
+
+        entry.schedule.executionState = ScheduleState.IDLE;
+        dao.update(entry);
+        assertEquals(1, dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).size());
+
+        dao.delete(entry);
+        assertEquals(0, dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT).size());
+    }
+
+    /**
+     * Test schedule writes flush pending trigger progress first.
+     */
+    @Test
+    public void testWriteFlushesPending() {
+        dao.insert(createSchedule("first", ScheduleState.IDLE, -1, "purchase"));
+        dao.insert(createSchedule("second", ScheduleState.IDLE, -1, "purchase"));
+
+        List<TriggerEntity> triggers = dao.getActiveTriggers(Trigger.CUSTOM_EVENT_COUNT);
+        for (TriggerEntity trigger : triggers) {
+            trigger.progress = 1;
+        }
+        dao.updateTriggers(triggers);
+
+        FullSchedule entry = dao.getSchedule("first");
+        entry.schedule.executionState = ScheduleState.PAUSED;
+        dao.update(entry);
+
+        assertEquals(0, dao.getPendingTriggerCount());
+        assertEquals(1.0, databaseDao.getSchedule("second").triggers.get(0).progress);
+    }
+
+    /**
+     * Test inserting more schedules than SQLite allows in a single query keeps them all indexed.
+     */
+    @Test
+    public void testInsertManySchedules() {
+        AutomationDao limitedDao = spy(databaseDao);
+        doAnswer(new Answer<List<FullSchedule>>() {
+            @Override
+            public List<FullSchedule> answer(InvocationOnMock invocation) throws Throwable {
+                Collection<String> ids = invocation.getArgument(0);
+                if (ids.size() > 999) {
+                    throw new SQLiteException("too many SQL variables");
+                }
+                return (List<FullSchedule>) invocation.callRealMethod();
+            }
+        }).when(limitedDao).getSchedules(anyCollection());
+
+        dao = new IndexedAutomationDao(new AutomationDaoWrapper(limitedDao));
+        dao.getSchedules();
+
+        List<FullSchedule> entries = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            entries.add(createSchedule("schedule " + i, ScheduleState.IDLE, -1, "purchase"));
+        }
+        dao.insert(entries);
+
+        JsonValue event = JsonMap.newBuilder().put(CustomEvent.EVENT_NAME, "purchase").build().toJsonValue();
+        List<String> ids = parentIds(dao.getActiveEventTriggers(Trigger.CUSTOM_EVENT_COUNT, event));
+        assertEquals(2400, ids.size());
+        assertTrue(ids.contains("schedule 1199:false"));
+    }
+
+    /**
+     * Test a failed reload drops the index so it is rebuilt from the database.
+     */
+    @Test
+    public void testFailedReloadRebuildsIndex() {
+        AutomationDao failingDao = spy(databaseDao);
+        dao = new IndexedAutomationDao(new AutomationDaoWrapper(failingDao));
+        dao.insert(createSchedule("first", ScheduleState.IDLE, -1, "purchase"));
+        assertEquals(1, dao.getActiveTriggers(Trigger.SCREEN_VIEW).size());
+
+        doAnswer(new Answer<List<FullSchedule>>() {
+            @Override
+            public List<FullSchedule> answer(InvocationOnMock invocation) {
+                throw new SQLiteException("failed");
+            }
+        }).when(failingDao).getSchedules(anyCollection());
+        dao.insert(createSchedule("second", ScheduleState.IDLE, -1, "purchase"));
+
+        assertEquals(2, dao.getActiveTriggers(Trigger.SCREEN_VIEW).size());
+    }
+
+    @NonNull
+    private FullSchedule createSchedule(@NonNull String scheduleId, int executionState, long scheduleStart, @Nullable String eventName) {
+        ScheduleEntity schedule = new ScheduleEntity();
+        schedule.scheduleId = scheduleId;
+        schedule.scheduleType = "actions";
+        schedule.data = JsonValue.NULL;
+        schedule.executionState = executionState;
+        schedule.scheduleStart = scheduleStart;
+        schedule.scheduleEnd = -1;
+
+        List<TriggerEntity> triggers = new ArrayList<>();
+        triggers.add(createTrigger(scheduleId, Trigger.CUSTOM_EVENT_COUNT, false, eventName));
+        triggers.add(createTrigger(scheduleId, Trigger.CUSTOM_EVENT_COUNT, true, eventName));
+        triggers.add(createTrigger(scheduleId, Trigger.SCREEN_VIEW, false, null));
+        return new FullSchedule(schedule, triggers);
+    }
+
+    @NonNull
+    private TriggerEntity createTrigger(@NonNull String scheduleId, int type, boolean isCancellation, @Nullable String eventName) {
+        TriggerEntity trigger = new TriggerEntity();
+        trigger.parentScheduleId = scheduleId;
+        trigger.triggerType = type;
+        trigger.goal = 10;
+        trigger.isCancellation = isCancellation;
+        if (eventName != null) {
+            trigger.jsonPredicate = JsonPredicate.newBuilder()
+                                                 .setPredicateType(JsonPredicate.AND_PREDICATE_TYPE)
+                                                 .addMatcher(JsonMatcher.newBuilder()
+                                                                        .setKey(CustomEvent.EVENT_NAME)
+                                                                        .setValueMatcher(ValueMatcher.newValueMatcher(JsonValue.wrap(eventName)))
+                                                                        .build())
+                                                 .build();
+        }
+        return trigger;
+    }
+
+    @NonNull
+    private static List<String> parentIds(@NonNull List<TriggerEntity> triggers) {
+        List<String> ids = new ArrayList<>();
+        for (TriggerEntity trigger : triggers) {
+            ids.add(trigger.parentScheduleId + ":" + trigger.isCancellation);
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+}
@@ -0,0 +1,88 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam.assets;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AssetCache}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AssetCacheTest {
+
+    private Context context;
+    private AssetCache assetCache;
+
+    @Before
+    public void setup() {
+        context = ApplicationProvider.getApplicationContext();
+        assetCache = new AssetCache(context, 10);
+    }
+
+    /**
+     * Test assets of different schedules share files for the same key.
+     */
+    @Test
+    public void testSharedFiles() throws IOException {
+        File first = assetCache.getAssets("first").file("https://image");
+        File second = assetCache.getAssets("second").file("https://image");
+        assertEquals(first, second);
+
+        writeFile(first, 1);
+
+        assetCache.releaseAssets("first", true);
+        assertTrue(second.exists());
+
+        assetCache.releaseAssets("second", true);
+        assertFalse(second.exists());
+    }
+
+    /**
+     * Test trimming evicts the least recently used files of inactive schedules.
+     */
+    @Test
+    public void testTrimToSize() throws IOException {
+        File oldest = assetCache.getAssets("oldest").file("https://oldest");
+        writeFile(oldest, 4);
+        assertTrue(oldest.setLastModified(1000));
+
+        File newest = assetCache.getAssets("newest").file("https://newest");
+        writeFile(newest, 4);
+        assertTrue(newest.setLastModified(2000));
+
+        File active = assetCache.getAssets("active").file("https://active");
+        writeFile(active, 4);
+        assertTrue(active.setLastModified(0));
+
+        assetCache.releaseAssets("oldest", false);
+        assetCache.releaseAssets("newest", false);
+        assetCache.trimToSize();
+
+        assertFalse(oldest.exists());
+        assertTrue(newest.exists());
+        assertTrue(active.exists());
+    }
+
+    private static void writeFile(@NonNull File file, int size) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[size]);
+        outputStream.close();
+    }
+
+}
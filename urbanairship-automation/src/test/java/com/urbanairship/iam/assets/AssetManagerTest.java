@@ -131,4 +131,30 @@ public class AssetManagerTest {
         verify(mockCache).releaseAssets("some-id", true);
     }
 
+    /**
+     * Test prefetching is skipped if the cache policy does not cache on schedule.
+     */
+    @Test
+    public void testPrefetchRespectsCachePolicy() {
+        when(mockCachePolicyDelegate.shouldCacheOnSchedule("some-id", MESSAGE)).thenReturn(false);
+
+        assertEquals(AssetManager.PREPARE_RESULT_OK, assetManager.onPrefetch("some-id", MESSAGE));
+        verifyNoInteractions(mockCache);
+        verifyNoInteractions(mockAssetsDelegate);
+    }
+
+    /**
+     * Test prefetching does not call the app's prepare assets delegate.
+     */
+    @Test
+    public void testPrefetchSkipsPrepareDelegate() {
+        Assets mockAssets = mock(Assets.class);
+        when(mockCache.getAssets("some-id")).thenReturn(mockAssets);
+        when(mockCachePolicyDelegate.shouldCacheOnSchedule("some-id", MESSAGE)).thenReturn(true);
+
+        assertEquals(AssetManager.PREPARE_RESULT_OK, assetManager.onPrefetch("some-id", MESSAGE));
+        verify(mockCache).releaseAssets("some-id", false);
+        verifyNoInteractions(mockAssetsDelegate);
+    }
+
 }
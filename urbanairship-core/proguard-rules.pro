@@ -47,3 +47,7 @@
 -dontwarn com.urbanairship.location.FusedLocationAdapter*
 -dontwarn com.urbanairship.activity.ThemedActivity*
 -dontnote com.urbanairship.google.PlayServicesUtils
+
+## OkHttp is optional, the pooled HTTP client is only used if the app includes it
+-dontwarn okhttp3.**
+-dontwarn okio.**
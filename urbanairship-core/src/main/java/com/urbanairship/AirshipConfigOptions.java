@@ -419,6 +419,22 @@ public class AirshipConfigOptions {
      */
     public final boolean autoPauseInAppAutomationOnLaunch;
 
+    /**
+     * Flag indicating whether or not analytics events are buffered in memory and written to the
+     * database in batches instead of one at a time. Buffered events are flushed when the batch is full,
+     * after a short delay, or when the app is backgrounded.
+     * Defaults to false.
+     */
+    public final boolean analyticsGroupCommitEnabled;
+
+    /**
+     * Flag indicating whether or not the SDK uses a pooled HTTP client that keeps connections alive
+     * between requests and uses HTTP/2 when the server supports it. Requires OkHttp to be included
+     * in the app, otherwise the default client is used.
+     * Defaults to false.
+     */
+    public final boolean httpConnectionPoolingEnabled;
+
     private AirshipConfigOptions(@NonNull Builder builder) {
         if (builder.inProduction) {
             this.appKey = firstOrEmpty(builder.productionAppKey, builder.appKey);
@@ -473,6 +489,8 @@ public class AirshipConfigOptions {
         this.initialConfigUrl = builder.initialConfigUrl;
         this.isPromptForPermissionOnUserNotificationsEnabled = builder.isPromptForPermissionOnUserNotificationsEnabled;
         this.autoPauseInAppAutomationOnLaunch = builder.autoPauseInAppAutomationOnLaunch;
+        this.analyticsGroupCommitEnabled = builder.analyticsGroupCommitEnabled;
+        this.httpConnectionPoolingEnabled = builder.httpConnectionPoolingEnabled;
     }
 
     private static <T> List<T> copyOrEmpty(@Nullable List<T> list) {
@@ -641,6 +659,8 @@ public class AirshipConfigOptions {
         private static final String FIELD_INITIAL_CONFIG_URL = "initialConfigUrl";
         private static final String FIELD_IS_PROMPT_FOR_PERMISSION_ON_USER_NOTIFICATIONS_ENABLED = "isPromptForPermissionOnUserNotificationsEnabled";
         private static final String FIELD_AUTO_PAUSE_IN_APP_AUTOMATION_ON_LAUNCH = "autoPauseInAppAutomationOnLaunch";
+        private static final String FIELD_ANALYTICS_GROUP_COMMIT_ENABLED = "analyticsGroupCommitEnabled";
+        private static final String FIELD_HTTP_CONNECTION_POOLING_ENABLED = "httpConnectionPoolingEnabled";
 
         private String appKey;
         private String appSecret;
@@ -690,6 +710,10 @@ public class AirshipConfigOptions {
 
         private boolean autoPauseInAppAutomationOnLaunch = false;
 
+        private boolean analyticsGroupCommitEnabled = false;
+
+        private boolean httpConnectionPoolingEnabled = false;
+
         /**
          * Apply the options from the default properties file {@code airshipconfig.properties}.
          * <p>
@@ -1063,6 +1087,14 @@ public class AirshipConfigOptions {
                             this.setAutoPauseInAppAutomationOnLaunch(configParser.getBoolean(name, false));
                             break;
 
+                        case FIELD_ANALYTICS_GROUP_COMMIT_ENABLED:
+                            this.setAnalyticsGroupCommitEnabled(configParser.getBoolean(name, false));
+                            break;
+
+                        case FIELD_HTTP_CONNECTION_POOLING_ENABLED:
+                            this.setHttpConnectionPoolingEnabled(configParser.getBoolean(name, false));
+                            break;
+
                         case FIELD_ENABLED_FEATURES:
                             int value = -1;
                             try {
@@ -1677,6 +1709,32 @@ public class AirshipConfigOptions {
             return this;
         }
 
+        /**
+         * Set the flag indicating whether analytics events are buffered and written to the database
+         * in batches.
+         *
+         * @param analyticsGroupCommitEnabled {@code true} to buffer analytics events, otherwise {@code false}.
+         * @return The config options builder.
+         */
+        @NonNull
+        public Builder setAnalyticsGroupCommitEnabled(boolean analyticsGroupCommitEnabled) {
+            this.analyticsGroupCommitEnabled = analyticsGroupCommitEnabled;
+            return this;
+        }
+
+        /**
+         * Set the flag indicating whether the SDK uses a pooled HTTP client. The pooled client
+         * requires OkHttp, if it is not available the default client will be used.
+         *
+         * @param httpConnectionPoolingEnabled {@code true} to use the pooled HTTP client, otherwise {@code false}.
+         * @return The config options builder.
+         */
+        @NonNull
+        public Builder setHttpConnectionPoolingEnabled(boolean httpConnectionPoolingEnabled) {
+            this.httpConnectionPoolingEnabled = httpConnectionPoolingEnabled;
+            return this;
+        }
+
         /**
          * Builds the config options.
          *
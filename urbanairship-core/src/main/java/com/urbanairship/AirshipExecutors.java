@@ -3,6 +3,7 @@
 package com.urbanairship;
 
 import com.urbanairship.util.AirshipThreadFactory;
+import com.urbanairship.util.BoundedExecutor;
 import com.urbanairship.util.SerialExecutor;
 
 import java.util.concurrent.Executor;
@@ -41,4 +42,16 @@ public class AirshipExecutors {
     public static Executor newSerialExecutor() {
         return new SerialExecutor(THREAD_POOL_EXECUTOR);
     }
+
+    /**
+     * Creates a new executor that shares threads with the {@link #THREAD_POOL_EXECUTOR} and runs
+     * at most {@code maxConcurrency} runnables at a time.
+     *
+     * @param maxConcurrency The max number of runnables to execute at the same time.
+     * @return A new bounded executor.
+     */
+    @NonNull
+    public static Executor newBoundedExecutor(int maxConcurrency) {
+        return new BoundedExecutor(THREAD_POOL_EXECUTOR, maxConcurrency);
+    }
 }
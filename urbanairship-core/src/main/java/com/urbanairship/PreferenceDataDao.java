@@ -2,6 +2,7 @@
 
 package com.urbanairship;
 
+import java.util.Collection;
 import java.util.List;
 
 import androidx.annotation.NonNull;
@@ -27,9 +28,32 @@ public abstract class PreferenceDataDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     public abstract void upsert(@NonNull PreferenceData entity);
 
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void upsert(@NonNull List<PreferenceData> entities);
+
     @Query("DELETE FROM preferences WHERE (`_id` == :key)")
     public abstract void delete(@NonNull String key);
 
+    @Query("DELETE FROM preferences WHERE (`_id` IN (:keys))")
+    public abstract void delete(@NonNull Collection<String> keys);
+
+    /**
+     * Upserts and deletes preferences in a single transaction.
+     *
+     * @param upserts The preferences to upsert.
+     * @param deletes The keys to delete.
+     */
+    @Transaction
+    public void applyChanges(@NonNull List<PreferenceData> upserts, @NonNull Collection<String> deletes) {
+        if (!upserts.isEmpty()) {
+            upsert(upserts);
+        }
+
+        if (!deletes.isEmpty()) {
+            delete(deletes);
+        }
+    }
+
     @Query("DELETE FROM preferences")
     public abstract void deleteAll();
 
@@ -12,6 +12,7 @@ import com.urbanairship.util.UAStringUtil;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
@@ -54,6 +55,16 @@ public final class PreferenceDataStore {
 
     private final List<PreferenceChangeListener> listeners = new ArrayList<>();
 
+    /*
+     * Pending writes by key, a null value deletes the preference. Puts made before the executor
+     * runs are coalesced and written in a single transaction.
+     */
+    private final Map<String, String> pendingWrites = new LinkedHashMap<>();
+    private boolean isFlushScheduled = false;
+
+    // Orders database writes so an older value never overwrites a newer one
+    private final Object writeLock = new Object();
+
     /**
      * Listener for when preferences changes either by the
      * current process or a different process.
@@ -182,9 +193,67 @@ public final class PreferenceDataStore {
      */
     public void tearDown() {
         listeners.clear();
+        flush();
         db.close();
     }
 
+    /**
+     * Writes any pending preference changes to the database. This method will block on the
+     * database write.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            Map<String, String> writes;
+            synchronized (pendingWrites) {
+                writes = new LinkedHashMap<>(pendingWrites);
+                pendingWrites.clear();
+                isFlushScheduled = false;
+            }
+
+            if (writes.isEmpty()) {
+                return;
+            }
+
+            List<PreferenceData> upserts = new ArrayList<>();
+            List<String> deletes = new ArrayList<>();
+            for (Map.Entry<String, String> entry : writes.entrySet()) {
+                if (entry.getValue() == null) {
+                    deletes.add(entry.getKey());
+                } else {
+                    upserts.add(new PreferenceData(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            try {
+                UALog.v("Saving %s preferences, removing %s preferences", upserts.size(), deletes.size());
+                dao.applyChanges(upserts, deletes);
+            } catch (Exception e) {
+                UALog.e(e, "Failed to write preferences, retrying individually.");
+                for (Map.Entry<String, String> entry : writes.entrySet()) {
+                    getPreference(entry.getKey()).writeValue(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a preference write.
+     *
+     * @param key The preference key.
+     * @param value The value, or null to delete the preference.
+     */
+    private void queueWrite(@NonNull String key, @Nullable String value) {
+        synchronized (pendingWrites) {
+            pendingWrites.put(key, value);
+            if (isFlushScheduled) {
+                return;
+            }
+            isFlushScheduled = true;
+        }
+
+        executor.execute(this::flush);
+    }
+
     /**
      * Checks if the value is set.
      *
@@ -229,16 +298,8 @@ public final class PreferenceDataStore {
      * @return The long value for the preference or defaultValue if it doesn't exist.
      */
     public long getLong(@NonNull String key, long defaultValue) {
-        String value = getPreference(key).get();
-        if (value == null) {
-            return defaultValue;
-        }
-
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        Long value = getPreference(key).getLong();
+        return value == null ? defaultValue : value;
     }
 
     /**
@@ -250,16 +311,12 @@ public final class PreferenceDataStore {
      * @return The integer value for the preference or defaultValue if it doesn't exist.
      */
     public int getInt(@NonNull String key, int defaultValue) {
-        String value = getPreference(key).get();
-        if (value == null) {
+        Long value = getPreference(key).getLong();
+        if (value == null || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
             return defaultValue;
         }
 
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return value.intValue();
     }
 
     /**
@@ -270,24 +327,13 @@ public final class PreferenceDataStore {
      */
     @NonNull
     public JsonValue getJsonValue(@NonNull String key) {
-        try {
-            return JsonValue.parseString(getPreference(key).get());
-        } catch (JsonException e) {
-            // Should never happen
-            UALog.d(e, "Unable to parse preference value: %s", key);
-            return JsonValue.NULL;
-        }
+        JsonValue value = getPreference(key).getJsonValue();
+        return value == null ? JsonValue.NULL : value;
     }
 
     @Nullable
     public JsonValue optJsonValue(@NonNull String key) {
-        try {
-            return JsonValue.parseString(getPreference(key).get());
-        } catch (JsonException e) {
-            // Should never happen
-            UALog.d(e, "Unable to parse preference value: %s", key);
-            return null;
-        }
+        return getPreference(key).getJsonValue();
     }
 
     /**
@@ -433,6 +479,12 @@ public final class PreferenceDataStore {
         private final String key;
         private String value;
 
+        // Parsed forms of the value, cleared whenever the value changes
+        private JsonValue jsonValue;
+        private boolean isJsonParsed;
+        private Long longValue;
+        private boolean isLongParsed;
+
         Preference(String key, String value) {
             this.key = key;
             this.value = value;
@@ -449,6 +501,48 @@ public final class PreferenceDataStore {
             }
         }
 
+        /**
+         * Gets the value parsed as a JsonValue. The value is only parsed once.
+         *
+         * @return The parsed value, or null if the value is not valid JSON.
+         */
+        @Nullable
+        JsonValue getJsonValue() {
+            synchronized (this) {
+                if (!isJsonParsed) {
+                    try {
+                        jsonValue = JsonValue.parseString(value);
+                    } catch (JsonException e) {
+                        // Should never happen
+                        UALog.d(e, "Unable to parse preference value: %s", key);
+                        jsonValue = null;
+                    }
+                    isJsonParsed = true;
+                }
+                return jsonValue;
+            }
+        }
+
+        /**
+         * Gets the value parsed as a long. The value is only parsed once.
+         *
+         * @return The parsed value, or null if the value is not set or not a long.
+         */
+        @Nullable
+        Long getLong() {
+            synchronized (this) {
+                if (!isLongParsed) {
+                    try {
+                        longValue = value == null ? null : Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        longValue = null;
+                    }
+                    isLongParsed = true;
+                }
+                return longValue;
+            }
+        }
+
         /**
          * Put a new value for the preference.
          *
@@ -456,12 +550,7 @@ public final class PreferenceDataStore {
          */
         void put(final String value) {
             if (setValue(value)) {
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        writeValue(value);
-                    }
-                });
+                queueWrite(key, value);
             }
         }
 
@@ -475,8 +564,12 @@ public final class PreferenceDataStore {
          * the database, otherwise <code>false</code>
          */
         boolean putSync(String value) {
-            synchronized (this) {
+            synchronized (writeLock) {
                 if (writeValue(value)) {
+                    // Drop any older queued write so it does not overwrite this value
+                    synchronized (pendingWrites) {
+                        pendingWrites.remove(key);
+                    }
                     setValue(value);
                     return true;
                 }
@@ -497,6 +590,10 @@ public final class PreferenceDataStore {
                     return false;
                 }
                 this.value = value;
+                this.jsonValue = null;
+                this.isJsonParsed = false;
+                this.longValue = null;
+                this.isLongParsed = false;
             }
             UALog.v("Preference updated: %s", key);
             onPreferenceChanged(key);
@@ -511,21 +608,18 @@ public final class PreferenceDataStore {
          * the database, otherwise <code>false</code>
          */
         private boolean writeValue(@Nullable final String value) {
-            synchronized (this) {
-                try {
-                    if (value == null) {
-                        UALog.v("Removing preference: %s", key);
-                        dao.delete(key);
-                    } else {
-                        UALog.v("Saving preference: %s value: %s", key, value);
-                        dao.upsert(new PreferenceData(key, value));
-                    }
-                    return true;
-                } catch (Exception e) {
-                    UALog.e(e, "Failed to write preference %s:%s", key, value);
-                    return false;
+            try {
+                if (value == null) {
+                    UALog.v("Removing preference: %s", key);
+                    dao.delete(key);
+                } else {
+                    UALog.v("Saving preference: %s value: %s", key, value);
+                    dao.upsert(new PreferenceData(key, value));
                 }
-
+                return true;
+            } catch (Exception e) {
+                UALog.e(e, "Failed to write preference %s:%s", key, value);
+                return false;
             }
         }
 
@@ -19,6 +19,7 @@ import com.urbanairship.actions.ActionRegistry;
 import com.urbanairship.actions.DeepLinkListener;
 import com.urbanairship.analytics.Analytics;
 import com.urbanairship.app.GlobalActivityMonitor;
+import com.urbanairship.app.SimpleApplicationListener;
 import com.urbanairship.audience.AudienceOverridesProvider;
 import com.urbanairship.audience.DeviceInfoProvider;
 import com.urbanairship.audience.DeviceInfoProviderImpl;
@@ -708,6 +709,13 @@ public class UAirship {
 
         // Create and init the preference data store first
         this.preferenceDataStore = PreferenceDataStore.loadDataStore(getApplicationContext(), airshipConfigOptions);
+        GlobalActivityMonitor.shared(application).addApplicationListener(new SimpleApplicationListener() {
+            @Override
+            public void onBackground(long time) {
+                // Write any pending preference changes before the app may be killed
+                AirshipExecutors.threadPoolExecutor().execute(preferenceDataStore::flush);
+            }
+        });
 
         this.privacyManager = new PrivacyManager(preferenceDataStore, airshipConfigOptions.enabledFeatures);
         this.privacyManager.migrateData();
@@ -798,10 +806,12 @@ public class UAirship {
         processModule(locationModule);
         this.locationClient = locationModule == null ? null : locationModule.getLocationClient();
 
+        AirshipCache airshipCache = new AirshipCache(application, runtimeConfig);
+
         // Automation
         Module automationModule = Modules.automation(application, preferenceDataStore, runtimeConfig,
                 privacyManager, channel, pushManager, analytics, remoteData, this.experimentManager,
-                infoProvider, meteredUsageManager, contact, deferredResolver, localeManager);
+                infoProvider, meteredUsageManager, contact, deferredResolver, localeManager, airshipCache);
         processModule(automationModule);
 
         // Ad Id
@@ -822,7 +832,7 @@ public class UAirship {
 
         // Feature flags
         Module featureFlags = Modules.featureFlags(application, preferenceDataStore, remoteData, analytics, infoProvider,
-                new AirshipCache(application, runtimeConfig), deferredResolver);
+                airshipCache, deferredResolver);
         processModule(featureFlags);
 
         remoteAirshipUrlConfigProvider.addUrlConfigListener(() -> {
@@ -442,6 +442,9 @@ public class Analytics extends AirshipComponent {
         setConversionSendId(null);
         setConversionMetadata(null);
 
+        // Write out any buffered events before the app is possibly killed
+        executor.execute(eventManager::flushEvents);
+
         if (privacyManager.isEnabled(PrivacyManager.FEATURE_ANALYTICS)) {
             eventManager.scheduleEventUpload(0, TimeUnit.MILLISECONDS);
         }
@@ -80,7 +80,7 @@ public class EventApiClient {
                 url,
                 "POST",
                 new RequestAuth.ChannelTokenAuth(channelId),
-                new RequestBody.GzippedJson(JsonValue.wrapOpt(events)),
+                new RequestBody.GzippedStreamingJson(JsonValue.wrapOpt(events)),
                 requestHeaders
         );
 
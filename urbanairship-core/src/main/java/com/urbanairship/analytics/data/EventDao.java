@@ -3,6 +3,7 @@ package com.urbanairship.analytics.data;
 import com.urbanairship.UALog;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.RestrictTo;
@@ -23,6 +24,9 @@ public abstract class EventDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     public abstract void insert(EventEntity event);
 
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insert(List<EventEntity> events);
+
     @Transaction
     @Query("SELECT * FROM events ORDER BY id ASC")
     public abstract List<EventEntity> get();
@@ -31,16 +35,28 @@ public abstract class EventDao {
     @Query("SELECT id, eventId, data FROM events ORDER BY id ASC LIMIT :limit")
     public abstract List<EventEntity.EventIdAndData> getBatch(int limit);
 
+    /**
+     * Deletes a batch of events, issuing one statement per chunk of row IDs instead of
+     * one statement per event.
+     *
+     * @param events The events to delete.
+     */
     @Transaction
     public void deleteBatch(List<EventEntity.EventIdAndData> events) {
+        List<Integer> ids = new ArrayList<>(events.size());
         for (EventEntity.EventIdAndData event : events) {
-            delete(event.eventId);
+            ids.add(event.id);
         }
+
+        BatchedQueryHelper.runBatched(ids, this::deleteIds);
     }
 
     @Query("DELETE FROM events WHERE eventId = :eventId")
     abstract void delete(String eventId);
 
+    @Query("DELETE FROM events WHERE id IN (:ids)")
+    abstract void deleteIds(List<Integer> ids);
+
     @Delete()
     public abstract void delete(EventEntity... events);
 
@@ -56,25 +72,40 @@ public abstract class EventDao {
     @Query("SELECT sessionId FROM events ORDER BY id ASC LIMIT 1")
     abstract String oldestSessionId();
 
+    @Query("SELECT SUM(eventSize) FROM events WHERE sessionId = :sessionId")
+    abstract int sessionSize(String sessionId);
+
     @Query("DELETE FROM events WHERE sessionId = :sessionId")
     abstract int deleteSession(String sessionId);
 
+    /**
+     * Deletes the oldest sessions until the database size is under the given max size. The
+     * total size is only summed once, then tracked as sessions are removed.
+     *
+     * @param maxDatabaseSize The max database size in bytes.
+     * @return The database size in bytes after trimming.
+     */
     @Transaction
-    public void trimDatabase(int maxDatabaseSize) {
-        while (databaseSize() > maxDatabaseSize) {
+    public int trimDatabase(int maxDatabaseSize) {
+        int size = databaseSize();
+        while (size > maxDatabaseSize) {
             String sessionId = oldestSessionId();
             if (UAStringUtil.isEmpty(sessionId)) {
-                return;
+                return size;
             }
 
             UALog.d("Event database size exceeded. Deleting oldest session: %s", sessionId);
 
+            int sessionSize = sessionSize(sessionId);
             int deleted = deleteSession(sessionId);
             UALog.d("Deleted %d rows with session ID %s", deleted, sessionId);
 
             if (deleted == 0) {
-                return;
+                return size;
             }
+
+            size -= sessionSize;
         }
+        return size;
     }
 }
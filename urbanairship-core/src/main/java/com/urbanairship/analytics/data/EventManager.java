@@ -2,7 +2,10 @@ package com.urbanairship.analytics.data;
 
 import android.content.Context;
 import android.database.sqlite.SQLiteException;
+import android.os.Handler;
+import android.os.Looper;
 
+import com.urbanairship.AirshipLoopers;
 import com.urbanairship.UALog;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.analytics.Analytics;
@@ -17,6 +20,7 @@ import com.urbanairship.job.JobInfo;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonValue;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -69,18 +73,52 @@ public class EventManager {
      */
     private static final long MULTIPLE_BATCH_DELAY = 1000; // 1s
 
+    /**
+     * Marker for an unknown database size.
+     */
+    private static final int UNKNOWN_DATABASE_SIZE = -1;
+
+    /**
+     * Max number of buffered events before they are written to the database when group commit is enabled.
+     */
+    @VisibleForTesting
+    static final int MAX_BUFFERED_EVENTS = 50;
+
+    /**
+     * Max time an event stays buffered before it is written to the database when group commit is enabled.
+     */
+    @VisibleForTesting
+    static final long BUFFER_FLUSH_DELAY_MS = 1000; // 1s
+
+    /**
+     * Max number of buffered events kept while writes to the database are failing. The oldest events
+     * are dropped past this limit.
+     */
+    @VisibleForTesting
+    static final int MAX_RETAINED_BUFFERED_EVENTS = 1000;
+
     private final PreferenceDataStore preferenceDataStore;
     private final JobDispatcher jobDispatcher;
     private final ActivityMonitor activityMonitor;
     private final EventDao eventDao;
     private final EventApiClient apiClient;
     private final AirshipRuntimeConfig runtimeConfig;
+    private final Handler flushHandler;
+    private final Runnable flushRunnable = this::flushEvents;
 
     private final Object eventLock = new Object();
     private final Object scheduleLock = new Object();
 
     private boolean isScheduled;
 
+    // Guarded by eventLock
+    private int databaseSize = UNKNOWN_DATABASE_SIZE;
+    private final ArrayDeque<EventEntity> bufferedEvents = new ArrayDeque<>();
+    private boolean isFlushScheduled;
+    private long flushCount;
+    private long lastFlushLatencyMs;
+    private long maxFlushLatencyMs;
+
     public EventManager(@NonNull Context context,
                         @NonNull PreferenceDataStore preferenceDataStore,
                         @NonNull AirshipRuntimeConfig runtimeConfig) {
@@ -95,6 +133,18 @@ public class EventManager {
                  @NonNull ActivityMonitor activityMonitor,
                  @NonNull EventDao eventDao,
                  @NonNull EventApiClient apiClient) {
+        this(preferenceDataStore, runtimeConfig, jobDispatcher, activityMonitor, eventDao, apiClient,
+                AirshipLoopers.getBackgroundLooper());
+    }
+
+    @VisibleForTesting
+    EventManager(@NonNull PreferenceDataStore preferenceDataStore,
+                 @NonNull AirshipRuntimeConfig runtimeConfig,
+                 @NonNull JobDispatcher jobDispatcher,
+                 @NonNull ActivityMonitor activityMonitor,
+                 @NonNull EventDao eventDao,
+                 @NonNull EventApiClient apiClient,
+                 @NonNull Looper flushLooper) {
 
         this.preferenceDataStore = preferenceDataStore;
         this.runtimeConfig = runtimeConfig;
@@ -102,7 +152,7 @@ public class EventManager {
         this.activityMonitor = activityMonitor;
         this.eventDao = eventDao;
         this.apiClient = apiClient;
-
+        this.flushHandler = new Handler(flushLooper);
     }
 
     /**
@@ -165,11 +215,18 @@ public class EventManager {
         }
 
         synchronized (eventLock) {
-            eventDao.insert(entity);
-
-            // Handle database max size exceeded
-            int maxSize = preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES);
-            eventDao.trimDatabase(maxSize);
+            if (runtimeConfig.getConfigOptions().analyticsGroupCommitEnabled) {
+                bufferedEvents.add(entity);
+                if (bufferedEvents.size() >= MAX_BUFFERED_EVENTS) {
+                    writeBufferedEvents();
+                } else if (!isFlushScheduled) {
+                    isFlushScheduled = true;
+                    flushHandler.postDelayed(flushRunnable, BUFFER_FLUSH_DELAY_MS);
+                }
+            } else {
+                eventDao.insert(entity);
+                onEventsInserted(entity.eventSize);
+            }
         }
 
         switch (event.getPriority()) {
@@ -196,13 +253,134 @@ public class EventManager {
         }
     }
 
+    /**
+     * Writes any buffered events to the database in a single transaction. Only applies when
+     * group commit is enabled.
+     */
+    @WorkerThread
+    public void flushEvents() {
+        synchronized (eventLock) {
+            writeBufferedEvents();
+        }
+    }
+
     /**
      * Deletes all events.
      */
     @WorkerThread
     public void deleteEvents() {
         synchronized (eventLock) {
+            bufferedEvents.clear();
             eventDao.deleteAll();
+            databaseSize = 0;
+        }
+    }
+
+    /**
+     * Gets the number of events waiting in the write buffer.
+     *
+     * @return The buffered event count.
+     */
+    public int getBufferedEventCount() {
+        synchronized (eventLock) {
+            return bufferedEvents.size();
+        }
+    }
+
+    /**
+     * Gets the number of times the write buffer has been flushed to the database.
+     *
+     * @return The flush count.
+     */
+    public long getFlushCount() {
+        synchronized (eventLock) {
+            return flushCount;
+        }
+    }
+
+    /**
+     * Gets the duration of the last write buffer flush in milliseconds.
+     *
+     * @return The last flush latency.
+     */
+    public long getLastFlushLatencyMs() {
+        synchronized (eventLock) {
+            return lastFlushLatencyMs;
+        }
+    }
+
+    /**
+     * Gets the longest write buffer flush duration in milliseconds.
+     *
+     * @return The max flush latency.
+     */
+    public long getMaxFlushLatencyMs() {
+        synchronized (eventLock) {
+            return maxFlushLatencyMs;
+        }
+    }
+
+    // Must be called while holding eventLock
+    private void writeBufferedEvents() {
+        if (isFlushScheduled) {
+            flushHandler.removeCallbacks(flushRunnable);
+            isFlushScheduled = false;
+        }
+
+        if (bufferedEvents.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        List<EventEntity> events = new ArrayList<>(bufferedEvents);
+        int size = 0;
+        for (EventEntity event : events) {
+            size += event.eventSize;
+        }
+
+        try {
+            eventDao.insert(events);
+        } catch (SQLiteException e) {
+            UALog.e(e, "EventManager - Failed to write buffered events");
+
+            int dropped = 0;
+            while (bufferedEvents.size() > MAX_RETAINED_BUFFERED_EVENTS) {
+                bufferedEvents.removeFirst();
+                dropped++;
+            }
+
+            if (dropped > 0) {
+                UALog.w("EventManager - Dropped %d buffered events.", dropped);
+            }
+
+            isFlushScheduled = true;
+            flushHandler.postDelayed(flushRunnable, BUFFER_FLUSH_DELAY_MS);
+            return;
+        }
+
+        bufferedEvents.clear();
+        onEventsInserted(size);
+
+        lastFlushLatencyMs = System.currentTimeMillis() - start;
+        maxFlushLatencyMs = Math.max(maxFlushLatencyMs, lastFlushLatencyMs);
+        flushCount++;
+
+        UALog.v("Flushed %d buffered events in %d ms.", events.size(), lastFlushLatencyMs);
+    }
+
+    // Must be called while holding eventLock
+    private void onEventsInserted(int insertedSize) {
+        if (databaseSize == UNKNOWN_DATABASE_SIZE) {
+            databaseSize = eventDao.databaseSize();
+        } else {
+            databaseSize += insertedSize;
+        }
+
+        // Handle database max size exceeded
+        int maxSize = preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES);
+        if (databaseSize > maxSize) {
+            databaseSize = eventDao.trimDatabase(maxSize);
         }
     }
 
@@ -238,6 +416,7 @@ public class EventManager {
 
         try {
             synchronized (eventLock) {
+                writeBufferedEvents();
                 eventCount = eventDao.count();
 
                 if (eventCount <= 0) {
@@ -245,7 +424,8 @@ public class EventManager {
                     return true;
                 }
 
-                final int avgSize = Math.max(1, eventDao.databaseSize() / eventCount);
+                databaseSize = eventDao.databaseSize();
+                final int avgSize = Math.max(1, databaseSize / eventCount);
 
                 //pull enough events to fill a batch (roughly)
                 int batchEventCount = Math.min(MAX_BATCH_EVENT_COUNT, preferenceDataStore.getInt(MAX_BATCH_SIZE_KEY, EventResponse.MAX_BATCH_SIZE_BYTES) / avgSize);
@@ -276,6 +456,9 @@ public class EventManager {
             UALog.d("Analytic events uploaded.");
             synchronized (eventLock) {
                 eventDao.deleteBatch(events);
+
+                // Sizes are not loaded with the batch, refresh on the next add
+                databaseSize = UNKNOWN_DATABASE_SIZE;
             }
 
             // Update preferences
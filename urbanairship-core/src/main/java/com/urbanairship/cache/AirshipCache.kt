@@ -1,6 +1,7 @@
 package com.urbanairship.cache
 
 import android.content.Context
+import android.util.LruCache
 import androidx.annotation.RestrictTo
 import com.urbanairship.AirshipDispatchers
 import com.urbanairship.UALog
@@ -9,12 +10,20 @@ import com.urbanairship.config.AirshipRuntimeConfig
 import com.urbanairship.json.JsonSerializable
 import com.urbanairship.json.JsonValue
 import com.urbanairship.util.Clock
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.launch
 
 /**
+ * Cache of JSON values with a memory tier in front of the database.
+ *
+ * The memory tier keeps the JSON of the most recently used items, up to [memoryCacheSize]. The
+ * database is trimmed to [diskCacheSize] by evicting the least recently accessed items. Sizes are
+ * measured in characters of the encoded JSON.
+ *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
@@ -25,12 +34,33 @@ public class AirshipCache @JvmOverloads constructor(
     private val appVersion: String = UAirship.getAppVersion().toString(),
     private val sdkVersion: String = UAirship.getVersion(),
     private val clock: Clock = Clock.DEFAULT_CLOCK,
-    dispatcher: CoroutineDispatcher = AirshipDispatchers.IO
+    dispatcher: CoroutineDispatcher = AirshipDispatchers.IO,
+    memoryCacheSize: Int = DEFAULT_MEMORY_CACHE_SIZE,
+    private val diskCacheSize: Long = DEFAULT_DISK_CACHE_SIZE
 ) {
 
     private val store: CacheDao
     private val dbScope = CoroutineScope(dispatcher + SupervisorJob())
 
+    private val memoryCache = object : LruCache<String, MemoryEntry>(memoryCacheSize) {
+        override fun sizeOf(key: String, value: MemoryEntry): Int {
+            return value.size.coerceAtMost(Int.MAX_VALUE.toLong()).toInt()
+        }
+    }
+
+    // Last access times of memory hits, written to the database before trimming it
+    private val pendingAccess = ConcurrentHashMap<String, Long>()
+
+    // Running size of the database so stores do not need to sum it. Null until loaded, and reset
+    // by bulk deletes. Trimming sums the database and corrects any drift from concurrent writes.
+    private val diskSizeLock = Any()
+    private var diskSize: Long? = null
+
+    private val memoryHits = AtomicLong()
+    private val diskHits = AtomicLong()
+    private val misses = AtomicLong()
+    private val evictions = AtomicLong()
+
     init {
         store = if (isPersistent) {
             CacheDatabase.persistent(context, runtimeConfig.configOptions.appKey).cacheDao()
@@ -41,6 +71,7 @@ public class AirshipCache @JvmOverloads constructor(
         dbScope.launch {
             try {
                 deleteExpired()
+                trimToSize()
             } catch (ex: Exception) {
                 UALog.e(ex) { "Failed to clear expired cache items" }
             }
@@ -48,43 +79,180 @@ public class AirshipCache @JvmOverloads constructor(
     }
 
     public suspend fun <T> getCached(key: String, converter: (JsonValue) -> T): T? {
-        val stored = store.getEntryWithKey(key) ?: return null
+        val now = clock.currentTimeMillis()
+
+        memoryCache.get(key)?.let { entry ->
+            if (entry.isExpired(now)) {
+                memoryCache.remove(key)
+            } else {
+                memoryHits.incrementAndGet()
+                pendingAccess[key] = now
+                return entry.decode(converter)
+            }
+        }
+
+        val stored = store.getEntryWithKey(key)
+        if (stored == null) {
+            misses.incrementAndGet()
+            return null
+        }
+
         if (stored.appVersion != appVersion ||
             stored.sdkVersion != sdkVersion ||
-            stored.isExpired(clock.currentTimeMillis())) {
+            stored.isExpired(now)) {
+            misses.incrementAndGet()
+            pendingAccess.remove(key)
             store.deleteItemWithKey(key)
+            addDiskSize(-stored.size)
             return null
         }
 
-        return try {
-            converter.invoke(stored.data)
-        } catch (ex: Exception) {
-            UALog.e(ex) { "Failed to restore data from cache" }
-            null
+        diskHits.incrementAndGet()
+        pendingAccess[key] = now
+
+        val entry = MemoryEntry(stored.data, stored.expireOn, stored.size)
+        val result = entry.decode(converter)
+
+        // A store since the disk read already put a newer entry in memory
+        synchronized(memoryCache) {
+            if (memoryCache.get(key) == null) {
+                memoryCache.put(key, entry)
+            }
         }
+        return result
     }
 
     public suspend fun store(value: JsonSerializable, key: String, ttl: ULong) {
-        store.updateEntry(
+        val now = clock.currentTimeMillis()
+        val json = value.toJsonValue()
+        val size = json.toString().length.toLong()
+        val expireOn = now + ttl.toLong()
+
+        pendingAccess.remove(key)
+        val replaced = store.updateEntry(
             CacheEntity(
                 key = key,
                 appVersion = appVersion,
                 sdkVersion = sdkVersion,
-                data = value.toJsonValue(),
-                expireOn = clock.currentTimeMillis() + ttl.toLong()
+                data = json,
+                expireOn = expireOn,
+                size = size,
+                lastAccess = now
             )
         )
+        memoryCache.put(key, MemoryEntry(json, expireOn, size))
+
+        val totalSize = addDiskSize(size - replaced) ?: store.getTotalSize().also { setDiskSize(it) }
+        if (totalSize > diskCacheSize) {
+            trimToSize()
+        }
     }
 
+    /**
+     * Gets the cache hit, miss and eviction counts since the cache was created.
+     */
+    public val statistics: Statistics
+        get() = Statistics(
+            memoryHits = memoryHits.get(),
+            diskHits = diskHits.get(),
+            misses = misses.get(),
+            evictions = evictions.get()
+        )
+
     internal suspend fun deleteExpired(
         appVersion: String = this.appVersion,
         sdkVersion: String = this.sdkVersion,
         timestamp: Long = clock.currentTimeMillis()
     ) {
+        memoryCache.evictAll()
         store.deleteExpired(
             appVersion = appVersion,
             sdkVersion = sdkVersion,
             timestamp = timestamp
         )
+        setDiskSize(null)
+    }
+
+    /**
+     * Evicts the least recently accessed items until the database is within the size limit.
+     */
+    internal suspend fun trimToSize() {
+        if (pendingAccess.isNotEmpty()) {
+            val accessed = HashMap(pendingAccess)
+            accessed.forEach { pendingAccess.remove(it.key, it.value) }
+            store.updateLastAccess(accessed)
+        }
+
+        var totalSize = store.getTotalSize()
+        if (totalSize <= diskCacheSize) {
+            setDiskSize(totalSize)
+            return
+        }
+
+        val evicted = mutableListOf<String>()
+        for (item in store.getItemsByLastAccess()) {
+            if (totalSize <= diskCacheSize) {
+                break
+            }
+            evicted.add(item.key)
+            totalSize -= item.size
+        }
+
+        evicted.chunked(MAX_BATCH_SIZE).forEach { store.deleteItemsWithKeys(it) }
+        evicted.forEach { memoryCache.remove(it) }
+        setDiskSize(totalSize)
+        evictions.addAndGet(evicted.size.toLong())
+        UALog.v { "Evicted ${evicted.size} cache items" }
+    }
+
+    /**
+     * Adds to the tracked database size.
+     *
+     * @return The new size, or null if the size is not loaded.
+     */
+    private fun addDiskSize(delta: Long): Long? {
+        return synchronized(diskSizeLock) {
+            diskSize?.plus(delta)?.also { diskSize = it }
+        }
+    }
+
+    private fun setDiskSize(size: Long?) {
+        synchronized(diskSizeLock) {
+            diskSize = size
+        }
+    }
+
+    /**
+     * Cache statistics.
+     */
+    public data class Statistics(
+        public val memoryHits: Long,
+        public val diskHits: Long,
+        public val misses: Long,
+        public val evictions: Long
+    )
+
+    private class MemoryEntry(
+        val data: JsonValue,
+        val expireOn: Long,
+        val size: Long
+    ) {
+        fun isExpired(timestamp: Long): Boolean = timestamp > expireOn
+
+        // Decoded on every hit, so each caller gets its own instance
+        fun <T> decode(converter: (JsonValue) -> T): T? {
+            return try {
+                converter.invoke(data)
+            } catch (ex: Exception) {
+                UALog.e(ex) { "Failed to restore data from cache" }
+                null
+            }
+        }
+    }
+
+    private companion object {
+        private const val DEFAULT_MEMORY_CACHE_SIZE = 512 * 1024
+        private const val DEFAULT_DISK_CACHE_SIZE = 5L * 1024 * 1024
+        private const val MAX_BATCH_SIZE = 500
     }
 }
@@ -16,12 +16,47 @@ internal interface CacheDao {
     @Query("delete from cacheItems where `key` = :key")
     suspend fun deleteItemWithKey(key: String)
 
+    @Query("delete from cacheItems where `key` in (:keys)")
+    suspend fun deleteItemsWithKeys(keys: List<String>)
+
+    @Query("select size from cacheItems where `key` = :key")
+    suspend fun getSize(key: String): Long?
+
+    /**
+     * Replaces the entry with the item's key.
+     *
+     * @return The size of the replaced entry, or 0 if there was none.
+     */
     @Transaction
-    suspend fun updateEntry(item: CacheEntity) {
+    suspend fun updateEntry(item: CacheEntity): Long {
+        val replaced = getSize(item.key) ?: 0
         deleteItemWithKey(item.key)
         addEntry(item)
+        return replaced
     }
 
+    @Query("update cacheItems set lastAccess = :timestamp where `key` = :key")
+    suspend fun updateLastAccess(key: String, timestamp: Long)
+
+    @Transaction
+    suspend fun updateLastAccess(accessed: Map<String, Long>) {
+        accessed.forEach { updateLastAccess(it.key, it.value) }
+    }
+
+    @Query("select ifnull(sum(size), 0) from cacheItems")
+    suspend fun getTotalSize(): Long
+
+    @Query("select `key`, size from cacheItems order by lastAccess asc")
+    suspend fun getItemsByLastAccess(): List<CacheItemUsage>
+
     @Query("delete from cacheItems where appVersion != :appVersion or sdkVersion != :sdkVersion or expireOn < :timestamp")
     suspend fun deleteExpired(appVersion: String, sdkVersion: String, timestamp: Long)
 }
+
+/**
+ * Size of a cache item, used for eviction.
+ */
+internal data class CacheItemUsage(
+    val key: String,
+    val size: Long
+)
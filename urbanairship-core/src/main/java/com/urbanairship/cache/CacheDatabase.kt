@@ -7,7 +7,7 @@ import androidx.room.RoomDatabase
 import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory
 import com.urbanairship.db.RetryingSQLiteOpenHelper
 
-@Database(entities = [CacheEntity::class], version = 1)
+@Database(entities = [CacheEntity::class], version = 2)
 internal abstract class CacheDatabase : RoomDatabase() {
     abstract fun cacheDao(): CacheDao
 
@@ -2,6 +2,7 @@ package com.urbanairship.cache
 
 import androidx.annotation.RestrictTo
 import androidx.room.Entity
+import androidx.room.Index
 import androidx.room.PrimaryKey
 import androidx.room.TypeConverters
 import com.urbanairship.json.JsonTypeConverters
@@ -10,7 +11,7 @@ import com.urbanairship.json.JsonValue
 /**
  * @hide
  */
-@Entity(tableName = "cacheItems")
+@Entity(tableName = "cacheItems", indices = [Index("lastAccess")])
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 @TypeConverters(JsonTypeConverters::class)
 public data class CacheEntity(
@@ -18,7 +19,9 @@ public data class CacheEntity(
     val appVersion: String,
     val sdkVersion: String,
     val expireOn: Long,
-    val data: JsonValue
+    val data: JsonValue,
+    val size: Long = 0,
+    val lastAccess: Long = 0
 ) {
     public fun isExpired(timestamp: Long): Boolean = timestamp > expireOn
 }
@@ -83,7 +83,7 @@ public class AirshipChannel internal constructor(
             runtimeConfig, audienceOverridesProvider
         ),
         ChannelBatchUpdateManager(
-            dataStore, runtimeConfig, audienceOverridesProvider
+            context, dataStore, runtimeConfig, audienceOverridesProvider
         ),
         ChannelRegistrar(
             context, dataStore, runtimeConfig
@@ -2,16 +2,21 @@
 
 package com.urbanairship.channel
 
+import android.content.Context
 import com.google.android.gms.common.util.VisibleForTesting
 import com.urbanairship.PreferenceDataStore
+import com.urbanairship.UALog
 import com.urbanairship.audience.AudienceOverrides
 import com.urbanairship.audience.AudienceOverridesProvider
 import com.urbanairship.config.AirshipRuntimeConfig
+import com.urbanairship.db.Journal
+import com.urbanairship.db.JournalDatabase
 import com.urbanairship.json.JsonMap
 import com.urbanairship.json.JsonSerializable
 import com.urbanairship.json.JsonValue
 import com.urbanairship.json.jsonMapOf
 import com.urbanairship.json.tryParse
+import java.util.UUID
 import java.util.concurrent.locks.ReentrantLock
 import kotlin.concurrent.withLock
 
@@ -20,35 +25,40 @@ internal class ChannelBatchUpdateManager(
     private val dataStore: PreferenceDataStore,
     private val apiClient: ChannelBatchUpdateApiClient,
     private val audienceOverridesProvider: AudienceOverridesProvider,
+    private val updateJournal: Journal
 ) {
     constructor(
+        context: Context,
         dataStore: PreferenceDataStore,
         runtimeConfig: AirshipRuntimeConfig,
         audienceOverridesProvider: AudienceOverridesProvider
     ) : this(
         dataStore,
         ChannelBatchUpdateApiClient(runtimeConfig),
-        audienceOverridesProvider
+        audienceOverridesProvider,
+        Journal(
+            JournalDatabase.shared(context, runtimeConfig.configOptions.appKey).journalDao(),
+            UPDATE_JOURNAL
+        )
     )
 
     private val lock = ReentrantLock()
 
+    /**
+     * Whether there are pending updates. Also true while the journal can not be read, so the
+     * upload is retried instead of skipped.
+     */
     internal val hasPending: Boolean
     get() {
-        return !dataStore.getJsonValue(UPDATE_DATASTORE_KEY).optList().isEmpty
+        return loadedUpdates()?.isNotEmpty() ?: true
     }
 
-    private var updates: List<AudienceUpdate>
-        get() {
-            return dataStore.optJsonValue(UPDATE_DATASTORE_KEY)?.tryParse { json ->
-                json.requireList().map { AudienceUpdate(it.requireMap()) }
-            } ?: emptyList()
-        }
-        set(value) {
-            dataStore.put(UPDATE_DATASTORE_KEY, JsonValue.wrap(value))
-        }
+    private var _updates: MutableList<AudienceUpdateEntry>? = null
 
     init {
+        // Load on the takeOff thread so the first access does not hit the database
+        loadedUpdates()
+        migrateStoredUpdates()
         migrateData()
 
         audienceOverridesProvider.pendingChannelOverridesDelegate = {
@@ -58,31 +68,39 @@ internal class ChannelBatchUpdateManager(
 
     internal fun clearPending() {
         lock.withLock {
-            dataStore.remove(UPDATE_DATASTORE_KEY)
+            if (_updates?.isEmpty() == true) {
+                return
+            }
+            _updates = mutableListOf()
+            updateJournal.replaceAll(emptyList())
         }
     }
 
     internal suspend fun uploadPending(channelId: String): Boolean {
-        val updates = this.updates
+        val chunk = lock.withLock {
+            val updates = loadedUpdates() ?: return false
+            nextChunk(updates)
+        }
 
         var mergedTags = mutableListOf<TagGroupsMutation>()
         var mergedAttributes = mutableListOf<AttributeMutation>()
         var mergedSubLists = mutableListOf<SubscriptionListMutation>()
-        var mergedLiveUpdates = mutableListOf<LiveUpdateMutation>()
+        val mergedLiveUpdates = mutableListOf<LiveUpdateMutation>()
 
-        updates.forEach { update ->
-            update.tags?.let { mergedTags.addAll(it) }
-            update.attributes?.let { mergedAttributes.addAll(it) }
-            update.subscriptions?.let { mergedSubLists.addAll(it) }
-            update.liveUpdates?.let { mergedLiveUpdates.addAll(it) }
+        chunk.forEach { entry ->
+            entry.update.tags?.let { mergedTags.addAll(it) }
+            entry.update.attributes?.let { mergedAttributes.addAll(it) }
+            entry.update.subscriptions?.let { mergedSubLists.addAll(it) }
+            entry.update.liveUpdates?.let { mergedLiveUpdates.addAll(it) }
         }
 
+        // Entries are already collapsed against each other, this only merges within the chunk
         mergedTags = TagGroupsMutation.collapseMutations(mergedTags)
         mergedAttributes = AttributeMutation.collapseMutations(mergedAttributes)
         mergedSubLists = SubscriptionListMutation.collapseMutations(mergedSubLists)
 
         if (mergedTags.isEmpty() && mergedAttributes.isEmpty() && mergedSubLists.isEmpty() && mergedLiveUpdates.isEmpty()) {
-            popAudienceUpdates(updates)
+            popAudienceUpdates(chunk)
             return true
         }
 
@@ -98,7 +116,7 @@ internal class ChannelBatchUpdateManager(
                 )
             }
 
-            popAudienceUpdates(updates)
+            popAudienceUpdates(chunk)
             return true
         }
 
@@ -123,21 +141,39 @@ internal class ChannelBatchUpdateManager(
         )
 
         lock.withLock {
-            val list = updates.toMutableList()
-            list.add(update)
-            updates = list
+            val updates = loadedUpdates()
+            val entry = AudienceUpdateEntry(UUID.randomUUID().toString(), update)
+
+            // Append before removing the rows it makes obsolete. If the journal failed to load,
+            // the entry is collapsed by the next load.
+            updateJournal.append(entry.id, entry.update.toJsonValue())
+            updates?.let { updateJournal.remove(it.collapse(entry)) }
+        }
+    }
+
+    /**
+     * Gets the leading entries that fit within [MAX_CHUNK_SIZE] mutations. Always includes the
+     * first entry, even if it is larger on its own.
+     */
+    private fun nextChunk(updates: List<AudienceUpdateEntry>): List<AudienceUpdateEntry> {
+        val chunk = mutableListOf<AudienceUpdateEntry>()
+        var size = 0
+        for (entry in updates) {
+            if (chunk.isNotEmpty() && size + entry.update.size > MAX_CHUNK_SIZE) {
+                break
+            }
+            chunk.add(entry)
+            size += entry.update.size
         }
+        return chunk
     }
 
-    private fun popAudienceUpdates(updates: List<AudienceUpdate>) {
+    private fun popAudienceUpdates(entries: List<AudienceUpdateEntry>) {
         lock.withLock {
-            val stored = updates.toMutableList()
-            updates.forEach {
-                if (stored[0] == it) {
-                    stored.removeAt(0)
-                }
+            val ids = entries.mapTo(HashSet()) { it.id }
+            if (_updates?.removeAll { ids.contains(it.id) } == true) {
+                updateJournal.remove(ids)
             }
-            this.updates = stored
         }
     }
 
@@ -145,10 +181,12 @@ internal class ChannelBatchUpdateManager(
         val mergedTags = mutableListOf<TagGroupsMutation>()
         val mergedAttributes = mutableListOf<AttributeMutation>()
         val mergedSubLists = mutableListOf<SubscriptionListMutation>()
-        updates.forEach { update ->
-            update.tags?.let { mergedTags.addAll(it) }
-            update.attributes?.let { mergedAttributes.addAll(it) }
-            update.subscriptions?.let { mergedSubLists.addAll(it) }
+        lock.withLock {
+            loadedUpdates()?.forEach { entry ->
+                entry.update.tags?.let { mergedTags.addAll(it) }
+                entry.update.attributes?.let { mergedAttributes.addAll(it) }
+                entry.update.subscriptions?.let { mergedSubLists.addAll(it) }
+            }
         }
         return AudienceOverrides.Channel(
             mergedTags.ifEmpty { null },
@@ -157,6 +195,91 @@ internal class ChannelBatchUpdateManager(
         )
     }
 
+    /**
+     * Loads the pending updates from the journal if they are not loaded yet. Entries are collapsed
+     * the same way as when they were added, so the view matches the one before the restart.
+     *
+     * @return The updates, or null if the journal could not be read.
+     */
+    private fun loadedUpdates(): MutableList<AudienceUpdateEntry>? {
+        return lock.withLock {
+            _updates ?: try {
+                val updates = mutableListOf<AudienceUpdateEntry>()
+                val obsolete = mutableSetOf<String>()
+                updateJournal.load().forEach { entry ->
+                    entry.data.tryParse(logError = true) {
+                        AudienceUpdateEntry(entry.entryId, AudienceUpdate(it.requireMap()))
+                    }?.let {
+                        obsolete.addAll(updates.collapse(it))
+                    }
+                }
+
+                updateJournal.remove(obsolete)
+                updates.also { _updates = it }
+            } catch (e: Exception) {
+                UALog.e(e) { "Failed to load pending audience updates" }
+                null
+            }
+        }
+    }
+
+    /**
+     * Adds an entry to the collapsed view. Mutations the entry overrides are dropped from the
+     * earlier entries in memory only, their rows are left as is.
+     *
+     * @return The ids of the earlier entries that have nothing left to upload.
+     */
+    private fun MutableList<AudienceUpdateEntry>.collapse(entry: AudienceUpdateEntry): Set<String> {
+        val obsolete = mutableSetOf<String>()
+        val iterator = listIterator()
+        while (iterator.hasNext()) {
+            val existing = iterator.next()
+            val remaining = existing.update.without(entry.update)
+            if (remaining.size == 0) {
+                iterator.remove()
+                obsolete.add(existing.id)
+            } else if (remaining != existing.update) {
+                iterator.set(existing.copy(update = remaining))
+            }
+        }
+        add(entry)
+        return obsolete
+    }
+
+    /**
+     * Moves updates stored as a single preference list into the journal. Updates get an
+     * identifier from their position and are written in a single insert, so if any of them are
+     * already journaled the process died before the preference was removed and the migration
+     * only needs to remove it.
+     */
+    private fun migrateStoredUpdates() {
+        val stored = dataStore.optJsonValue(UPDATE_DATASTORE_KEY) ?: return
+
+        lock.withLock {
+            // Keep the preference until the journal can be read
+            val updates = loadedUpdates() ?: return
+            if (updates.none { it.id.startsWith("$UPDATE_DATASTORE_KEY:") }) {
+                val entries = stored.optList().mapIndexedNotNull { index, json ->
+                    json.tryParse(logError = true) {
+                        AudienceUpdateEntry("$UPDATE_DATASTORE_KEY:$index", AudienceUpdate(it.requireMap()))
+                    }
+                }
+
+                updateJournal.append(entries.map { it.id to it.update.toJsonValue() })
+                val obsolete = entries.flatMapTo(mutableSetOf()) { updates.collapse(it) }
+                updateJournal.remove(obsolete)
+            }
+        }
+
+        // Only drop the preference once the journal has the updates
+        if (!updateJournal.flush()) {
+            UALog.e { "Failed to migrate stored audience updates" }
+            return
+        }
+
+        dataStore.remove(UPDATE_DATASTORE_KEY)
+    }
+
     @VisibleForTesting
     internal fun migrateData() {
         // List of Lists
@@ -187,11 +310,21 @@ internal class ChannelBatchUpdateManager(
         private const val TAG_GROUP_DATASTORE_KEY = "com.urbanairship.push.PENDING_TAG_GROUP_MUTATIONS"
         private const val SUBSCRIPTION_LISTS_DATASTORE_KEY = "com.urbanairship.push.PENDING_SUBSCRIPTION_MUTATIONS"
 
-        // Updates storage key
+        // Updates storage key, migrated to the journal
         private const val UPDATE_DATASTORE_KEY = "com.urbanairship.channel.PENDING_AUDIENCE_UPDATES"
+
+        internal const val UPDATE_JOURNAL = "com.urbanairship.channel.AUDIENCE_UPDATE_JOURNAL"
+
+        // Max number of mutations sent in a single request
+        private const val MAX_CHUNK_SIZE = 1000
     }
 }
 
+private data class AudienceUpdateEntry(
+    val id: String,
+    val update: AudienceUpdate
+)
+
 private data class AudienceUpdate(
     val tags: List<TagGroupsMutation>? = null,
     val attributes: List<AttributeMutation>? = null,
@@ -214,6 +347,25 @@ private data class AudienceUpdate(
         }
     )
 
+    val size: Int
+        get() = (tags?.size ?: 0) + (attributes?.size ?: 0) + (subscriptions?.size ?: 0) + (liveUpdates?.size ?: 0)
+
+    /**
+     * Drops the tag, attribute and subscription list mutations that a newer update overrides.
+     * Live updates are never dropped.
+     */
+    fun without(newer: AudienceUpdate): AudienceUpdate {
+        val tagOverrides = newer.tags?.let { TagOverrides(it) }
+        val attributeNames = newer.attributes?.mapTo(HashSet()) { it.name }
+        val listIds = newer.subscriptions?.mapTo(HashSet()) { it.listId }
+
+        return copy(
+            tags = if (tagOverrides == null) tags else tags?.filterNot { tagOverrides.overrides(it) },
+            attributes = if (attributeNames == null) attributes else attributes?.filterNot { attributeNames.contains(it.name) },
+            subscriptions = if (listIds == null) subscriptions else subscriptions?.filterNot { listIds.contains(it.listId) }
+        )
+    }
+
     override fun toJsonValue(): JsonValue = jsonMapOf(
         TAGS to tags,
         ATTRIBUTES to attributes,
@@ -228,3 +380,36 @@ private data class AudienceUpdate(
         private const val LIVE_UPDATES = "live_updates"
     }
 }
+
+/**
+ * Tag groups and tags touched by newer tag mutations. An older mutation is overridden once the
+ * newer mutations set each of its groups, or add or remove each of its tags.
+ */
+private class TagOverrides(mutations: List<TagGroupsMutation>) {
+
+    private val setGroups = mutableSetOf<String>()
+    private val tags = mutableMapOf<String, MutableSet<String>>()
+
+    init {
+        mutations.forEach { mutation ->
+            mutation.setTags?.keys?.let { setGroups.addAll(it) }
+            mutation.addTags?.forEach { (group, groupTags) -> touch(group, groupTags) }
+            mutation.removeTags?.forEach { (group, groupTags) -> touch(group, groupTags) }
+        }
+    }
+
+    fun overrides(mutation: TagGroupsMutation): Boolean {
+        val setsCovered = mutation.setTags?.keys?.all { setGroups.contains(it) } ?: true
+        return setsCovered && covers(mutation.addTags) && covers(mutation.removeTags)
+    }
+
+    private fun covers(groups: Map<String, Set<String>?>?): Boolean {
+        return groups?.all { (group, groupTags) ->
+            setGroups.contains(group) || groupTags.orEmpty().all { tags[group]?.contains(it) == true }
+        } ?: true
+    }
+
+    private fun touch(group: String, groupTags: Set<String>?) {
+        tags.getOrPut(group) { mutableSetOf() }.addAll(groupTags.orEmpty())
+    }
+}
@@ -26,6 +26,8 @@ import com.urbanairship.channel.ChannelRegistrationPayload
 import com.urbanairship.channel.TagGroupsEditor
 import com.urbanairship.channel.TagGroupsMutation
 import com.urbanairship.config.AirshipRuntimeConfig
+import com.urbanairship.db.Journal
+import com.urbanairship.db.JournalDatabase
 import com.urbanairship.http.AuthTokenProvider
 import com.urbanairship.http.RequestException
 import com.urbanairship.job.JobDispatcher
@@ -91,7 +93,11 @@ public class Contact internal constructor(
             JobDispatcher.shared(context),
             ContactApiClient(config),
             localeManager,
-            audienceOverridesProvider
+            audienceOverridesProvider,
+            Journal(
+                JournalDatabase.shared(context, config.configOptions.appKey).journalDao(),
+                ContactManager.OPERATION_JOURNAL
+            )
         ),
         AirshipDispatchers.newSerialDispatcher(),
     )
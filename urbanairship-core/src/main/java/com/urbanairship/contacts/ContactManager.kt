@@ -5,11 +5,13 @@ package com.urbanairship.contacts
 import androidx.annotation.OpenForTesting
 import com.urbanairship.AirshipDispatchers
 import com.urbanairship.PreferenceDataStore
+import com.urbanairship.UALog
 import com.urbanairship.audience.AudienceOverrides
 import com.urbanairship.audience.AudienceOverridesProvider
 import com.urbanairship.channel.AirshipChannel
 import com.urbanairship.channel.AttributeMutation
 import com.urbanairship.channel.TagGroupsMutation
+import com.urbanairship.db.Journal
 import com.urbanairship.http.AuthToken
 import com.urbanairship.http.AuthTokenProvider
 import com.urbanairship.http.RequestException
@@ -20,7 +22,6 @@ import com.urbanairship.json.JsonSerializable
 import com.urbanairship.json.JsonValue
 import com.urbanairship.json.jsonMapOf
 import com.urbanairship.json.requireField
-import com.urbanairship.json.toJsonList
 import com.urbanairship.json.tryParse
 import com.urbanairship.locale.LocaleManager
 import com.urbanairship.util.CachedValue
@@ -50,6 +51,7 @@ internal class ContactManager(
     private val contactApiClient: ContactApiClient,
     private val localeManager: LocaleManager,
     private val audienceOverridesProvider: AudienceOverridesProvider,
+    private val operationJournal: Journal,
     private val clock: Clock = Clock.DEFAULT_CLOCK,
     private val dispatcher: CoroutineDispatcher = AirshipDispatchers.newSerialDispatcher()
 ) : AuthTokenProvider {
@@ -79,22 +81,20 @@ internal class ContactManager(
         }
 
     private var _operations: List<OperationEntry>? = null
+
+    /**
+     * The pending operations. Empty while the journal can not be read, in which case changes
+     * through the setter are dropped so a failed read is never written back as an empty queue.
+     */
     private var operations: List<OperationEntry>
         get() {
-            return operationLock.withLock {
-                val result = _operations ?: preferenceDataStore.optJsonValue(OPERATIONS_KEY)
-                    ?.tryParse { json ->
-                        json.requireList().map { OperationEntry(it) }
-                    } ?: emptyList()
-
-                _operations = result
-                result
-            }
+            return loadedOperations() ?: emptyList()
         }
         set(newValue) {
             operationLock.withLock {
+                val oldValue = loadedOperations() ?: return
                 _operations = newValue
-                preferenceDataStore.put(OPERATIONS_KEY, newValue.toJsonList())
+                journalChanges(oldValue, newValue)
             }
         }
 
@@ -172,18 +172,9 @@ internal class ContactManager(
         }
 
     init {
-        // Migrate operations -> dated operations
-        preferenceDataStore.optJsonValue(OPERATIONS_KEY)?.let { json ->
-            if (!preferenceDataStore.isSet(OPERATION_ENTRIES_KEY)) {
-                val operations = json.optList()
-                    .tryParse(logError = true) { list -> list.map { ContactOperation.fromJson(it) } }
-                operations?.map { OperationEntry(clock.currentTimeMillis(), it) }?.let {
-                    this.operations = it
-                }
-            }
-
-            preferenceDataStore.remove(OPERATIONS_KEY)
-        }
+        // Load on the takeOff thread so the first access does not hit the database
+        loadedOperations()
+        migrateStoredOperations()
 
         audienceOverridesProvider.pendingContactOverridesDelegate = {
             getPendingAudienceOverrides(it)
@@ -205,9 +196,10 @@ internal class ContactManager(
 
     internal fun addOperation(operation: ContactOperation) {
         operationLock.withLock {
-            val operations = this.operations.toMutableList()
-            operations.add(OperationEntry(clock.currentTimeMillis(), operation))
-            this.operations = operations
+            val entry = OperationEntry(clock.currentTimeMillis(), operation)
+            // If the journal failed to load, the entry is picked up by the next load
+            loadedOperations()?.let { _operations = it + entry }
+            operationJournal.append(entry.identifier, entry.toJsonValue())
         }
 
         dispatchContactUpdateJob()
@@ -268,7 +260,8 @@ internal class ContactManager(
                 return@withContext true
             }
 
-            if (operations.isEmpty()) {
+            val pending = loadedOperations() ?: return@withContext false
+            if (pending.isEmpty()) {
                 return@withContext true
             }
 
@@ -434,6 +427,78 @@ internal class ContactManager(
         }
     }
 
+    /**
+     * Writes only the added and removed entries to the journal.
+     */
+    private fun journalChanges(oldValue: List<OperationEntry>, newValue: List<OperationEntry>) {
+        val oldIds = oldValue.mapTo(HashSet()) { it.identifier }
+        val newIds = newValue.mapTo(HashSet()) { it.identifier }
+
+        operationJournal.remove(oldValue.filter { !newIds.contains(it.identifier) }.map { it.identifier })
+        operationJournal.append(newValue.filter { !oldIds.contains(it.identifier) }.map { it.identifier to it.toJsonValue() })
+    }
+
+    /**
+     * Loads the pending operations from the journal if they are not loaded yet.
+     *
+     * @return The operations, or null if the journal could not be read.
+     */
+    private fun loadedOperations(): List<OperationEntry>? {
+        return operationLock.withLock {
+            _operations ?: try {
+                operationJournal.load().mapNotNull { entry ->
+                    entry.data.tryParse(logError = true) { OperationEntry(it) }
+                }.also { _operations = it }
+            } catch (e: Exception) {
+                UALog.e(e) { "Failed to load pending contact operations" }
+                null
+            }
+        }
+    }
+
+    /**
+     * Moves operations stored as a single preference list into the journal. Entries that are
+     * already in the journal are skipped, so the migration can safely run again if the process
+     * dies before the preferences are removed.
+     */
+    private fun migrateStoredOperations() {
+        val entriesJson = preferenceDataStore.optJsonValue(OPERATION_ENTRIES_KEY)
+        val operationsJson = preferenceDataStore.optJsonValue(OPERATIONS_KEY)
+        if (entriesJson == null && operationsJson == null) {
+            return
+        }
+
+        val entries = if (entriesJson != null) {
+            entriesJson.optList().mapNotNull { json ->
+                json.tryParse(logError = true) { OperationEntry(it) }
+            }
+        } else {
+            // Stored as either dated entries or plain operations. Plain operations get an
+            // identifier from their position so they are recognized if migrated again.
+            operationsJson?.optList()?.mapIndexedNotNull { index, json ->
+                json.tryParse { OperationEntry(it) } ?: json.tryParse(logError = true) {
+                    OperationEntry(clock.currentTimeMillis(), ContactOperation.fromJson(it), "$OPERATIONS_KEY:$index")
+                }
+            } ?: emptyList()
+        }
+
+        operationLock.withLock {
+            // Keep the preferences until the journal can be read
+            val existing = loadedOperations() ?: return
+            val existingIds = existing.mapTo(HashSet()) { it.identifier }
+            this.operations = existing + entries.filter { !existingIds.contains(it.identifier) }
+        }
+
+        // Only drop the preferences once the journal has the entries
+        if (!operationJournal.flush()) {
+            UALog.e { "Failed to migrate stored contact operations" }
+            return
+        }
+
+        preferenceDataStore.remove(OPERATION_ENTRIES_KEY)
+        preferenceDataStore.remove(OPERATIONS_KEY)
+    }
+
     private fun tokenIfValid(): String? {
         val auth = cachedAuthToken.get()
         if (auth == null || auth.identifier != lastContactId) {
@@ -765,6 +830,7 @@ internal class ContactManager(
     }
 
     companion object {
+        internal const val OPERATION_JOURNAL = "com.urbanairship.contacts.OPERATION_JOURNAL"
         private const val OPERATIONS_KEY = "com.urbanairship.contacts.OPERATIONS"
         private const val OPERATION_ENTRIES_KEY = "com.urbanairship.contacts.OPERATION_ENTRIES"
 
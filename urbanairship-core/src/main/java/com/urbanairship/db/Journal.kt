@@ -0,0 +1,118 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.db
+
+import com.urbanairship.AirshipExecutors
+import com.urbanairship.UALog
+import com.urbanairship.json.JsonValue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Append-only journal of JSON entries backed by a table row per entry.
+ *
+ * Appends and removals only touch the affected rows, instead of rewriting the whole
+ * list. Writes are applied in order on a serial executor so callers never block on the database.
+ * Owners are expected to keep the loaded entries in memory and only [load] again if a load fails.
+ */
+internal class Journal(
+    private val dao: JournalDao,
+    private val name: String,
+    private val executor: Executor = AirshipExecutors.newSerialExecutor()
+) {
+
+    private val writeFailed = AtomicBoolean(false)
+
+    /**
+     * Loads the journal entries in insertion order, including any queued writes. Blocks on the
+     * database read.
+     *
+     * @throws Exception if the entries could not be read. A failed load must not be treated as an
+     * empty journal.
+     */
+    fun load(): List<JournalEntity> {
+        flush()
+        return dao.getEntries(name)
+    }
+
+    /**
+     * Appends entries to the end of the journal.
+     */
+    fun append(entries: List<Pair<String, JsonValue>>) {
+        if (entries.isEmpty()) {
+            return
+        }
+
+        val entities = entries.map { JournalEntity(journal = name, entryId = it.first, data = it.second) }
+        write { dao.insert(entities) }
+    }
+
+    /**
+     * Appends an entry to the end of the journal.
+     */
+    fun append(entryId: String, data: JsonValue) {
+        append(listOf(entryId to data))
+    }
+
+    /**
+     * Removes entries from the journal.
+     */
+    fun remove(entryIds: Collection<String>) {
+        if (entryIds.isEmpty()) {
+            return
+        }
+
+        val ids = entryIds.toList()
+        write {
+            // Stay under the SQLite bound variable limit
+            ids.chunked(MAX_BATCH_SIZE).forEach { dao.delete(name, it) }
+        }
+    }
+
+    /**
+     * Replaces all the entries in the journal.
+     */
+    fun replaceAll(entries: List<Pair<String, JsonValue>>) {
+        val entities = entries.map { JournalEntity(journal = name, entryId = it.first, data = it.second) }
+        write { dao.replaceAll(name, entities) }
+    }
+
+    /**
+     * Blocks until all queued writes have been applied.
+     *
+     * @return `true` if every write since the last flush was applied, `false` if any failed or
+     * the wait was interrupted.
+     */
+    fun flush(): Boolean {
+        val latch = CountDownLatch(1)
+        var succeeded = false
+        executor.execute {
+            succeeded = !writeFailed.getAndSet(false)
+            latch.countDown()
+        }
+
+        return try {
+            latch.await()
+            succeeded
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            false
+        }
+    }
+
+    private fun write(block: () -> Unit) {
+        executor.execute {
+            try {
+                block()
+            } catch (e: Exception) {
+                writeFailed.set(true)
+                UALog.e(e) { "Failed to write journal $name" }
+            }
+        }
+    }
+
+    private companion object {
+        private const val MAX_BATCH_SIZE = 500
+    }
+}
@@ -0,0 +1,37 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.db
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import androidx.room.TypeConverters
+import com.urbanairship.json.JsonTypeConverters
+
+/**
+ * Data Access Object for the journal table.
+ */
+@Dao
+@TypeConverters(JsonTypeConverters::class)
+internal interface JournalDao {
+
+    @Query("SELECT * FROM journal WHERE journal = :journal ORDER BY id ASC")
+    fun getEntries(journal: String): List<JournalEntity>
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    fun insert(entries: List<JournalEntity>)
+
+    @Query("DELETE FROM journal WHERE journal = :journal AND entryId IN (:entryIds)")
+    fun delete(journal: String, entryIds: List<String>)
+
+    @Query("DELETE FROM journal WHERE journal = :journal")
+    fun deleteAll(journal: String)
+
+    @Transaction
+    fun replaceAll(journal: String, entries: List<JournalEntity>) {
+        deleteAll(journal)
+        insert(entries)
+    }
+}
@@ -0,0 +1,59 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.db
+
+import android.content.Context
+import androidx.room.Database
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.migration.Migration
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory
+
+@Database(entities = [JournalEntity::class], version = 1)
+internal abstract class JournalDatabase : RoomDatabase() {
+    abstract fun journalDao(): JournalDao
+
+    companion object {
+        private const val DB_NAME = "ua_journal-%s.db"
+
+        private val instances: MutableMap<String, JournalDatabase> = mutableMapOf()
+
+        /**
+         * Schema migrations. The journal is the only durable copy of queued operations, so every
+         * version bump needs a migration here instead of a destructive fallback.
+         */
+        internal val MIGRATIONS: Array<Migration> = emptyArray()
+
+        /**
+         * Gets the shared persistent database for the app key, so every journal shares one
+         * connection.
+         */
+        fun shared(context: Context, appKey: String): JournalDatabase = synchronized(instances) {
+            instances.getOrPut(appKey) { persistent(context, appKey) }
+        }
+
+        fun persistent(context: Context, appKey: String): JournalDatabase =
+            try {
+                val retryingOpenHelperFactory =
+                    RetryingSQLiteOpenHelper.Factory(FrameworkSQLiteOpenHelperFactory(), true)
+
+                Room.databaseBuilder(context.applicationContext, JournalDatabase::class.java, DB_NAME.format(appKey))
+                    .openHelperFactory(retryingOpenHelperFactory)
+                    .addMigrations(*MIGRATIONS)
+                    .build()
+            } catch (ex: Exception) {
+                ex.printStackTrace()
+                throw ex
+            }
+
+        fun inMemory(context: Context): JournalDatabase =
+            try {
+                Room.inMemoryDatabaseBuilder(context, JournalDatabase::class.java)
+                    .allowMainThreadQueries()
+                    .build()
+            } catch (ex: Exception) {
+                ex.printStackTrace()
+                throw ex
+            }
+    }
+}
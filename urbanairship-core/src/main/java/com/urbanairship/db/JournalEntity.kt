@@ -0,0 +1,28 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.db
+
+import androidx.annotation.RestrictTo
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.PrimaryKey
+import androidx.room.TypeConverters
+import com.urbanairship.json.JsonTypeConverters
+import com.urbanairship.json.JsonValue
+
+/**
+ * A single entry in a [Journal]. Entries are ordered by their generated id.
+ * @hide
+ */
+@Entity(
+    tableName = "journal",
+    indices = [Index(value = ["journal", "entryId"], unique = true)]
+)
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+@TypeConverters(JsonTypeConverters::class)
+public data class JournalEntity(
+    @PrimaryKey(autoGenerate = true) val id: Long = 0,
+    val journal: String,
+    val entryId: String,
+    val data: JsonValue
+)
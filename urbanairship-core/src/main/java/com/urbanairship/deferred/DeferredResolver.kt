@@ -39,12 +39,19 @@ public class DeferredResolver internal constructor(
             channelID = request.channelID,
             contactID = request.contactID,
             stateOverrides = StateOverrides(request),
-            audienceOverrides = audienceOverridesProvider.channelOverrides(request.channelID, request.contactID),
+            audienceOverrides = audienceOverrides(request),
             triggerContext = request.triggerContext,
             resultParser = parser,
             allowRetry = true)
     }
 
+    /**
+     * Gets the audience overrides that are sent with the request.
+     */
+    public suspend fun audienceOverrides(request: DeferredRequest): AudienceOverrides.Channel {
+        return audienceOverridesProvider.channelOverrides(request.channelID, request.contactID)
+    }
+
     public fun <T> resolveAsPendingResult(request: DeferredRequest, parser: (JsonValue) -> T): PendingResult<DeferredResult<T>> {
         val scope = CoroutineScope(AirshipDispatchers.IO + SupervisorJob())
         val result = PendingResult<DeferredResult<T>>()
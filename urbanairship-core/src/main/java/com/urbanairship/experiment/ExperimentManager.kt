@@ -15,8 +15,12 @@ import com.urbanairship.audience.DeviceInfoProvider
 import com.urbanairship.json.JsonException
 import com.urbanairship.json.JsonMap
 import com.urbanairship.remotedata.RemoteData
+import com.urbanairship.remotedata.RemoteDataPayload
 import com.urbanairship.util.Clock
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 import kotlin.jvm.Throws
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.launch
@@ -26,16 +30,24 @@ import kotlinx.coroutines.launch
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 @OpenForTesting
-public class ExperimentManager internal constructor(
+public class ExperimentManager @JvmOverloads internal constructor(
     context: Context,
     dataStore: PreferenceDataStore,
     private val remoteData: RemoteData,
     private val infoProvider: DeviceInfoProvider,
-    private val clock: Clock = Clock.DEFAULT_CLOCK
+    private val clock: Clock = Clock.DEFAULT_CLOCK,
+    dispatcher: CoroutineDispatcher = AirshipDispatchers.IO
 ) : AirshipComponent(context, dataStore) {
 
     private val scope = CoroutineScope(AirshipDispatchers.IO + SupervisorJob())
 
+    private val updateScope = CoroutineScope(dispatcher + SupervisorJob())
+
+    // Parsed experiments, rebuilt when the remote-data payloads change
+    private val experimentsLock = ReentrantLock()
+    private var parsedExperiments: List<Experiment>? = null
+    private var experimentsVersion = 0L
+
     public companion object {
         internal const val PAYLOAD_TYPE = "experiments"
     }
@@ -44,6 +56,18 @@ public class ExperimentManager internal constructor(
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     override fun getComponentGroup(): Int = AirshipComponentGroups.EXPERIMENT
 
+    /** @hide */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public override fun init() {
+        super.init()
+
+        updateScope.launch {
+            remoteData.payloadFlow(PAYLOAD_TYPE).collect { payloads ->
+                updateExperiments(parseExperiments(payloads))
+            }
+        }
+    }
+
     /**
      * Returns an optional Experiment with the given [id].
      *
@@ -134,18 +158,50 @@ public class ExperimentManager internal constructor(
     }
 
     private suspend fun getActiveExperiments(messageInfo: MessageInfo): List<Experiment> {
+        val now = clock.currentTimeMillis()
+        return getExperiments()
+            .filter { it.isActive(now) }
+            .filter { experiment ->
+                !(experiment.exclusions.any { it.evaluate(messageInfo) })
+            }
+    }
+
+    /**
+     * Gets the parsed experiments. Only reads remote-data if the payload flow has not delivered
+     * the experiments yet.
+     */
+    private suspend fun getExperiments(): List<Experiment> {
+        val version = experimentsLock.withLock {
+            parsedExperiments?.let { return it }
+            experimentsVersion
+        }
+
+        val experiments = parseExperiments(remoteData.payloads(PAYLOAD_TYPE))
+        experimentsLock.withLock {
+            // Drop the result if the payloads changed while loading
+            if (experimentsVersion == version) {
+                parsedExperiments = experiments
+            }
+        }
+        return experiments
+    }
+
+    private fun updateExperiments(experiments: List<Experiment>) {
+        experimentsLock.withLock {
+            experimentsVersion++
+            parsedExperiments = experiments
+        }
+    }
+
+    private fun parseExperiments(payloads: List<RemoteDataPayload>): List<Experiment> {
         return try {
-            remoteData.payloads(PAYLOAD_TYPE)
+            payloads
                 .mapNotNull {
                     it.data.opt(PAYLOAD_TYPE).list?.list
                 }
                 .flatten()
                 .map { it.optMap() }
                 .mapNotNull(Experiment::fromJson)
-                .filter { it.isActive(clock.currentTimeMillis()) }
-                .filter { experiment ->
-                    !(experiment.exclusions.any { it.evaluate(messageInfo) })
-                }
         } catch (ex: JsonException) {
             UALog.e(ex) { "Failed to parse experiments from remoteData payload" }
             emptyList()
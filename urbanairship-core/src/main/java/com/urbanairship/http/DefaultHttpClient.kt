@@ -4,12 +4,14 @@ import android.net.Uri
 import com.urbanairship.UAirship
 import com.urbanairship.json.JsonValue
 import com.urbanairship.util.ConnectionUtils
+import com.urbanairship.util.UAHttpStatusUtil
 import java.io.IOException
 import java.io.InputStream
 import java.io.OutputStream
 import java.net.HttpURLConnection
 import java.net.MalformedURLException
 import java.net.URL
+import java.util.zip.GZIPInputStream
 import java.util.zip.GZIPOutputStream
 
 internal class DefaultHttpClient : HttpClient {
@@ -19,7 +21,9 @@ internal class DefaultHttpClient : HttpClient {
         headers: Map<String, String>,
         body: RequestBody?,
         followRedirects: Boolean,
-        parser: ResponseParser<T>
+        parser: ResponseParser<T>,
+        connectTimeoutMs: Long?,
+        readTimeoutMs: Long?
     ): Response<T> {
         val actualUrl: URL = try {
             URL(url.toString())
@@ -27,6 +31,9 @@ internal class DefaultHttpClient : HttpClient {
             throw RequestException("Failed to build URL", e)
         }
 
+        @Suppress("UNCHECKED_CAST")
+        val streamParser = parser as? StreamResponseParser<T>
+
         var conn: HttpURLConnection? = null
 
         return try {
@@ -38,8 +45,8 @@ internal class DefaultHttpClient : HttpClient {
                 requestMethod = method
                 doInput = true
                 useCaches = false
-                connectTimeout = 60000
-                readTimeout = 60000
+                connectTimeout = (connectTimeoutMs ?: DEFAULT_TIMEOUT_MS).toInt()
+                readTimeout = (readTimeoutMs ?: DEFAULT_TIMEOUT_MS).toInt()
                 allowUserInteraction = false
                 instanceFollowRedirects = followRedirects
             }
@@ -48,6 +55,11 @@ internal class DefaultHttpClient : HttpClient {
                 conn.setRequestProperty(entry.key, entry.value)
             }
 
+            if (streamParser != null && !headers.containsKey("Accept-Encoding")) {
+                // Setting the header disables transparent decoding, the stream is decoded below
+                conn.setRequestProperty("Accept-Encoding", "gzip")
+            }
+
             body?.let { requestBody ->
                 conn.doOutput = true
                 conn.setRequestProperty("Content-Type", requestBody.contentType)
@@ -56,16 +68,34 @@ internal class DefaultHttpClient : HttpClient {
                     conn.setRequestProperty("Content-Encoding", "gzip")
                 }
 
-                conn.outputStream.use { out -> out.write(requestBody.content, gzip = requestBody.compress) }
+                if (requestBody.isStreaming) {
+                    // Length is unknown until the body is encoded
+                    conn.setChunkedStreamingMode(0)
+                }
+
+                conn.outputStream.use { out -> out.write(requestBody) }
+            }
+
+            val responseHeaders = mapHeaders(conn.headerFields)
+
+            if (streamParser != null && UAHttpStatusUtil.inSuccessRange(conn.responseCode)) {
+                val parsedResult = conn.inputStream.decoded(conn.contentEncoding).use {
+                    streamParser.parseStream(conn.responseCode, responseHeaders, it)
+                }
+
+                return Response(
+                    conn.responseCode,
+                    parsedResult,
+                    null,
+                    responseHeaders,
+                )
             }
 
             val responseBody: String? = try {
-                conn.inputStream.readFully()
+                conn.inputStream.decoded(conn.contentEncoding).readFully()
             } catch (ex: IOException) {
-                conn.errorStream.readFully()
+                conn.errorStream?.decoded(conn.contentEncoding)?.readFully()
             }
-
-            val responseHeaders = mapHeaders(conn.headerFields)
             val parsedResult = parser.parseResponse(
                 conn.responseCode,
                 responseHeaders,
@@ -83,19 +113,28 @@ internal class DefaultHttpClient : HttpClient {
         }
     }
 
-    private fun mapHeaders(headers: Map<String, List<String>>): Map<String, String> {
-        return headers.mapValues { (_, value) ->
-            if (value.isEmpty()) {
-                ""
-            } else if (value.size > 1) {
-                JsonValue.wrapOpt(value).toString()
-            } else {
-                value.first()
-            }
+}
+
+internal fun mapHeaders(headers: Map<String, List<String>>): Map<String, String> {
+    return headers.mapValues { (_, value) ->
+        if (value.isEmpty()) {
+            ""
+        } else if (value.size > 1) {
+            JsonValue.wrapOpt(value).toString()
+        } else {
+            value.first()
         }
     }
 }
 
+private fun InputStream.decoded(contentEncoding: String?): InputStream {
+    return if ("gzip".equals(contentEncoding, ignoreCase = true)) {
+        GZIPInputStream(this)
+    } else {
+        this
+    }
+}
+
 private fun InputStream.readFully(): String {
     return bufferedReader().useLines { lines ->
         lines.fold(StringBuilder()) { builder, line ->
@@ -104,14 +143,7 @@ private fun InputStream.readFully(): String {
     }
 }
 
-private fun OutputStream.write(content: String, gzip: Boolean = false) {
-    if (gzip) {
-        GZIPOutputStream(this).use { gos ->
-            gos.writer().use {
-                it.write(content)
-            }
-        }
-    } else {
-        writer().use { it.write(content) }
-    }
+private fun OutputStream.write(body: RequestBody) {
+    val stream = if (body.compress) GZIPOutputStream(this) else this
+    stream.bufferedWriter().use { body.writeTo(it) }
 }
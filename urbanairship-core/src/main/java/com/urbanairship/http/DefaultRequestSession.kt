@@ -3,6 +3,7 @@ package com.urbanairship.http
 import android.util.Base64
 import androidx.annotation.RestrictTo
 import com.urbanairship.AirshipConfigOptions
+import com.urbanairship.UALog
 import com.urbanairship.UAirship
 import com.urbanairship.util.Clock
 import com.urbanairship.util.DateUtils
@@ -27,7 +28,7 @@ public class DefaultRequestSession : RequestSession {
     private val nonceTokenFactory: () -> String
 
     public constructor(configOptions: AirshipConfigOptions, platform: Int) : this(
-        configOptions, platform, DefaultHttpClient()
+        configOptions, platform, createHttpClient(configOptions)
     )
 
     internal constructor(
@@ -99,7 +100,8 @@ public class DefaultRequestSession : RequestSession {
             }
 
             val response = httpClient.execute(
-                request.url, request.method, headers, request.body, request.followRedirects, parser
+                request.url, request.method, headers, request.body, request.followRedirects, parser,
+                request.connectTimeoutMs, request.readTimeoutMs
             )
 
             return if (response.status == 401 && auth != null && auth.authToken != null) {
@@ -233,6 +235,27 @@ public class DefaultRequestSession : RequestSession {
         return result.getOrThrow()
     }
 
+    private companion object {
+        private fun createHttpClient(configOptions: AirshipConfigOptions): HttpClient {
+            if (configOptions.httpConnectionPoolingEnabled) {
+                if (isOkHttpAvailable()) {
+                    return PooledHttpClient()
+                }
+                UALog.w("HTTP connection pooling requires OkHttp, falling back to the default client.")
+            }
+            return DefaultHttpClient()
+        }
+
+        private fun isOkHttpAvailable(): Boolean {
+            return try {
+                Class.forName("okhttp3.OkHttpClient")
+                true
+            } catch (e: ClassNotFoundException) {
+                false
+            }
+        }
+    }
+
     private data class RequestResult<T>(val shouldRetry: Boolean, val response: Response<T>)
 
     private data class ResolvedAuth(
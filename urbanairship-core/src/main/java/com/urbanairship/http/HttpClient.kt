@@ -2,6 +2,9 @@ package com.urbanairship.http
 
 import android.net.Uri
 
+/** Default connect and read timeout. */
+internal const val DEFAULT_TIMEOUT_MS: Long = 60000
+
 internal interface HttpClient {
     fun <T> execute(
         url: Uri,
@@ -9,6 +12,8 @@ internal interface HttpClient {
         headers: Map<String, String>,
         body: RequestBody?,
         followRedirects: Boolean,
-        parser: ResponseParser<T>
+        parser: ResponseParser<T>,
+        connectTimeoutMs: Long? = null,
+        readTimeoutMs: Long? = null
     ): Response<T>
 }
@@ -0,0 +1,160 @@
+/* Copyright Airship and Contributors */
+package com.urbanairship.http
+
+import android.net.Uri
+import androidx.annotation.VisibleForTesting
+import com.urbanairship.UAirship
+import com.urbanairship.util.ConnectionUtils
+import com.urbanairship.util.UAHttpStatusUtil
+import java.util.TreeMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPOutputStream
+import okhttp3.ConnectionPool
+import okhttp3.Headers
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
+import okhttp3.MediaType
+import okhttp3.MediaType.Companion.toMediaTypeOrNull
+import okhttp3.OkHttpClient
+import okhttp3.RequestBody.Companion.toRequestBody
+import okio.BufferedSink
+
+/**
+ * Http client that keeps connections alive between requests, multiplexes requests over HTTP/2
+ * when the server supports it, and limits the number of in-flight requests per host.
+ *
+ * Requires OkHttp on the classpath. Callers must check that OkHttp is available before
+ * loading this class.
+ */
+internal class PooledHttpClient @VisibleForTesting constructor(
+    private val client: OkHttpClient,
+    private val maxRequestsPerHost: Int,
+    private val installSecurityProvider: Boolean
+) : HttpClient {
+
+    constructor() : this(
+        client = OkHttpClient.Builder()
+            .connectionPool(ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .connectTimeout(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .readTimeout(DEFAULT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .build(),
+        maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST,
+        installSecurityProvider = true
+    )
+
+    private val hostPermits = ConcurrentHashMap<String, Semaphore>()
+
+    override fun <T> execute(
+        url: Uri,
+        method: String,
+        headers: Map<String, String>,
+        body: RequestBody?,
+        followRedirects: Boolean,
+        parser: ResponseParser<T>,
+        connectTimeoutMs: Long?,
+        readTimeoutMs: Long?
+    ): Response<T> {
+        val httpUrl = url.toString().toHttpUrlOrNull() ?: throw RequestException("Failed to build URL")
+
+        if (installSecurityProvider) {
+            ConnectionUtils.installSecurityProvider(UAirship.getApplicationContext())
+        }
+
+        val request = okhttp3.Request.Builder()
+            .url(httpUrl)
+            .headers(Headers.headersOf(*headers.flatMap { listOf(it.key, it.value) }.toTypedArray()))
+            .method(method, body?.toOkHttpBody() ?: emptyBody(method))
+            .apply {
+                if (body?.compress == true) {
+                    header("Content-Encoding", "gzip")
+                }
+            }
+            .build()
+
+        @Suppress("UNCHECKED_CAST")
+        val streamParser = parser as? StreamResponseParser<T>
+
+        val permits = hostPermits.getOrPut(httpUrl.host) { Semaphore(maxRequestsPerHost) }
+        permits.acquire()
+        try {
+            clientFor(followRedirects, connectTimeoutMs, readTimeoutMs).newCall(request).execute().use { response ->
+                val responseHeaders = responseHeaders(response.headers)
+
+                if (streamParser != null && UAHttpStatusUtil.inSuccessRange(response.code)) {
+                    val parsedResult = response.body?.byteStream().use {
+                        streamParser.parseStream(response.code, responseHeaders, it)
+                    }
+                    return Response(response.code, parsedResult, null, responseHeaders)
+                }
+
+                val responseBody = response.body?.string()
+                val parsedResult = parser.parseResponse(response.code, responseHeaders, responseBody)
+                return Response(response.code, parsedResult, responseBody, responseHeaders)
+            }
+        } finally {
+            permits.release()
+        }
+    }
+
+    /**
+     * Derived clients share the connection pool and dispatcher of the base client.
+     */
+    private fun clientFor(followRedirects: Boolean, connectTimeoutMs: Long?, readTimeoutMs: Long?): OkHttpClient {
+        if (followRedirects == client.followRedirects && connectTimeoutMs == null && readTimeoutMs == null) {
+            return client
+        }
+
+        return client.newBuilder().apply {
+            followRedirects(followRedirects)
+            connectTimeoutMs?.let { connectTimeout(it, TimeUnit.MILLISECONDS) }
+            readTimeoutMs?.let { readTimeout(it, TimeUnit.MILLISECONDS) }
+        }.build()
+    }
+
+    private fun responseHeaders(headers: Headers): Map<String, String> {
+        val multimap = TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER)
+        headers.names().forEach { multimap[it] = headers.values(it) }
+        return mapHeaders(multimap)
+    }
+
+    private fun emptyBody(method: String): okhttp3.RequestBody? {
+        return when (method.uppercase()) {
+            "POST", "PUT", "PATCH" -> ByteArray(0).toRequestBody(null)
+            else -> null
+        }
+    }
+
+    private fun RequestBody.toOkHttpBody(): okhttp3.RequestBody {
+        val mediaType = contentType.toMediaTypeOrNull()
+        if (!isStreaming && !compress) {
+            return content.toRequestBody(mediaType)
+        }
+
+        val requestBody = this
+        return object : okhttp3.RequestBody() {
+            override fun contentType(): MediaType? = mediaType
+
+            override fun writeTo(sink: BufferedSink) {
+                val out = sink.outputStream()
+                if (requestBody.compress) {
+                    val gzip = GZIPOutputStream(out)
+                    val writer = gzip.bufferedWriter()
+                    requestBody.writeTo(writer)
+                    writer.flush()
+                    gzip.finish()
+                } else {
+                    val writer = out.bufferedWriter()
+                    requestBody.writeTo(writer)
+                    writer.flush()
+                }
+            }
+        }
+    }
+
+    private companion object {
+        private const val MAX_IDLE_CONNECTIONS = 5
+        private const val KEEP_ALIVE_MINUTES = 5L
+        private const val DEFAULT_MAX_REQUESTS_PER_HOST = 4
+    }
+}
@@ -16,7 +16,11 @@ public data class Request @JvmOverloads constructor(
     val auth: RequestAuth? = null,
     val body: RequestBody? = null,
     val headers: Map<String, String> = emptyMap(),
-    val followRedirects: Boolean = true
+    val followRedirects: Boolean = true,
+    /** Connect timeout in milliseconds, or null to use the client default. */
+    val connectTimeoutMs: Long? = null,
+    /** Read timeout in milliseconds, or null to use the client default. */
+    val readTimeoutMs: Long? = null
 ) {
     public constructor(url: Uri?, method: String, followRedirects: Boolean) : this(
         url = url,
@@ -3,29 +3,86 @@ package com.urbanairship.http
 import com.urbanairship.json.JsonException
 import com.urbanairship.json.JsonSerializable
 import com.urbanairship.json.JsonValue
+import java.io.IOException
+import java.io.Writer
 
 public sealed class RequestBody(
-    public val content: String,
     public val contentType: String,
     public val compress: Boolean
 ) {
+
+    /**
+     * The body content.
+     */
+    public abstract val content: String
+
+    /**
+     * If the body should be streamed to the connection instead of being buffered.
+     */
+    public open val isStreaming: Boolean = false
+
+    /**
+     * Writes the body content.
+     */
+    @Throws(IOException::class)
+    public open fun writeTo(writer: Writer) {
+        writer.write(content)
+    }
+
     public data class Json(val json: JsonValue) : RequestBody(
-        json.toString(),
         "application/json",
         false
     ) {
+        override val content: String = json.toString()
+
         public constructor(json: JsonSerializable) : this(json.toJsonValue())
         @Throws(JsonException::class)
         public constructor(json: String) : this(JsonValue.parseString(json))
     }
 
     public data class GzippedJson(val json: JsonValue) : RequestBody(
-        json.toString(),
         "application/json",
         true
     ) {
+        override val content: String = json.toString()
+
         public constructor(json: JsonSerializable) : this(json.toJsonValue())
         @Throws(JsonException::class)
         public constructor(json: String) : this(JsonValue.parseString(json))
     }
+
+    /**
+     * JSON body that is encoded directly to the connection output stream, so the payload
+     * is never held in memory as a String. [content] is only built on demand.
+     */
+    public data class StreamingJson(val json: JsonValue) : RequestBody(
+        "application/json",
+        false
+    ) {
+        override val content: String by lazy { json.toString() }
+        override val isStreaming: Boolean = true
+
+        public constructor(json: JsonSerializable) : this(json.toJsonValue())
+
+        override fun writeTo(writer: Writer) {
+            json.writeTo(writer)
+        }
+    }
+
+    /**
+     * Gzipped version of [StreamingJson].
+     */
+    public data class GzippedStreamingJson(val json: JsonValue) : RequestBody(
+        "application/json",
+        true
+    ) {
+        override val content: String by lazy { json.toString() }
+        override val isStreaming: Boolean = true
+
+        public constructor(json: JsonSerializable) : this(json.toJsonValue())
+
+        override fun writeTo(writer: Writer) {
+            json.writeTo(writer)
+        }
+    }
 }
@@ -0,0 +1,39 @@
+/* Copyright Airship and Contributors */
+package com.urbanairship.http
+
+import androidx.annotation.RestrictTo
+import java.io.InputStream
+
+/**
+ * Response parser that reads successful responses directly from the connection stream instead
+ * of buffering the body as a String first. Responses parsed from the stream will not have
+ * a [Response.body].
+ *
+ * @param <T> The result type.
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class StreamResponseParser<T>(private val parser: Parser<T>) : ResponseParser<T> {
+
+    /**
+     * Parses a response stream.
+     */
+    public fun interface Parser<T> {
+
+        @Throws(Exception::class)
+        public fun parseResponse(status: Int, headers: Map<String, String>, responseStream: InputStream?): T
+    }
+
+    @Throws(Exception::class)
+    override fun parseResponse(status: Int, headers: Map<String, String>, responseBody: String?): T {
+        return parser.parseResponse(status, headers, responseBody?.byteInputStream())
+    }
+
+    /**
+     * Parses the response stream.
+     */
+    @Throws(Exception::class)
+    public fun parseStream(status: Int, headers: Map<String, String>, responseStream: InputStream?): T {
+        return parser.parseResponse(status, headers, responseStream)
+    }
+}
@@ -23,6 +23,7 @@ public class DefaultImageLoader implements ImageLoader {
 
     private final Map<ImageView, ImageRequest> requestMap;
     private final ImageCache imageCache;
+    private final RequestCoalescer<Drawable> requestCoalescer;
 
     /**
      * Creates an ImageLoader.
@@ -31,7 +32,21 @@ public class DefaultImageLoader implements ImageLoader {
      */
     public DefaultImageLoader(@NonNull Context context) {
         this.requestMap = new WeakHashMap<>();
-        this.imageCache = new ImageCache(context);
+        this.imageCache = ImageCache.shared(context);
+        this.requestCoalescer = new RequestCoalescer<>();
+    }
+
+    /**
+     * Gets the image cache stats.
+     *
+     * @return The current cache stats.
+     */
+    @NonNull
+    public CacheStats getCacheStats() {
+        return new CacheStats(imageCache.getMemoryHits(),
+                imageCache.getDiskHits(),
+                imageCache.getMisses(),
+                requestCoalescer.getCoalescedCount());
     }
 
     /**
@@ -54,7 +69,7 @@ public class DefaultImageLoader implements ImageLoader {
     public void load(@NonNull Context context, @NonNull ImageView imageView, @NonNull ImageRequestOptions imageRequestOptions) {
         cancelRequest(imageView);
 
-        ImageRequest request = new ImageRequest(context, imageCache, imageView, imageRequestOptions) {
+        ImageRequest request = new ImageRequest(context, imageCache, requestCoalescer, imageView, imageRequestOptions) {
             @Override
             void onFinish(@Nullable ImageView imageView, boolean success) {
                 if (imageView != null) {
@@ -72,4 +87,70 @@ public class DefaultImageLoader implements ImageLoader {
         request.execute();
     }
 
+    /**
+     * Image cache hit and miss counts.
+     */
+    public static final class CacheStats {
+
+        private final long memoryHits;
+        private final long diskHits;
+        private final long misses;
+        private final long coalescedRequests;
+
+        CacheStats(long memoryHits, long diskHits, long misses, long coalescedRequests) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.misses = misses;
+            this.coalescedRequests = coalescedRequests;
+        }
+
+        /**
+         * Number of images loaded from the memory cache.
+         *
+         * @return The memory hit count.
+         */
+        public long getMemoryHits() {
+            return memoryHits;
+        }
+
+        /**
+         * Number of downsampled images loaded from the disk cache.
+         *
+         * @return The disk hit count.
+         */
+        public long getDiskHits() {
+            return diskHits;
+        }
+
+        /**
+         * Number of images that had to be fetched and decoded.
+         *
+         * @return The miss count.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Number of requests that shared an in-flight fetch for the same image and size.
+         *
+         * @return The coalesced request count.
+         */
+        public long getCoalescedRequests() {
+            return coalescedRequests;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "CacheStats{" +
+                    "memoryHits=" + memoryHits +
+                    ", diskHits=" + diskHits +
+                    ", misses=" + misses +
+                    ", coalescedRequests=" + coalescedRequests +
+                    '}';
+        }
+
+    }
+
 }
@@ -1,23 +1,40 @@
 package com.urbanairship.images;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.net.http.HttpResponseCache;
 import android.util.LruCache;
 
 import com.urbanairship.UALog;
+import com.urbanairship.util.Clock;
+import com.urbanairship.util.UAStringUtil;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 
 class ImageCache {
 
     private static final String CACHE_DIR = "urbanairship-cache";
 
+    private static final String DECODED_CACHE_DIR = "urbanairship-decoded-cache";
+
     /**
      * Max amount of memory cache.
      */
@@ -33,12 +50,72 @@ class ImageCache {
      */
     private static final int DISK_CACHE_SIZE = 1024 * 1024 * 50; // 50MB
 
+    /**
+     * Decoded image disk cache size.
+     */
+    private static final long DECODED_DISK_CACHE_SIZE = 1024 * 1024 * 20; // 20MB
+
+    /**
+     * How long a decoded image is served before the source image is fetched again.
+     */
+    private static final long DECODED_CACHE_TTL_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Quality used to store decoded images without alpha.
+     */
+    private static final int JPEG_QUALITY = 90;
+
+    private static ImageCache sharedInstance;
+
     private final LruCache<String, CacheEntry> memoryCache;
 
     private final Context context;
 
+    private final Clock clock;
+
+    private final Object decodedCacheLock = new Object();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Gets the shared image cache.
+     *
+     * @param context The context.
+     * @return The shared image cache.
+     */
+    @NonNull
+    static ImageCache shared(@NonNull Context context) {
+        synchronized (ImageCache.class) {
+            if (sharedInstance == null) {
+                sharedInstance = new ImageCache(context);
+            }
+            return sharedInstance;
+        }
+    }
+
+    /**
+     * Creates the memory cache key for an image scaled to a given size.
+     *
+     * @param url The image URL.
+     * @param width The width.
+     * @param height The height.
+     * @return The memory cache key.
+     */
+    @NonNull
+    static String cacheKey(@NonNull String url, int width, int height) {
+        return url + ",size(" + width + "x" + height + ")";
+    }
+
     ImageCache(@NonNull Context context) {
+        this(context, Clock.DEFAULT_CLOCK);
+    }
+
+    @VisibleForTesting
+    ImageCache(@NonNull Context context, @NonNull Clock clock) {
         this.context = context.getApplicationContext();
+        this.clock = clock;
 
         // Memory Cache - 1/8 the available memory. Taken from https://developer.android.com/topic/performance/graphics/cache-bitmap
         int memCacheSize = (int) Math.min(MAX_MEM_CACHE_SIZE, Runtime.getRuntime().maxMemory() / 8);
@@ -67,9 +144,170 @@ class ImageCache {
         if (entry == null) {
             return null;
         }
+        memoryHits.incrementAndGet();
         return entry.drawable;
     }
 
+    /**
+     * Gets a downsampled image from the decoded disk cache. The image is added to the memory cache
+     * if found. Expired images are deleted and treated as a miss.
+     *
+     * @param key The cache key.
+     * @return The drawable, or null if the image is not cached.
+     */
+    @Nullable
+    @WorkerThread
+    Drawable getDecodedDrawable(@NonNull String key) {
+        File file = getDecodedFile(key);
+        if (file == null || !file.exists()) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        Bitmap bitmap = null;
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            // Each entry starts with its expiry
+            if (inputStream.readLong() > clock.currentTimeMillis()) {
+                bitmap = BitmapFactory.decodeStream(inputStream);
+                if (bitmap == null) {
+                    UALog.d("Unable to decode cached image: %s", key);
+                }
+            }
+        } catch (IOException e) {
+            UALog.d(e, "Unable to read cached image: %s", key);
+        }
+
+        if (bitmap == null) {
+            file.delete();
+            misses.incrementAndGet();
+            return null;
+        }
+
+        // Used to evict the least recently used images first
+        file.setLastModified(clock.currentTimeMillis());
+        diskHits.incrementAndGet();
+
+        Drawable drawable = new BitmapDrawable(context.getResources(), bitmap);
+        cacheDrawable(key, drawable, bitmap.getByteCount());
+        return drawable;
+    }
+
+    /**
+     * Stores a downsampled image in the decoded disk cache. Only bitmap drawables are stored.
+     *
+     * @param key The cache key.
+     * @param drawable The drawable.
+     */
+    @WorkerThread
+    void cacheDecodedDrawable(@NonNull String key, @NonNull Drawable drawable) {
+        if (!(drawable instanceof BitmapDrawable)) {
+            return;
+        }
+
+        Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+        File file = getDecodedFile(key);
+        if (bitmap == null || file == null) {
+            return;
+        }
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            UALog.e("Failed to create the decoded image cache.");
+            return;
+        }
+
+        // Write to a temp file first so readers never see a partial image
+        File tempFile = new File(file.getAbsolutePath() + ".tmp." + Thread.currentThread().getId());
+        Bitmap.CompressFormat format = bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG;
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            outputStream.writeLong(clock.currentTimeMillis() + DECODED_CACHE_TTL_MS);
+            if (!bitmap.compress(format, JPEG_QUALITY, outputStream)) {
+                tempFile.delete();
+                return;
+            }
+        } catch (IOException e) {
+            UALog.e(e, "Failed to cache decoded image: %s", key);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            return;
+        }
+
+        trimDecodedCache();
+    }
+
+    /**
+     * Gets the number of requests served from the memory cache.
+     *
+     * @return The memory hit count.
+     */
+    long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    /**
+     * Gets the number of requests served from the decoded disk cache.
+     *
+     * @return The disk hit count.
+     */
+    long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * Gets the number of requests that were not cached in memory or on disk.
+     *
+     * @return The miss count.
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    @Nullable
+    private File getDecodedFile(@NonNull String key) {
+        String name = UAStringUtil.sha256(key);
+        if (name == null) {
+            return null;
+        }
+        return new File(new File(context.getCacheDir(), DECODED_CACHE_DIR), name);
+    }
+
+    /**
+     * Deletes the least recently used images until the decoded cache fits in its max size.
+     */
+    @WorkerThread
+    private void trimDecodedCache() {
+        synchronized (decodedCacheLock) {
+            File[] files = new File(context.getCacheDir(), DECODED_CACHE_DIR).listFiles();
+            if (files == null) {
+                return;
+            }
+
+            long size = 0;
+            for (File file : files) {
+                size += file.length();
+            }
+
+            if (size <= DECODED_DISK_CACHE_SIZE) {
+                return;
+            }
+
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                if (size <= DECODED_DISK_CACHE_SIZE) {
+                    break;
+                }
+                long length = file.length();
+                if (file.delete()) {
+                    size -= length;
+                }
+            }
+        }
+    }
+
     /**
      * Installs a HttpResponseCache if a cache is not already installed.
      */
@@ -0,0 +1,304 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.webkit.URLUtil;
+
+import com.urbanairship.UALog;
+import com.urbanairship.util.ConnectionUtils;
+import com.urbanairship.util.ImageUtils;
+import com.urbanairship.util.UAHttpStatusUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Fetches scaled bitmaps by decoding them straight from the network stream.
+ * <p>
+ * The bytes read while decoding the bounds are kept and replayed ahead of the rest of the stream
+ * for the sampled decode, so each image is requested once. Responses go through the same HTTP disk
+ * cache as the image loader, decoded bitmaps share its memory and decoded disk caches, and
+ * concurrent fetches of the same image at the same size share a single request.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class ImagePipeline {
+
+    private static final int NETWORK_TIMEOUT_MS = 2000;
+
+    /**
+     * Read buffer size.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024; // 16KB
+
+    /**
+     * Max bytes kept while decoding the image bounds. Images need more only if they have very
+     * large metadata ahead of the dimensions.
+     */
+    @VisibleForTesting
+    static final int MAX_HEADER_SIZE = 1024 * 1024; // 1MB
+
+    private static ImagePipeline sharedInstance;
+
+    private final Context context;
+    private final ImageCache imageCache;
+    private final RequestCoalescer<Bitmap> inFlight = new RequestCoalescer<>();
+
+    /**
+     * Gets the shared image pipeline.
+     *
+     * @param context The context.
+     * @return The shared image pipeline.
+     */
+    @NonNull
+    public static ImagePipeline shared(@NonNull Context context) {
+        synchronized (ImagePipeline.class) {
+            if (sharedInstance == null) {
+                sharedInstance = new ImagePipeline(context, ImageCache.shared(context));
+            }
+            return sharedInstance;
+        }
+    }
+
+    @VisibleForTesting
+    ImagePipeline(@NonNull Context context, @NonNull ImageCache imageCache) {
+        this.context = context.getApplicationContext();
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * Fetches a bitmap sampled down to at least the requested size.
+     *
+     * @param url The image URL.
+     * @param reqWidth The requested width. Must be greater than zero.
+     * @param reqHeight The requested height. Must be greater than zero.
+     * @return The bitmap, or null if it failed to be fetched or decoded.
+     * @throws IOException if the image fails to be read.
+     */
+    @Nullable
+    @WorkerThread
+    public Bitmap fetchBitmap(@NonNull final URL url, final int reqWidth, final int reqHeight) throws IOException {
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            throw new IllegalArgumentException("reqWidth and reqHeight must be greater than zero.");
+        }
+
+        final String key = ImageCache.cacheKey(url.toString(), reqWidth, reqHeight);
+        Drawable cached = imageCache.getDrawable(key);
+        if (cached instanceof BitmapDrawable) {
+            UALog.v("Image cache hit: %s", key);
+            return ((BitmapDrawable) cached).getBitmap();
+        }
+
+        return inFlight.run(key, () -> {
+            Drawable decoded = imageCache.getDecodedDrawable(key);
+            if (decoded instanceof BitmapDrawable) {
+                return ((BitmapDrawable) decoded).getBitmap();
+            }
+
+            Bitmap bitmap = decodeBitmap(url, reqWidth, reqHeight);
+            if (bitmap != null) {
+                Drawable drawable = new BitmapDrawable(context.getResources(), bitmap);
+                imageCache.cacheDrawable(key, drawable, bitmap.getByteCount());
+                imageCache.cacheDecodedDrawable(key, drawable);
+            }
+            return bitmap;
+        });
+    }
+
+    @Nullable
+    @WorkerThread
+    private Bitmap decodeBitmap(@NonNull URL url, int reqWidth, int reqHeight) throws IOException {
+        UALog.v("Fetching image from: %s", url);
+        imageCache.installHttpCache();
+
+        InputStream input = openBufferedStream(url);
+        if (input == null) {
+            return null;
+        }
+
+        try {
+            // Keep the header bytes so the image does not have to be requested again
+            RecordingInputStream header = new RecordingInputStream(input, MAX_HEADER_SIZE);
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeStream(header, null, options);
+
+            if (header.isLimitReached()) {
+                UALog.d("Image bounds not found within %d bytes: %s", MAX_HEADER_SIZE, url);
+                return null;
+            }
+
+            int sourceWidth = options.outWidth;
+            int sourceHeight = options.outHeight;
+            if (sourceWidth <= 0 || sourceHeight <= 0) {
+                UALog.d("Unable to decode image bounds: %s", url);
+                return null;
+            }
+
+            input = new SequenceInputStream(new ByteArrayInputStream(header.getRecorded()), input);
+
+            options.inJustDecodeBounds = false;
+            options.inSampleSize = ImageUtils.calculateInSampleSize(sourceWidth, sourceHeight, reqWidth, reqHeight);
+
+            Bitmap bitmap = BitmapFactory.decodeStream(input, null, options);
+            if (bitmap != null) {
+                UALog.d("Fetched image from: %s. Original image size: %dx%d. Requested image size: %dx%d. Bitmap size: %dx%d.",
+                        url, sourceWidth, sourceHeight, reqWidth, reqHeight, bitmap.getWidth(), bitmap.getHeight());
+            }
+            return bitmap;
+        } finally {
+            try {
+                input.close();
+            } catch (IOException e) {
+                UALog.e(e);
+            }
+        }
+    }
+
+    /**
+     * Input stream that keeps a copy of the bytes read through it. Ends the stream once the limit
+     * is recorded, so the memory used is bounded.
+     */
+    private static class RecordingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        private final int limit;
+        private boolean isLimitReached;
+
+        RecordingInputStream(@NonNull InputStream in, int limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (recorded.size() >= limit) {
+                isLimitReached = true;
+                return -1;
+            }
+
+            int b = super.read();
+            if (b != -1) {
+                recorded.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int remaining = limit - recorded.size();
+            if (remaining <= 0) {
+                isLimitReached = true;
+                return -1;
+            }
+
+            int count = super.read(b, off, Math.min(len, remaining));
+            if (count > 0) {
+                recorded.write(b, off, count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Read instead of skipping so the skipped bytes are recorded
+            byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            long skipped = 0;
+            while (skipped < n) {
+                int count = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+                if (count <= 0) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream is still needed for the full decode
+        }
+
+        @NonNull
+        byte[] getRecorded() {
+            return recorded.toByteArray();
+        }
+
+        boolean isLimitReached() {
+            return isLimitReached;
+        }
+
+    }
+
+    @Nullable
+    private InputStream openBufferedStream(@NonNull URL url) throws IOException {
+        InputStream stream = openStream(url);
+        return stream == null ? null : new BufferedInputStream(stream, BUFFER_SIZE);
+    }
+
+    /**
+     * Opens the image stream.
+     *
+     * @param url The image URL.
+     * @return The stream, or null if the image is not available.
+     * @throws IOException if the connection fails.
+     */
+    @Nullable
+    @VisibleForTesting
+    @WorkerThread
+    InputStream openStream(@NonNull URL url) throws IOException {
+        if (URLUtil.isFileUrl(url.toString())) {
+            try {
+                return new FileInputStream(new File(url.toURI()));
+            } catch (URISyntaxException e) {
+                UALog.e("ImagePipeline - Invalid URL: %s ", url);
+                return null;
+            }
+        }
+
+        URLConnection conn = ConnectionUtils.openSecureConnection(context, url);
+        conn.setConnectTimeout(NETWORK_TIMEOUT_MS);
+        conn.setUseCaches(true);
+
+        if (conn instanceof HttpURLConnection) {
+            int statusCode = ((HttpURLConnection) conn).getResponseCode();
+            if (!UAHttpStatusUtil.inSuccessRange(statusCode)) {
+                UALog.v("Failed to fetch image from: %s, status: %d", url, statusCode);
+                ((HttpURLConnection) conn).disconnect();
+                return null;
+            }
+        }
+
+        return conn.getInputStream();
+    }
+
+}
@@ -42,6 +42,7 @@ abstract class ImageRequest {
 
     private final ImageRequestOptions imageRequestOptions;
     private final ImageCache imageCache;
+    private final RequestCoalescer<Drawable> requestCoalescer;
     private final WeakReference<ImageView> imageViewReference;
     private final Context context;
 
@@ -58,16 +59,19 @@ abstract class ImageRequest {
      *
      * @param context The application context.
      * @param imageCache The image cache.
+     * @param requestCoalescer Shares fetches between requests for the same image and size.
      * @param imageView The image view.
      * @param imageRequestOptions The request options.
      */
     ImageRequest(@NonNull Context context,
                  @NonNull ImageCache imageCache,
+                 @NonNull RequestCoalescer<Drawable> requestCoalescer,
                  @NonNull ImageView imageView,
                  @NonNull ImageRequestOptions imageRequestOptions) {
 
         this.context = context;
         this.imageCache = imageCache;
+        this.requestCoalescer = requestCoalescer;
         this.imageRequestOptions = imageRequestOptions;
         this.imageViewReference = new WeakReference<>(imageView);
         this.transparentDrawable =
@@ -180,7 +184,7 @@ abstract class ImageRequest {
      */
     @NonNull
     private String getCacheKey() {
-        return imageRequestOptions.getUrl() == null ? "" : imageRequestOptions.getUrl() + ",size(" + width + "x" + height + ")";
+        return imageRequestOptions.getUrl() == null ? "" : ImageCache.cacheKey(imageRequestOptions.getUrl(), width, height);
     }
 
     /**
@@ -193,25 +197,38 @@ abstract class ImageRequest {
     @Nullable
     @WorkerThread
     private Drawable fetchDrawableOnBackground() throws IOException {
-        imageCache.installHttpCache();
-
         if (imageViewReference.get() == null) {
             return null;
         }
 
-        if (imageRequestOptions.getUrl() == null) {
+        final String url = imageRequestOptions.getUrl();
+        if (url == null) {
             return null;
         }
 
-        int fallbackWidth = imageRequestOptions.getZeroWidthFallback();
-        int fallbackHeight = imageRequestOptions.getZeroHeightFallback();
-        ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, new URL(imageRequestOptions.getUrl()), width, height, fallbackWidth, fallbackHeight);
+        final String cacheKey = getCacheKey();
+        final int requestWidth = width;
+        final int requestHeight = height;
 
-        if (result == null) {
-            return null;
-        }
-        imageCache.cacheDrawable(getCacheKey(), result.drawable, result.bytes);
-        return result.drawable;
+        return requestCoalescer.run(cacheKey, () -> {
+            Drawable cached = imageCache.getDecodedDrawable(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+
+            imageCache.installHttpCache();
+
+            int fallbackWidth = imageRequestOptions.getZeroWidthFallback();
+            int fallbackHeight = imageRequestOptions.getZeroHeightFallback();
+            ImageUtils.DrawableResult result = ImageUtils.fetchScaledDrawable(context, new URL(url), requestWidth, requestHeight, fallbackWidth, fallbackHeight);
+
+            if (result == null) {
+                return null;
+            }
+            imageCache.cacheDrawable(cacheKey, result.drawable, result.bytes);
+            imageCache.cacheDecodedDrawable(cacheKey, result.drawable);
+            return result.drawable;
+        });
     }
 
     @MainThread
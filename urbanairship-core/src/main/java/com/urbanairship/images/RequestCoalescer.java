@@ -0,0 +1,87 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.images;
+
+import com.urbanairship.UALog;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Shares the result of a request between concurrent callers with the same key.
+ *
+ * @param <T> The result type.
+ */
+class RequestCoalescer<T> {
+
+    private final Map<String, FutureTask<T>> inFlight = new HashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * Runs the request, or waits on the in-flight request with the same key.
+     *
+     * @param key The request key.
+     * @param request The request.
+     * @return The result.
+     * @throws IOException if the request fails with an IOException.
+     */
+    @Nullable
+    @WorkerThread
+    T run(@NonNull String key, @NonNull Callable<T> request) throws IOException {
+        FutureTask<T> task;
+        boolean isOwner = false;
+        synchronized (inFlight) {
+            task = inFlight.get(key);
+            if (task == null) {
+                task = new FutureTask<>(request);
+                inFlight.put(key, task);
+                isOwner = true;
+            } else {
+                coalescedCount.incrementAndGet();
+                UALog.v("Joining in-flight image request: %s", key);
+            }
+        }
+
+        if (isOwner) {
+            try {
+                task.run();
+            } finally {
+                synchronized (inFlight) {
+                    inFlight.remove(key);
+                }
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            UALog.e(e, "Image request failed: %s", key);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of requests that joined an in-flight request.
+     *
+     * @return The coalesced request count.
+     */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+}
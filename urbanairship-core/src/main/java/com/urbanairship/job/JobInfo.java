@@ -45,6 +45,8 @@ public class JobInfo {
     private final String action;
     private final String airshipComponentName;
     private final boolean isNetworkAccessRequired;
+    private final boolean isUnmeteredNetworkRequired;
+    private final boolean isChargingRequired;
     private final long minDelayMs;
     private final int conflictStrategy;
     private final long initialBackOffMs;
@@ -61,6 +63,8 @@ public class JobInfo {
         this.airshipComponentName = builder.airshipComponentName == null ? "" : builder.airshipComponentName;
         this.extras = builder.extras != null ? builder.extras : JsonMap.EMPTY_MAP;
         this.isNetworkAccessRequired = builder.isNetworkAccessRequired;
+        this.isUnmeteredNetworkRequired = builder.isUnmeteredNetworkRequired;
+        this.isChargingRequired = builder.isChargingRequired;
         this.minDelayMs = builder.minDelayMs;
         this.conflictStrategy = builder.conflictStrategy;
         this.initialBackOffMs = builder.initialBackOffMs;
@@ -86,6 +90,24 @@ public class JobInfo {
         return isNetworkAccessRequired;
     }
 
+    /**
+     * If an unmetered network is required for the job.
+     *
+     * @return {@code true} if an unmetered network is required, otherwise {@code false}.
+     */
+    public boolean isUnmeteredNetworkRequired() {
+        return isUnmeteredNetworkRequired;
+    }
+
+    /**
+     * If the device has to be charging for the job.
+     *
+     * @return {@code true} if charging is required, otherwise {@code false}.
+     */
+    public boolean isChargingRequired() {
+        return isChargingRequired;
+    }
+
     /**
      * Gets the initial delay in milliseconds.
      *
@@ -135,6 +157,8 @@ public class JobInfo {
                 "action='" + action + '\'' +
                 ", airshipComponentName='" + airshipComponentName + '\'' +
                 ", isNetworkAccessRequired=" + isNetworkAccessRequired +
+                ", isUnmeteredNetworkRequired=" + isUnmeteredNetworkRequired +
+                ", isChargingRequired=" + isChargingRequired +
                 ", minDelayMs=" + minDelayMs +
                 ", conflictStrategy=" + conflictStrategy +
                 ", initialBackOffMs=" + initialBackOffMs +
@@ -149,6 +173,8 @@ public class JobInfo {
         if (o == null || getClass() != o.getClass()) return false;
         JobInfo jobInfo = (JobInfo) o;
         return isNetworkAccessRequired == jobInfo.isNetworkAccessRequired &&
+                isUnmeteredNetworkRequired == jobInfo.isUnmeteredNetworkRequired &&
+                isChargingRequired == jobInfo.isChargingRequired &&
                 minDelayMs == jobInfo.minDelayMs &&
                 conflictStrategy == jobInfo.conflictStrategy &&
                 initialBackOffMs == jobInfo.initialBackOffMs &&
@@ -160,7 +186,7 @@ public class JobInfo {
 
     @Override
     public int hashCode() {
-        return ObjectsCompat.hash(extras, action, airshipComponentName, isNetworkAccessRequired, minDelayMs, conflictStrategy, initialBackOffMs, rateLimitIds);
+        return ObjectsCompat.hash(extras, action, airshipComponentName, isNetworkAccessRequired, isUnmeteredNetworkRequired, isChargingRequired, minDelayMs, conflictStrategy, initialBackOffMs, rateLimitIds);
     }
 
     /**
@@ -181,6 +207,8 @@ public class JobInfo {
         private String action;
         private String airshipComponentName;
         private boolean isNetworkAccessRequired;
+        private boolean isUnmeteredNetworkRequired;
+        private boolean isChargingRequired;
         private JsonMap extras;
         private int conflictStrategy = REPLACE;
         private long initialBackOffMs = MIN_INITIAL_BACKOFF_MS;
@@ -220,6 +248,30 @@ public class JobInfo {
             return this;
         }
 
+        /**
+         * Sets if an unmetered network is required for the job. Implies network access.
+         *
+         * @param isUnmeteredNetworkRequired Flag if an unmetered network is required.
+         * @return The job builder.
+         */
+        @NonNull
+        public Builder setUnmeteredNetworkRequired(boolean isUnmeteredNetworkRequired) {
+            this.isUnmeteredNetworkRequired = isUnmeteredNetworkRequired;
+            return this;
+        }
+
+        /**
+         * Sets if the device has to be charging for the job.
+         *
+         * @param isChargingRequired Flag if charging is required.
+         * @return The job builder.
+         */
+        @NonNull
+        public Builder setChargingRequired(boolean isChargingRequired) {
+            this.isChargingRequired = isChargingRequired;
+            return this;
+        }
+
         /**
          * Sets the {@link AirshipComponent} that will receive the job.
          *
@@ -68,8 +68,16 @@ class WorkManagerScheduler implements Scheduler {
 
     @NonNull
     private static Constraints createConstraints(@NonNull JobInfo jobInfo) {
+        NetworkType networkType = NetworkType.NOT_REQUIRED;
+        if (jobInfo.isUnmeteredNetworkRequired()) {
+            networkType = NetworkType.UNMETERED;
+        } else if (jobInfo.isNetworkAccessRequired()) {
+            networkType = NetworkType.CONNECTED;
+        }
+
         return new Constraints.Builder()
-                .setRequiredNetworkType(jobInfo.isNetworkAccessRequired() ? NetworkType.CONNECTED : NetworkType.NOT_REQUIRED)
+                .setRequiredNetworkType(networkType)
+                .setRequiresCharging(jobInfo.isChargingRequired())
                 .build();
     }
 }
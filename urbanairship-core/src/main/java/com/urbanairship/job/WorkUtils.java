@@ -14,6 +14,8 @@ abstract class WorkUtils {
     private static final String EXTRAS = "extras";
     private static final String COMPONENT = "component";
     private static final String NETWORK_REQUIRED = "network_required";
+    private static final String UNMETERED_NETWORK_REQUIRED = "unmetered_network_required";
+    private static final String CHARGING_REQUIRED = "charging_required";
     private static final String MIN_DELAY = "min_delay";
     private static final String CONFLICT_STRATEGY = "conflict_strategy";
     private static final String INITIAL_BACKOFF = "initial_backoff";
@@ -26,6 +28,8 @@ abstract class WorkUtils {
                 .putString(EXTRAS, jobInfo.getExtras().toString())
                 .putString(COMPONENT, jobInfo.getAirshipComponentName())
                 .putBoolean(NETWORK_REQUIRED, jobInfo.isNetworkAccessRequired())
+                .putBoolean(UNMETERED_NETWORK_REQUIRED, jobInfo.isUnmeteredNetworkRequired())
+                .putBoolean(CHARGING_REQUIRED, jobInfo.isChargingRequired())
                 .putLong(MIN_DELAY, jobInfo.getMinDelayMs())
                 .putLong(INITIAL_BACKOFF, jobInfo.getInitialBackOffMs())
                 .putInt(CONFLICT_STRATEGY, jobInfo.getConflictStrategy())
@@ -41,6 +45,8 @@ abstract class WorkUtils {
                                          .setMinDelay(data.getLong(MIN_DELAY, 0), TimeUnit.MILLISECONDS)
                                          .setInitialBackOff(data.getLong(INITIAL_BACKOFF, 0), TimeUnit.MILLISECONDS)
                                          .setNetworkAccessRequired(data.getBoolean(NETWORK_REQUIRED, false))
+                                         .setUnmeteredNetworkRequired(data.getBoolean(UNMETERED_NETWORK_REQUIRED, false))
+                                         .setChargingRequired(data.getBoolean(CHARGING_REQUIRED, false))
                                          .setAirshipComponent(data.getString(COMPONENT))
                                          .setConflictStrategy(data.getInt(CONFLICT_STRATEGY, JobInfo.REPLACE));
 
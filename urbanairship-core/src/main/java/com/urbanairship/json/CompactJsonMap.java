@@ -0,0 +1,118 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable array backed map for JsonMaps with only a few entries. Lookups are a linear scan,
+ * which is faster than hashing for small maps and avoids allocating a node per entry.
+ * <p>
+ * Entries are iterated in the order of the source map.
+ */
+final class CompactJsonMap extends AbstractMap<String, JsonValue> {
+
+    private final String[] keys;
+    private final JsonValue[] values;
+
+    /**
+     * Default constructor.
+     *
+     * @param map The source map.
+     */
+    CompactJsonMap(@NonNull Map<String, JsonValue> map) {
+        int size = map.size();
+        this.keys = new String[size];
+        this.values = new JsonValue[size];
+
+        int i = 0;
+        for (Map.Entry<String, JsonValue> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+        return indexOf(key) != -1;
+    }
+
+    @Nullable
+    @Override
+    public JsonValue get(@Nullable Object key) {
+        int index = indexOf(key);
+        return index == -1 ? null : values[index];
+    }
+
+    @NonNull
+    @Override
+    public Set<Map.Entry<String, JsonValue>> entrySet() {
+        return new AbstractSet<Map.Entry<String, JsonValue>>() {
+            @NonNull
+            @Override
+            public Iterator<Map.Entry<String, JsonValue>> iterator() {
+                return new Iterator<Map.Entry<String, JsonValue>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, JsonValue> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, JsonValue> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                        index++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf(@Nullable Object key) {
+        if (key == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
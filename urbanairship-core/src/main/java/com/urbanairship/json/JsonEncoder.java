@@ -0,0 +1,168 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.io.IOException;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Writes JsonValues directly to an {@link Appendable} without building intermediate
+ * {@code org.json} objects.
+ * <p>
+ * The output is byte for byte the same as {@code org.json.JSONStringer}.
+ */
+final class JsonEncoder {
+
+    private static final String HEX = "0123456789abcdef";
+
+    private JsonEncoder() {}
+
+    /**
+     * Writes the value as JSON.
+     *
+     * @param value The value.
+     * @param out The output.
+     * @throws IOException If the output fails to write.
+     */
+    static void write(@NonNull JsonValue value, @NonNull Appendable out) throws IOException {
+        Object raw = value.getValue();
+
+        if (raw == null) {
+            out.append("null");
+        } else if (raw instanceof JsonMap) {
+            writeMap((JsonMap) raw, out);
+        } else if (raw instanceof JsonList) {
+            writeList((JsonList) raw, out);
+        } else if (raw instanceof String) {
+            writeString((String) raw, out);
+        } else if (raw instanceof Number) {
+            out.append(numberToString((Number) raw));
+        } else {
+            out.append(String.valueOf(raw));
+        }
+    }
+
+    /**
+     * Writes the map as a JSON object.
+     *
+     * @param map The map.
+     * @param out The output.
+     * @throws IOException If the output fails to write.
+     */
+    static void writeMap(@NonNull JsonMap map, @NonNull Appendable out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, JsonValue> entry : map) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+
+            writeString(entry.getKey(), out);
+            out.append(':');
+            write(entry.getValue(), out);
+        }
+        out.append('}');
+    }
+
+    /**
+     * Writes the list as a JSON array.
+     *
+     * @param list The list.
+     * @param out The output.
+     * @throws IOException If the output fails to write.
+     */
+    static void writeList(@NonNull JsonList list, @NonNull Appendable out) throws IOException {
+        out.append('[');
+        boolean first = true;
+        for (JsonValue value : list) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+
+            write(value, out);
+        }
+        out.append(']');
+    }
+
+    private static void writeString(@NonNull String value, @NonNull Appendable out) throws IOException {
+        out.append('"');
+
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '"':
+                    replacement = "\\\"";
+                    break;
+                case '\\':
+                    replacement = "\\\\";
+                    break;
+                case '/':
+                    replacement = "\\/";
+                    break;
+                case '\t':
+                    replacement = "\\t";
+                    break;
+                case '\b':
+                    replacement = "\\b";
+                    break;
+                case '\n':
+                    replacement = "\\n";
+                    break;
+                case '\r':
+                    replacement = "\\r";
+                    break;
+                case '\f':
+                    replacement = "\\f";
+                    break;
+                default:
+                    if (c > 0x1F) {
+                        continue;
+                    }
+                    replacement = null;
+                    break;
+            }
+
+            // Flush the unescaped run before the escaped character
+            if (start < i) {
+                out.append(value, start, i);
+            }
+            start = i + 1;
+
+            if (replacement != null) {
+                out.append(replacement);
+            } else {
+                out.append("\\u00")
+                   .append(HEX.charAt(c >> 4))
+                   .append(HEX.charAt(c & 0xF));
+            }
+        }
+
+        if (start < length) {
+            out.append(value, start, length);
+        }
+
+        out.append('"');
+    }
+
+    private static String numberToString(@NonNull Number number) {
+        double doubleValue = number.doubleValue();
+        long longValue = number.longValue();
+        if (doubleValue == (double) longValue && !(doubleValue == 0 && 1 / doubleValue < 0)) {
+            return Long.toString(longValue);
+        }
+
+        if (doubleValue == 0) {
+            return "-0";
+        }
+
+        return number.toString();
+    }
+
+}
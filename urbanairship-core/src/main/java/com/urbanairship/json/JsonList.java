@@ -4,10 +4,9 @@ package com.urbanairship.json;
 
 import com.urbanairship.UALog;
 
-import org.json.JSONException;
-import org.json.JSONStringer;
-
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -27,13 +26,31 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
 
     private final List<JsonValue> list;
 
+    // Memoized, 0 if not computed yet
+    private int hashCode;
+
     /**
      * Default Constructor.
      *
      * @param list A list of JsonValues.
      */
     public JsonList(@Nullable List<JsonValue> list) {
-        this.list = list == null ? new ArrayList<JsonValue>() : new ArrayList<>(list);
+        this(list == null ? Collections.<JsonValue>emptyList() : list, true);
+    }
+
+    /**
+     * Creates a JsonList from a List.
+     *
+     * @param list A list of JsonValues.
+     * @param copy {@code false} if the JsonList can take ownership of a list that is never modified
+     * again, otherwise {@code true}.
+     */
+    JsonList(@NonNull List<JsonValue> list, boolean copy) {
+        if (list.isEmpty()) {
+            this.list = Collections.emptyList();
+        } else {
+            this.list = Collections.unmodifiableList(copy ? new ArrayList<>(list) : list);
+        }
     }
 
     /**
@@ -131,7 +148,8 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
         }
 
         if ((object instanceof JsonList)) {
-            return list.equals(((JsonList) object).list);
+            JsonList other = (JsonList) object;
+            return hashCode() == other.hashCode() && list.equals(other.list);
         }
 
         return false;
@@ -139,7 +157,12 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
 
     @Override
     public int hashCode() {
-        return list.hashCode();
+        int result = hashCode;
+        if (result == 0) {
+            result = list.hashCode();
+            hashCode = result;
+        }
+        return result;
     }
 
     /**
@@ -150,29 +173,15 @@ public class JsonList implements Iterable<JsonValue>, JsonSerializable {
     @NonNull
     @Override
     public String toString() {
+        StringBuilder builder = new StringBuilder();
         try {
-            JSONStringer stringer = new JSONStringer();
-            write(stringer);
-            return stringer.toString();
-        } catch (JSONException | StringIndexOutOfBoundsException e) {
+            JsonEncoder.writeList(this, builder);
+        } catch (IOException e) {
             // Should never happen
             UALog.e(e, "JsonList - Failed to create JSON String.");
             return "";
         }
-    }
-
-    /**
-     * Helper method that is used to write the list as a JSON String.
-     *
-     * @param stringer The JSONStringer object.
-     * @throws org.json.JSONException If the value is unable to be written as JSON.
-     */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        stringer.array();
-        for (JsonValue actionValue : this) {
-            actionValue.write(stringer);
-        }
-        stringer.endArray();
+        return builder.toString();
     }
 
     @NonNull
@@ -4,11 +4,10 @@ package com.urbanairship.json;
 
 import com.urbanairship.UALog;
 
-import org.json.JSONException;
-import org.json.JSONStringer;
-
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -25,15 +24,38 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
     @NonNull
     public static final JsonMap EMPTY_MAP = new JsonMap(null);
 
+    /**
+     * Maps with at most this many entries are stored in a {@link CompactJsonMap}.
+     */
+    static final int MAX_COMPACT_SIZE = 8;
+
     private final Map<String, JsonValue> map;
 
+    // Memoized, 0 if not computed yet
+    private int hashCode;
+
     /**
      * Creates a JsonMap from a Map.
      *
      * @param map A map of strings to JsonValues.
      */
     public JsonMap(@Nullable Map<String, JsonValue> map) {
-        this.map = map == null ? new HashMap<String, JsonValue>() : new HashMap<>(map);
+        this(map == null ? Collections.<String, JsonValue>emptyMap() : map, true);
+    }
+
+    /**
+     * Creates a JsonMap from a Map.
+     *
+     * @param map A map of strings to JsonValues.
+     * @param copy {@code false} if the JsonMap can take ownership of a map that is never modified
+     * again, otherwise {@code true}.
+     */
+    JsonMap(@NonNull Map<String, JsonValue> map, boolean copy) {
+        if (map.size() <= MAX_COMPACT_SIZE) {
+            this.map = new CompactJsonMap(map);
+        } else {
+            this.map = Collections.unmodifiableMap(copy ? new HashMap<>(map) : map);
+        }
     }
 
     /**
@@ -70,8 +92,7 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
 
     /**
      * Returns a set containing all of the mappings in this map. Each mapping is
-     * an instance of {@link Map.Entry}. As the set is backed by this map,
-     * changes in one will be reflected in the other.
+     * an instance of {@link Map.Entry}. The set can not be modified.
      *
      * @return a set of the mappings.
      */
@@ -137,9 +158,8 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
     }
 
     /**
-     * Returns a set of the keys contained in this map. The set is backed by
-     * this map so changes to one are reflected by the other. The set does not
-     * support adding.
+     * Returns a set of the keys contained in this map. The set can not be
+     * modified.
      *
      * @return a set of the keys.
      */
@@ -184,7 +204,8 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
         }
 
         if (object instanceof JsonMap) {
-            return map.equals(((JsonMap) object).map);
+            JsonMap other = (JsonMap) object;
+            return hashCode() == other.hashCode() && map.equals(other.map);
         }
 
         if (object instanceof JsonValue) {
@@ -196,7 +217,12 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        int result = hashCode;
+        if (result == 0) {
+            result = map.hashCode();
+            hashCode = result;
+        }
+        return result;
     }
 
     /**
@@ -207,30 +233,15 @@ public class JsonMap implements Iterable<Map.Entry<String, JsonValue>>, JsonSeri
     @NonNull
     @Override
     public String toString() {
+        StringBuilder builder = new StringBuilder();
         try {
-            JSONStringer stringer = new JSONStringer();
-            write(stringer);
-            return stringer.toString();
-        } catch (JSONException | StringIndexOutOfBoundsException e) {
+            JsonEncoder.writeMap(this, builder);
+        } catch (IOException e) {
             // Should never happen
             UALog.e(e, "JsonMap - Failed to create JSON String.");
             return "";
         }
-    }
-
-    /**
-     * Helper method that is used to write the value as a JSON String.
-     *
-     * @param stringer The JSONStringer object.
-     * @throws org.json.JSONException If the value is unable to be written as JSON.
-     */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        stringer.object();
-        for (Map.Entry<String, JsonValue> entry : entrySet()) {
-            stringer.key(entry.getKey());
-            entry.getValue().write(stringer);
-        }
-        stringer.endObject();
+        return builder.toString();
     }
 
     @NonNull
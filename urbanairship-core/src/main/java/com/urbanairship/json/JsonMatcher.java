@@ -33,11 +33,24 @@ public class JsonMatcher implements JsonSerializable, Predicate<JsonSerializable
     @Nullable
     private final Boolean ignoreCase;
 
+    // Scope and key resolved into a single path when the matcher is built
+    @NonNull
+    private final String[] path;
+
+    private final boolean isIgnoreCase;
+
     private JsonMatcher(@NonNull Builder builder) {
         this.key = builder.key;
         this.scopeList = builder.scope;
         this.value = builder.valueMatcher == null ? ValueMatcher.newIsPresentMatcher() : builder.valueMatcher;
         this.ignoreCase = builder.ignoreCase;
+        this.isIgnoreCase = ignoreCase != null && ignoreCase;
+
+        List<String> path = new ArrayList<>(scopeList);
+        if (key != null) {
+            path.add(key);
+        }
+        this.path = path.toArray(new String[0]);
     }
 
     @NonNull
@@ -55,18 +68,25 @@ public class JsonMatcher implements JsonSerializable, Predicate<JsonSerializable
     @Override
     public boolean apply(@Nullable JsonSerializable jsonSerializable) {
         JsonValue jsonValue = jsonSerializable == null ? JsonValue.NULL : jsonSerializable.toJsonValue();
-        for (String scope : scopeList) {
-            jsonValue = jsonValue.optMap().opt(scope);
-            if (jsonValue.isNull()) {
+        for (String segment : path) {
+            if (!jsonValue.isJsonMap()) {
+                jsonValue = JsonValue.NULL;
                 break;
             }
-        }
 
-        if (key != null) {
-            jsonValue = jsonValue.optMap().opt(key);
+            jsonValue = jsonValue.optMap().opt(segment);
         }
 
-        return value.apply(jsonValue, (ignoreCase != null) && ignoreCase);
+        return value.apply(jsonValue, isIgnoreCase);
+    }
+
+    /**
+     * Gets the relative cost of applying the matcher.
+     *
+     * @return The relative evaluation cost.
+     */
+    int getEvaluationCost() {
+        return path.length + value.getEvaluationCost();
     }
 
     /**
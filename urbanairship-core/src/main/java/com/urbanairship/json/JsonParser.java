@@ -0,0 +1,324 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Single pass JSON parser that builds JsonValues directly from a String, without creating
+ * intermediate {@code org.json} objects.
+ * <p>
+ * The parser only accepts strict JSON. Parsed values follow the same rules as
+ * {@code org.json.JSONTokener} followed by {@link JsonValue#wrap(Object)}: null values in objects
+ * and arrays are dropped, duplicate keys keep the last value, and whole numbers are parsed as
+ * Integers or Longs.
+ */
+final class JsonParser {
+
+    private final String json;
+    private final int length;
+    private int pos;
+
+    private JsonParser(@NonNull String json) {
+        this.json = json;
+        this.length = json.length();
+    }
+
+    /**
+     * Parses a JSON encoded String.
+     *
+     * @param json The JSON encoded String.
+     * @return The parsed value.
+     * @throws JsonException If the String is not valid JSON.
+     */
+    @NonNull
+    static JsonValue parse(@NonNull String json) throws JsonException {
+        JsonParser parser = new JsonParser(json);
+        JsonValue value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != parser.length) {
+            throw parser.syntaxError("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    @NonNull
+    private JsonValue readValue() throws JsonException {
+        skipWhitespace();
+        if (pos >= length) {
+            throw syntaxError("Unexpected end of input");
+        }
+
+        char c = json.charAt(pos);
+        switch (c) {
+            case '{':
+                pos++;
+                return readObject();
+            case '[':
+                pos++;
+                return readArray();
+            case '"':
+                pos++;
+                return JsonValue.wrap(readString());
+            case 't':
+                readKeyword("true");
+                return JsonValue.wrap(true);
+            case 'f':
+                readKeyword("false");
+                return JsonValue.wrap(false);
+            case 'n':
+                readKeyword("null");
+                return JsonValue.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw syntaxError("Unexpected character '" + c + "'");
+        }
+    }
+
+    @NonNull
+    private JsonValue readObject() throws JsonException {
+        Map<String, JsonValue> map = new HashMap<>();
+
+        skipWhitespace();
+        if (pos < length && json.charAt(pos) == '}') {
+            pos++;
+            return JsonValue.wrap(new JsonMap(map, false));
+        }
+
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            String name = readString();
+
+            skipWhitespace();
+            expect(':');
+
+            JsonValue value = readValue();
+            if (value.isNull()) {
+                // A later null replaces any earlier value for the same key
+                map.remove(name);
+            } else {
+                map.put(name, value);
+            }
+
+            skipWhitespace();
+            if (pos >= length) {
+                throw syntaxError("Unterminated object");
+            }
+
+            char c = json.charAt(pos++);
+            if (c == '}') {
+                return JsonValue.wrap(new JsonMap(map, false));
+            }
+            if (c != ',') {
+                throw syntaxError("Expected ',' or '}'");
+            }
+        }
+    }
+
+    @NonNull
+    private JsonValue readArray() throws JsonException {
+        List<JsonValue> list = new ArrayList<>();
+
+        skipWhitespace();
+        if (pos < length && json.charAt(pos) == ']') {
+            pos++;
+            return JsonValue.wrap(new JsonList(list, false));
+        }
+
+        while (true) {
+            JsonValue value = readValue();
+            if (!value.isNull()) {
+                list.add(value);
+            }
+
+            skipWhitespace();
+            if (pos >= length) {
+                throw syntaxError("Unterminated array");
+            }
+
+            char c = json.charAt(pos++);
+            if (c == ']') {
+                return JsonValue.wrap(new JsonList(list, false));
+            }
+            if (c != ',') {
+                throw syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Reads a string up to and including the closing quote. The opening quote must already
+     * be consumed.
+     */
+    @NonNull
+    private String readString() throws JsonException {
+        int start = pos;
+        StringBuilder builder = null;
+
+        while (pos < length) {
+            char c = json.charAt(pos++);
+
+            if (c == '"') {
+                if (builder == null) {
+                    return json.substring(start, pos - 1);
+                }
+                builder.append(json, start, pos - 1);
+                return builder.toString();
+            }
+
+            if (c == '\\') {
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(json, start, pos - 1);
+                builder.append(readEscapeCharacter());
+                start = pos;
+            }
+        }
+
+        throw syntaxError("Unterminated string");
+    }
+
+    private char readEscapeCharacter() throws JsonException {
+        if (pos >= length) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+
+        char escaped = json.charAt(pos++);
+        switch (escaped) {
+            case 'u':
+                if (pos + 4 > length) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                int result = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(json.charAt(pos++), 16);
+                    if (digit == -1) {
+                        throw syntaxError("Invalid escape sequence");
+                    }
+                    result = (result << 4) + digit;
+                }
+                return (char) result;
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case '"':
+            case '\\':
+            case '/':
+                return escaped;
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    @NonNull
+    private JsonValue readNumber() throws JsonException {
+        int start = pos;
+        boolean isWhole = true;
+
+        if (json.charAt(pos) == '-') {
+            pos++;
+        }
+
+        if (pos < length && json.charAt(pos) == '0') {
+            pos++;
+        } else if (skipDigits() == 0) {
+            throw syntaxError("Invalid number");
+        }
+
+        if (pos < length && json.charAt(pos) == '.') {
+            isWhole = false;
+            pos++;
+            if (skipDigits() == 0) {
+                throw syntaxError("Invalid number");
+            }
+        }
+
+        if (pos < length && (json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+            isWhole = false;
+            pos++;
+            if (pos < length && (json.charAt(pos) == '+' || json.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (skipDigits() == 0) {
+                throw syntaxError("Invalid number");
+            }
+        }
+
+        String literal = json.substring(start, pos);
+        if (isWhole) {
+            try {
+                long longValue = Long.parseLong(literal);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return JsonValue.wrap((int) longValue);
+                }
+                return JsonValue.wrap(longValue);
+            } catch (NumberFormatException ignored) {
+                // Too large for a long, fall through to double
+            }
+        }
+
+        double value = Double.parseDouble(literal);
+        if (Double.isInfinite(value)) {
+            throw syntaxError("Invalid number");
+        }
+        return JsonValue.wrap(value);
+    }
+
+    private int skipDigits() {
+        int start = pos;
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            pos++;
+        }
+        return pos - start;
+    }
+
+    private void readKeyword(@NonNull String keyword) throws JsonException {
+        if (!json.startsWith(keyword, pos)) {
+            throw syntaxError("Unexpected literal");
+        }
+        pos += keyword.length();
+    }
+
+    private void expect(char expected) throws JsonException {
+        if (pos >= length || json.charAt(pos) != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+        pos++;
+    }
+
+    private void skipWhitespace() {
+        while (pos < length) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    @NonNull
+    private JsonException syntaxError(@NonNull String message) {
+        return new JsonException(message + " at character " + pos);
+    }
+
+}
@@ -7,10 +7,12 @@ import com.urbanairship.Predicate;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 import androidx.annotation.StringDef;
 
 /**
@@ -50,9 +52,23 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
     private final List<Predicate<JsonSerializable>> items;
     private final String type;
 
+    // Items ordered by evaluation cost, so AND/OR checks short circuit on the cheapest items first
+    private final List<Predicate<JsonSerializable>> evaluationOrder;
+    private final int evaluationCost;
+
     private JsonPredicate(Builder builder) {
-        this.items = builder.items;
+        this.items = new ArrayList<>(builder.items);
         this.type = builder.type;
+
+        List<Predicate<JsonSerializable>> evaluationOrder = new ArrayList<>(items);
+        Collections.sort(evaluationOrder, (first, second) -> Integer.compare(getEvaluationCost(first), getEvaluationCost(second)));
+        this.evaluationOrder = evaluationOrder;
+
+        int evaluationCost = 1;
+        for (Predicate<JsonSerializable> item : items) {
+            evaluationCost += getEvaluationCost(item);
+        }
+        this.evaluationCost = evaluationCost;
     }
 
     /**
@@ -138,17 +154,20 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
     }
 
     @Override
-    public boolean apply(@Nullable JsonSerializable value) {
+    public boolean apply(@Nullable JsonSerializable jsonSerializable) {
         if (items.size() == 0) {
             return true;
         }
 
+        // Convert once instead of in every matcher
+        JsonValue value = jsonSerializable == null ? JsonValue.NULL : jsonSerializable.toJsonValue();
+
         switch (type) {
             case NOT_PREDICATE_TYPE:
                 return !items.get(0).apply(value);
 
             case AND_PREDICATE_TYPE:
-                for (Predicate<JsonSerializable> item : items) {
+                for (Predicate<JsonSerializable> item : evaluationOrder) {
                     if (!item.apply(value)) {
                         return false;
                     }
@@ -158,7 +177,7 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
             case OR_PREDICATE_TYPE:
             default:
-                for (Predicate<JsonSerializable> item : items) {
+                for (Predicate<JsonSerializable> item : evaluationOrder) {
                     if (item.apply(value)) {
                         return true;
                     }
@@ -169,6 +188,29 @@ public class JsonPredicate implements JsonSerializable, Predicate<JsonSerializab
 
     }
 
+    /**
+     * Gets the relative cost of applying the predicate.
+     *
+     * @return The relative evaluation cost.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getEvaluationCost() {
+        return evaluationCost;
+    }
+
+    private static int getEvaluationCost(@NonNull Predicate<JsonSerializable> item) {
+        if (item instanceof JsonMatcher) {
+            return ((JsonMatcher) item).getEvaluationCost();
+        }
+
+        if (item instanceof JsonPredicate) {
+            return ((JsonPredicate) item).getEvaluationCost();
+        }
+
+        return 1;
+    }
+
     /**
      * Builder class.
      */
@@ -0,0 +1,152 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import android.util.JsonReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Builds JsonValues directly from a character stream with a pull parser, without buffering the
+ * full document as a String or creating intermediate {@code org.json} objects.
+ * <p>
+ * Parsed values follow the same rules as {@link JsonValue#parseString(String)}: null values in
+ * objects and arrays are dropped, and whole numbers are parsed as Integers or Longs.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public final class JsonStreamParser {
+
+    private JsonStreamParser() {}
+
+    /**
+     * Parses a UTF-8 encoded JSON stream.
+     *
+     * @param inputStream The input stream.
+     * @return The parsed value, or {@link JsonValue#NULL} if the stream is empty.
+     * @throws JsonException If the JSON was unable to be parsed.
+     */
+    @NonNull
+    public static JsonValue parse(@Nullable InputStream inputStream) throws JsonException {
+        if (inputStream == null) {
+            return JsonValue.NULL;
+        }
+
+        return parse(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a JSON character stream.
+     *
+     * @param reader The reader.
+     * @return The parsed value, or {@link JsonValue#NULL} if the stream is empty.
+     * @throws JsonException If the JSON was unable to be parsed.
+     */
+    @NonNull
+    public static JsonValue parse(@NonNull Reader reader) throws JsonException {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            try {
+                jsonReader.peek();
+            } catch (EOFException e) {
+                // Empty document
+                return JsonValue.NULL;
+            }
+            return readValue(jsonReader);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            throw new JsonException("Unable to parse stream", e);
+        }
+    }
+
+    /**
+     * Reads the next value from the reader.
+     *
+     * @param reader The JSON reader.
+     * @return The parsed value.
+     * @throws IOException If the value is unable to be read.
+     * @throws JsonException If the value contains an invalid number.
+     */
+    @NonNull
+    public static JsonValue readValue(@NonNull JsonReader reader) throws IOException, JsonException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, JsonValue> map = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    JsonValue value = readValue(reader);
+                    if (value.isNull()) {
+                        map.remove(name);
+                    } else {
+                        map.put(name, value);
+                    }
+                }
+                reader.endObject();
+                return JsonValue.wrap(new JsonMap(map, false));
+
+            case BEGIN_ARRAY:
+                List<JsonValue> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    JsonValue value = readValue(reader);
+                    if (!value.isNull()) {
+                        list.add(value);
+                    }
+                }
+                reader.endArray();
+                return JsonValue.wrap(new JsonList(list, false));
+
+            case STRING:
+                return JsonValue.wrap(reader.nextString());
+
+            case NUMBER:
+                return JsonValue.wrap(parseNumber(reader.nextString()));
+
+            case BOOLEAN:
+                return JsonValue.wrap(reader.nextBoolean());
+
+            case NULL:
+                reader.nextNull();
+                return JsonValue.NULL;
+
+            default:
+                throw new JsonException("Unexpected token: " + reader.peek());
+        }
+    }
+
+    @NonNull
+    private static Number parseNumber(@NonNull String literal) throws JsonException {
+        if (literal.indexOf('.') == -1 && literal.indexOf('e') == -1 && literal.indexOf('E') == -1) {
+            try {
+                long longValue = Long.parseLong(literal);
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            } catch (NumberFormatException ignored) {
+                // Fall through to double
+            }
+        }
+
+        double value = Double.parseDouble(literal);
+        if (Double.isInfinite(value) || Double.isNaN(value)) {
+            throw new JsonException("Invalid number: " + literal);
+        }
+        return value;
+    }
+
+}
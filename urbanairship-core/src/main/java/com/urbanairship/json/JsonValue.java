@@ -11,9 +11,9 @@ import com.urbanairship.util.UAStringUtil;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONStringer;
 import org.json.JSONTokener;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -41,8 +41,14 @@ public class JsonValue implements Parcelable, JsonSerializable {
     @NonNull
     public final static JsonValue NULL = new JsonValue(null);
 
+    // 2^53, the smallest magnitude where a long may not convert to a double exactly
+    private static final float MIN_INEXACT_LONG = 9007199254740992f;
+
     private final Object value;
 
+    // Memoized, 0 if not computed yet
+    private int hashCode;
+
     /**
      * Constructs a new JsonValue.
      *
@@ -499,6 +505,12 @@ public class JsonValue implements Parcelable, JsonSerializable {
             return JsonValue.NULL;
         }
 
+        try {
+            return JsonParser.parse(jsonString);
+        } catch (JsonException e) {
+            // Not strict JSON, fall back to the lenient org.json tokener
+        }
+
         JSONTokener tokener = new JSONTokener(jsonString);
 
         try {
@@ -514,6 +526,10 @@ public class JsonValue implements Parcelable, JsonSerializable {
             return false;
         }
 
+        if (object == this) {
+            return true;
+        }
+
         JsonValue o = (JsonValue) object;
 
         if (value == null) {
@@ -537,13 +553,40 @@ public class JsonValue implements Parcelable, JsonSerializable {
 
     @Override
     public int hashCode() {
-        int result = 17;
-        if (value != null) {
-            result = 31 * result + value.hashCode();
+        int result = hashCode;
+        if (result == 0) {
+            result = 17;
+            if (value instanceof Number) {
+                result = 31 * result + numberHashCode((Number) value);
+            } else if (value != null) {
+                result = 31 * result + value.hashCode();
+            }
+            hashCode = result;
         }
         return result;
     }
 
+    /**
+     * Hashes numbers consistently with {@link #equals(Object)}, which compares as double if either
+     * side is a double, as float if either side is a float, and as long otherwise.
+     * <p>
+     * Below 2^53 a long converts to a double exactly, so equal numbers round to the same float and
+     * are hashed by it. From 2^53 up, a long rounds when converted to a double, and rounding that
+     * double to a float can give a different float than rounding the long directly. For example
+     * {@code 2^60 + 2^36 + 1} equals its double value, but they round to {@code 2^60 + 2^37} and
+     * {@code 2^60} as floats. Numbers that large are only hashed by their sign.
+     *
+     * @param number The number.
+     * @return The hash code.
+     */
+    private static int numberHashCode(@NonNull Number number) {
+        float value = number.floatValue();
+        if (Math.abs(value) >= MIN_INEXACT_LONG) {
+            return value > 0 ? 1 : -1;
+        }
+        return Float.floatToIntBits(value);
+    }
+
     /**
      * Returns the JsonValue as a JSON encoded String.
      *
@@ -556,46 +599,26 @@ public class JsonValue implements Parcelable, JsonSerializable {
             return "null";
         }
 
+        StringBuilder builder = new StringBuilder();
         try {
-            if (value instanceof String) {
-                return JSONObject.quote((String) value);
-            }
-
-            if (value instanceof Number) {
-                return JSONObject.numberToString((Number) value);
-            }
-
-            if (value instanceof JsonMap || value instanceof JsonList) {
-                return value.toString();
-            }
-
-            return String.valueOf(value);
-        } catch (JSONException e) {
+            JsonEncoder.write(this, builder);
+        } catch (IOException e) {
             // Should never happen
             UALog.e(e, "JsonValue - Failed to create JSON String.");
             return "";
         }
+        return builder.toString();
     }
 
     /**
-     * Helper method that is used to write the value as a JSON String.
+     * Writes the JsonValue as JSON directly to the given output. The output is the same as
+     * {@link #toString()}, but the encoded JSON is never held in memory as a single String.
      *
-     * @param stringer The JSONStringer object.
-     * @throws JSONException If the value is unable to be written as JSON.
+     * @param out The output, such as a {@link java.io.Writer}.
+     * @throws IOException If the output fails to write.
      */
-    void write(@NonNull JSONStringer stringer) throws JSONException {
-        if (isNull()) {
-            stringer.value(null);
-            return;
-        }
-
-        if (value instanceof JsonList) {
-            ((JsonList) value).write(stringer);
-        } else if (value instanceof JsonMap) {
-            ((JsonMap) value).write(stringer);
-        } else {
-            stringer.value(value);
-        }
+    public void writeTo(@NonNull Appendable out) throws IOException {
+        JsonEncoder.write(this, out);
     }
 
     /**
@@ -819,7 +842,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
 
         }
 
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -838,7 +861,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
             }
         }
 
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -861,7 +884,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
             }
         }
 
-        return new JsonValue(new JsonMap(jsonValueMap));
+        return new JsonValue(new JsonMap(jsonValueMap, false));
     }
 
     /**
@@ -881,7 +904,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
         }
 
         // Return a JsonValue that contains a JsonList
-        return new JsonValue(new JsonList(list));
+        return new JsonValue(new JsonList(list, false));
     }
 
     /**
@@ -904,7 +927,7 @@ public class JsonValue implements Parcelable, JsonSerializable {
         }
 
         // Return a JsonValue that contains a JsonMap
-        return new JsonValue(new JsonMap(jsonValueMap));
+        return new JsonValue(new JsonMap(jsonValueMap, false));
     }
 
     @Override
@@ -12,6 +12,7 @@ import com.urbanairship.util.IvyVersionMatcher;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 /**
  * Class representing the field matching type and values contained in a JsonMatcher.
@@ -193,6 +194,18 @@ public abstract class ValueMatcher implements JsonSerializable, Predicate<JsonSe
      */
     protected abstract boolean apply(@NonNull JsonValue jsonValue, boolean ignoreCase);
 
+    /**
+     * Gets the relative cost of applying the matcher. Predicates evaluate cheaper children first
+     * so AND/OR checks can short circuit before reaching expensive matchers.
+     *
+     * @return The relative evaluation cost.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    protected int getEvaluationCost() {
+        return 1;
+    }
+
     @NonNull
     @Override
     public String toString() {
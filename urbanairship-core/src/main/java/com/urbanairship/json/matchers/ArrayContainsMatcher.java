@@ -56,6 +56,13 @@ public class ArrayContainsMatcher extends ValueMatcher {
                       .toJsonValue();
     }
 
+    @Override
+    protected int getEvaluationCost() {
+        // Without an index the predicate is applied to every element
+        int predicateCost = predicate.getEvaluationCost();
+        return index != null ? predicateCost + 1 : predicateCost * 4;
+    }
+
     @Override
     protected boolean apply(@NonNull JsonValue jsonValue, boolean ignoreCase) {
         if (!jsonValue.isJsonList()) {
@@ -26,6 +26,9 @@ public class ExactValueMatcher extends ValueMatcher {
 
     private final JsonValue expected;
 
+    @Nullable
+    private final String expectedString;
+
     /**
      * Default constructor.
      *
@@ -33,6 +36,7 @@ public class ExactValueMatcher extends ValueMatcher {
      */
     public ExactValueMatcher(@NonNull JsonValue expected) {
         this.expected = expected;
+        this.expectedString = expected.isString() ? expected.getString() : null;
     }
 
     @NonNull
@@ -44,9 +48,23 @@ public class ExactValueMatcher extends ValueMatcher {
                       .toJsonValue();
     }
 
+    @Override
+    protected int getEvaluationCost() {
+        return expected.isJsonMap() || expected.isJsonList() ? 2 : 1;
+    }
+
     @Override
     protected boolean apply(@NonNull JsonValue value, boolean ignoreCase) {
-        return isEquals(expected, value, ignoreCase);
+        if (!ignoreCase) {
+            return expected.equals(value);
+        }
+
+        // Most case insensitive checks compare a single string, skip the recursive comparison
+        if (expectedString != null) {
+            return value.isString() && expectedString.equalsIgnoreCase(value.getString());
+        }
+
+        return isEquals(expected, value, true);
     }
 
     public boolean isEquals(@Nullable JsonValue valueOne, @Nullable JsonValue valueTwo, boolean ignoreCase) {
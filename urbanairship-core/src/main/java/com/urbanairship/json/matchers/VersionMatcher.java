@@ -45,6 +45,11 @@ public class VersionMatcher extends ValueMatcher {
                       .toJsonValue();
     }
 
+    @Override
+    protected int getEvaluationCost() {
+        return 4;
+    }
+
     @Override
     protected boolean apply(@NonNull JsonValue value, boolean ignoreCase) {
         return value.isString() && versionMatcher.apply(value.getString());
@@ -45,7 +45,7 @@ internal class MeteredUsageApiClient(
             url = meteredUsageUrl,
             method = "POST",
             headers = headers.toMap(),
-            body = RequestBody.Json(jsonMapOf("usage" to events.map { it.toJson() })),
+            body = RequestBody.StreamingJson(jsonMapOf("usage" to events.map { it.toJson() })),
             auth = RequestAuth.GeneratedAppToken
         )
 
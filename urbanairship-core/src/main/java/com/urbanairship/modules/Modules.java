@@ -128,13 +128,14 @@ public class Modules {
                                     @NonNull AirshipMeteredUsage meteredUsage,
                                     @NonNull Contact contact,
                                     @NonNull DeferredResolver deferredResolver,
-                                    @NonNull LocaleManager localeManager) {
+                                    @NonNull LocaleManager localeManager,
+                                    @NonNull AirshipCache cache) {
         try {
             AutomationModuleFactory moduleFactory = createFactory(AUTOMATION_MODULE_FACTORY, AutomationModuleFactory.class);
             if (moduleFactory != null) {
                 return moduleFactory.build(context, dataStore, runtimeConfig, privacyManager,
                         airshipChannel, pushManager, analytics, remoteData, experimentManager,
-                        infoProvider, meteredUsage, contact, deferredResolver, localeManager);
+                        infoProvider, meteredUsage, contact, deferredResolver, localeManager, cache);
             }
         } catch (Exception e) {
             UALog.e(e, "Failed to build Automation module");
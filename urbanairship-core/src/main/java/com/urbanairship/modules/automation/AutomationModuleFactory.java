@@ -10,6 +10,7 @@ import com.urbanairship.PrivacyManager;
 import com.urbanairship.analytics.Analytics;
 import com.urbanairship.audience.AudienceOverridesProvider;
 import com.urbanairship.audience.DeviceInfoProvider;
+import com.urbanairship.cache.AirshipCache;
 import com.urbanairship.channel.AirshipChannel;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.contacts.Contact;
@@ -46,6 +47,7 @@ public interface AutomationModuleFactory extends AirshipVersionInfo {
                  @NonNull AirshipMeteredUsage meteredUsage,
                  @NonNull Contact contact,
                  @NonNull DeferredResolver deferredResolver,
-                 @NonNull LocaleManager localeManager);
+                 @NonNull LocaleManager localeManager,
+                 @NonNull AirshipCache cache);
 
     }
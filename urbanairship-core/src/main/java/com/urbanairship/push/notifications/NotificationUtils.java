@@ -9,7 +9,7 @@ import android.util.TypedValue;
 
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.UALog;
-import com.urbanairship.util.ImageUtils;
+import com.urbanairship.images.ImagePipeline;
 
 import java.net.URL;
 import java.util.concurrent.Callable;
@@ -58,7 +58,7 @@ public class NotificationUtils {
             @Nullable
             @Override
             public Bitmap call() throws Exception {
-                return ImageUtils.fetchScaledBitmap(context, url, reqWidth, reqHeight);
+                return ImagePipeline.shared(context).fetchBitmap(url, reqWidth, reqHeight);
             }
         });
 
@@ -67,7 +67,7 @@ public class NotificationUtils {
         } catch (InterruptedException | ExecutionException e) {
             UALog.e("Failed to create big picture style, unable to fetch image: %s", e);
         } catch (TimeoutException e) {
-            future.cancel(true);
+            // Let the fetch finish in the background so it is cached if the image is requested again
             UALog.e("Big picture took longer than %s seconds to fetch.", BIG_PICTURE_TIMEOUT_SECONDS);
         }
 
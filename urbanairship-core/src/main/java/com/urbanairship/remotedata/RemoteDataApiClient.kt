@@ -2,18 +2,25 @@
 package com.urbanairship.remotedata
 
 import android.net.Uri
+import android.util.JsonReader
+import android.util.JsonToken
 import com.urbanairship.config.AirshipRuntimeConfig
 import com.urbanairship.http.Request
 import com.urbanairship.http.RequestAuth
 import com.urbanairship.http.RequestResult
+import com.urbanairship.http.StreamResponseParser
 import com.urbanairship.http.SuspendingRequestSession
 import com.urbanairship.http.toSuspendingRequestSession
 import com.urbanairship.json.JsonException
 import com.urbanairship.json.JsonMap
+import com.urbanairship.json.JsonStreamParser
 import com.urbanairship.json.JsonValue
 import com.urbanairship.json.optionalField
 import com.urbanairship.json.requireField
 import com.urbanairship.util.DateUtils
+import java.io.EOFException
+import java.io.IOException
+import java.io.InputStream
 
 /**
  * API client for fetching remote data.
@@ -45,10 +52,10 @@ internal class RemoteDataApiClient @JvmOverloads constructor(
             remoteDataUrl, "GET", auth, null, headers
         )
 
-        return session.execute(request) { status: Int, responseHeaders: Map<String, String>, responseBody: String? ->
-            return@execute if (status == 200) {
+        val parser = StreamResponseParser { status: Int, responseHeaders: Map<String, String>, responseStream: InputStream? ->
+            if (status == 200) {
                 val remoteDataInfo = remoteDataInfoFactory(responseHeaders["Last-Modified"])
-                val payloads = parseResponse(responseBody, remoteDataInfo)
+                val payloads = parseResponse(responseStream, remoteDataInfo)
                 Result(
                     remoteDataInfo,
                     payloads
@@ -57,6 +64,8 @@ internal class RemoteDataApiClient @JvmOverloads constructor(
                 null
             }
         }
+
+        return session.execute(request, parser)
     }
 
     @Throws(JsonException::class)
@@ -76,14 +85,52 @@ internal class RemoteDataApiClient @JvmOverloads constructor(
         )
     }
 
+    /**
+     * Pulls each payload out of the response stream one at a time, so only the parsed
+     * payloads are held in memory instead of the full response document.
+     */
     @Throws(JsonException::class)
-    private fun parseResponse(responseBody: String?, remoteDataInfo: RemoteDataInfo): Set<RemoteDataPayload> {
-        if (responseBody == null) {
+    private fun parseResponse(responseStream: InputStream?, remoteDataInfo: RemoteDataInfo): Set<RemoteDataPayload> {
+        if (responseStream == null) {
             return emptySet()
         }
-        val payloadJsonList = JsonValue.parseString(responseBody).optMap().opt("payloads").optList()
-        return payloadJsonList.map {
-            parsePayload(it, remoteDataInfo)
-        }.toSet()
+
+        val payloads = mutableSetOf<RemoteDataPayload>()
+        try {
+            val reader = JsonReader(responseStream.bufferedReader())
+            val token = try {
+                reader.peek()
+            } catch (e: EOFException) {
+                return emptySet()
+            }
+
+            if (token != JsonToken.BEGIN_OBJECT) {
+                return emptySet()
+            }
+
+            reader.beginObject()
+            while (reader.hasNext()) {
+                if (reader.nextName() != "payloads" || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue()
+                    continue
+                }
+
+                reader.beginArray()
+                while (reader.hasNext()) {
+                    val json = JsonStreamParser.readValue(reader)
+                    if (!json.isNull) {
+                        payloads.add(parsePayload(json, remoteDataInfo))
+                    }
+                }
+                reader.endArray()
+            }
+            reader.endObject()
+        } catch (e: IOException) {
+            throw JsonException("Unable to parse remote data response", e)
+        } catch (e: IllegalStateException) {
+            throw JsonException("Unable to parse remote data response", e)
+        }
+
+        return payloads
     }
 }
@@ -0,0 +1,79 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Executor that executes {@link Runnable} on another executor, running at most a fixed number
+ * of runnables at a time. Runnables are started in the order they are submitted.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class BoundedExecutor implements Executor {
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final ArrayDeque<Runnable> runnables = new ArrayDeque<>();
+    private int executing = 0;
+
+    /**
+     * Default constructor.
+     *
+     * @param executor The executor that performs the runnables.
+     * @param maxConcurrency The max number of runnables to execute at the same time.
+     */
+    public BoundedExecutor(@NonNull Executor executor, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
+        }
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public void execute(@Nullable final Runnable runnable) {
+        if (runnable == null) {
+            return;
+        }
+
+        Runnable wrapped = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runnable.run();
+                } finally {
+                    synchronized (runnables) {
+                        executing--;
+                    }
+                    next();
+                }
+            }
+        };
+
+        synchronized (runnables) {
+            runnables.offer(wrapped);
+        }
+        next();
+    }
+
+    private void next() {
+        synchronized (runnables) {
+            while (executing < maxConcurrency) {
+                Runnable next = runnables.pollFirst();
+                if (next == null) {
+                    return;
+                }
+                executing++;
+                executor.execute(next);
+            }
+        }
+    }
+
+}
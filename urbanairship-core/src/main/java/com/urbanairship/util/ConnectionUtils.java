@@ -42,6 +42,17 @@ public class ConnectionUtils {
         return url.openConnection();
     }
 
+    /**
+     * Tries to install the network provider through Google Play services for clients that do
+     * not open connections with {@link #openSecureConnection(Context, URL)}.
+     *
+     * @param context The application context.
+     */
+    @WorkerThread
+    public static void installSecurityProvider(@NonNull Context context) {
+        installProvider(context);
+    }
+
     @WorkerThread
     private synchronized static boolean installProvider(@NonNull Context context) {
         if (skipInstall) {
@@ -51,6 +51,10 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
     private final Predicate<String> predicate;
     private final String constraint;
 
+    // Matchers are usually checked against the same version, remember the last result
+    @Nullable
+    private volatile MatchResult lastResult;
+
     private IvyVersionMatcher(Predicate<String> predicate, String constraint) {
         this.predicate = predicate;
         this.constraint = constraint;
@@ -90,7 +94,15 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         if (versionString == null) {
             return false;
         }
-        return predicate.apply(normalizeVersion(versionString));
+
+        MatchResult result = lastResult;
+        if (result != null && result.version.equals(versionString)) {
+            return result.matches;
+        }
+
+        boolean matches = predicate.apply(normalizeVersion(versionString));
+        lastResult = new MatchResult(versionString, matches);
+        return matches;
     }
 
     /**
@@ -243,6 +255,21 @@ public class IvyVersionMatcher implements Predicate<String>, JsonSerializable {
         return JsonValue.wrap(constraint);
     }
 
+    /**
+     * Result of matching a version string.
+     */
+    private static class MatchResult {
+
+        final String version;
+        final boolean matches;
+
+        MatchResult(@NonNull String version, boolean matches) {
+            this.version = version;
+            this.matches = matches;
+        }
+
+    }
+
     /**
      * Helper class to compare version strings.
      */
@@ -12,7 +12,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import androidx.annotation.NonNull;
@@ -20,6 +22,7 @@ import androidx.annotation.NonNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PreferenceDataStoreTest extends BaseTestCase {
@@ -148,4 +151,84 @@ public class PreferenceDataStoreTest extends BaseTestCase {
         assertTrue(testPrefs.getJsonValue("value").isNull());
     }
 
+    /**
+     * Test parsed values are cached until the value changes.
+     */
+    @Test
+    public void testParsedValueCache() {
+        testPrefs.put("value", JsonValue.wrap("cool"));
+        JsonValue parsed = testPrefs.getJsonValue("value");
+        assertSame(parsed, testPrefs.getJsonValue("value"));
+        assertSame(parsed, testPrefs.optJsonValue("value"));
+
+        testPrefs.put("value", JsonValue.wrap("neat"));
+        assertEquals(JsonValue.wrap("neat"), testPrefs.getJsonValue("value"));
+
+        testPrefs.put("value", Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, testPrefs.getLong("value", -1));
+        assertEquals(-1, testPrefs.getInt("value", -1));
+
+        testPrefs.put("value", "not a number");
+        assertEquals(-1, testPrefs.getLong("value", -1));
+        assertEquals(-1, testPrefs.getInt("value", -1));
+    }
+
+    /**
+     * Test puts are coalesced into a single write.
+     */
+    @Test
+    public void testCoalescesWrites() {
+        PreferenceDataDatabase database = PreferenceDataDatabase.createInMemoryDatabase(context);
+        PreferenceDataStore dataStore = new PreferenceDataStore(database);
+
+        final List<Runnable> scheduled = new ArrayList<>();
+        dataStore.executor = scheduled::add;
+
+        dataStore.put("first", "one");
+        dataStore.put("first", "two");
+        dataStore.put("second", 2);
+        dataStore.put("third", true);
+        dataStore.remove("third");
+
+        assertEquals(1, scheduled.size());
+        assertTrue(database.getDao().getPreferences().isEmpty());
+
+        scheduled.get(0).run();
+
+        List<PreferenceData> stored = database.getDao().getPreferences();
+        assertEquals(2, stored.size());
+        assertEquals("two", database.getDao().queryValue("first").getValue());
+        assertEquals("2", database.getDao().queryValue("second").getValue());
+
+        // A new put schedules another write
+        dataStore.put("first", "three");
+        assertEquals(2, scheduled.size());
+
+        dataStore.flush();
+        assertEquals("three", database.getDao().queryValue("first").getValue());
+
+        database.close();
+    }
+
+    /**
+     * Test putSync drops older queued writes for the key.
+     */
+    @Test
+    public void testPutSyncDropsPendingWrite() {
+        PreferenceDataDatabase database = PreferenceDataDatabase.createInMemoryDatabase(context);
+        PreferenceDataStore dataStore = new PreferenceDataStore(database);
+
+        final List<Runnable> scheduled = new ArrayList<>();
+        dataStore.executor = scheduled::add;
+
+        dataStore.put("key", "queued");
+        assertTrue(dataStore.putSync("key", "sync"));
+
+        dataStore.flush();
+        assertEquals("sync", database.getDao().queryValue("key").getValue());
+        assertEquals("sync", dataStore.getString("key", null));
+
+        database.close();
+    }
+
 }
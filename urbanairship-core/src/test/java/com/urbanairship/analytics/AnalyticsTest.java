@@ -151,6 +151,12 @@ public class AnalyticsTest extends BaseTestCase {
         verify(mockEventManager).scheduleEventUpload(0, TimeUnit.MILLISECONDS);
     }
 
+    @Test
+    public void testOnBackgroundFlushesEvents() {
+        analytics.onBackground(0);
+        verify(mockEventManager).flushEvents();
+    }
+
     /**
      * Test setting the conversion conversion send id
      */
@@ -63,7 +63,7 @@ public class EventApiClientTest extends BaseTestCase {
         assertEquals("", response.getBody());
         assertEquals("POST", requestSession.getLastRequest().getMethod());
         assertEquals("http://example.com/warp9/", requestSession.getLastRequest().getUrl().toString());
-        assertEquals(new RequestBody.GzippedJson(JsonValue.wrapOpt(events)), requestSession.getLastRequest().getBody());
+        assertEquals(new RequestBody.GzippedStreamingJson(JsonValue.wrapOpt(events)), requestSession.getLastRequest().getBody());
         assertEquals(new RequestAuth.ChannelTokenAuth("some channel"), requestSession.getLastRequest().getAuth());
 
     }
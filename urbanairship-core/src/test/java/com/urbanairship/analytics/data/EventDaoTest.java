@@ -82,6 +82,21 @@ public class EventDaoTest extends BaseTestCase {
         assertEquals(0, eventDao.count());
     }
 
+    @Test
+    public void testDeleteLargeBatch() throws JsonException {
+        for (int i = 0; i < 1200; i++) {
+            eventDao.insert(EventEntity.create(new TestEvent("event-" + i), SESSION_ID));
+        }
+        eventDao.insert(EventEntity.create(new TestEvent("remaining"), SESSION_ID));
+        assertEquals(1201, eventDao.count());
+
+        List<EventEntity.EventIdAndData> batch = eventDao.getBatch(1200);
+        eventDao.deleteBatch(batch);
+
+        assertEquals(1, eventDao.count());
+        assertEquals("remaining", eventDao.get().get(0).eventId);
+    }
+
     @Test
     public void testDatabaseSize() {
         assertEquals(0, eventDao.databaseSize());
@@ -105,11 +120,11 @@ public class EventDaoTest extends BaseTestCase {
         assertEquals(combinedSize, eventDao.databaseSize());
         assertEquals("session-1", eventDao.oldestSessionId());
 
-        eventDao.trimDatabase(200);
+        assertEquals(entity2.eventSize, eventDao.trimDatabase(200));
         assertEquals(1, eventDao.count());
         assertTrue(entity2.contentEquals(eventDao.get().get(0)));
 
-        eventDao.trimDatabase(0);
+        assertEquals(0, eventDao.trimDatabase(0));
         assertEquals(0, eventDao.count());
     }
 
@@ -1,5 +1,9 @@
 package com.urbanairship.analytics.data;
 
+import android.database.sqlite.SQLiteException;
+import android.os.Looper;
+
+import com.urbanairship.AirshipConfigOptions;
 import com.urbanairship.BaseTestCase;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.TestAirshipRuntimeConfig;
@@ -19,19 +23,23 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.mockito.internal.verification.Times;
+import org.robolectric.Shadows;
 
 import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static com.urbanairship.analytics.data.EventManager.MIN_BATCH_INTERVAL_KEY;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -82,6 +90,28 @@ public class EventManagerTest extends BaseTestCase {
         }));
     }
 
+    /**
+     * Tests the database is only trimmed once the tracked size exceeds the max size.
+     */
+    @Test
+    public void testAddEventTrimsOnlyWhenSizeExceeded() throws JsonException {
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        EventEntity entity = EventEntity.create(customEvent, "session");
+
+        dataStore.put(EventManager.MAX_TOTAL_DB_SIZE_KEY, entity.eventSize * 2);
+        when(mockEventDao.databaseSize()).thenReturn(entity.eventSize);
+
+        eventManager.addEvent(customEvent, "session");
+        eventManager.addEvent(customEvent, "session");
+        verify(mockEventDao, never()).trimDatabase(Mockito.anyInt());
+
+        // Size is tracked in memory, so the database is only summed once
+        verify(mockEventDao, new Times(1)).databaseSize();
+
+        eventManager.addEvent(customEvent, "session");
+        verify(mockEventDao).trimDatabase(entity.eventSize * 2);
+    }
+
     /**
      * Tests adding an event  before the next send time schedules an upload with the remaining delay.
      */
@@ -243,6 +273,99 @@ public class EventManagerTest extends BaseTestCase {
         }));
     }
 
+    /**
+     * Test group commit buffers events and writes them in a single insert.
+     */
+    @Test
+    public void testGroupCommit() {
+        enableGroupCommit();
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        eventManager.addEvent(customEvent, "session");
+        eventManager.addEvent(customEvent, "session");
+
+        verify(mockEventDao, never()).insert(Mockito.any(EventEntity.class));
+        verify(mockEventDao, never()).insert(Mockito.<List<EventEntity>>any());
+        assertEquals(2, eventManager.getBufferedEventCount());
+
+        eventManager.flushEvents();
+
+        verify(mockEventDao).insert(Mockito.<List<EventEntity>>argThat(events -> events.size() == 2));
+        assertEquals(0, eventManager.getBufferedEventCount());
+        assertEquals(1, eventManager.getFlushCount());
+    }
+
+    /**
+     * Test group commit writes the buffer once it is full.
+     */
+    @Test
+    public void testGroupCommitFullBuffer() {
+        enableGroupCommit();
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        for (int i = 0; i < EventManager.MAX_BUFFERED_EVENTS; i++) {
+            eventManager.addEvent(customEvent, "session");
+        }
+
+        verify(mockEventDao).insert(Mockito.<List<EventEntity>>argThat(events -> events.size() == EventManager.MAX_BUFFERED_EVENTS));
+        assertEquals(0, eventManager.getBufferedEventCount());
+    }
+
+    /**
+     * Test a failed write keeps the buffered events and retries the flush.
+     */
+    @Test
+    public void testGroupCommitFailedWriteRetried() {
+        enableGroupCommit();
+        eventManager = new EventManager(dataStore, testAirshipRuntimeConfig, mockDispatcher, mockActivityMonitor,
+                mockEventDao, mockClient, Looper.getMainLooper());
+
+        doThrow(new SQLiteException("disk full"))
+                .doNothing()
+                .when(mockEventDao).insert(Mockito.<List<EventEntity>>any());
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        eventManager.addEvent(customEvent, "session");
+        eventManager.flushEvents();
+        assertEquals(1, eventManager.getBufferedEventCount());
+
+        Shadows.shadowOf(Looper.getMainLooper()).idleFor(EventManager.BUFFER_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+
+        verify(mockEventDao, times(2)).insert(Mockito.<List<EventEntity>>argThat(events -> events.size() == 1));
+        assertEquals(0, eventManager.getBufferedEventCount());
+    }
+
+    /**
+     * Test the buffer is bounded while writes are failing.
+     */
+    @Test
+    public void testGroupCommitFailedWritesBounded() {
+        enableGroupCommit();
+
+        doThrow(new SQLiteException("disk full")).when(mockEventDao).insert(Mockito.<List<EventEntity>>any());
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        for (int i = 0; i < EventManager.MAX_RETAINED_BUFFERED_EVENTS + 10; i++) {
+            eventManager.addEvent(customEvent, "session");
+        }
+
+        assertEquals(EventManager.MAX_RETAINED_BUFFERED_EVENTS, eventManager.getBufferedEventCount());
+    }
+
+    /**
+     * Test uploading events writes out buffered events first.
+     */
+    @Test
+    public void testUploadFlushesBuffer() {
+        enableGroupCommit();
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        eventManager.addEvent(customEvent, "session");
+
+        eventManager.uploadEvents("some channel", Collections.<String, String>emptyMap());
+        verify(mockEventDao).insert(Mockito.<List<EventEntity>>argThat(events -> events.size() == 1));
+    }
+
     /**
      * Test delete all.
      */
@@ -251,4 +374,12 @@ public class EventManagerTest extends BaseTestCase {
         eventManager.deleteEvents();
         verify(mockEventDao).deleteAll();
     }
+
+    private void enableGroupCommit() {
+        testAirshipRuntimeConfig.setConfigOptions(new AirshipConfigOptions.Builder()
+                .setAppKey("appKey")
+                .setAppSecret("appSecret")
+                .setAnalyticsGroupCommitEnabled(true)
+                .build());
+    }
 }
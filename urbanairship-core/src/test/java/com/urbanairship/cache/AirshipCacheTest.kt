@@ -13,6 +13,7 @@ import kotlinx.coroutines.test.TestResult
 import kotlinx.coroutines.test.runTest
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNotSame
 import org.junit.Assert.assertNull
 import org.junit.Before
 import org.junit.Test
@@ -112,4 +113,89 @@ public class AirshipCacheTest {
 
         assertNull(cache.getCached(key) { it })
     }
+
+    @Test
+    public fun testMemoryHitDecodesEachCall(): TestResult = runTest {
+        val key = "key"
+        cache.store(JsonValue.wrap("item"), key, 10u)
+
+        val converter: (JsonValue) -> MutableList<String> = { mutableListOf(it.optString()) }
+        val first = cache.getCached(key, converter)
+        assertEquals(listOf("item"), first)
+        first?.add("changed")
+
+        val second = cache.getCached(key, converter)
+        assertEquals(listOf("item"), second)
+        assertNotSame(first, second)
+
+        assertEquals(AirshipCache.Statistics(memoryHits = 2, diskHits = 0, misses = 0, evictions = 0), cache.statistics)
+    }
+
+    @Test
+    public fun testMemoryCacheSize(): TestResult = runTest {
+        // Too small to hold any items, every hit is read from disk
+        cache = createCache(memoryCacheSize = 1)
+
+        val key = "key"
+        cache.store(JsonValue.wrap("item"), key, 10u)
+
+        assertEquals(JsonValue.wrap("item"), cache.getCached(key) { it })
+        assertEquals(JsonValue.wrap("item"), cache.getCached(key) { it })
+        assertNull(cache.getCached("missing") { it })
+
+        assertEquals(AirshipCache.Statistics(memoryHits = 0, diskHits = 2, misses = 1, evictions = 0), cache.statistics)
+    }
+
+    @Test
+    public fun testEvictsLeastRecentlyAccessed(): TestResult = runTest {
+        // Each item is 3 characters, so the cache fits 3 items
+        cache = createCache(diskCacheSize = 9)
+
+        cache.store(JsonValue.wrap(100), "key-1", 10u)
+        every { clock.currentTimeMillis() } returns 1
+        cache.store(JsonValue.wrap(200), "key-2", 10u)
+        every { clock.currentTimeMillis() } returns 2
+        cache.store(JsonValue.wrap(300), "key-3", 10u)
+
+        every { clock.currentTimeMillis() } returns 3
+        assertNotNull(cache.getCached("key-1") { it })
+
+        every { clock.currentTimeMillis() } returns 4
+        cache.store(JsonValue.wrap(400), "key-4", 10u)
+
+        assertNull(cache.getCached("key-2") { it })
+        assertNotNull(cache.getCached("key-1") { it })
+        assertNotNull(cache.getCached("key-3") { it })
+        assertNotNull(cache.getCached("key-4") { it })
+        assertEquals(1, cache.statistics.evictions)
+    }
+
+    @Test
+    public fun testReplacedItemsNotCountedTwice(): TestResult = runTest {
+        // Each item is 3 characters, so the cache fits 3 items
+        cache = createCache(diskCacheSize = 9)
+
+        cache.store(JsonValue.wrap(100), "key-1", 10u)
+        cache.store(JsonValue.wrap(101), "key-1", 10u)
+        cache.store(JsonValue.wrap(102), "key-1", 10u)
+        cache.store(JsonValue.wrap(200), "key-2", 10u)
+        cache.store(JsonValue.wrap(300), "key-3", 10u)
+
+        assertEquals(0, cache.statistics.evictions)
+        assertEquals(JsonValue.wrap(102), cache.getCached("key-1") { it })
+    }
+
+    private fun createCache(memoryCacheSize: Int = 1024, diskCacheSize: Long = 1024): AirshipCache {
+        return AirshipCache(
+            context = ApplicationProvider.getApplicationContext(),
+            runtimeConfig = config,
+            isPersistent = false,
+            appVersion = appVersion,
+            sdkVersion = sdkVersion,
+            clock = clock,
+            dispatcher = testDispatcher,
+            memoryCacheSize = memoryCacheSize,
+            diskCacheSize = diskCacheSize
+        )
+    }
 }
@@ -6,9 +6,13 @@ import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.urbanairship.PreferenceDataStore
 import com.urbanairship.audience.AudienceOverrides
 import com.urbanairship.audience.AudienceOverridesProvider
+import com.urbanairship.db.Journal
+import com.urbanairship.db.JournalDao
+import com.urbanairship.db.JournalDatabase
 import com.urbanairship.http.RequestResult
 import com.urbanairship.json.JsonValue
 import com.urbanairship.json.jsonListOf
+import com.urbanairship.json.jsonMapOf
 import io.mockk.coEvery
 import io.mockk.coVerify
 import io.mockk.every
@@ -48,11 +52,9 @@ public class ChannelBatchUpdateManagerTest {
 
     private val testDispatcher = StandardTestDispatcher()
 
-    private val manager = ChannelBatchUpdateManager(
-        preferenceDataStore,
-        mockApiClient,
-        mockAudienceOverridesProvider
-    )
+    private val journalDatabase = JournalDatabase.inMemory(context)
+
+    private val manager = createManager()
 
     @Before
     public fun setup() {
@@ -62,8 +64,19 @@ public class ChannelBatchUpdateManagerTest {
     @After
     public fun tearDown() {
         Dispatchers.resetMain()
+        journalDatabase.close()
     }
 
+    private fun createManager(): ChannelBatchUpdateManager = ChannelBatchUpdateManager(
+        preferenceDataStore,
+        mockApiClient,
+        mockAudienceOverridesProvider,
+        Journal(journalDatabase.journalDao(), ChannelBatchUpdateManager.UPDATE_JOURNAL) { it.run() }
+    )
+
+    private fun journalSize(): Int =
+        journalDatabase.journalDao().getEntries(ChannelBatchUpdateManager.UPDATE_JOURNAL).size
+
     @Test
     public fun testAddUpdate(): TestResult = runTest {
         manager.addUpdate(
@@ -358,4 +371,193 @@ public class ChannelBatchUpdateManagerTest {
 
         assertTrue(manager.hasPending)
     }
+
+    @Test
+    public fun testAddUpdateRemovesObsoleteRows(): TestResult = runTest {
+        manager.addUpdate(
+            attributes = listOf(AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("foo"), 100)),
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("some group", setOf("tag")))
+        )
+        manager.addUpdate(
+            attributes = listOf(AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("bar"), 100)),
+            tags = listOf(TagGroupsMutation.newRemoveTagsMutation("some group", setOf("tag")))
+        )
+        assertEquals(1, journalSize())
+
+        val expectedPending = AudienceOverrides.Channel(
+            tags = listOf(TagGroupsMutation.newRemoveTagsMutation("some group", setOf("tag"))),
+            attributes = listOf(AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("bar"), 100))
+        )
+        assertEquals(expectedPending, pendingAudienceDelegate.captured.invoke("anything"))
+    }
+
+    @Test
+    public fun testAddUpdateCollapsesInMemory(): TestResult = runTest {
+        manager.addUpdate(
+            attributes = listOf(
+                AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("foo"), 100),
+                AttributeMutation.newSetAttributeMutation("some other attribute", JsonValue.wrapOpt("foo"), 100)
+            )
+        )
+        manager.addUpdate(
+            attributes = listOf(AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("bar"), 100))
+        )
+
+        // The first row still has a mutation to upload, so it is kept as is
+        assertEquals(2, journalSize())
+
+        val expectedPending = AudienceOverrides.Channel(
+            attributes = listOf(
+                AttributeMutation.newSetAttributeMutation("some other attribute", JsonValue.wrapOpt("foo"), 100),
+                AttributeMutation.newSetAttributeMutation("some attribute", JsonValue.wrapOpt("bar"), 100)
+            )
+        )
+        assertEquals(expectedPending, pendingAudienceDelegate.captured.invoke("anything"))
+
+        // Same view after a restart
+        createManager()
+        assertEquals(expectedPending, pendingAudienceDelegate.captured.invoke("anything"))
+
+        coEvery { mockApiClient.update(any(), any(), any(), any(), any()) } returns RequestResult(
+            status = 200,
+            value = null,
+            body = null,
+            headers = null
+        )
+        coEvery { mockAudienceOverridesProvider.recordChannelUpdate(any(), any(), any(), any()) } just runs
+
+        assertTrue(manager.uploadPending("some channel id"))
+        coVerify {
+            mockApiClient.update(
+                "some channel id",
+                emptyList(),
+                expectedPending.attributes!!,
+                emptyList(),
+                emptyList()
+            )
+        }
+        assertEquals(0, journalSize())
+    }
+
+    @Test
+    public fun testFailedLoadIsRetried(): TestResult = runTest {
+        manager.addUpdate(
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("some group", setOf("tag")))
+        )
+
+        val dao = journalDatabase.journalDao()
+        val failingDao = mockk<JournalDao>(relaxed = true) {
+            every { getEntries(any()) } throws IllegalStateException("Failed") andThenAnswer {
+                dao.getEntries(ChannelBatchUpdateManager.UPDATE_JOURNAL)
+            }
+        }
+
+        val restored = ChannelBatchUpdateManager(
+            preferenceDataStore,
+            mockApiClient,
+            mockAudienceOverridesProvider,
+            Journal(failingDao, ChannelBatchUpdateManager.UPDATE_JOURNAL) { it.run() }
+        )
+
+        val expectedPending = AudienceOverrides.Channel(
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("some group", setOf("tag")))
+        )
+        assertTrue(restored.hasPending)
+        assertEquals(expectedPending, pendingAudienceDelegate.captured.invoke("anything"))
+    }
+
+    @Test
+    public fun testUpdatesRestoredFromJournal(): TestResult = runTest {
+        manager.addUpdate(
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("some group", setOf("tag")))
+        )
+
+        val restored = createManager()
+        assertTrue(restored.hasPending)
+
+        val expectedPending = AudienceOverrides.Channel(
+            tags = listOf(TagGroupsMutation.newAddTagsMutation("some group", setOf("tag")))
+        )
+        assertEquals(expectedPending, pendingAudienceDelegate.captured.invoke("anything"))
+    }
+
+    @Test
+    public fun testMigratesStoredUpdates(): TestResult = runTest {
+        preferenceDataStore.put(
+            "com.urbanairship.channel.PENDING_AUDIENCE_UPDATES",
+            jsonListOf(
+                jsonMapOf(
+                    "attributes" to listOf(AttributeMutation.newRemoveAttributeMutation("some attribute", 100))
+                )
+            )
+        )
+
+        val migrated = createManager()
+        assertFalse(preferenceDataStore.isSet("com.urbanairship.channel.PENDING_AUDIENCE_UPDATES"))
+        assertTrue(migrated.hasPending)
+        assertEquals(1, journalSize())
+    }
+
+    @Test
+    public fun testFailedMigrationKeepsStoredUpdates(): TestResult = runTest {
+        preferenceDataStore.put(
+            "com.urbanairship.channel.PENDING_AUDIENCE_UPDATES",
+            jsonListOf(
+                jsonMapOf(
+                    "attributes" to listOf(AttributeMutation.newRemoveAttributeMutation("some attribute", 100))
+                )
+            )
+        )
+
+        val dao = journalDatabase.journalDao()
+        val failingDao = mockk<JournalDao>(relaxed = true) {
+            every { getEntries(any()) } answers { dao.getEntries(ChannelBatchUpdateManager.UPDATE_JOURNAL) }
+            every { insert(any()) } throws IllegalStateException("Failed")
+        }
+
+        ChannelBatchUpdateManager(
+            preferenceDataStore,
+            mockApiClient,
+            mockAudienceOverridesProvider,
+            Journal(failingDao, ChannelBatchUpdateManager.UPDATE_JOURNAL) { it.run() }
+        )
+        assertTrue(preferenceDataStore.isSet("com.urbanairship.channel.PENDING_AUDIENCE_UPDATES"))
+
+        val migrated = createManager()
+        assertFalse(preferenceDataStore.isSet("com.urbanairship.channel.PENDING_AUDIENCE_UPDATES"))
+        assertTrue(migrated.hasPending)
+        assertEquals(1, journalSize())
+    }
+
+    @Test
+    public fun testUploadChunks(): TestResult = runTest {
+        val attributes = (0 until 1500).map {
+            AttributeMutation.newRemoveAttributeMutation("attribute $it", 100)
+        }
+
+        attributes.chunked(500).forEach {
+            manager.addUpdate(attributes = it)
+        }
+
+        coEvery { mockApiClient.update(any(), any(), any(), any(), any()) } returns RequestResult(
+            status = 200,
+            value = null,
+            body = null,
+            headers = null
+        )
+        coEvery { mockAudienceOverridesProvider.recordChannelUpdate(any(), any(), any(), any()) } just runs
+
+        assertTrue(manager.uploadPending("some channel id"))
+        coVerify {
+            mockApiClient.update("some channel id", emptyList(), attributes.subList(0, 1000), emptyList(), emptyList())
+        }
+        assertTrue(manager.hasPending)
+
+        assertTrue(manager.uploadPending("some channel id"))
+        coVerify {
+            mockApiClient.update("some channel id", emptyList(), attributes.subList(1000, 1500), emptyList(), emptyList())
+        }
+        assertFalse(manager.hasPending)
+        assertEquals(0, journalSize())
+    }
 }
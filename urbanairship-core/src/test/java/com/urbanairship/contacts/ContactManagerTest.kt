@@ -12,8 +12,13 @@ import com.urbanairship.audience.AudienceOverridesProvider
 import com.urbanairship.channel.AirshipChannel
 import com.urbanairship.channel.AttributeMutation
 import com.urbanairship.channel.TagGroupsMutation
+import com.urbanairship.db.Journal
+import com.urbanairship.db.JournalDao
+import com.urbanairship.db.JournalDatabase
+import com.urbanairship.db.JournalEntity
 import com.urbanairship.http.RequestResult
 import com.urbanairship.job.JobDispatcher
+import com.urbanairship.json.JsonList
 import com.urbanairship.json.JsonValue
 import com.urbanairship.locale.LocaleManager
 import io.mockk.coEvery
@@ -36,6 +41,7 @@ import kotlinx.coroutines.test.runTest
 import kotlinx.coroutines.test.setMain
 import org.junit.After
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNotNull
 import org.junit.Assert.assertNull
 import org.junit.Assert.assertTrue
@@ -68,17 +74,9 @@ public class ContactManagerTest {
     }
     private val context: Context = ApplicationProvider.getApplicationContext()
     private val preferenceDataStore = PreferenceDataStore.inMemoryStore(context)
+    private val journalDatabase = JournalDatabase.inMemory(context)
 
-    private val contactManager = ContactManager(
-        preferenceDataStore,
-        mockChannel,
-        mockJobDispatcher,
-        mockApiClient,
-        mockLocaleManager,
-        mockAudienceOverridesProvider,
-        testClock,
-        testDispatcher
-    ).also {
+    private val contactManager = createContactManager().also {
         it.isEnabled = true
     }
 
@@ -106,6 +104,110 @@ public class ContactManagerTest {
     @After
     public fun tearDown() {
         Dispatchers.resetMain()
+        journalDatabase.close()
+    }
+
+    private fun createContactManager(
+        journal: Journal = Journal(journalDatabase.journalDao(), ContactManager.OPERATION_JOURNAL) { it.run() }
+    ): ContactManager = ContactManager(
+        preferenceDataStore,
+        mockChannel,
+        mockJobDispatcher,
+        mockApiClient,
+        mockLocaleManager,
+        mockAudienceOverridesProvider,
+        journal,
+        testClock,
+        testDispatcher
+    )
+
+    private fun journalEntries(): List<JournalEntity> =
+        journalDatabase.journalDao().getEntries(ContactManager.OPERATION_JOURNAL)
+
+    @Test
+    public fun testOperationsRestoredFromJournal(): TestResult = runTest {
+        contactManager.addOperation(ContactOperation.Identify("some named user"))
+        contactManager.addOperation(ContactOperation.Update(tags = listOf(
+            TagGroupsMutation.newAddTagsMutation("some group", setOf("some tag"))
+        )))
+        assertEquals(2, journalEntries().size)
+
+        val restored = createContactManager()
+        assertEquals("some named user", restored.namedUserId)
+    }
+
+    @Test
+    public fun testPerformedOperationsRemovedFromJournal(): TestResult = runTest {
+        contactManager.addOperation(ContactOperation.Resolve)
+        coEvery { mockApiClient.resolve("some channel id", null, null) } returns RequestResult(
+            status = 200, value = anonIdentityResult, body = null, headers = emptyMap()
+        )
+
+        assertEquals(1, journalEntries().size)
+        assertTrue(contactManager.performNextOperation())
+        assertTrue(journalEntries().isEmpty())
+    }
+
+    @Test
+    public fun testMigratesStoredOperations(): TestResult = runTest {
+        preferenceDataStore.put(
+            "com.urbanairship.contacts.OPERATIONS",
+            JsonList(listOf(ContactOperation.Identify("some named user").toJsonValue()))
+        )
+
+        val migrated = createContactManager()
+        assertEquals("some named user", migrated.namedUserId)
+        assertEquals(1, journalEntries().size)
+        assertFalse(preferenceDataStore.isSet("com.urbanairship.contacts.OPERATIONS"))
+    }
+
+    @Test
+    public fun testMigrationIsIdempotent(): TestResult = runTest {
+        val stored = JsonList(listOf(ContactOperation.Identify("some named user").toJsonValue()))
+        preferenceDataStore.put("com.urbanairship.contacts.OPERATIONS", stored)
+        createContactManager()
+
+        // Process died before the preference was removed
+        preferenceDataStore.put("com.urbanairship.contacts.OPERATIONS", stored)
+        createContactManager()
+
+        assertEquals(1, journalEntries().size)
+    }
+
+    @Test
+    public fun testFailedMigrationKeepsPreferences(): TestResult = runTest {
+        preferenceDataStore.put(
+            "com.urbanairship.contacts.OPERATIONS",
+            JsonList(listOf(ContactOperation.Identify("some named user").toJsonValue()))
+        )
+
+        val dao = journalDatabase.journalDao()
+        val failingDao = mockk<JournalDao>(relaxed = true) {
+            every { getEntries(any()) } answers { dao.getEntries(ContactManager.OPERATION_JOURNAL) }
+            every { insert(any()) } throws IllegalStateException("Failed")
+        }
+
+        createContactManager(Journal(failingDao, ContactManager.OPERATION_JOURNAL) { it.run() })
+        assertTrue(preferenceDataStore.isSet("com.urbanairship.contacts.OPERATIONS"))
+
+        val migrated = createContactManager()
+        assertEquals("some named user", migrated.namedUserId)
+        assertFalse(preferenceDataStore.isSet("com.urbanairship.contacts.OPERATIONS"))
+    }
+
+    @Test
+    public fun testFailedLoadIsNotCached(): TestResult = runTest {
+        contactManager.addOperation(ContactOperation.Identify("some named user"))
+
+        val dao = journalDatabase.journalDao()
+        val failingDao = mockk<JournalDao>(relaxed = true) {
+            every { getEntries(any()) } throws IllegalStateException("Failed") andThenAnswer {
+                dao.getEntries(ContactManager.OPERATION_JOURNAL)
+            }
+        }
+
+        val restored = createContactManager(Journal(failingDao, ContactManager.OPERATION_JOURNAL) { it.run() })
+        assertEquals("some named user", restored.namedUserId)
     }
 
     @Test
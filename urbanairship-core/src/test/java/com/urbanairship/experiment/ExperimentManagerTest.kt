@@ -4,6 +4,7 @@ import android.content.Context
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.urbanairship.PreferenceDataStore
 import com.urbanairship.TestApplication
+import com.urbanairship.audience.DeviceInfoProvider
 import com.urbanairship.audience.DeviceInfoProviderImpl
 import com.urbanairship.experiment.ExperimentManager.Companion.PAYLOAD_TYPE
 import com.urbanairship.json.JsonList
@@ -16,19 +17,25 @@ import com.urbanairship.remotedata.RemoteData
 import com.urbanairship.remotedata.RemoteDataPayload
 import com.urbanairship.util.Clock
 import io.mockk.coEvery
+import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
 import java.util.Date
 import junit.framework.Assert.assertTrue
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.test.TestResult
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
 import kotlinx.coroutines.test.runTest
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotNull
 import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 
+@OptIn(ExperimentalCoroutinesApi::class)
 @RunWith(AndroidJUnit4::class)
 public class ExperimentManagerTest {
 
@@ -42,12 +49,14 @@ public class ExperimentManagerTest {
     private var contactId: String = "default-contact-id"
     private val messageInfo = MessageInfo("", null)
     private var currentTime = 1L
+    private lateinit var infoProvider: DeviceInfoProvider
+    private val clock: Clock = mockk()
 
     @Before
     public fun setUp() {
         val permissionManager: PermissionsManager = mockk()
         every { permissionManager.configuredPermissions } returns emptySet()
-        val infoProvider = DeviceInfoProviderImpl(
+        infoProvider = DeviceInfoProviderImpl(
             notificationStatusFetcher = { true },
             privacyFeatureFetcher = { true },
             channelTagsFetcher = { emptySet() },
@@ -58,7 +67,6 @@ public class ExperimentManagerTest {
             platform = "android"
         )
 
-        val clock: Clock = mockk()
         every { clock.currentTimeMillis() } answers { currentTime }
 
         subject = ExperimentManager(
@@ -311,6 +319,46 @@ public class ExperimentManagerTest {
         assertEquals("matched", result.matchedExperimentId)
     }
 
+    @Test
+    public fun testParsedExperimentsReusedUntilPayloadChanges(): TestResult = runTest {
+        val data = RemoteDataPayload(
+            type = PAYLOAD_TYPE,
+            timestamp = 1L,
+            data = jsonMapOf(PAYLOAD_TYPE to jsonListOf(generateExperimentsPayload("first").build()))
+        )
+
+        val payloadFlow = MutableStateFlow(listOf(data))
+        every { remoteData.payloadFlow(PAYLOAD_TYPE) } returns payloadFlow
+
+        val manager = ExperimentManager(
+            context = context,
+            dataStore = dataStore,
+            remoteData = remoteData,
+            infoProvider = infoProvider,
+            clock = clock,
+            dispatcher = UnconfinedTestDispatcher(testScheduler)
+        )
+        manager.init()
+
+        val experiment = manager.getExperimentWithId(messageInfo, "first")
+        assertNotNull(experiment)
+        assertSame(experiment, manager.getExperimentWithId(messageInfo, "first"))
+
+        payloadFlow.value = listOf(
+            RemoteDataPayload(
+                type = PAYLOAD_TYPE,
+                timestamp = 2L,
+                data = jsonMapOf(PAYLOAD_TYPE to jsonListOf(generateExperimentsPayload("second").build()))
+            )
+        )
+
+        assertNull(manager.getExperimentWithId(messageInfo, "first"))
+        assertNotNull(manager.getExperimentWithId(messageInfo, "second"))
+
+        // Served from memory, the payloads are never read directly
+        coVerify(exactly = 0) { remoteData.payloads(PAYLOAD_TYPE) }
+    }
+
     private fun generateExperimentsPayload(
         id: String,
         hashIdentifier: String = "contact",
@@ -0,0 +1,102 @@
+/* Copyright Airship and Contributors */
+package com.urbanairship.http
+
+import android.net.Uri
+import com.urbanairship.json.JsonStreamParser
+import com.urbanairship.json.jsonMapOf
+import java.net.SocketTimeoutException
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+public class PooledHttpClientTest {
+
+    private val server = MockWebServer()
+    private val client = PooledHttpClient(OkHttpClient(), 2, false)
+
+    private val stringParser = ResponseParser { _, _, responseBody -> responseBody }
+
+    @Before
+    public fun setUp() {
+        server.start()
+    }
+
+    @After
+    public fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    public fun testRequest() {
+        server.enqueue(MockResponse().setResponseCode(200).setHeader("Last-Modified", "some date").setBody("neat"))
+
+        val response = client.execute(
+            url(), "POST", mapOf("foo" to "bar"), RequestBody.Json(jsonMapOf("cool" to "story")), true, stringParser
+        )
+
+        assertEquals(200, response.status)
+        assertEquals("neat", response.result)
+        assertEquals("neat", response.body)
+        assertEquals("some date", response.headers["Last-Modified"])
+
+        val recorded = server.takeRequest()
+        assertEquals("POST", recorded.method)
+        assertEquals("bar", recorded.getHeader("foo"))
+        assertEquals("{\"cool\":\"story\"}", recorded.body.readUtf8())
+    }
+
+    @Test
+    public fun testConnectionReused() {
+        server.enqueue(MockResponse().setResponseCode(200))
+        server.enqueue(MockResponse().setResponseCode(200))
+
+        client.execute(url(), "GET", emptyMap(), null, true, stringParser)
+        client.execute(url(), "GET", emptyMap(), null, true, stringParser)
+
+        assertEquals(0, server.takeRequest().sequenceNumber)
+        assertEquals(1, server.takeRequest().sequenceNumber)
+    }
+
+    @Test
+    public fun testGzippedStreamingBody() {
+        server.enqueue(MockResponse().setResponseCode(200))
+
+        val json = jsonMapOf("events" to listOf("one", "two")).toJsonValue()
+        client.execute(url(), "POST", emptyMap(), RequestBody.GzippedStreamingJson(json), true, stringParser)
+
+        val recorded = server.takeRequest()
+        assertEquals("gzip", recorded.getHeader("Content-Encoding"))
+        val decoded = GZIPInputStream(recorded.body.inputStream()).bufferedReader().readText()
+        assertEquals(json.toString(), decoded)
+    }
+
+    @Test
+    public fun testStreamResponseParser() {
+        server.enqueue(MockResponse().setResponseCode(200).setBody("{\"messages\":[1,2]}"))
+
+        val parser = StreamResponseParser { _, _, stream -> JsonStreamParser.parse(stream) }
+        val response = client.execute(url(), "GET", emptyMap(), null, true, parser)
+
+        assertEquals(jsonMapOf("messages" to listOf(1, 2)).toJsonValue(), response.result)
+        assertNull(response.body)
+    }
+
+    @Test(expected = SocketTimeoutException::class)
+    public fun testReadTimeout() {
+        server.enqueue(MockResponse().setResponseCode(200).setBody("slow").setBodyDelay(1, TimeUnit.SECONDS))
+
+        client.execute(url(), "GET", emptyMap(), null, true, stringParser, readTimeoutMs = 100)
+    }
+
+    private fun url(): Uri = Uri.parse(server.url("/api").toString())
+}
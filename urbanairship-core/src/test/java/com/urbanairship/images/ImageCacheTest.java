@@ -0,0 +1,97 @@
+package com.urbanairship.images;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+import com.urbanairship.TestClock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ImageCacheTest extends BaseTestCase {
+
+    private final TestClock clock = new TestClock();
+    private ImageCache imageCache;
+
+    @Before
+    public void setup() {
+        imageCache = new ImageCache(TestApplication.getApplication(), clock);
+    }
+
+    @Test
+    public void testMemoryCache() {
+        Drawable drawable = createDrawable();
+        String key = ImageCache.cacheKey("https://example.com/image.png", 10, 10);
+
+        assertNull(imageCache.getDrawable(key));
+        imageCache.cacheDrawable(key, drawable, 400);
+
+        assertSame(drawable, imageCache.getDrawable(key));
+        assertEquals(1, imageCache.getMemoryHits());
+    }
+
+    @Test
+    public void testDecodedCache() {
+        String key = ImageCache.cacheKey("https://example.com/image.png", 10, 10);
+
+        assertNull(imageCache.getDecodedDrawable(key));
+        assertEquals(1, imageCache.getMisses());
+
+        imageCache.cacheDecodedDrawable(key, createDrawable());
+
+        Drawable cached = imageCache.getDecodedDrawable(key);
+        assertNotNull(cached);
+        assertEquals(1, imageCache.getDiskHits());
+
+        // Decoded hits are added to the memory cache
+        assertSame(cached, imageCache.getDrawable(key));
+    }
+
+    @Test
+    public void testDecodedCacheKeyedBySize() {
+        imageCache.cacheDecodedDrawable(ImageCache.cacheKey("https://example.com/image.png", 10, 10), createDrawable());
+
+        assertNull(imageCache.getDecodedDrawable(ImageCache.cacheKey("https://example.com/image.png", 20, 20)));
+        assertEquals(0, imageCache.getDiskHits());
+        assertEquals(1, imageCache.getMisses());
+    }
+
+    @Test
+    public void testDecodedCacheExpires() {
+        String key = ImageCache.cacheKey("https://example.com/image.png", 10, 10);
+        imageCache.cacheDecodedDrawable(key, createDrawable());
+
+        clock.currentTimeMillis += TimeUnit.HOURS.toMillis(23);
+        assertNotNull(imageCache.getDecodedDrawable(key));
+
+        clock.currentTimeMillis += TimeUnit.HOURS.toMillis(2);
+        assertNull(imageCache.getDecodedDrawable(key));
+        assertEquals(1, imageCache.getDiskHits());
+        assertEquals(1, imageCache.getMisses());
+    }
+
+    @Test
+    public void testDecodedCacheIgnoresNonBitmapDrawables() {
+        String key = ImageCache.cacheKey("https://example.com/image.png", 10, 10);
+        imageCache.cacheDecodedDrawable(key, new ColorDrawable());
+
+        assertNull(imageCache.getDecodedDrawable(key));
+    }
+
+    private static Drawable createDrawable() {
+        Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        return new BitmapDrawable(TestApplication.getApplication().getResources(), bitmap);
+    }
+
+}
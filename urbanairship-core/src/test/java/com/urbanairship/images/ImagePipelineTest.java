@@ -0,0 +1,155 @@
+package com.urbanairship.images;
+
+import android.graphics.Bitmap;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.TestApplication;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import androidx.annotation.NonNull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImagePipelineTest extends BaseTestCase {
+
+    private TestImagePipeline pipeline;
+    private URL url;
+
+    @Before
+    public void setup() throws IOException {
+        pipeline = new TestImagePipeline();
+        url = new URL("https://example.com/image.png");
+    }
+
+    @Test
+    public void testFetchBitmap() throws IOException {
+        Bitmap bitmap = pipeline.fetchBitmap(url, 10, 10);
+
+        assertNotNull(bitmap);
+        assertEquals(1, pipeline.openCount.get());
+    }
+
+    @Test
+    public void testFetchLargeBitmapOpensStreamOnce() throws IOException {
+        pipeline.imageBytes = createNoisePng(300, 300);
+        assertTrue(pipeline.imageBytes.length > 64 * 1024);
+
+        Bitmap bitmap = pipeline.fetchBitmap(url, 10, 10);
+
+        assertNotNull(bitmap);
+        assertEquals(1, pipeline.openCount.get());
+    }
+
+    @Test
+    public void testFetchBitmapCached() throws IOException {
+        Bitmap bitmap = pipeline.fetchBitmap(url, 10, 10);
+        assertSame(bitmap, pipeline.fetchBitmap(url, 10, 10));
+        assertEquals(1, pipeline.openCount.get());
+
+        // Different size is a different entry
+        pipeline.fetchBitmap(url, 20, 20);
+        assertEquals(2, pipeline.openCount.get());
+    }
+
+    @Test
+    public void testFetchBitmapNotFound() throws IOException {
+        pipeline.imageBytes = null;
+        assertNull(pipeline.fetchBitmap(url, 10, 10));
+    }
+
+    @Test
+    public void testConcurrentFetchesShareRequest() throws Exception {
+        pipeline.openLatch = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Bitmap> first = executor.submit(() -> pipeline.fetchBitmap(url, 10, 10));
+        assertTrue(pipeline.openStarted.await(5, TimeUnit.SECONDS));
+
+        Future<Bitmap> second = executor.submit(() -> pipeline.fetchBitmap(url, 10, 10));
+
+        // Give the second fetch time to join the first
+        Thread.sleep(100);
+        pipeline.openLatch.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, pipeline.openCount.get());
+        executor.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchBitmapInvalidSize() throws IOException {
+        pipeline.fetchBitmap(url, 0, 10);
+    }
+
+    private static byte[] createPng(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] createNoisePng(int width, int height) throws IOException {
+        // Random pixels do not compress, so the encoded image stays large
+        Random random = new Random(1);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static class TestImagePipeline extends ImagePipeline {
+
+        final AtomicInteger openCount = new AtomicInteger();
+        final CountDownLatch openStarted = new CountDownLatch(1);
+        CountDownLatch openLatch;
+        byte[] imageBytes;
+
+        TestImagePipeline() throws IOException {
+            super(TestApplication.getApplication(), new ImageCache(TestApplication.getApplication()));
+            imageBytes = createPng(100, 50);
+        }
+
+        @Override
+        InputStream openStream(@NonNull URL url) throws IOException {
+            openCount.incrementAndGet();
+            openStarted.countDown();
+            if (openLatch != null) {
+                try {
+                    openLatch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            return imageBytes == null ? null : new ByteArrayInputStream(imageBytes);
+        }
+
+    }
+
+}
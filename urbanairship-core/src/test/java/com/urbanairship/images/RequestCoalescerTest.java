@@ -0,0 +1,66 @@
+package com.urbanairship.images;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestCoalescerTest extends BaseTestCase {
+
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>();
+
+    @Test
+    public void testConcurrentRequestsShareResult() throws Exception {
+        final AtomicInteger runCount = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> coalescer.run("key", () -> {
+            runCount.incrementAndGet();
+            started.countDown();
+            finish.await(5, TimeUnit.SECONDS);
+            return "result";
+        }));
+
+        started.await(5, TimeUnit.SECONDS);
+        Future<String> second = executor.submit(() -> coalescer.run("key", () -> {
+            runCount.incrementAndGet();
+            return "other result";
+        }));
+
+        // Give the second request time to join the first
+        Thread.sleep(100);
+        finish.countDown();
+
+        assertEquals("result", first.get(5, TimeUnit.SECONDS));
+        assertEquals("result", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runCount.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSequentialRequestsRunAgain() throws IOException {
+        assertEquals("first", coalescer.run("key", () -> "first"));
+        assertEquals("second", coalescer.run("key", () -> "second"));
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRequestException() throws IOException {
+        coalescer.run("key", () -> {
+            throw new IOException("failed");
+        });
+    }
+
+}
@@ -28,6 +28,8 @@ public class WorkUtilsTest extends BaseTestCase {
                                                     .build())
                                   .setMinDelay(10, TimeUnit.MILLISECONDS)
                                   .setNetworkAccessRequired(true)
+                                  .setUnmeteredNetworkRequired(true)
+                                  .setChargingRequired(true)
                                   .setInitialBackOff(10, TimeUnit.SECONDS)
                                   .addRateLimit("foo")
                                   .addRateLimit("bar")
@@ -10,13 +10,16 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
 public class JsonMapTest extends BaseTestCase {
 
@@ -102,4 +105,97 @@ public class JsonMapTest extends BaseTestCase {
         assertEquals("c", jsonMap.get("list").getList().getList().get(4).getString());
     }
 
+    /**
+     * Test small and large maps behave the same.
+     */
+    @Test
+    public void testCompactMap() {
+        for (int size : new int[] { JsonMap.MAX_COMPACT_SIZE, JsonMap.MAX_COMPACT_SIZE + 1 }) {
+            Map<String, JsonValue> map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put("key " + i, JsonValue.wrap(i));
+            }
+
+            JsonMap jsonMap = new JsonMap(map);
+            assertEquals(size, jsonMap.size());
+            assertEquals(map, jsonMap.getMap());
+            assertEquals(map.keySet(), jsonMap.keySet());
+            assertEquals(map.entrySet(), jsonMap.entrySet());
+            assertEquals(map.hashCode(), jsonMap.hashCode());
+            assertTrue(jsonMap.containsKey("key 0"));
+            assertTrue(jsonMap.containsValue(JsonValue.wrap(size - 1)));
+            assertFalse(jsonMap.containsKey("missing"));
+            assertNull(jsonMap.get("missing"));
+
+            // Changes to the source map are not reflected
+            map.put("key 0", JsonValue.wrap("changed"));
+            assertEquals(0, jsonMap.opt("key 0").getInt(-1));
+        }
+    }
+
+    /**
+     * Test the map can not be modified through its views.
+     */
+    @Test
+    public void testImmutable() {
+        try {
+            jsonMap.keySet().remove("some-key");
+            fail("Expected exception");
+        } catch (UnsupportedOperationException expected) {
+            // Expected
+        }
+
+        try {
+            Iterator<Map.Entry<String, JsonValue>> iterator = jsonMap.iterator();
+            iterator.next();
+            iterator.remove();
+            fail("Expected exception");
+        } catch (UnsupportedOperationException expected) {
+            // Expected
+        }
+
+        jsonMap.getMap().clear();
+        assertEquals(2, jsonMap.size());
+    }
+
+    /**
+     * Test equal maps have the same hash code, including numbers of different types.
+     */
+    @Test
+    public void testHashCode() throws JsonException {
+        JsonMap parsed = JsonValue.parseString("{\"a\":2,\"b\":[1,2.5]}").optMap();
+        JsonMap built = JsonMap.newBuilder()
+                               .put("a", 2.0)
+                               .put("b", JsonValue.wrap(Arrays.asList(1L, 2.5)))
+                               .build();
+
+        assertEquals(parsed, built);
+        assertEquals(parsed.hashCode(), built.hashCode());
+        assertEquals(parsed.toJsonValue().hashCode(), built.toJsonValue().hashCode());
+        assertFalse(parsed.equals(JsonMap.newBuilder().put("a", 3).build()));
+    }
+
+    /**
+     * Test numbers that are only equal after widening to double hash the same.
+     */
+    @Test
+    public void testHashCodeWidenedNumbers() throws JsonException {
+        JsonMap doubleMap = JsonMap.newBuilder().put("a", 9007199254740992d).build();
+        JsonMap bigLongMap = JsonMap.newBuilder().put("a", 9007199254740993L).build();
+        assertEquals(doubleMap, bigLongMap);
+        assertEquals(doubleMap.hashCode(), bigLongMap.hashCode());
+
+        JsonList doubleList = JsonValue.wrap(Arrays.asList(9007199254740992d)).optList();
+        JsonList longList = JsonValue.wrap(Arrays.asList(9007199254740993L)).optList();
+        assertEquals(doubleList, longList);
+        assertEquals(doubleList.hashCode(), longList.hashCode());
+
+        // Converting to double then float rounds differently than converting straight to float
+        long large = (1L << 60) + (1L << 36) + 1;
+        JsonValue largeLong = JsonValue.wrap(large);
+        JsonValue largeDouble = JsonValue.wrap((double) large);
+        assertEquals(largeLong, largeDouble);
+        assertEquals(largeLong.hashCode(), largeDouble.hashCode());
+    }
+
 }
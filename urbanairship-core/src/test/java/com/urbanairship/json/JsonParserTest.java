@@ -0,0 +1,102 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.BaseTestCase;
+
+import org.json.JSONException;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class JsonParserTest extends BaseTestCase {
+
+    private static final String JSON = "{\"string\":\"value \\u00e9 \\/ \\\" \\\\ \\t\\n\",\"int\":-1,\"zero\":-0," +
+            "\"long\":9223372036854775807,\"big\":92233720368547758070,\"double\":1.5,\"exponent\":1E+3," +
+            "\"negative double\":-0.0,\"bool\":true,\"false\":false,\"null\":null," +
+            "\"list\":[1,null,\"two\",{\"nested\":[]},[[]]],\"map\":{\"empty\":{}}}";
+
+    /**
+     * Test parsing produces the same value as the org.json tokener.
+     */
+    @Test
+    public void testParseMatchesTokener() throws JsonException, JSONException {
+        JsonValue expected = JsonValue.wrap(new JSONTokener(JSON).nextValue());
+        JsonValue parsed = JsonParser.parse(JSON);
+
+        assertEquals(expected, parsed);
+        assertEquals(expected.toString(), parsed.toString());
+    }
+
+    /**
+     * Test numbers are parsed into the same types as the org.json tokener.
+     */
+    @Test
+    public void testNumberTypes() throws JsonException {
+        JsonMap map = JsonParser.parse(JSON).optMap();
+
+        assertTrue(map.opt("int").getValue() instanceof Integer);
+        assertTrue(map.opt("zero").getValue() instanceof Integer);
+        assertTrue(map.opt("long").getValue() instanceof Long);
+        assertTrue(map.opt("big").getValue() instanceof Double);
+        assertTrue(map.opt("double").getValue() instanceof Double);
+        assertTrue(map.opt("exponent").getValue() instanceof Double);
+        assertEquals("-0", map.opt("negative double").toString());
+    }
+
+    /**
+     * Test nulls are dropped from maps and lists, and a later null removes an earlier value.
+     */
+    @Test
+    public void testDropsNulls() throws JsonException {
+        JsonMap map = JsonParser.parse(JSON).optMap();
+
+        assertFalse(map.containsKey("null"));
+        assertEquals(4, map.opt("list").optList().size());
+
+        assertEquals(JsonMap.EMPTY_MAP, JsonParser.parse("{\"a\":1,\"a\":null}").optMap());
+        assertEquals(2, JsonParser.parse("{\"a\":1,\"a\":2}").optMap().opt("a").getInt(0));
+    }
+
+    /**
+     * Test whitespace around values is ignored.
+     */
+    @Test
+    public void testWhitespace() throws JsonException {
+        JsonValue parsed = JsonParser.parse(" \n{ \"a\" :\t[ 1 , 2 ] }\r\n ");
+        assertEquals(JsonValue.parseString("{\"a\":[1,2]}"), parsed);
+    }
+
+    /**
+     * Test non-strict JSON is rejected by the parser, but still accepted by parseString.
+     */
+    @Test
+    public void testLenientFallback() throws JsonException {
+        String[] lenient = new String[] { "{'a':1}", "{a:1}", "[1,]", "{\"a\":010}", "TRUE", "\"\\q\"", "{} trailing" };
+
+        for (String json : lenient) {
+            try {
+                JsonParser.parse(json);
+                throw new AssertionError("Expected exception for " + json);
+            } catch (JsonException expected) {
+                // Expected
+            }
+        }
+
+        assertEquals(1, JsonValue.parseString("{'a':1}").optMap().opt("a").getInt(0));
+        assertEquals(8, JsonValue.parseString("{\"a\":010}").optMap().opt("a").getInt(0));
+        assertEquals(JsonMap.EMPTY_MAP, JsonValue.parseString("{} trailing").optMap());
+    }
+
+    /**
+     * Test invalid JSON throws a JsonException.
+     */
+    @Test(expected = JsonException.class)
+    public void testInvalid() throws JsonException {
+        JsonValue.parseString("{\"key\":");
+    }
+
+}
@@ -432,4 +432,74 @@ public class JsonPredicateTest extends BaseTestCase {
         Assert.assertTrue(predicate.apply(versionObject));
     }
 
+    /**
+     * Test the value is only converted to JSON once per evaluation.
+     */
+    @Test
+    public void testConvertsValueOnce() {
+        final int[] conversions = new int[1];
+        JsonSerializable value = () -> {
+            conversions[0]++;
+            return catJson.toJsonValue();
+        };
+
+        JsonPredicate predicate = JsonPredicate.newBuilder()
+                                               .setPredicateType(JsonPredicate.AND_PREDICATE_TYPE)
+                                               .addMatcher(legMatcher)
+                                               .addMatcher(nameMatcher)
+                                               .addMatcher(sleepMatcher)
+                                               .build();
+
+        assertTrue(predicate.apply(value));
+        assertEquals(1, conversions[0]);
+    }
+
+    /**
+     * Test cheaper items are evaluated first without changing the result or the JSON order.
+     */
+    @Test
+    public void testEvaluationOrder() throws JsonException {
+        JsonMatcher arrayMatcher = JsonMatcher.newBuilder()
+                                              .setKey("toys")
+                                              .setValueMatcher(ValueMatcher.newArrayContainsMatcher(JsonPredicate.newBuilder()
+                                                                                                                 .addMatcher(JsonMatcher.newBuilder()
+                                                                                                                                        .setValueMatcher(ValueMatcher.newVersionMatcher("1.0+"))
+                                                                                                                                        .build())
+                                                                                                                 .build()))
+                                              .build();
+
+        JsonPredicate predicate = JsonPredicate.newBuilder()
+                                               .setPredicateType(JsonPredicate.AND_PREDICATE_TYPE)
+                                               .addMatcher(arrayMatcher)
+                                               .addMatcher(legMatcher)
+                                               .build();
+
+        assertTrue(arrayMatcher.getEvaluationCost() > legMatcher.getEvaluationCost());
+        assertFalse(predicate.apply(catJson));
+
+        JsonMap cat = JsonMap.newBuilder()
+                             .putAll(catJson.toJsonValue().optMap())
+                             .put("toys", JsonValue.wrapOpt(Arrays.asList("0.9", "1.0.1")))
+                             .build();
+        assertTrue(predicate.apply(cat));
+
+        JsonList items = predicate.toJsonValue().optMap().opt(JsonPredicate.AND_PREDICATE_TYPE).optList();
+        assertEquals(arrayMatcher.toJsonValue(), items.get(0));
+        assertEquals(predicate, JsonPredicate.parse(predicate.toJsonValue()));
+    }
+
+    /**
+     * Test a scope that resolves to a non map value does not match the key.
+     */
+    @Test
+    public void testScopeThroughNonMap() {
+        JsonMatcher matcher = JsonMatcher.newBuilder()
+                                         .setScope(Arrays.asList("name", "first"))
+                                         .setKey("legs")
+                                         .setValueMatcher(ValueMatcher.newIsAbsentMatcher())
+                                         .build();
+
+        assertTrue(matcher.apply(catJson));
+    }
+
 }
@@ -0,0 +1,77 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.json;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class JsonStreamParserTest extends BaseTestCase {
+
+    private static final String JSON = "{\"string\":\"value \\u00e9 \\/\",\"int\":1,\"long\":9223372036854775807," +
+            "\"double\":1.5,\"exponent\":1e3,\"bool\":true,\"null\":null," +
+            "\"list\":[1,null,\"two\",{\"nested\":[]}],\"map\":{\"empty\":{}}}";
+
+    /**
+     * Test parsing a stream produces the same value as parseString.
+     */
+    @Test
+    public void testParseMatchesParseString() throws JsonException {
+        JsonValue expected = JsonValue.parseString(JSON);
+        JsonValue parsed = JsonStreamParser.parse(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(expected, parsed);
+        assertEquals(expected.toString(), parsed.toString());
+    }
+
+    /**
+     * Test numbers are parsed into the same types as parseString.
+     */
+    @Test
+    public void testNumberTypes() throws JsonException {
+        JsonMap map = JsonStreamParser.parse(new StringReader(JSON)).optMap();
+
+        assertTrue(map.opt("int").getValue() instanceof Integer);
+        assertTrue(map.opt("long").getValue() instanceof Long);
+        assertTrue(map.opt("double").getValue() instanceof Double);
+        assertTrue(map.opt("exponent").getValue() instanceof Double);
+    }
+
+    /**
+     * Test nulls are dropped from maps and lists.
+     */
+    @Test
+    public void testDropsNulls() throws JsonException {
+        JsonMap map = JsonStreamParser.parse(new StringReader(JSON)).optMap();
+
+        assertFalse(map.containsKey("null"));
+        assertEquals(3, map.opt("list").optList().size());
+    }
+
+    /**
+     * Test empty streams parse as null.
+     */
+    @Test
+    public void testEmpty() throws JsonException {
+        assertEquals(JsonValue.NULL, JsonStreamParser.parse(new StringReader("")));
+        assertEquals(JsonValue.NULL, JsonStreamParser.parse((InputStream) null));
+    }
+
+    /**
+     * Test invalid JSON throws a JsonException.
+     */
+    @Test(expected = JsonException.class)
+    public void testInvalid() throws JsonException {
+        JsonStreamParser.parse(new StringReader("{\"key\":"));
+    }
+
+}
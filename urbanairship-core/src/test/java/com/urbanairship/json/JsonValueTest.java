@@ -9,11 +9,14 @@ import com.urbanairship.BaseTestCase;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONStringer;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -507,4 +510,76 @@ public class JsonValueTest extends BaseTestCase {
         assertTrue(JsonValue.wrap(2.0F).equals(JsonValue.wrap(2L)));
     }
 
+    /**
+     * Test writing a value to an Appendable matches toString.
+     */
+    @Test
+    public void testWriteTo() throws JsonException, IOException {
+        JsonValue value = JsonMap.newBuilder()
+                                 .putAll(JsonValue.wrap(primitiveMap).optMap())
+                                 .put("list", JsonValue.wrap(primitiveList))
+                                 .put("escaped", "quote \" slash / backslash \\ tab \t newline \n control \u0001 unicode \u2028")
+                                 .put("whole double", 2.0)
+                                 .put("negative zero", -0.0)
+                                 .put("long", Long.MAX_VALUE)
+                                 .put("nested", JsonMap.newBuilder().put("empty", JsonList.EMPTY_LIST).build())
+                                 .build()
+                                 .toJsonValue();
+
+        StringWriter writer = new StringWriter();
+        value.writeTo(writer);
+        assertEquals(value.toString(), writer.toString());
+
+        writer = new StringWriter();
+        JsonValue.NULL.writeTo(writer);
+        assertEquals(JsonValue.NULL.toString(), writer.toString());
+    }
+
+    /**
+     * Test toString output is the same as the org.json JSONStringer.
+     */
+    @Test
+    public void testToStringMatchesJSONStringer() throws JsonException, JSONException {
+        JsonValue value = JsonMap.newBuilder()
+                                 .putAll(JsonValue.wrap(primitiveMap).optMap())
+                                 .put("list", JsonValue.wrap(primitiveList))
+                                 .put("escaped", "quote \" slash / backslash \\ tab \t newline \n control \u0001 \u001f unicode \u2028 \u00e9")
+                                 .put("whole double", 2.0)
+                                 .put("negative zero", -0.0)
+                                 .put("small double", 1.0E-7)
+                                 .put("large double", 1.0E20)
+                                 .put("long", Long.MIN_VALUE)
+                                 .put("nested", JsonMap.newBuilder().put("empty", JsonList.EMPTY_LIST).build())
+                                 .build()
+                                 .toJsonValue();
+
+        JSONStringer stringer = new JSONStringer();
+        writeStringer(value, stringer);
+        assertEquals(stringer.toString(), value.toString());
+        assertEquals(stringer.toString(), value.optMap().toString());
+
+        assertEquals(JSONObject.quote("\u0000\"/"), JsonValue.wrap("\u0000\"/").toString());
+        assertEquals(JSONObject.numberToString(-0.0), JsonValue.wrap(-0.0).toString());
+        assertEquals(JSONObject.numberToString(1.5), JsonValue.wrap(1.5).toString());
+    }
+
+    private static void writeStringer(@NonNull JsonValue value, @NonNull JSONStringer stringer) throws JSONException {
+        if (value.isJsonMap()) {
+            stringer.object();
+            for (Map.Entry<String, JsonValue> entry : value.optMap()) {
+                stringer.key(entry.getKey());
+                writeStringer(entry.getValue(), stringer);
+            }
+            stringer.endObject();
+        } else if (value.isJsonList()) {
+            stringer.array();
+            for (JsonValue item : value.optList()) {
+                writeStringer(item, stringer);
+            }
+            stringer.endArray();
+        } else {
+            stringer.value(value.getValue());
+        }
+    }
+
 }
@@ -0,0 +1,72 @@
+package com.urbanairship.util;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedExecutorTest extends BaseTestCase {
+
+    Executor executor;
+
+    @Before
+    public void setup() {
+        executor = new BoundedExecutor(Executors.newFixedThreadPool(8), 2);
+    }
+
+    @Test
+    public void testMaxConcurrency() throws InterruptedException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {
+                }
+                running.decrementAndGet();
+                latch.countDown();
+            });
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void testStartOrder() throws InterruptedException {
+        executor = new BoundedExecutor(Executors.newFixedThreadPool(4), 1);
+
+        final List<Integer> actual = new ArrayList<>();
+        final List<Integer> expected = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(100);
+
+        for (int i = 1; i <= 100; i++) {
+            final int count = i;
+            expected.add(count);
+            executor.execute(() -> {
+                actual.add(count);
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+        assertEquals(expected, actual);
+    }
+
+}
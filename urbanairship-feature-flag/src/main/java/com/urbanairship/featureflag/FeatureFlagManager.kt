@@ -9,17 +9,24 @@ import com.urbanairship.AirshipComponentGroups
 import com.urbanairship.AirshipDispatchers
 import com.urbanairship.PendingResult
 import com.urbanairship.PreferenceDataStore
+import com.urbanairship.PrivacyManager
 import com.urbanairship.UALog
 import com.urbanairship.UAirship
 import com.urbanairship.analytics.Analytics
 import com.urbanairship.annotation.OpenForTesting
 import com.urbanairship.audience.DeviceInfoProvider
 import com.urbanairship.deferred.DeferredRequest
+import com.urbanairship.permission.Permission
+import com.urbanairship.permission.PermissionStatus
 import com.urbanairship.remotedata.RemoteData
 import com.urbanairship.remotedata.RemoteDataInfo
+import com.urbanairship.remotedata.RemoteDataPayload
 import com.urbanairship.remotedata.RemoteDataSource
 import com.urbanairship.util.Clock
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.launch
@@ -36,7 +43,9 @@ public class FeatureFlagManager
     private val analytics: Analytics,
     private val infoProvider: DeviceInfoProvider,
     private val deferredResolver: FlagDeferredResolver,
-    private val clock: Clock = Clock.DEFAULT_CLOCK
+    private val clock: Clock = Clock.DEFAULT_CLOCK,
+    private val isEvaluationCacheEnabled: Boolean = false,
+    dispatcher: CoroutineDispatcher = AirshipDispatchers.IO
 ) : AirshipComponent(context, dataStore) {
 
     companion object {
@@ -57,6 +66,14 @@ public class FeatureFlagManager
 
     private val pendingResultScope = CoroutineScope(AirshipDispatchers.IO + SupervisorJob())
 
+    private val updateScope = CoroutineScope(dispatcher + SupervisorJob())
+
+    // Decoded flags by name, rebuilt when the remote-data payloads change
+    private val indexLock = ReentrantLock()
+    private var flagIndex: FlagIndex? = null
+    private var indexVersion = 0L
+    private val evaluationCache = mutableMapOf<String, CachedEvaluation>()
+
     /** @hide */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     override fun getComponentGroup(): Int = AirshipComponentGroups.FEATURE_FLAGS
@@ -65,6 +82,12 @@ public class FeatureFlagManager
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public override fun init() {
         super.init()
+
+        updateScope.launch {
+            remoteData.payloadFlow(PAYLOAD_TYPE).collect { payloads ->
+                updateIndex(buildIndex(payloads))
+            }
+        }
     }
 
     /**
@@ -109,6 +132,7 @@ public class FeatureFlagManager
 
                 if (allowRefresh) {
                     waitForRemoteDataRefresh()
+                    updateIndex(null)
                     flag(name = name, allowRefresh = false)
                 } else {
                     Result.failure(FeatureFlagException.FailedToFetch())
@@ -118,6 +142,7 @@ public class FeatureFlagManager
             is FeatureFlagEvaluationException.StaleNotAllowed -> {
                 if (allowRefresh) {
                     waitForRemoteDataRefresh()
+                    updateIndex(null)
                     flag(name = name, allowRefresh = false)
                 } else {
                     Result.failure(FeatureFlagException.FailedToFetch())
@@ -173,23 +198,85 @@ public class FeatureFlagManager
     }
 
     private suspend fun fetchFlagRemoteInfo(name: String): RemoteDataFeatureFlagInfo {
-        val payloads = remoteData.payloads(PAYLOAD_TYPE)
-            .filter { it.remoteDataInfo?.source == RemoteDataSource.APP }
-
-        val flags = payloads
-            .asSequence()
-            .mapNotNull { it.data.opt(PAYLOAD_TYPE).list?.list }.flatten().map { it.optMap() }
-            .mapNotNull(FeatureFlagInfo::fromJson).filter { it.name == name }
+        val index = flagIndex()
+        val flags = index.flags[name].orEmpty()
             .filter { it.timeCriteria?.meets(clock.currentTimeMillis()) ?: true }
-            .toList()
 
         return RemoteDataFeatureFlagInfo(
             name = name,
             flagInfoList = flags,
-            remoteDataInfo = payloads.firstOrNull()?.remoteDataInfo
+            remoteDataInfo = index.remoteDataInfo
+        )
+    }
+
+    /**
+     * Gets the decoded flag index, loading it from remote-data if it has not been built for the
+     * current payloads yet.
+     */
+    private suspend fun flagIndex(): FlagIndex {
+        val version = indexLock.withLock {
+            flagIndex?.let { return it }
+            indexVersion
+        }
+
+        val index = buildIndex(remoteData.payloads(PAYLOAD_TYPE))
+        indexLock.withLock {
+            // Drop the result if the payloads changed while loading
+            if (indexVersion == version) {
+                flagIndex = index
+            }
+        }
+        return index
+    }
+
+    private fun updateIndex(index: FlagIndex?) {
+        indexLock.withLock {
+            indexVersion++
+            flagIndex = index
+            evaluationCache.clear()
+        }
+    }
+
+    private fun buildIndex(payloads: List<RemoteDataPayload>): FlagIndex {
+        val appPayloads = payloads.filter { it.remoteDataInfo?.source == RemoteDataSource.APP }
+
+        val flags = appPayloads
+            .asSequence()
+            .mapNotNull { it.data.opt(PAYLOAD_TYPE).list?.list }.flatten().map { it.optMap() }
+            .mapNotNull(FeatureFlagInfo::fromJson)
+            .groupBy { it.name }
+
+        return FlagIndex(
+            remoteDataInfo = appPayloads.firstOrNull()?.remoteDataInfo,
+            flags = flags
         )
     }
 
+    private suspend fun evaluationCacheKey(
+        flags: List<FeatureFlagInfo>,
+        deviceInfoSnapshot: DeviceInfoProvider
+    ): EvaluationCacheKey = EvaluationCacheKey(
+        flags = flags,
+        channelId = deviceInfoSnapshot.channelId,
+        contactId = deviceInfoSnapshot.getStableContactId(),
+        channelTags = deviceInfoSnapshot.channelTags,
+        isNotificationsOptedIn = deviceInfoSnapshot.isNotificationsOptedIn,
+        appVersion = deviceInfoSnapshot.appVersion,
+        locales = deviceInfoSnapshot.getUserLocals(context).toLanguageTags(),
+        permissions = deviceInfoSnapshot.getPermissionStatuses(),
+        isTagsAndAttributesEnabled = deviceInfoSnapshot.isFeatureEnabled(PrivacyManager.FEATURE_TAGS_AND_ATTRIBUTES),
+        isAnalyticsEnabled = deviceInfoSnapshot.isFeatureEnabled(PrivacyManager.FEATURE_ANALYTICS)
+    )
+
+    private fun cacheEvaluation(name: String, key: EvaluationCacheKey?, flag: FeatureFlag): Result<FeatureFlag> {
+        if (key != null) {
+            indexLock.withLock {
+                evaluationCache[name] = CachedEvaluation(key, flag)
+            }
+        }
+        return Result.success(flag)
+    }
+
     private suspend fun evaluate(remoteDataInfo: RemoteDataFeatureFlagInfo): Result<FeatureFlag> {
         remoteDataStatus(remoteData.status(RemoteDataSource.APP), remoteDataInfo).let {
             val error = it.exceptionOrNull()
@@ -209,6 +296,16 @@ public class FeatureFlagManager
 
         val deviceInfoSnapshot = infoProvider.snapshot(context)
 
+        // Static flags only depend on the flag definitions and the device info
+        val cacheKey = if (isEvaluationCacheEnabled) evaluationCacheKey(flags, deviceInfoSnapshot) else null
+        if (cacheKey != null) {
+            indexLock.withLock { evaluationCache[name] }?.let {
+                if (it.key == cacheKey) {
+                    return Result.success(it.flag)
+                }
+            }
+        }
+
         for (info in flags) {
             val audienceCheck =
                 info.audience?.evaluate(context, info.created, deviceInfoSnapshot, null) ?: true
@@ -221,7 +318,9 @@ public class FeatureFlagManager
                     val variables =
                         info.payload.evaluateVariables(context, info.created, deviceInfoSnapshot)
 
-                    Result.success(
+                    cacheEvaluation(
+                        name,
+                        cacheKey,
                         FeatureFlag.createFlag(
                             name = name,
                             isEligible = true,
@@ -252,7 +351,9 @@ public class FeatureFlagManager
             }
         }
 
-        return Result.success(
+        return cacheEvaluation(
+            name,
+            cacheKey,
             FeatureFlag.createFlag(
                 name = name,
                 isEligible = false,
@@ -272,3 +373,26 @@ private data class RemoteDataFeatureFlagInfo(
     val flagInfoList: List<FeatureFlagInfo>,
     val remoteDataInfo: RemoteDataInfo?
 )
+
+private class FlagIndex(
+    val remoteDataInfo: RemoteDataInfo?,
+    val flags: Map<String, List<FeatureFlagInfo>>
+)
+
+private data class EvaluationCacheKey(
+    val flags: List<FeatureFlagInfo>,
+    val channelId: String?,
+    val contactId: String,
+    val channelTags: Set<String>,
+    val isNotificationsOptedIn: Boolean,
+    val appVersion: Long,
+    val locales: String,
+    val permissions: Map<Permission, PermissionStatus>,
+    val isTagsAndAttributesEnabled: Boolean,
+    val isAnalyticsEnabled: Boolean
+)
+
+private class CachedEvaluation(
+    val key: EvaluationCacheKey,
+    val flag: FeatureFlag
+)
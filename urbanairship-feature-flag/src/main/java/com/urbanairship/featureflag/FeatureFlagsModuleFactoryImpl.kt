@@ -32,7 +32,8 @@ class FeatureFlagsModuleFactoryImpl : FeatureFlagsModuleFactory {
             analytics = analytics,
             infoProvider = infoProvider,
             clock = Clock.DEFAULT_CLOCK,
-            deferredResolver = FlagDeferredResolver(cache, resolver)
+            deferredResolver = FlagDeferredResolver(cache, resolver),
+            isEvaluationCacheEnabled = true
         )
         return Module.singleComponent(manager, 0)
     }
@@ -3,6 +3,7 @@
 package com.urbanairship.featureflag
 
 import android.content.Context
+import androidx.core.os.LocaleListCompat
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.urbanairship.PreferenceDataStore
 import com.urbanairship.TestApplication
@@ -27,6 +28,8 @@ import io.mockk.just
 import io.mockk.mockk
 import io.mockk.runs
 import io.mockk.verify
+import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.test.StandardTestDispatcher
 import kotlinx.coroutines.test.TestResult
 import kotlinx.coroutines.test.runTest
 import org.junit.Before
@@ -45,6 +48,8 @@ class FeatureFlagManagerTest {
 
     private lateinit var featureFlags: FeatureFlagManager
     private val infoProvider: DeviceInfoProvider = mockk()
+    private val testDispatcher = StandardTestDispatcher()
+    private val payloadUpdates = MutableSharedFlow<List<RemoteDataPayload>>()
 
     private var currentTime = 2L
     private var channelId = "test-channel"
@@ -62,7 +67,8 @@ class FeatureFlagManagerTest {
             analytics = analytics,
             infoProvider = infoProvider,
             deferredResolver = deferredResolver,
-            clock = clock
+            clock = clock,
+            dispatcher = testDispatcher
         )
 
         coEvery { infoProvider.getPermissionStatuses() } returns mapOf()
@@ -71,6 +77,7 @@ class FeatureFlagManagerTest {
         coEvery { infoProvider.getStableContactId() } answers { contactId }
         every { infoProvider.appVersion } returns 1
         every { infoProvider.userCutOffDate(context) } returns 1
+        every { remoteData.payloadFlow(payloadType) } returns payloadUpdates
     }
 
     @Test
@@ -499,6 +506,105 @@ class FeatureFlagManagerTest {
         featureFlags.flag("stale").getOrThrow()
     }
 
+    @Test
+    fun testFlagsDecodedOnce(): TestResult = runTest {
+        val data = RemoteDataPayload(
+            type = payloadType, timestamp = 1L, data = jsonMapOf(
+                payloadType to jsonListOf(
+                    generateFeatureFlagPayload("first-id", "first"),
+                    generateFeatureFlagPayload("second-id", "second")
+                )
+            ), remoteDataInfo = RemoteDataInfo(
+                url = "https://sample.url",
+                lastModified = null,
+                source = RemoteDataSource.APP,
+            )
+        )
+
+        coEvery { remoteData.status(eq(RemoteDataSource.APP)) } returns RemoteData.Status.UP_TO_DATE
+        coEvery { remoteData.payloads(payloadType) } returns listOf(data)
+
+        assert(featureFlags.flag("first").getOrThrow().isEligible)
+        assert(featureFlags.flag("second").getOrThrow().isEligible)
+        assert(featureFlags.flag("first").getOrThrow().isEligible)
+
+        coVerify(exactly = 1) { remoteData.payloads(payloadType) }
+    }
+
+    @Test
+    fun testFlagsUpdatedOnNewPayloads(): TestResult = runTest {
+        val remoteDataInfo = RemoteDataInfo(
+            url = "https://sample.url",
+            lastModified = null,
+            source = RemoteDataSource.APP,
+        )
+
+        coEvery { remoteData.status(eq(RemoteDataSource.APP)) } returns RemoteData.Status.UP_TO_DATE
+        coEvery { remoteData.payloads(payloadType) } returns listOf()
+
+        featureFlags.init()
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        assert(!featureFlags.flag("updated").getOrThrow().exists)
+
+        payloadUpdates.emit(
+            listOf(
+                RemoteDataPayload(
+                    type = payloadType, timestamp = 2L, data = jsonMapOf(
+                        payloadType to jsonListOf(generateFeatureFlagPayload("updated-id", "updated"))
+                    ), remoteDataInfo = remoteDataInfo
+                )
+            )
+        )
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        assert(featureFlags.flag("updated").getOrThrow().exists)
+        coVerify(exactly = 1) { remoteData.payloads(payloadType) }
+    }
+
+    @Test
+    fun testEvaluationCache(): TestResult = runTest {
+        featureFlags = FeatureFlagManager(
+            context = context,
+            dataStore = PreferenceDataStore.inMemoryStore(context),
+            remoteData = remoteData,
+            analytics = analytics,
+            infoProvider = infoProvider,
+            deferredResolver = deferredResolver,
+            isEvaluationCacheEnabled = true,
+            dispatcher = testDispatcher
+        )
+
+        every { infoProvider.channelTags } returns setOf()
+        every { infoProvider.isNotificationsOptedIn } returns true
+        every { infoProvider.getUserLocals(any()) } returns LocaleListCompat.getEmptyLocaleList()
+        every { infoProvider.isFeatureEnabled(any()) } returns true
+
+        val data = RemoteDataPayload(
+            type = payloadType, timestamp = 1L, data = jsonMapOf(
+                payloadType to jsonListOf(
+                    generateFeatureFlagPayload("test-id", "test-ff", audience = generateAudience(true))
+                )
+            ), remoteDataInfo = RemoteDataInfo(
+                url = "https://sample.url",
+                lastModified = null,
+                source = RemoteDataSource.APP,
+            )
+        )
+
+        coEvery { remoteData.status(eq(RemoteDataSource.APP)) } returns RemoteData.Status.UP_TO_DATE
+        coEvery { remoteData.payloads(payloadType) } returns listOf(data)
+
+        val flag = featureFlags.flag("test-ff").getOrThrow()
+        assert(flag == featureFlags.flag("test-ff").getOrThrow())
+        verify(exactly = 1) { infoProvider.userCutOffDate(context) }
+
+        // Device info changed
+        contactId = "other-contact-id"
+        featureFlags.flag("test-ff").getOrThrow()
+        verify(exactly = 2) { infoProvider.userCutOffDate(context) }
+    }
+
     @Test
     fun testTrackInteraction(): TestResult = runTest {
         every { analytics.addEvent(any()) } just runs
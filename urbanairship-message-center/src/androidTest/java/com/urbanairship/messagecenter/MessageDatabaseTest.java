@@ -119,6 +119,33 @@ public class MessageDatabaseTest {
         db.close();
     }
 
+    @Test
+    public void migrate5to6() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 5);
+
+        ContentValues cv = new ContentValues();
+        cv.put(MESSAGE_ID, "msg");
+        cv.put(UNREAD, 1);
+        cv.put(UNREAD_ORIG, 1);
+        cv.put(DELETED, 0);
+        cv.put(TIMESTAMP, "2010-09-05 12:13:00");
+        cv.put(EXPIRATION, "2030-09-05 12:13:00");
+        db.insert(TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, cv);
+
+        // Prepare for migration and run it.
+        db.close();
+        db = helper.runMigrationsAndValidate(TEST_DB, 6, true, MessageDatabase.MIGRATION_5_6);
+
+        // Validate the sortable dates were backfilled.
+        Cursor cursor = db.query("SELECT " + SENT_AT + ", " + EXPIRES_AT + " FROM " + TABLE_NAME);
+        assertTrue(cursor.moveToFirst());
+        assertEquals(MessageEntity.parseSentAt("2010-09-05 12:13:00"), cursor.getLong(0));
+        assertEquals(MessageEntity.parseExpiresAt("2030-09-05 12:13:00"), Long.valueOf(cursor.getLong(1)));
+        cursor.close();
+
+        db.close();
+    }
+
     @Test
     public void migrateAll() throws IOException {
         // Skipping 1_2 because we didn't have an initial schema as that was the migration to Room.
@@ -127,7 +154,7 @@ public class MessageDatabaseTest {
 
         Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
         MessageDatabase messageDb = Room.databaseBuilder(context, MessageDatabase.class, TEST_DB)
-            .addMigrations(MIGRATION_2_5)
+            .addMigrations(MIGRATION_2_5, MIGRATION_5_6)
             .build();
 
         messageDb.getOpenHelper().getWritableDatabase();
@@ -465,6 +465,84 @@ public class Inbox {
         return getMessages(null);
     }
 
+    /**
+     * Gets a page of messages from the database. Sorted by descending sent-at date.
+     * <p>
+     * Unlike {@link #getMessages()}, only the requested page is read and nothing is sorted in
+     * memory. A page may contain fewer messages than the limit while local changes are still
+     * being written to the database.
+     *
+     * @param offset The number of messages to skip.
+     * @param limit The max number of messages to return.
+     * @return List of sorted {@link Message}s.
+     */
+    @WorkerThread
+    @NonNull
+    public List<Message> getMessagesPage(int offset, int limit) {
+        return loadMessagesPage(offset, limit).getMessages();
+    }
+
+    /**
+     * Gets a page of messages from the database along with the number of rows read, so callers
+     * can tell the last page apart from a page emptied by local changes.
+     *
+     * @param offset The number of messages to skip.
+     * @param limit The max number of messages to return.
+     * @return The page.
+     */
+    @WorkerThread
+    @NonNull
+    InboxPage loadMessagesPage(int offset, int limit) {
+        List<MessageEntity> entities = messageDao.getMessagesPage(System.currentTimeMillis(), limit, offset);
+        return new InboxPage(getPage(entities, false), entities.size());
+    }
+
+    /**
+     * Gets a page of unread messages from the database. Sorted by descending sent-at date.
+     * <p>
+     * A page may contain fewer messages than the limit while local changes are still being
+     * written to the database.
+     *
+     * @param offset The number of unread messages to skip.
+     * @param limit The max number of messages to return.
+     * @return List of sorted unread {@link Message}s.
+     */
+    @WorkerThread
+    @NonNull
+    public List<Message> getUnreadMessagesPage(int offset, int limit) {
+        return getPage(messageDao.getUnreadMessagesPage(System.currentTimeMillis(), limit, offset), true);
+    }
+
+    /**
+     * Converts a page of entities to messages, applying any local state that has not been
+     * written to the database yet. Messages already loaded in the inbox are reused.
+     */
+    @NonNull
+    private List<Message> getPage(@NonNull List<MessageEntity> entities, boolean unreadOnly) {
+        List<Message> messages = new ArrayList<>(entities.size());
+        synchronized (inboxLock) {
+            for (MessageEntity entity : entities) {
+                String messageId = entity.getMessageId();
+                if (deletedMessageIds.contains(messageId) || (unreadOnly && readMessages.containsKey(messageId))) {
+                    continue;
+                }
+
+                Message message = unreadMessages.get(messageId);
+                if (message == null) {
+                    message = readMessages.get(messageId);
+                }
+                if (message == null) {
+                    message = entity.createMessageFromEntity(entity);
+                }
+
+                if (message != null) {
+                    messages.add(message);
+                }
+            }
+        }
+        return messages;
+    }
+
     /**
      * Gets a list of unread RichPushMessages, filtered by the provided predicate.
      * Sorted by descending sent-at date.
@@ -686,7 +764,6 @@ public class Inbox {
             // Save the unreadMessageIds
             Set<String> previousUnreadMessageIds = new HashSet<>(unreadMessages.keySet());
             Set<String> previousReadMessageIds = new HashSet<>(readMessages.keySet());
-            Set<String> previousDeletedMessageIds = new HashSet<>(deletedMessageIds);
 
             // Clear the current messages
             unreadMessages.clear();
@@ -702,48 +779,122 @@ public class Inbox {
                     continue;
                 }
 
-                // Deleted
-                if (message.isDeleted() || previousDeletedMessageIds.contains(message.getMessageId())) {
-                    deletedMessageIds.add(message.getMessageId());
-                    continue;
-                }
+                putMessage(message,
+                        previousUnreadMessageIds.contains(message.getMessageId()),
+                        previousReadMessageIds.contains(message.getMessageId()));
+            }
+        }
 
-                // Expired
-                if (message.isExpired()) {
-                    deletedMessageIds.add(message.getMessageId());
-                    continue;
-                }
+        if (notify) {
+            notifyInboxUpdated();
+        }
 
-                // Populate message url map
-                messageUrlMap.put(message.getMessageBodyUrl(), message);
+    }
 
-                // Unread - check the previousUnreadMessageIds if any mark reads are still in process
-                if (previousUnreadMessageIds.contains(message.getMessageId())) {
-                    message.unreadClient = true;
-                    unreadMessages.put(message.getMessageId(), message);
-                    continue;
-                }
+    /**
+     * Applies the changes from an inbox update without reloading the unchanged messages from the DB.
+     *
+     * @param changes The inbox changes.
+     */
+    void applyChanges(@NonNull InboxChanges changes) {
+        synchronized (inboxLock) {
+            for (String messageId : changes.getRemovedMessageIds()) {
+                removeMessage(messageId);
+            }
 
-                // Read - check the previousUnreadMessageIds if any mark reads are still in process
-                if (previousReadMessageIds.contains(message.getMessageId())) {
-                    message.unreadClient = false;
-                    readMessages.put(message.getMessageId(), message);
+            for (MessageEntity messageEntity : changes.getUpdatedMessages()) {
+                Message message = messageEntity.createMessageFromEntity(messageEntity);
+
+                if (message == null) {
                     continue;
                 }
 
-                // Otherwise fallback to the current state
-                if (message.unreadClient) {
-                    unreadMessages.put(message.getMessageId(), message);
-                } else {
-                    readMessages.put(message.getMessageId(), message);
+                boolean wasUnread = unreadMessages.containsKey(message.getMessageId());
+                boolean wasRead = readMessages.containsKey(message.getMessageId());
+                removeMessage(message.getMessageId());
+                putMessage(message, wasUnread, wasRead);
+            }
+
+            // Messages may have expired since the last update
+            List<String> expiredMessageIds = new ArrayList<>();
+            for (Message message : unreadMessages.values()) {
+                if (message.isExpired()) {
+                    expiredMessageIds.add(message.getMessageId());
+                }
+            }
+            for (Message message : readMessages.values()) {
+                if (message.isExpired()) {
+                    expiredMessageIds.add(message.getMessageId());
                 }
             }
+            for (String messageId : expiredMessageIds) {
+                removeMessage(messageId);
+                deletedMessageIds.add(messageId);
+            }
         }
 
-        if (notify) {
-            notifyInboxUpdated();
+        notifyInboxUpdated();
+    }
+
+    /**
+     * Adds a message to the inbox maps. Must be called while holding the inbox lock.
+     *
+     * @param message The message.
+     * @param wasUnread If the message was previously unread in the inbox.
+     * @param wasRead If the message was previously read in the inbox.
+     */
+    private void putMessage(@NonNull Message message, boolean wasUnread, boolean wasRead) {
+        // Deleted
+        if (message.isDeleted() || deletedMessageIds.contains(message.getMessageId())) {
+            deletedMessageIds.add(message.getMessageId());
+            return;
+        }
+
+        // Expired
+        if (message.isExpired()) {
+            deletedMessageIds.add(message.getMessageId());
+            return;
+        }
+
+        // Populate message url map
+        messageUrlMap.put(message.getMessageBodyUrl(), message);
+
+        // Unread - check the previous state if any mark reads are still in process
+        if (wasUnread) {
+            message.unreadClient = true;
+            unreadMessages.put(message.getMessageId(), message);
+            return;
         }
 
+        // Read - check the previous state if any mark reads are still in process
+        if (wasRead) {
+            message.unreadClient = false;
+            readMessages.put(message.getMessageId(), message);
+            return;
+        }
+
+        // Otherwise fallback to the current state
+        if (message.unreadClient) {
+            unreadMessages.put(message.getMessageId(), message);
+        } else {
+            readMessages.put(message.getMessageId(), message);
+        }
+    }
+
+    /**
+     * Removes a message from the inbox maps. Must be called while holding the inbox lock.
+     *
+     * @param messageId The message ID.
+     */
+    private void removeMessage(@NonNull String messageId) {
+        Message message = unreadMessages.remove(messageId);
+        if (message == null) {
+            message = readMessages.remove(messageId);
+        }
+
+        if (message != null && messageUrlMap.get(message.getMessageBodyUrl()) == message) {
+            messageUrlMap.remove(message.getMessageBodyUrl());
+        }
     }
 
     /**
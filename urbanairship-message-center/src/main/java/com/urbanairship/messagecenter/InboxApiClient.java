@@ -15,8 +15,10 @@ import com.urbanairship.http.RequestBody;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.RequestSession;
 import com.urbanairship.http.Response;
+import com.urbanairship.http.StreamResponseParser;
 import com.urbanairship.json.JsonList;
 import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonStreamParser;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.UAHttpStatusUtil;
 
@@ -78,12 +80,12 @@ public class InboxApiClient {
                 headers
         );
 
-        return session.execute(request, (status, responseHeaders, responseBody) -> {
+        return session.execute(request, new StreamResponseParser<JsonList>((status, responseHeaders, responseStream) -> {
             if (!UAHttpStatusUtil.inSuccessRange(status)) {
                 return null;
             }
-            return JsonValue.parseString(responseBody).optMap().opt("messages").requireList();
-        });
+            return JsonStreamParser.parse(responseStream).optMap().opt("messages").requireList();
+        }));
     }
 
     Response<Void> syncDeletedMessageState(@NonNull User user, @NonNull String channelId, @NonNull List<JsonValue> reportingsToDelete) throws RequestException {
@@ -0,0 +1,52 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.messagecenter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Messages changed by an inbox update.
+ */
+class InboxChanges {
+
+    static final InboxChanges EMPTY = new InboxChanges(Collections.<MessageEntity>emptyList(), Collections.<String>emptyList());
+
+    private final List<MessageEntity> updatedMessages;
+    private final Collection<String> removedMessageIds;
+
+    /**
+     * Default constructor.
+     *
+     * @param updatedMessages The inserted or updated messages.
+     * @param removedMessageIds The IDs of the removed messages.
+     */
+    InboxChanges(@NonNull List<MessageEntity> updatedMessages, @NonNull Collection<String> removedMessageIds) {
+        this.updatedMessages = updatedMessages;
+        this.removedMessageIds = removedMessageIds;
+    }
+
+    /**
+     * Gets the inserted or updated messages.
+     *
+     * @return The messages.
+     */
+    @NonNull
+    List<MessageEntity> getUpdatedMessages() {
+        return updatedMessages;
+    }
+
+    /**
+     * Gets the IDs of the removed messages.
+     *
+     * @return The message IDs.
+     */
+    @NonNull
+    Collection<String> getRemovedMessageIds() {
+        return removedMessageIds;
+    }
+
+}
@@ -20,10 +20,13 @@ import com.urbanairship.util.UAStringUtil;
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 
@@ -134,9 +137,13 @@ class InboxJobHandler {
             UALog.d("User has not been created, canceling messages update");
             inbox.onUpdateMessagesFinished(false);
         } else {
-            boolean success = this.updateMessages();
-            inbox.refresh(true);
-            inbox.onUpdateMessagesFinished(success);
+            InboxChanges changes = this.updateMessages();
+            if (changes != null) {
+                inbox.applyChanges(changes);
+            } else {
+                inbox.refresh(true);
+            }
+            inbox.onUpdateMessagesFinished(changes != null);
             this.syncReadMessageState();
             this.syncDeletedMessageState();
         }
@@ -178,15 +185,16 @@ class InboxJobHandler {
     /**
      * Update the inbox messages.
      *
-     * @return <code>true</code> if messages were updated, otherwise <code>false</code>.
+     * @return The inbox changes, or <code>null</code> if the messages failed to update.
      */
-    private boolean updateMessages() {
+    @Nullable
+    private InboxChanges updateMessages() {
         UALog.i("Refreshing inbox messages.");
 
         String channelId = channel.getId();
         if (UAStringUtil.isEmpty(channelId)) {
             UALog.v("The channel ID does not exist.");
-            return false;
+            return null;
         }
 
         UALog.v("Fetching inbox messages.");
@@ -201,33 +209,43 @@ class InboxJobHandler {
             if (response.isSuccessful()) {
                 JsonList result = response.getResult();
                 UALog.i("InboxJobHandler - Received %s inbox messages.", response.getResult().size());
-                updateInbox(response.getResult());
+                InboxChanges changes = updateInbox(response.getResult());
                 dataStore.put(LAST_MESSAGE_REFRESH_TIME, response.getHeaders().get("Last-Modified"));
-                return true;
+                return changes;
             }
 
             // 304
             if (response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED) {
                 UALog.d("Inbox messages already up-to-date. ");
-                return true;
+                return InboxChanges.EMPTY;
             }
 
             UALog.d("Unable to update inbox messages %s.", response);
-            return false;
+            return null;
 
         } catch (RequestException e) {
             UALog.d(e, "Update Messages failed.");
-            return false;
+            return null;
         }
     }
 
     /**
      * Update the Rich Push Inbox.
+     * <p>
+     * Existing messages are loaded once and compared by their stored payload, so only new or
+     * changed messages are written and removed messages are deleted in a single transaction.
      *
      * @param serverMessages The messages from the server.
+     * @return The inbox changes.
      */
-    private void updateInbox(JsonList serverMessages) {
-        List<JsonValue> messagesToInsert = new ArrayList<>();
+    @NonNull
+    private InboxChanges updateInbox(JsonList serverMessages) {
+        Map<String, MessageEntity> existingMessages = new HashMap<>();
+        for (MessageEntity entity : messageDao.getMessages()) {
+            existingMessages.put(entity.getMessageId(), entity);
+        }
+
+        List<MessageEntity> updatedMessages = new ArrayList<>();
         HashSet<String> serverMessageIds = new HashSet<>();
 
         for (JsonValue message : serverMessages) {
@@ -251,19 +269,28 @@ class InboxJobHandler {
                 continue;
             }
 
-            if (!messageDao.messageExists(messageEntity.messageId)) {
-                messagesToInsert.add(message);
+            MessageEntity existing = existingMessages.get(messageId);
+            if (existing == null) {
+                updatedMessages.add(messageEntity);
+            } else if (!UAStringUtil.equals(existing.rawMessageObject, messageEntity.rawMessageObject)) {
+                // Only the payload is written, the local read and deleted state is kept by the DAO
+                messageEntity.id = existing.id;
+                messageEntity.unread = existing.unread;
+                messageEntity.unreadOrig = existing.unreadOrig;
+                messageEntity.deleted = existing.deleted;
+                updatedMessages.add(messageEntity);
             }
         }
 
-        // Bulk insert any new messages
-        if (messagesToInsert.size() > 0) {
-            messageDao.insertMessages(MessageEntity.createMessagesFromPayload(messagesToInsert));
+        List<String> deletedMessageIds = new ArrayList<>();
+        for (String messageId : existingMessages.keySet()) {
+            if (!serverMessageIds.contains(messageId)) {
+                deletedMessageIds.add(messageId);
+            }
         }
 
-        List<String> deletedMessageIds = messageDao.getMessageIds();
-        deletedMessageIds.removeAll(serverMessageIds);
-        messageDao.deleteMessages(deletedMessageIds);
+        messageDao.syncMessages(updatedMessages, deletedMessageIds);
+        return new InboxChanges(updatedMessages, deletedMessageIds);
     }
 
     /**
@@ -0,0 +1,48 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.messagecenter;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A page of inbox messages.
+ */
+class InboxPage {
+
+    private final List<Message> messages;
+    private final int rowCount;
+
+    /**
+     * Default constructor.
+     *
+     * @param messages The messages, without locally deleted messages.
+     * @param rowCount The number of rows read from the database for the page.
+     */
+    InboxPage(@NonNull List<Message> messages, int rowCount) {
+        this.messages = messages;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Gets the messages.
+     *
+     * @return The messages.
+     */
+    @NonNull
+    List<Message> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Gets the number of rows read from the database. Can be larger than the number of messages
+     * when messages were filtered out by local changes that are not written yet.
+     *
+     * @return The row count.
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+}
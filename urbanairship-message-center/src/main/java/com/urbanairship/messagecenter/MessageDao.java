@@ -3,6 +3,7 @@ package com.urbanairship.messagecenter;
 import com.urbanairship.UALog;
 import com.urbanairship.analytics.data.BatchedQueryHelper;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -49,6 +50,24 @@ public abstract class MessageDao {
         }
     }
 
+    public List<MessageEntity> getMessagesPage(long now, int limit, int offset) {
+        try {
+            return getMessagesPageInternal(now, limit, offset);
+        } catch (Exception e) {
+            UALog.e(e, "Failed to get messages page!");
+            return Collections.emptyList();
+        }
+    }
+
+    public List<MessageEntity> getUnreadMessagesPage(long now, int limit, int offset) {
+        try {
+            return getUnreadMessagesPageInternal(now, limit, offset);
+        } catch (Exception e) {
+            UALog.e(e, "Failed to get unread messages page!");
+            return Collections.emptyList();
+        }
+    }
+
     public List<String> getMessageIds() {
         try {
             return getMessageIdsInternal();
@@ -116,6 +135,14 @@ public abstract class MessageDao {
         }
     }
 
+    public void syncMessages(List<MessageEntity> messages, List<String> deletedMessageIds) {
+        try {
+            syncMessagesInternal(messages, deletedMessageIds);
+        } catch (Exception e) {
+            UALog.e(e, "Failed to sync messages!");
+        }
+    }
+
     public void deleteAllMessages() {
         try {
             deleteAllMessagesInternal();
@@ -144,6 +171,24 @@ public abstract class MessageDao {
     @Query("SELECT * FROM richpush")
     protected abstract List<MessageEntity> getMessagesInternal();
 
+    /**
+     * Pages through messages that are not deleted or expired, newest first. Ordered by the
+     * {@code sent_at} index so only the requested rows are read.
+     */
+    @Transaction
+    @Query("SELECT * FROM richpush WHERE deleted = 0 AND (expires_at IS NULL OR expires_at > :now) " +
+            "ORDER BY sent_at DESC, _id DESC LIMIT :limit OFFSET :offset")
+    protected abstract List<MessageEntity> getMessagesPageInternal(long now, int limit, int offset);
+
+    /**
+     * Pages through unread messages that are not deleted or expired, newest first. Ordered by the
+     * {@code unread, sent_at} index so only the requested rows are read.
+     */
+    @Transaction
+    @Query("SELECT * FROM richpush WHERE unread = 1 AND deleted = 0 AND (expires_at IS NULL OR expires_at > :now) " +
+            "ORDER BY sent_at DESC, _id DESC LIMIT :limit OFFSET :offset")
+    protected abstract List<MessageEntity> getUnreadMessagesPageInternal(long now, int limit, int offset);
+
     @Transaction
     @Query("SELECT message_id FROM richpush")
     protected abstract List<String> getMessageIdsInternal();
@@ -186,6 +231,40 @@ public abstract class MessageDao {
     @Query("DELETE FROM richpush WHERE message_id IN (:messageIds)")
     protected abstract void deleteMessagesBatchInternal(List<String> messageIds);
 
+    /**
+     * Inserts new messages and updates the payload of existing ones, leaving their local
+     * read and deleted state as is, then deletes the removed messages.
+     */
+    @Transaction
+    protected void syncMessagesInternal(List<MessageEntity> messages, List<String> deletedMessageIds) {
+        List<MessageEntity> newMessages = new ArrayList<>();
+        for (MessageEntity message : messages) {
+            int updated = updateMessagePayloadInternal(message.messageId, message.messageUrl,
+                    message.messageBodyUrl, message.messageReadUrl, message.title, message.extra,
+                    message.timestamp, message.rawMessageObject, message.expirationTimestamp,
+                    message.sentAt, message.expiresAt);
+            if (updated == 0) {
+                newMessages.add(message);
+            }
+        }
+
+        if (!newMessages.isEmpty()) {
+            insertMessagesInternal(newMessages);
+        }
+        if (!deletedMessageIds.isEmpty()) {
+            deleteMessagesInternal(deletedMessageIds);
+        }
+    }
+
+    @Query("UPDATE richpush SET message_url = :messageUrl, message_body_url = :messageBodyUrl, " +
+            "message_read_url = :messageReadUrl, title = :title, extra = :extra, timestamp = :timestamp, " +
+            "raw_message_object = :rawMessageObject, expiration_timestamp = :expirationTimestamp, " +
+            "sent_at = :sentAt, expires_at = :expiresAt WHERE message_id = :messageId")
+    protected abstract int updateMessagePayloadInternal(String messageId, String messageUrl, String messageBodyUrl,
+                                                        String messageReadUrl, String title, String extra,
+                                                        String timestamp, String rawMessageObject,
+                                                        String expirationTimestamp, long sentAt, Long expiresAt);
+
     @Transaction
     @Query("DELETE FROM richpush")
     protected abstract void deleteAllMessagesInternal();
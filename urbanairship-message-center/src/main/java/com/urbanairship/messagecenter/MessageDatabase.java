@@ -2,7 +2,10 @@
 
 package com.urbanairship.messagecenter;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import com.urbanairship.AirshipConfigOptions;
 import com.urbanairship.db.RetryingSQLiteOpenHelper;
@@ -17,13 +20,14 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
 /**
  * Message database
  */
 @Database(
-    version = 5,
+    version = 6,
     entities = { MessageEntity.class }
 )
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
@@ -44,6 +48,8 @@ public abstract class MessageDatabase extends RoomDatabase {
     static final String TIMESTAMP = "timestamp";
     static final String RAW_MESSAGE = "raw_message_object";
     static final String EXPIRATION = "expiration_timestamp";
+    static final String SENT_AT = "sent_at";
+    static final String EXPIRES_AT = "expires_at";
 
     private static final String DB_DIR = "com.urbanairship.databases";
 
@@ -54,6 +60,30 @@ public abstract class MessageDatabase extends RoomDatabase {
     static final Migration MIGRATION_3_5 = new MessageDatabaseMultiMigration(3, 5);
     static final Migration MIGRATION_4_5 = new MessageDatabaseMultiMigration(4, 5);
 
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + SENT_AT + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + EXPIRES_AT + " INTEGER");
+
+            // Backfill the sortable dates from the stored timestamps
+            Cursor cursor = db.query("SELECT " + KEY + ", " + TIMESTAMP + ", " + EXPIRATION + " FROM " + TABLE_NAME);
+            try {
+                while (cursor.moveToNext()) {
+                    ContentValues values = new ContentValues();
+                    values.put(SENT_AT, MessageEntity.parseSentAt(cursor.getString(1)));
+                    values.put(EXPIRES_AT, MessageEntity.parseExpiresAt(cursor.getString(2)));
+                    db.update(TABLE_NAME, SQLiteDatabase.CONFLICT_NONE, values, KEY + " = ?", new Object[] { cursor.getInt(0) });
+                }
+            } finally {
+                cursor.close();
+            }
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_richpush_sent_at` ON `" + TABLE_NAME + "` (`" + SENT_AT + "`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_richpush_unread_sent_at` ON `" + TABLE_NAME + "` (`" + UNREAD + "`, `" + SENT_AT + "`)");
+        }
+    };
+
     public static MessageDatabase createDatabase(@NonNull Context context, @NonNull AirshipConfigOptions config) {
         String name = config.appKey + "_" + DB_NAME;
         File urbanAirshipNoBackupDirectory = new File(ContextCompat.getNoBackupFilesDir(context), DB_DIR);
@@ -63,7 +93,7 @@ public abstract class MessageDatabase extends RoomDatabase {
 
         return Room.databaseBuilder(context, MessageDatabase.class, path)
             .openHelperFactory(retryingOpenHelperFactory)
-            .addMigrations(MIGRATION_1_5, MIGRATION_2_5, MIGRATION_3_5, MIGRATION_4_5)
+            .addMigrations(MIGRATION_1_5, MIGRATION_2_5, MIGRATION_3_5, MIGRATION_4_5, MIGRATION_5_6)
             .fallbackToDestructiveMigration()
             .build();
     }
@@ -4,6 +4,7 @@ import com.urbanairship.UALog;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.DateUtils;
 import com.urbanairship.util.UAStringUtil;
 
 import java.util.ArrayList;
@@ -18,7 +19,9 @@ import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 @Entity(tableName = "richpush", indices = {
-    @Index(value = {"message_id"}, unique = true)
+    @Index(value = {"message_id"}, unique = true),
+    @Index(value = {"sent_at"}),
+    @Index(value = {"unread", "sent_at"})
 })
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class MessageEntity {
@@ -46,6 +49,10 @@ public class MessageEntity {
     public String rawMessageObject;
     @ColumnInfo(name = "expiration_timestamp")
     public String expirationTimestamp;
+    @ColumnInfo(name = "sent_at")
+    public long sentAt;
+    @ColumnInfo(name = "expires_at")
+    public Long expiresAt;
 
     public MessageEntity(String messageId, String messageUrl, String messageBodyUrl,
                          String messageReadUrl, String title, String extra, boolean unread,
@@ -79,7 +86,7 @@ public class MessageEntity {
             return null;
         }
 
-        return new MessageEntity(
+        MessageEntity entity = new MessageEntity(
                 messageId != null ? messageId : messageMap.opt(Message.MESSAGE_ID_KEY).getString(),
                 messageMap.opt(Message.MESSAGE_URL_KEY).getString(),
                 messageMap.opt(Message.MESSAGE_BODY_URL_KEY).getString(),
@@ -92,6 +99,37 @@ public class MessageEntity {
                 messageMap.opt(Message.MESSAGE_SENT_KEY).getString(),
                 messageMap.toString(),
                 messageMap.containsKey(Message.MESSAGE_EXPIRY_KEY) ? messageMap.opt(Message.MESSAGE_EXPIRY_KEY).getString() : null);
+
+        entity.sentAt = parseSentAt(entity.timestamp);
+        entity.expiresAt = parseExpiresAt(entity.expirationTimestamp);
+        return entity;
+    }
+
+    /**
+     * Parses the sent date the same way as {@link Message} so paged queries sort in the same order.
+     *
+     * @param timestamp The message sent timestamp.
+     * @return The sent date in milliseconds.
+     */
+    static long parseSentAt(@Nullable String timestamp) {
+        if (UAStringUtil.isEmpty(timestamp)) {
+            return System.currentTimeMillis();
+        }
+        return DateUtils.parseIso8601(timestamp, System.currentTimeMillis());
+    }
+
+    /**
+     * Parses the expiration date the same way as {@link Message}.
+     *
+     * @param expirationTimestamp The message expiration timestamp.
+     * @return The expiration date in milliseconds, or {@code null} if the message does not expire.
+     */
+    @Nullable
+    static Long parseExpiresAt(@Nullable String expirationTimestamp) {
+        if (UAStringUtil.isEmpty(expirationTimestamp)) {
+            return null;
+        }
+        return DateUtils.parseIso8601(expirationTimestamp, Long.MAX_VALUE);
     }
 
     @NonNull
@@ -7,6 +7,8 @@ import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,12 +16,14 @@ import android.widget.AbsListView;
 import android.widget.ListView;
 import android.widget.TextView;
 
+import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Cancelable;
 import com.urbanairship.Predicate;
 import com.urbanairship.util.ViewUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.CallSuper;
 import androidx.annotation.DrawableRes;
@@ -64,19 +68,95 @@ public class MessageListFragment extends Fragment {
 
     private final InboxListener inboxListener = this::updateAdapterMessages;
 
+    private static final int PAGE_SIZE = 50;
+
+    private final Executor pageExecutor = AirshipExecutors.newSerialExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int pageGeneration = 0;
+    private int loadedCount = 0;
+    private boolean hasMorePages = true;
+    private boolean isLoadingPage = false;
+
     /**
-     * Gets messages from the inbox filtered by the local predicate
-     *
-     * @return The filtered list of messages.
+     * Reloads the messages that are currently shown, at least one page.
      */
-    private List<Message> getMessages() {
-        return inbox.getMessages(predicate);
+    private void updateAdapterMessages() {
+        loadMessages(0, Math.max(PAGE_SIZE, loadedCount));
     }
 
-    private void updateAdapterMessages() {
-        if (getAdapter() != null) {
-            getAdapter().set(getMessages());
+    /**
+     * Loads the next page of messages if there is one.
+     */
+    private void loadNextPage() {
+        if (isLoadingPage || !hasMorePages) {
+            return;
         }
+        loadMessages(loadedCount, PAGE_SIZE);
+    }
+
+    /**
+     * Loads a page of messages from the inbox filtered by the local predicate. Pages are read on a
+     * background thread and applied on the main thread. Since the predicate can filter out whole
+     * pages, rows are read until at least a page of messages passes the predicate or the inbox runs
+     * out of rows. Loading from the start replaces the adapter messages and discards any page that
+     * is still loading.
+     *
+     * @param offset The offset.
+     * @param limit The number of rows to read first.
+     */
+    private void loadMessages(final int offset, final int limit) {
+        final MessageViewAdapter adapter = getAdapter();
+        if (adapter == null || inbox == null) {
+            return;
+        }
+
+        if (offset == 0) {
+            pageGeneration++;
+        }
+
+        final int generation = pageGeneration;
+        final Predicate<Message> predicate = this.predicate;
+        isLoadingPage = true;
+
+        pageExecutor.execute(() -> {
+            List<Message> messages = new ArrayList<>();
+            int readCount = 0;
+            int pageLimit = limit;
+            boolean hasMore;
+
+            do {
+                InboxPage page = inbox.loadMessagesPage(offset + readCount, pageLimit);
+                for (Message message : page.getMessages()) {
+                    if (predicate == null || predicate.apply(message)) {
+                        messages.add(message);
+                    }
+                }
+
+                // Rows filtered out by local changes still count towards the page
+                readCount += pageLimit;
+                hasMore = page.getRowCount() >= pageLimit;
+                pageLimit = PAGE_SIZE;
+            } while (hasMore && messages.size() < PAGE_SIZE);
+
+            final int loaded = offset + readCount;
+            final boolean hasMoreRows = hasMore;
+
+            mainHandler.post(() -> {
+                if (generation != pageGeneration) {
+                    return;
+                }
+
+                isLoadingPage = false;
+                hasMorePages = hasMoreRows;
+                loadedCount = loaded;
+
+                if (offset == 0) {
+                    adapter.set(messages);
+                } else {
+                    adapter.add(messages);
+                }
+            });
+        });
     }
 
     @Override
@@ -167,6 +247,20 @@ public class MessageListFragment extends Fragment {
             absListView.setAdapter(getAdapter());
         }
 
+        // Load the next page before reaching the end of the list
+        absListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (totalItemCount > 0 && firstVisibleItem + visibleItemCount >= totalItemCount - PAGE_SIZE / 2) {
+                    loadNextPage();
+                }
+            }
+        });
+
         // Pull to refresh
         refreshLayout = view.findViewById(R.id.swipe_container);
         if (refreshLayout != null) {
@@ -394,6 +488,7 @@ public class MessageListFragment extends Fragment {
     void setPredicate(Predicate<Message> predicate) {
         this.predicate = predicate;
         if (getAdapter() != null) {
+            loadedCount = 0;
             updateAdapterMessages();
         }
     }
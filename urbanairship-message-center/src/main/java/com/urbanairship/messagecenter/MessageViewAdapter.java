@@ -99,6 +99,23 @@ public abstract class MessageViewAdapter extends BaseAdapter {
         notifyDataSetChanged();
     }
 
+    /**
+     * Adds the collection to the end of the current items in the adapter.
+     *
+     * @param collection Collection of items
+     */
+    public void add(@NonNull Collection<Message> collection) {
+        if (collection.isEmpty()) {
+            return;
+        }
+
+        synchronized (items) {
+            items.addAll(collection);
+        }
+
+        notifyDataSetChanged();
+    }
+
     /**
      * Returns the context.
      *
@@ -19,11 +19,13 @@ import com.urbanairship.json.JsonValue;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -180,7 +182,7 @@ public class InboxJobHandlerTest {
         assertEquals("some other last modified", dataStore.getString(InboxJobHandler.LAST_MESSAGE_REFRESH_TIME, null));
 
         // Verify we updated the inbox
-        verify(inbox).refresh(true);
+        verify(inbox).applyChanges(any(InboxChanges.class));
     }
 
     /**
@@ -226,7 +228,60 @@ public class InboxJobHandlerTest {
         verify(inbox).onUpdateMessagesFinished(true);
 
         // Verify we updated the inbox
-        verify(inbox).refresh(true);
+        ArgumentCaptor<InboxChanges> changes = ArgumentCaptor.forClass(InboxChanges.class);
+        verify(inbox).applyChanges(changes.capture());
+        assertEquals(1, changes.getValue().getUpdatedMessages().size());
+        assertEquals("some_mesg_id", changes.getValue().getUpdatedMessages().get(0).getMessageId());
+    }
+
+    /**
+     * Test updateMessages only writes new or changed messages and keeps the local message state.
+     */
+    @Test
+    public void testUpdateMessagesChanges() throws RequestException, JsonException {
+        // Set a valid user
+        user.setUser("fakeUserId", "password");
+
+        // Set a channel ID
+        when(mockChannel.getId()).thenReturn("channelId");
+
+        JsonValue unchanged = createFakeMessageJson("unchanged", "title");
+        JsonValue changed = createFakeMessageJson("changed", "new title");
+        JsonValue added = createFakeMessageJson("added", "title");
+
+        MessageEntity changedEntity = MessageEntity.createMessageFromPayload("changed", createFakeMessageJson("changed", "title"));
+        changedEntity.unread = false;
+
+        List<MessageEntity> existing = new ArrayList<>();
+        existing.add(MessageEntity.createMessageFromPayload("unchanged", unchanged));
+        existing.add(changedEntity);
+        existing.add(MessageEntity.createMessageFromPayload("removed", createFakeMessageJson("removed", "title")));
+        when(mockMessageDao.getMessages()).thenReturn(existing);
+
+        JsonList messages = new JsonList(Arrays.asList(unchanged, changed, added));
+        when(mockInboxApiClient.fetchMessages(user, "channelId", null))
+                .thenReturn(new Response<>(HttpURLConnection.HTTP_OK, messages, messages.toString(), Collections.emptyMap()));
+
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(InboxJobHandler.ACTION_RICH_PUSH_MESSAGES_UPDATE)
+                                 .build();
+
+        assertEquals(JobResult.SUCCESS, jobHandler.performJob(jobInfo));
+
+        ArgumentCaptor<InboxChanges> changes = ArgumentCaptor.forClass(InboxChanges.class);
+        verify(inbox).applyChanges(changes.capture());
+
+        // Only the changed and added messages are written, the changed message keeps its read state
+        List<MessageEntity> updated = changes.getValue().getUpdatedMessages();
+        assertEquals(2, updated.size());
+        assertEquals("changed", updated.get(0).getMessageId());
+        assertEquals("new title", updated.get(0).title);
+        assertFalse(updated.get(0).unread);
+        assertEquals("added", updated.get(1).getMessageId());
+
+        assertEquals(Collections.singletonList("removed"), new ArrayList<>(changes.getValue().getRemovedMessageIds()));
+        verify(mockMessageDao).syncMessages(updated, Collections.singletonList("removed"));
+        verify(inbox, never()).refresh(true);
     }
 
     /**
@@ -716,6 +771,14 @@ public class InboxJobHandlerTest {
         return Message.create(messageJson, unread, deleted);
     }
 
+    private JsonValue createFakeMessageJson(String messageId, String title) throws JsonException {
+        return JsonValue.parseString("{\"message_id\": \"" + messageId + "\"," +
+                "\"message_body_url\": \"https://go.urbanairship.com/api/user/userId/messages/message/" + messageId + "/body/\"," +
+                "\"message_reporting\": { \"message_id\": \"" + messageId + "\" }," +
+                "\"unread\": true, \"message_sent\": \"2010-09-05 12:13 -0000\"," +
+                "\"title\": \"" + title + "\"}");
+    }
+
     /**
      * Listener that captures the last update user result
      */
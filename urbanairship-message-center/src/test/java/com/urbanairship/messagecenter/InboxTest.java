@@ -46,6 +46,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import static junit.framework.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.clearInvocations;
@@ -454,6 +455,53 @@ public class InboxTest {
         Assert.assertEquals(filteredMessages.size(), inbox.getCount() / 2);
     }
 
+    /**
+     * Test message pages reuse loaded messages and skip messages with pending local changes.
+     */
+    @Test
+    public void testGetMessagesPage() {
+        Set<String> deletedIds = new HashSet<>();
+        deletedIds.add("2_message_id");
+        inbox.deleteMessages(deletedIds);
+
+        Set<String> readIds = new HashSet<>();
+        readIds.add("3_message_id");
+        inbox.markMessagesRead(readIds);
+
+        List<MessageEntity> page = messageEntities.subList(0, 4);
+        when(mockMessageDao.getMessagesPage(Mockito.anyLong(), Mockito.eq(4), Mockito.eq(0))).thenReturn(page);
+        when(mockMessageDao.getUnreadMessagesPage(Mockito.anyLong(), Mockito.eq(4), Mockito.eq(0))).thenReturn(page);
+
+        List<Message> messages = inbox.getMessagesPage(0, 4);
+        assertEquals(3, messages.size());
+        assertSame(inbox.getMessage("1_message_id"), messages.get(0));
+        assertEquals("3_message_id", messages.get(1).getMessageId());
+        assertTrue(messages.get(1).isRead());
+
+        List<Message> unreadMessages = inbox.getUnreadMessagesPage(0, 4);
+        assertEquals(2, unreadMessages.size());
+        assertEquals("1_message_id", unreadMessages.get(0).getMessageId());
+        assertEquals("4_message_id", unreadMessages.get(1).getMessageId());
+    }
+
+    /**
+     * Test the page row count includes messages filtered out by pending local changes.
+     */
+    @Test
+    public void testLoadMessagesPageRowCount() {
+        Set<String> deletedIds = new HashSet<>();
+        deletedIds.add("1_message_id");
+        deletedIds.add("2_message_id");
+        inbox.deleteMessages(deletedIds);
+
+        List<MessageEntity> page = messageEntities.subList(0, 2);
+        when(mockMessageDao.getMessagesPage(Mockito.anyLong(), Mockito.eq(2), Mockito.eq(0))).thenReturn(page);
+
+        InboxPage inboxPage = inbox.loadMessagesPage(0, 2);
+        assertTrue(inboxPage.getMessages().isEmpty());
+        assertEquals(2, inboxPage.getRowCount());
+    }
+
     @Test
     public void testGetUnreadMessages() {
         Set<String> messageIds = new HashSet<>();
@@ -16,6 +16,8 @@ import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public class MessageDaoTest {
@@ -137,6 +139,78 @@ public class MessageDaoTest {
         assertEquals(0, messageDao.getMessages().size());
     }
 
+    @Test
+    public void testSyncMessages() {
+        messageDao.insert(ENTITY);
+
+        List<MessageEntity> messages = new ArrayList<>();
+        messages.add(ENTITY2);
+        List<String> deletedIds = new ArrayList<>();
+        deletedIds.add(messageId);
+        messageDao.syncMessages(messages, deletedIds);
+
+        List<MessageEntity> messageEntities = messageDao.getMessages();
+        assertEquals(1, messageEntities.size());
+        assertEquals(messageId2, messageEntities.get(0).messageId);
+    }
+
+    @Test
+    public void testSyncMessagesKeepsLocalState() {
+        messageDao.insert(ENTITY);
+
+        // Marked read and deleted after the sync took its snapshot
+        List<String> messageIds = new ArrayList<>();
+        messageIds.add(messageId);
+        messageDao.markMessagesRead(messageIds);
+        messageDao.markMessagesDeleted(messageIds);
+
+        MessageEntity updated = MessageEntity.createMessageFromPayload(messageId, messageJson2);
+        List<MessageEntity> messages = new ArrayList<>();
+        messages.add(updated);
+        messageDao.syncMessages(messages, new ArrayList<String>());
+
+        List<MessageEntity> messageEntities = messageDao.getMessages();
+        assertEquals(1, messageEntities.size());
+        assertEquals(messageTitle2, messageEntities.get(0).title);
+        assertFalse(messageEntities.get(0).unread);
+        assertTrue(messageEntities.get(0).deleted);
+    }
+
+    @Test
+    public void testGetMessagesPage() {
+        for (int i = 0; i < 5; i++) {
+            MessageEntity entity = MessageEntity.createMessageFromPayload("message_" + i, messageJson);
+            entity.sentAt = i;
+            entity.unread = i % 2 == 0;
+            messageDao.insert(entity);
+        }
+
+        MessageEntity expired = MessageEntity.createMessageFromPayload("expired", messageJson);
+        expired.sentAt = 100;
+        expired.expiresAt = 1L;
+        messageDao.insert(expired);
+
+        List<String> deletedIds = new ArrayList<>();
+        deletedIds.add("message_3");
+        messageDao.markMessagesDeleted(deletedIds);
+
+        List<MessageEntity> page = messageDao.getMessagesPage(10, 2, 0);
+        assertEquals(2, page.size());
+        assertEquals("message_4", page.get(0).messageId);
+        assertEquals("message_2", page.get(1).messageId);
+
+        page = messageDao.getMessagesPage(10, 2, 2);
+        assertEquals(2, page.size());
+        assertEquals("message_1", page.get(0).messageId);
+        assertEquals("message_0", page.get(1).messageId);
+
+        page = messageDao.getUnreadMessagesPage(10, 10, 0);
+        assertEquals(3, page.size());
+        assertEquals("message_4", page.get(0).messageId);
+        assertEquals("message_2", page.get(1).messageId);
+        assertEquals("message_0", page.get(2).messageId);
+    }
+
     @SuppressWarnings("SameParameterValue")
     private List<String> insertMessages(int count) {
         List<String> messageIds = new ArrayList<>();